@@ -1,5 +1,12 @@
 package com.jhipster.blog.config;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -10,4 +17,1559 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
 public class ApplicationProperties {
+
+    private final Gateway gateway = new Gateway();
+
+    public Gateway getGateway() {
+        return gateway;
+    }
+
+    public static class Gateway {
+
+        private final RateLimiting rateLimiting = new RateLimiting();
+
+        private final SwaggerDocsCache swaggerDocsCache = new SwaggerDocsCache();
+
+        private final ResponseCache responseCache = new ResponseCache();
+
+        private final RequestCoalescing requestCoalescing = new RequestCoalescing();
+
+        private final RouteMetrics routeMetrics = new RouteMetrics();
+
+        private final LoadBalancing loadBalancing = new LoadBalancing();
+
+        private final ConcurrencyLimit concurrencyLimit = new ConcurrencyLimit();
+
+        private final Hedging hedging = new Hedging();
+
+        private final RetryBudget retryBudget = new RetryBudget();
+
+        private final OutlierDetection outlierDetection = new OutlierDetection();
+
+        private final AdaptiveTimeouts adaptiveTimeouts = new AdaptiveTimeouts();
+
+        private final LoadShedding loadShedding = new LoadShedding();
+
+        private final FairQueuing fairQueuing = new FairQueuing();
+
+        private final StreamingUpload streamingUpload = new StreamingUpload();
+
+        private final ResponsePassthrough responsePassthrough = new ResponsePassthrough();
+
+        private final ResponseCompression responseCompression = new ResponseCompression();
+
+        private final StickyRouting stickyRouting = new StickyRouting();
+
+        private final ZoneAffinity zoneAffinity = new ZoneAffinity();
+
+        private final ConnectionPools connectionPools = new ConnectionPools();
+
+        private final Batch batch = new Batch();
+
+        private final Aggregation aggregation = new Aggregation();
+
+        public RateLimiting getRateLimiting() {
+            return rateLimiting;
+        }
+
+        public SwaggerDocsCache getSwaggerDocsCache() {
+            return swaggerDocsCache;
+        }
+
+        public ResponseCache getResponseCache() {
+            return responseCache;
+        }
+
+        public RequestCoalescing getRequestCoalescing() {
+            return requestCoalescing;
+        }
+
+        public RouteMetrics getRouteMetrics() {
+            return routeMetrics;
+        }
+
+        public LoadBalancing getLoadBalancing() {
+            return loadBalancing;
+        }
+
+        public ConcurrencyLimit getConcurrencyLimit() {
+            return concurrencyLimit;
+        }
+
+        public Hedging getHedging() {
+            return hedging;
+        }
+
+        public RetryBudget getRetryBudget() {
+            return retryBudget;
+        }
+
+        public OutlierDetection getOutlierDetection() {
+            return outlierDetection;
+        }
+
+        public AdaptiveTimeouts getAdaptiveTimeouts() {
+            return adaptiveTimeouts;
+        }
+
+        public LoadShedding getLoadShedding() {
+            return loadShedding;
+        }
+
+        public FairQueuing getFairQueuing() {
+            return fairQueuing;
+        }
+
+        public StreamingUpload getStreamingUpload() {
+            return streamingUpload;
+        }
+
+        public ResponsePassthrough getResponsePassthrough() {
+            return responsePassthrough;
+        }
+
+        public ResponseCompression getResponseCompression() {
+            return responseCompression;
+        }
+
+        public StickyRouting getStickyRouting() {
+            return stickyRouting;
+        }
+
+        public ZoneAffinity getZoneAffinity() {
+            return zoneAffinity;
+        }
+
+        public ConnectionPools getConnectionPools() {
+            return connectionPools;
+        }
+
+        public Batch getBatch() {
+            return batch;
+        }
+
+        public Aggregation getAggregation() {
+            return aggregation;
+        }
+
+        public static class RateLimiting {
+
+            private boolean enabled = false;
+
+            private int localBatchSize = 10;
+
+            private int maxBuckets = 10_000;
+
+            private final Limit user = new Limit(100_000L, 3600);
+
+            private final Limit ip = new Limit(100_000L, 3600);
+
+            private final Limit route = new Limit(0L, 1);
+
+            private Map<String, Limit> routes = new LinkedHashMap<>();
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getLocalBatchSize() {
+                return localBatchSize;
+            }
+
+            public void setLocalBatchSize(int localBatchSize) {
+                this.localBatchSize = localBatchSize;
+            }
+
+            public int getMaxBuckets() {
+                return maxBuckets;
+            }
+
+            public void setMaxBuckets(int maxBuckets) {
+                this.maxBuckets = maxBuckets;
+            }
+
+            public Limit getUser() {
+                return user;
+            }
+
+            public Limit getIp() {
+                return ip;
+            }
+
+            public Limit getRoute() {
+                return route;
+            }
+
+            public Map<String, Limit> getRoutes() {
+                return routes;
+            }
+
+            public void setRoutes(Map<String, Limit> routes) {
+                this.routes = routes;
+            }
+        }
+
+        public static class SwaggerDocsCache {
+
+            private boolean enabled = true;
+
+            private int connectTimeoutInMilliseconds = 5000;
+
+            private int readTimeoutInMilliseconds = 10000;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getConnectTimeoutInMilliseconds() {
+                return connectTimeoutInMilliseconds;
+            }
+
+            public void setConnectTimeoutInMilliseconds(int connectTimeoutInMilliseconds) {
+                this.connectTimeoutInMilliseconds = connectTimeoutInMilliseconds;
+            }
+
+            public int getReadTimeoutInMilliseconds() {
+                return readTimeoutInMilliseconds;
+            }
+
+            public void setReadTimeoutInMilliseconds(int readTimeoutInMilliseconds) {
+                this.readTimeoutInMilliseconds = readTimeoutInMilliseconds;
+            }
+        }
+
+        public static class ResponseCache {
+
+            private boolean enabled = false;
+
+            private List<String> routes = new ArrayList<>();
+
+            private long heapSizeInMegabytes = 16;
+
+            private long offHeapSizeInMegabytes = 64;
+
+            private int maxEntrySizeInBytes = 1024 * 1024;
+
+            private long timeToLiveInSeconds = 3600;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public List<String> getRoutes() {
+                return routes;
+            }
+
+            public void setRoutes(List<String> routes) {
+                this.routes = routes;
+            }
+
+            public long getHeapSizeInMegabytes() {
+                return heapSizeInMegabytes;
+            }
+
+            public void setHeapSizeInMegabytes(long heapSizeInMegabytes) {
+                this.heapSizeInMegabytes = heapSizeInMegabytes;
+            }
+
+            public long getOffHeapSizeInMegabytes() {
+                return offHeapSizeInMegabytes;
+            }
+
+            public void setOffHeapSizeInMegabytes(long offHeapSizeInMegabytes) {
+                this.offHeapSizeInMegabytes = offHeapSizeInMegabytes;
+            }
+
+            public int getMaxEntrySizeInBytes() {
+                return maxEntrySizeInBytes;
+            }
+
+            public void setMaxEntrySizeInBytes(int maxEntrySizeInBytes) {
+                this.maxEntrySizeInBytes = maxEntrySizeInBytes;
+            }
+
+            public long getTimeToLiveInSeconds() {
+                return timeToLiveInSeconds;
+            }
+
+            public void setTimeToLiveInSeconds(long timeToLiveInSeconds) {
+                this.timeToLiveInSeconds = timeToLiveInSeconds;
+            }
+        }
+
+        public static class RequestCoalescing {
+
+            private boolean enabled = false;
+
+            private List<String> routes = new ArrayList<>();
+
+            private List<String> keyHeaders = new ArrayList<>(Arrays.asList("Accept", "Accept-Language"));
+
+            private long maxWaitInMilliseconds = 1000;
+
+            private int maxBodySizeInBytes = 1024 * 1024;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public List<String> getRoutes() {
+                return routes;
+            }
+
+            public void setRoutes(List<String> routes) {
+                this.routes = routes;
+            }
+
+            public List<String> getKeyHeaders() {
+                return keyHeaders;
+            }
+
+            public void setKeyHeaders(List<String> keyHeaders) {
+                this.keyHeaders = keyHeaders;
+            }
+
+            public long getMaxWaitInMilliseconds() {
+                return maxWaitInMilliseconds;
+            }
+
+            public void setMaxWaitInMilliseconds(long maxWaitInMilliseconds) {
+                this.maxWaitInMilliseconds = maxWaitInMilliseconds;
+            }
+
+            public int getMaxBodySizeInBytes() {
+                return maxBodySizeInBytes;
+            }
+
+            public void setMaxBodySizeInBytes(int maxBodySizeInBytes) {
+                this.maxBodySizeInBytes = maxBodySizeInBytes;
+            }
+        }
+
+        public static class RouteMetrics {
+
+            private boolean enabled = true;
+
+            private int maxRoutes = 100;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getMaxRoutes() {
+                return maxRoutes;
+            }
+
+            public void setMaxRoutes(int maxRoutes) {
+                this.maxRoutes = maxRoutes;
+            }
+        }
+
+        public static class LoadBalancing {
+
+            private final LatencyAware latencyAware = new LatencyAware();
+
+            private Map<String, LatencyAware> services = new LinkedHashMap<>();
+
+            public LatencyAware getLatencyAware() {
+                return latencyAware;
+            }
+
+            public Map<String, LatencyAware> getServices() {
+                return services;
+            }
+
+            public void setServices(Map<String, LatencyAware> services) {
+                this.services = services;
+            }
+
+            /**
+             * Settings of the latency-aware load balancing of a service.
+             */
+            public static class LatencyAware {
+
+                private boolean enabled = false;
+
+                private long decayTimeInMilliseconds = 10_000;
+
+                public boolean isEnabled() {
+                    return enabled;
+                }
+
+                public void setEnabled(boolean enabled) {
+                    this.enabled = enabled;
+                }
+
+                public long getDecayTimeInMilliseconds() {
+                    return decayTimeInMilliseconds;
+                }
+
+                public void setDecayTimeInMilliseconds(long decayTimeInMilliseconds) {
+                    this.decayTimeInMilliseconds = decayTimeInMilliseconds;
+                }
+            }
+        }
+
+        public static class ConcurrencyLimit {
+
+            private boolean enabled = false;
+
+            private final Limits route = new Limits();
+
+            private Map<String, Limits> routes = new LinkedHashMap<>();
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public Limits getRoute() {
+                return route;
+            }
+
+            public Map<String, Limits> getRoutes() {
+                return routes;
+            }
+
+            public void setRoutes(Map<String, Limits> routes) {
+                this.routes = routes;
+            }
+
+            /**
+             * Settings of the adaptive concurrency limit of a route.
+             */
+            public static class Limits {
+
+                private int initialLimit = 500;
+
+                private int minLimit = 5;
+
+                private int maxLimit = 500;
+
+                private double rttTolerance = 1.5;
+
+                private double smoothing = 0.2;
+
+                public int getInitialLimit() {
+                    return initialLimit;
+                }
+
+                public void setInitialLimit(int initialLimit) {
+                    this.initialLimit = initialLimit;
+                }
+
+                public int getMinLimit() {
+                    return minLimit;
+                }
+
+                public void setMinLimit(int minLimit) {
+                    this.minLimit = minLimit;
+                }
+
+                public int getMaxLimit() {
+                    return maxLimit;
+                }
+
+                public void setMaxLimit(int maxLimit) {
+                    this.maxLimit = maxLimit;
+                }
+
+                public double getRttTolerance() {
+                    return rttTolerance;
+                }
+
+                public void setRttTolerance(double rttTolerance) {
+                    this.rttTolerance = rttTolerance;
+                }
+
+                public double getSmoothing() {
+                    return smoothing;
+                }
+
+                public void setSmoothing(double smoothing) {
+                    this.smoothing = smoothing;
+                }
+            }
+        }
+
+        public static class Hedging {
+
+            private boolean enabled = false;
+
+            private List<String> routes = new ArrayList<>();
+
+            private double percentile = 0.95;
+
+            private long minDelayInMilliseconds = 5;
+
+            private long maxDelayInMilliseconds = 1000;
+
+            private double budgetPercent = 5;
+
+            private int maxThreads = 200;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public List<String> getRoutes() {
+                return routes;
+            }
+
+            public void setRoutes(List<String> routes) {
+                this.routes = routes;
+            }
+
+            public double getPercentile() {
+                return percentile;
+            }
+
+            public void setPercentile(double percentile) {
+                this.percentile = percentile;
+            }
+
+            public long getMinDelayInMilliseconds() {
+                return minDelayInMilliseconds;
+            }
+
+            public void setMinDelayInMilliseconds(long minDelayInMilliseconds) {
+                this.minDelayInMilliseconds = minDelayInMilliseconds;
+            }
+
+            public long getMaxDelayInMilliseconds() {
+                return maxDelayInMilliseconds;
+            }
+
+            public void setMaxDelayInMilliseconds(long maxDelayInMilliseconds) {
+                this.maxDelayInMilliseconds = maxDelayInMilliseconds;
+            }
+
+            public double getBudgetPercent() {
+                return budgetPercent;
+            }
+
+            public void setBudgetPercent(double budgetPercent) {
+                this.budgetPercent = budgetPercent;
+            }
+
+            public int getMaxThreads() {
+                return maxThreads;
+            }
+
+            public void setMaxThreads(int maxThreads) {
+                this.maxThreads = maxThreads;
+            }
+        }
+
+        public static class RetryBudget {
+
+            private boolean enabled = true;
+
+            private double budgetPercent = 10;
+
+            private long maxSavedRetries = 10;
+
+            private long initialBackoffInMilliseconds = 50;
+
+            private double backoffMultiplier = 2;
+
+            private long maxBackoffInMilliseconds = 1000;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public double getBudgetPercent() {
+                return budgetPercent;
+            }
+
+            public void setBudgetPercent(double budgetPercent) {
+                this.budgetPercent = budgetPercent;
+            }
+
+            public long getMaxSavedRetries() {
+                return maxSavedRetries;
+            }
+
+            public void setMaxSavedRetries(long maxSavedRetries) {
+                this.maxSavedRetries = maxSavedRetries;
+            }
+
+            public long getInitialBackoffInMilliseconds() {
+                return initialBackoffInMilliseconds;
+            }
+
+            public void setInitialBackoffInMilliseconds(long initialBackoffInMilliseconds) {
+                this.initialBackoffInMilliseconds = initialBackoffInMilliseconds;
+            }
+
+            public double getBackoffMultiplier() {
+                return backoffMultiplier;
+            }
+
+            public void setBackoffMultiplier(double backoffMultiplier) {
+                this.backoffMultiplier = backoffMultiplier;
+            }
+
+            public long getMaxBackoffInMilliseconds() {
+                return maxBackoffInMilliseconds;
+            }
+
+            public void setMaxBackoffInMilliseconds(long maxBackoffInMilliseconds) {
+                this.maxBackoffInMilliseconds = maxBackoffInMilliseconds;
+            }
+        }
+
+        public static class OutlierDetection {
+
+            private boolean enabled = false;
+
+            private int consecutive5xx = 5;
+
+            private int consecutiveFailures = 5;
+
+            private double latencyFactor = 3;
+
+            private long minOutlierLatencyInMilliseconds = 100;
+
+            private long baseEjectionTimeInMilliseconds = 30_000;
+
+            private long maxEjectionTimeInMilliseconds = 300_000;
+
+            private int maxEjectionPercent = 50;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getConsecutive5xx() {
+                return consecutive5xx;
+            }
+
+            public void setConsecutive5xx(int consecutive5xx) {
+                this.consecutive5xx = consecutive5xx;
+            }
+
+            public int getConsecutiveFailures() {
+                return consecutiveFailures;
+            }
+
+            public void setConsecutiveFailures(int consecutiveFailures) {
+                this.consecutiveFailures = consecutiveFailures;
+            }
+
+            public double getLatencyFactor() {
+                return latencyFactor;
+            }
+
+            public void setLatencyFactor(double latencyFactor) {
+                this.latencyFactor = latencyFactor;
+            }
+
+            public long getMinOutlierLatencyInMilliseconds() {
+                return minOutlierLatencyInMilliseconds;
+            }
+
+            public void setMinOutlierLatencyInMilliseconds(long minOutlierLatencyInMilliseconds) {
+                this.minOutlierLatencyInMilliseconds = minOutlierLatencyInMilliseconds;
+            }
+
+            public long getBaseEjectionTimeInMilliseconds() {
+                return baseEjectionTimeInMilliseconds;
+            }
+
+            public void setBaseEjectionTimeInMilliseconds(long baseEjectionTimeInMilliseconds) {
+                this.baseEjectionTimeInMilliseconds = baseEjectionTimeInMilliseconds;
+            }
+
+            public long getMaxEjectionTimeInMilliseconds() {
+                return maxEjectionTimeInMilliseconds;
+            }
+
+            public void setMaxEjectionTimeInMilliseconds(long maxEjectionTimeInMilliseconds) {
+                this.maxEjectionTimeInMilliseconds = maxEjectionTimeInMilliseconds;
+            }
+
+            public int getMaxEjectionPercent() {
+                return maxEjectionPercent;
+            }
+
+            public void setMaxEjectionPercent(int maxEjectionPercent) {
+                this.maxEjectionPercent = maxEjectionPercent;
+            }
+        }
+
+        public static class AdaptiveTimeouts {
+
+            private boolean enabled = false;
+
+            private double percentile = 0.999;
+
+            private double factor = 2;
+
+            private long minTimeoutInMilliseconds = 500;
+
+            private long maxTimeoutInMilliseconds = 10_000;
+
+            private long minSamples = 100;
+
+            private long updateIntervalInMilliseconds = 10_000;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public double getPercentile() {
+                return percentile;
+            }
+
+            public void setPercentile(double percentile) {
+                this.percentile = percentile;
+            }
+
+            public double getFactor() {
+                return factor;
+            }
+
+            public void setFactor(double factor) {
+                this.factor = factor;
+            }
+
+            public long getMinTimeoutInMilliseconds() {
+                return minTimeoutInMilliseconds;
+            }
+
+            public void setMinTimeoutInMilliseconds(long minTimeoutInMilliseconds) {
+                this.minTimeoutInMilliseconds = minTimeoutInMilliseconds;
+            }
+
+            public long getMaxTimeoutInMilliseconds() {
+                return maxTimeoutInMilliseconds;
+            }
+
+            public void setMaxTimeoutInMilliseconds(long maxTimeoutInMilliseconds) {
+                this.maxTimeoutInMilliseconds = maxTimeoutInMilliseconds;
+            }
+
+            public long getMinSamples() {
+                return minSamples;
+            }
+
+            public void setMinSamples(long minSamples) {
+                this.minSamples = minSamples;
+            }
+
+            public long getUpdateIntervalInMilliseconds() {
+                return updateIntervalInMilliseconds;
+            }
+
+            public void setUpdateIntervalInMilliseconds(long updateIntervalInMilliseconds) {
+                this.updateIntervalInMilliseconds = updateIntervalInMilliseconds;
+            }
+        }
+
+        public static class LoadShedding {
+
+            private boolean enabled = false;
+
+            private long targetDelayInMilliseconds = 5;
+
+            private long intervalInMilliseconds = 100;
+
+            private String priorityHeader = "X-Request-Priority";
+
+            private String defaultClass = "default";
+
+            private List<PriorityClass> classes = new ArrayList<>(Arrays.asList(
+                new PriorityClass("critical", Collections.emptyList(),
+                    Arrays.asList("/api/authenticate", "/management/**"), Collections.singletonList("ROLE_ADMIN")),
+                new PriorityClass("default", Collections.emptyList(), Collections.emptyList(), Collections.emptyList()),
+                new PriorityClass("background", Collections.emptyList(), Collections.emptyList(),
+                    Collections.emptyList())));
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public long getTargetDelayInMilliseconds() {
+                return targetDelayInMilliseconds;
+            }
+
+            public void setTargetDelayInMilliseconds(long targetDelayInMilliseconds) {
+                this.targetDelayInMilliseconds = targetDelayInMilliseconds;
+            }
+
+            public long getIntervalInMilliseconds() {
+                return intervalInMilliseconds;
+            }
+
+            public void setIntervalInMilliseconds(long intervalInMilliseconds) {
+                this.intervalInMilliseconds = intervalInMilliseconds;
+            }
+
+            public String getPriorityHeader() {
+                return priorityHeader;
+            }
+
+            public void setPriorityHeader(String priorityHeader) {
+                this.priorityHeader = priorityHeader;
+            }
+
+            public String getDefaultClass() {
+                return defaultClass;
+            }
+
+            public void setDefaultClass(String defaultClass) {
+                this.defaultClass = defaultClass;
+            }
+
+            public List<PriorityClass> getClasses() {
+                return classes;
+            }
+
+            public void setClasses(List<PriorityClass> classes) {
+                this.classes = classes;
+            }
+
+            /**
+             * A priority class, matching the requests to any of its routes, paths or authorities.
+             */
+            public static class PriorityClass {
+
+                private String name;
+
+                private List<String> routes = new ArrayList<>();
+
+                private List<String> paths = new ArrayList<>();
+
+                private List<String> authorities = new ArrayList<>();
+
+                public PriorityClass() {
+                }
+
+                public PriorityClass(String name, List<String> routes, List<String> paths, List<String> authorities) {
+                    this.name = name;
+                    this.routes = new ArrayList<>(routes);
+                    this.paths = new ArrayList<>(paths);
+                    this.authorities = new ArrayList<>(authorities);
+                }
+
+                public String getName() {
+                    return name;
+                }
+
+                public void setName(String name) {
+                    this.name = name;
+                }
+
+                public List<String> getRoutes() {
+                    return routes;
+                }
+
+                public void setRoutes(List<String> routes) {
+                    this.routes = routes;
+                }
+
+                public List<String> getPaths() {
+                    return paths;
+                }
+
+                public void setPaths(List<String> paths) {
+                    this.paths = paths;
+                }
+
+                public List<String> getAuthorities() {
+                    return authorities;
+                }
+
+                public void setAuthorities(List<String> authorities) {
+                    this.authorities = authorities;
+                }
+            }
+        }
+
+        public static class FairQueuing {
+
+            private boolean enabled = false;
+
+            private int maxConcurrency = 50;
+
+            private Map<String, Integer> routes = new LinkedHashMap<>();
+
+            private int maxQueuedPerPrincipal = 20;
+
+            private long maxWaitInMilliseconds = 1000;
+
+            private String apiKeyAttribute = "gateway.apiKey";
+
+            private String defaultClass = "standard";
+
+            private List<WeightClass> classes = new ArrayList<>(Arrays.asList(
+                new WeightClass("admin", 4, Collections.singletonList("ROLE_ADMIN"), Collections.emptyList()),
+                new WeightClass("standard", 1, Collections.emptyList(), Collections.emptyList())));
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getMaxConcurrency() {
+                return maxConcurrency;
+            }
+
+            public void setMaxConcurrency(int maxConcurrency) {
+                this.maxConcurrency = maxConcurrency;
+            }
+
+            public Map<String, Integer> getRoutes() {
+                return routes;
+            }
+
+            public void setRoutes(Map<String, Integer> routes) {
+                this.routes = routes;
+            }
+
+            public int getMaxQueuedPerPrincipal() {
+                return maxQueuedPerPrincipal;
+            }
+
+            public void setMaxQueuedPerPrincipal(int maxQueuedPerPrincipal) {
+                this.maxQueuedPerPrincipal = maxQueuedPerPrincipal;
+            }
+
+            public long getMaxWaitInMilliseconds() {
+                return maxWaitInMilliseconds;
+            }
+
+            public void setMaxWaitInMilliseconds(long maxWaitInMilliseconds) {
+                this.maxWaitInMilliseconds = maxWaitInMilliseconds;
+            }
+
+            public String getApiKeyAttribute() {
+                return apiKeyAttribute;
+            }
+
+            public void setApiKeyAttribute(String apiKeyAttribute) {
+                this.apiKeyAttribute = apiKeyAttribute;
+            }
+
+            public String getDefaultClass() {
+                return defaultClass;
+            }
+
+            public void setDefaultClass(String defaultClass) {
+                this.defaultClass = defaultClass;
+            }
+
+            public List<WeightClass> getClasses() {
+                return classes;
+            }
+
+            public void setClasses(List<WeightClass> classes) {
+                this.classes = classes;
+            }
+
+            /**
+             * A class of principals sharing a weight, matching the users with any of its authorities and the
+             * principals (logins or API keys) it lists.
+             */
+            public static class WeightClass {
+
+                private String name;
+
+                private double weight = 1;
+
+                private List<String> authorities = new ArrayList<>();
+
+                private List<String> principals = new ArrayList<>();
+
+                public WeightClass() {
+                }
+
+                public WeightClass(String name, double weight, List<String> authorities, List<String> principals) {
+                    this.name = name;
+                    this.weight = weight;
+                    this.authorities = new ArrayList<>(authorities);
+                    this.principals = new ArrayList<>(principals);
+                }
+
+                public String getName() {
+                    return name;
+                }
+
+                public void setName(String name) {
+                    this.name = name;
+                }
+
+                public double getWeight() {
+                    return weight;
+                }
+
+                public void setWeight(double weight) {
+                    this.weight = weight;
+                }
+
+                public List<String> getAuthorities() {
+                    return authorities;
+                }
+
+                public void setAuthorities(List<String> authorities) {
+                    this.authorities = authorities;
+                }
+
+                public List<String> getPrincipals() {
+                    return principals;
+                }
+
+                public void setPrincipals(List<String> principals) {
+                    this.principals = principals;
+                }
+            }
+        }
+
+        public static class StreamingUpload {
+
+            private boolean enabled = false;
+
+            private List<String> routes = new ArrayList<>();
+
+            private int bufferSizeInBytes = 16 * 1024;
+
+            private int maxPooledBuffers = 256;
+
+            private long maxBodySizeInMegabytes = 1024;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public List<String> getRoutes() {
+                return routes;
+            }
+
+            public void setRoutes(List<String> routes) {
+                this.routes = routes;
+            }
+
+            public int getBufferSizeInBytes() {
+                return bufferSizeInBytes;
+            }
+
+            public void setBufferSizeInBytes(int bufferSizeInBytes) {
+                this.bufferSizeInBytes = bufferSizeInBytes;
+            }
+
+            public int getMaxPooledBuffers() {
+                return maxPooledBuffers;
+            }
+
+            public void setMaxPooledBuffers(int maxPooledBuffers) {
+                this.maxPooledBuffers = maxPooledBuffers;
+            }
+
+            public long getMaxBodySizeInMegabytes() {
+                return maxBodySizeInMegabytes;
+            }
+
+            public void setMaxBodySizeInMegabytes(long maxBodySizeInMegabytes) {
+                this.maxBodySizeInMegabytes = maxBodySizeInMegabytes;
+            }
+        }
+
+        public static class ResponsePassthrough {
+
+            private boolean enabled = false;
+
+            private long minSizeInBytes = 1024 * 1024;
+
+            private List<String> contentTypes = new ArrayList<>(Arrays.asList("application/octet-stream",
+                "application/zip", "application/pdf", "image/", "video/", "audio/"));
+
+            private int bufferSizeInBytes = 64 * 1024;
+
+            private int maxPooledBuffers = 64;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public long getMinSizeInBytes() {
+                return minSizeInBytes;
+            }
+
+            public void setMinSizeInBytes(long minSizeInBytes) {
+                this.minSizeInBytes = minSizeInBytes;
+            }
+
+            public List<String> getContentTypes() {
+                return contentTypes;
+            }
+
+            public void setContentTypes(List<String> contentTypes) {
+                this.contentTypes = contentTypes;
+            }
+
+            public int getBufferSizeInBytes() {
+                return bufferSizeInBytes;
+            }
+
+            public void setBufferSizeInBytes(int bufferSizeInBytes) {
+                this.bufferSizeInBytes = bufferSizeInBytes;
+            }
+
+            public int getMaxPooledBuffers() {
+                return maxPooledBuffers;
+            }
+
+            public void setMaxPooledBuffers(int maxPooledBuffers) {
+                this.maxPooledBuffers = maxPooledBuffers;
+            }
+        }
+
+        public static class ResponseCompression {
+
+            private boolean enabled = false;
+
+            private int level = 6;
+
+            private long minResponseSizeInBytes = 1024;
+
+            private List<String> mimeTypes = new ArrayList<>(Arrays.asList("text/html", "text/xml", "text/plain",
+                "text/css", "text/csv", "application/javascript", "application/json", "application/xml",
+                "image/svg+xml"));
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getLevel() {
+                return level;
+            }
+
+            public void setLevel(int level) {
+                this.level = level;
+            }
+
+            public long getMinResponseSizeInBytes() {
+                return minResponseSizeInBytes;
+            }
+
+            public void setMinResponseSizeInBytes(long minResponseSizeInBytes) {
+                this.minResponseSizeInBytes = minResponseSizeInBytes;
+            }
+
+            public List<String> getMimeTypes() {
+                return mimeTypes;
+            }
+
+            public void setMimeTypes(List<String> mimeTypes) {
+                this.mimeTypes = mimeTypes;
+            }
+        }
+
+        public static class StickyRouting {
+
+            private boolean enabled = false;
+
+            private Map<String, String> routes = new LinkedHashMap<>();
+
+            private double loadFactor = 1.25;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public Map<String, String> getRoutes() {
+                return routes;
+            }
+
+            public void setRoutes(Map<String, String> routes) {
+                this.routes = routes;
+            }
+
+            public double getLoadFactor() {
+                return loadFactor;
+            }
+
+            public void setLoadFactor(double loadFactor) {
+                this.loadFactor = loadFactor;
+            }
+        }
+
+        public static class ZoneAffinity {
+
+            private boolean enabled = false;
+
+            private String zone;
+
+            private double maxErrorRate = 0.05;
+
+            private long maxLatencyInMilliseconds = 500;
+
+            private int minRequests = 20;
+
+            private double maxSpilloverWeight = 1;
+
+            private long updateIntervalInMilliseconds = 5000;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public String getZone() {
+                return zone;
+            }
+
+            public void setZone(String zone) {
+                this.zone = zone;
+            }
+
+            public double getMaxErrorRate() {
+                return maxErrorRate;
+            }
+
+            public void setMaxErrorRate(double maxErrorRate) {
+                this.maxErrorRate = maxErrorRate;
+            }
+
+            public long getMaxLatencyInMilliseconds() {
+                return maxLatencyInMilliseconds;
+            }
+
+            public void setMaxLatencyInMilliseconds(long maxLatencyInMilliseconds) {
+                this.maxLatencyInMilliseconds = maxLatencyInMilliseconds;
+            }
+
+            public int getMinRequests() {
+                return minRequests;
+            }
+
+            public void setMinRequests(int minRequests) {
+                this.minRequests = minRequests;
+            }
+
+            public double getMaxSpilloverWeight() {
+                return maxSpilloverWeight;
+            }
+
+            public void setMaxSpilloverWeight(double maxSpilloverWeight) {
+                this.maxSpilloverWeight = maxSpilloverWeight;
+            }
+
+            public long getUpdateIntervalInMilliseconds() {
+                return updateIntervalInMilliseconds;
+            }
+
+            public void setUpdateIntervalInMilliseconds(long updateIntervalInMilliseconds) {
+                this.updateIntervalInMilliseconds = updateIntervalInMilliseconds;
+            }
+        }
+
+        public static class ConnectionPools {
+
+            private boolean enabled = false;
+
+            private final Pool route = new Pool();
+
+            private Map<String, Pool> routes = new LinkedHashMap<>();
+
+            private long validationIntervalInMilliseconds = 2000;
+
+            private long idleTimeoutInMilliseconds = 30_000;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public Pool getRoute() {
+                return route;
+            }
+
+            public Map<String, Pool> getRoutes() {
+                return routes;
+            }
+
+            public void setRoutes(Map<String, Pool> routes) {
+                this.routes = routes;
+            }
+
+            public long getValidationIntervalInMilliseconds() {
+                return validationIntervalInMilliseconds;
+            }
+
+            public void setValidationIntervalInMilliseconds(long validationIntervalInMilliseconds) {
+                this.validationIntervalInMilliseconds = validationIntervalInMilliseconds;
+            }
+
+            public long getIdleTimeoutInMilliseconds() {
+                return idleTimeoutInMilliseconds;
+            }
+
+            public void setIdleTimeoutInMilliseconds(long idleTimeoutInMilliseconds) {
+                this.idleTimeoutInMilliseconds = idleTimeoutInMilliseconds;
+            }
+
+            /**
+             * Sizes of the connection pool of a route.
+             */
+            public static class Pool {
+
+                private int maxConnections = 200;
+
+                private int maxConnectionsPerInstance = 50;
+
+                private int warmUpConnectionsPerInstance = 2;
+
+                public int getMaxConnections() {
+                    return maxConnections;
+                }
+
+                public void setMaxConnections(int maxConnections) {
+                    this.maxConnections = maxConnections;
+                }
+
+                public int getMaxConnectionsPerInstance() {
+                    return maxConnectionsPerInstance;
+                }
+
+                public void setMaxConnectionsPerInstance(int maxConnectionsPerInstance) {
+                    this.maxConnectionsPerInstance = maxConnectionsPerInstance;
+                }
+
+                public int getWarmUpConnectionsPerInstance() {
+                    return warmUpConnectionsPerInstance;
+                }
+
+                public void setWarmUpConnectionsPerInstance(int warmUpConnectionsPerInstance) {
+                    this.warmUpConnectionsPerInstance = warmUpConnectionsPerInstance;
+                }
+            }
+        }
+
+        public static class Batch {
+
+            private boolean enabled = false;
+
+            private int maxRequests = 20;
+
+            private int maxThreads = 64;
+
+            private long timeoutInMilliseconds = 10_000;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getMaxRequests() {
+                return maxRequests;
+            }
+
+            public void setMaxRequests(int maxRequests) {
+                this.maxRequests = maxRequests;
+            }
+
+            public int getMaxThreads() {
+                return maxThreads;
+            }
+
+            public void setMaxThreads(int maxThreads) {
+                this.maxThreads = maxThreads;
+            }
+
+            public long getTimeoutInMilliseconds() {
+                return timeoutInMilliseconds;
+            }
+
+            public void setTimeoutInMilliseconds(long timeoutInMilliseconds) {
+                this.timeoutInMilliseconds = timeoutInMilliseconds;
+            }
+        }
+
+        public static class Aggregation {
+
+            private boolean enabled = false;
+
+            private Map<String, Route> routes = new LinkedHashMap<>();
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public Map<String, Route> getRoutes() {
+                return routes;
+            }
+
+            public void setRoutes(Map<String, Route> routes) {
+                this.routes = routes;
+            }
+
+            /**
+             * A composite endpoint, made of the responses of its legs.
+             */
+            public static class Route {
+
+                private Map<String, Leg> legs = new LinkedHashMap<>();
+
+                public Map<String, Leg> getLegs() {
+                    return legs;
+                }
+
+                public void setLegs(Map<String, Leg> legs) {
+                    this.legs = legs;
+                }
+            }
+
+            /**
+             * A request of a composite endpoint, whose response is set under the name of the leg.
+             */
+            public static class Leg {
+
+                private String path;
+
+                private long timeoutInMilliseconds = 2000;
+
+                private boolean optional = false;
+
+                public String getPath() {
+                    return path;
+                }
+
+                public void setPath(String path) {
+                    this.path = path;
+                }
+
+                public long getTimeoutInMilliseconds() {
+                    return timeoutInMilliseconds;
+                }
+
+                public void setTimeoutInMilliseconds(long timeoutInMilliseconds) {
+                    this.timeoutInMilliseconds = timeoutInMilliseconds;
+                }
+
+                public boolean isOptional() {
+                    return optional;
+                }
+
+                public void setOptional(boolean optional) {
+                    this.optional = optional;
+                }
+            }
+        }
+    }
+
+    /**
+     * A token bucket limit: {@code limit} requests every {@code durationInSeconds}, a limit of 0 meaning no limit.
+     */
+    public static class Limit {
+
+        private long limit;
+
+        private long durationInSeconds;
+
+        public Limit() {
+        }
+
+        public Limit(long limit, long durationInSeconds) {
+            this.limit = limit;
+            this.durationInSeconds = durationInSeconds;
+        }
+
+        public long getLimit() {
+            return limit;
+        }
+
+        public void setLimit(long limit) {
+            this.limit = limit;
+        }
+
+        public long getDurationInSeconds() {
+            return durationInSeconds;
+        }
+
+        public void setDurationInSeconds(long durationInSeconds) {
+            this.durationInSeconds = durationInSeconds;
+        }
+
+        public boolean isEnabled() {
+            return limit > 0;
+        }
+    }
 }
@@ -3,10 +3,16 @@ package com.jhipster.blog.config;
 import java.time.Duration;
 
 import org.ehcache.config.builders.*;
+import org.ehcache.config.units.MemoryUnit;
 import org.ehcache.jsr107.Eh107Configuration;
 
+import io.github.bucket4j.grid.GridBucketState;
 import io.github.jhipster.config.JHipsterProperties;
 
+import com.jhipster.blog.gateway.ratelimiting.RateLimitingFilter;
+import com.jhipster.blog.gateway.responsecache.CachedResponse;
+import com.jhipster.blog.gateway.responsecache.ResponseCache;
+
 import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cloud.client.ServiceInstance;
@@ -20,7 +26,10 @@ public class CacheConfiguration {
 
     private final javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration;
 
-    public CacheConfiguration(JHipsterProperties jHipsterProperties) {
+    private final ApplicationProperties applicationProperties;
+
+    public CacheConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
+        this.applicationProperties = applicationProperties;
         JHipsterProperties.Cache.Ehcache ehcache = jHipsterProperties.getCache().getEhcache();
 
         jcacheConfiguration = Eh107Configuration.fromEhcacheCacheConfiguration(
@@ -36,6 +45,8 @@ public class CacheConfiguration {
         return cm -> {
             createCache(cm, com.jhipster.blog.repository.UserRepository.USERS_BY_LOGIN_CACHE);
             createCache(cm, com.jhipster.blog.repository.UserRepository.USERS_BY_EMAIL_CACHE);
+            createRateLimitingCache(cm);
+            createResponseCache(cm);
             // jhipster-needle-ehcache-add-entry
         };
     }
@@ -47,4 +58,51 @@ public class CacheConfiguration {
         }
     }
 
+    /**
+     * Create the cache holding the gateway rate limiting buckets.
+     * <p>
+     * A bucket left idle for its longest limit duration is full again, so it can expire without loosening the limit.
+     */
+    private void createRateLimitingCache(javax.cache.CacheManager cm) {
+        ApplicationProperties.Gateway.RateLimiting rateLimiting = applicationProperties.getGateway().getRateLimiting();
+        if (!rateLimiting.isEnabled() || cm.getCache(RateLimitingFilter.GATEWAY_RATE_LIMITING_CACHE_NAME) != null) {
+            return;
+        }
+        long timeToIdleSeconds = Math.max(rateLimiting.getUser().getDurationInSeconds(),
+            rateLimiting.getIp().getDurationInSeconds());
+        timeToIdleSeconds = Math.max(timeToIdleSeconds, rateLimiting.getRoute().getDurationInSeconds());
+        for (ApplicationProperties.Limit limit : rateLimiting.getRoutes().values()) {
+            timeToIdleSeconds = Math.max(timeToIdleSeconds, limit.getDurationInSeconds());
+        }
+        cm.createCache(RateLimitingFilter.GATEWAY_RATE_LIMITING_CACHE_NAME,
+            Eh107Configuration.fromEhcacheCacheConfiguration(
+                CacheConfigurationBuilder.newCacheConfigurationBuilder(String.class, GridBucketState.class,
+                    ResourcePoolsBuilder.heap(rateLimiting.getMaxBuckets()))
+                    .withExpiry(ExpiryPolicyBuilder.timeToIdleExpiration(Duration.ofSeconds(timeToIdleSeconds)))
+                    .build()));
+    }
+
+    /**
+     * Create the cache holding the gateway responses: a heap tier for the most used responses, backed by a larger
+     * off-heap tier, both bounded in bytes.
+     * <p>
+     * Stale responses are kept until their time to live so that they can be revalidated.
+     */
+    private void createResponseCache(javax.cache.CacheManager cm) {
+        ApplicationProperties.Gateway.ResponseCache responseCache = applicationProperties.getGateway().getResponseCache();
+        if (!responseCache.isEnabled() || cm.getCache(ResponseCache.GATEWAY_RESPONSE_CACHE_NAME) != null) {
+            return;
+        }
+        cm.createCache(ResponseCache.GATEWAY_RESPONSE_CACHE_NAME,
+            Eh107Configuration.fromEhcacheCacheConfiguration(
+                CacheConfigurationBuilder.newCacheConfigurationBuilder(String.class, CachedResponse.class,
+                    ResourcePoolsBuilder.newResourcePoolsBuilder()
+                        .heap(responseCache.getHeapSizeInMegabytes(), MemoryUnit.MB)
+                        .offheap(responseCache.getOffHeapSizeInMegabytes(), MemoryUnit.MB))
+                    .withSizeOfMaxObjectSize(responseCache.getMaxEntrySizeInBytes() * 2L, MemoryUnit.B)
+                    .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(
+                        Duration.ofSeconds(responseCache.getTimeToLiveInSeconds())))
+                    .build()));
+    }
+
 }
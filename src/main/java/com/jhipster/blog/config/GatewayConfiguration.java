@@ -3,10 +3,91 @@ package com.jhipster.blog.config;
 import io.github.jhipster.config.JHipsterProperties;
 
 import com.jhipster.blog.gateway.accesscontrol.AccessControlFilter;
+import com.jhipster.blog.gateway.aggregation.Aggregator;
+import com.jhipster.blog.gateway.batch.BatchExecutor;
+import com.jhipster.blog.gateway.compression.DeflaterPool;
+import com.jhipster.blog.gateway.compression.ResponseCompressionFilter;
+import com.jhipster.blog.gateway.concurrency.AdaptiveConcurrencyLimiter;
+import com.jhipster.blog.gateway.concurrency.ConcurrencyLimitFilter;
+import com.jhipster.blog.gateway.concurrency.ConcurrencyReleaseFilter;
+import com.jhipster.blog.gateway.connectionpool.ConnectionPoolRibbonConfiguration;
+import com.jhipster.blog.gateway.connectionpool.ConnectionPools;
+import com.jhipster.blog.gateway.coalescing.CoalescedResponseFilter;
+import com.jhipster.blog.gateway.coalescing.RequestCoalescer;
+import com.jhipster.blog.gateway.coalescing.RequestCoalescingFilter;
+import com.jhipster.blog.gateway.fairqueuing.FairQueuingFilter;
+import com.jhipster.blog.gateway.fairqueuing.FairQueuingReleaseFilter;
+import com.jhipster.blog.gateway.fairqueuing.FairQueuingScheduler;
+import com.jhipster.blog.gateway.hedging.HedgingRoutingFilter;
+import com.jhipster.blog.gateway.hedging.RequestHedger;
+import com.jhipster.blog.gateway.loadbalancer.InstanceLatencyFilter;
+import com.jhipster.blog.gateway.loadbalancer.InstanceLatencyStats;
+import com.jhipster.blog.gateway.loadbalancer.LatencyAwareRibbonConfiguration;
+import com.jhipster.blog.gateway.loadbalancer.StickyRoutingFilter;
+import com.jhipster.blog.gateway.loadshedding.LoadShedder;
+import com.jhipster.blog.gateway.loadshedding.LoadSheddingFilter;
+import com.jhipster.blog.gateway.metrics.RequestTimingFilter;
+import com.jhipster.blog.gateway.metrics.RouteMetrics;
+import com.jhipster.blog.gateway.metrics.RouteMetricsErrorFilter;
+import com.jhipster.blog.gateway.metrics.RouteMetricsFilter;
+import com.jhipster.blog.gateway.metrics.UpstreamEndFilter;
+import com.jhipster.blog.gateway.metrics.UpstreamStartFilter;
+import com.jhipster.blog.gateway.outlier.OutlierDetectionFilter;
+import com.jhipster.blog.gateway.outlier.OutlierDetector;
+import com.jhipster.blog.gateway.outlier.OutlierEjectionRibbonConfiguration;
+import com.jhipster.blog.gateway.ratelimiting.RateLimitingFilter;
+import com.jhipster.blog.gateway.responsecache.ResponseCache;
+import com.jhipster.blog.gateway.responsecache.ResponseCacheLookupFilter;
+import com.jhipster.blog.gateway.responsecache.ResponseCacheStoreFilter;
 import com.jhipster.blog.gateway.responserewriting.SwaggerBasePathRewritingFilter;
+import com.jhipster.blog.gateway.responserewriting.SwaggerDocsCache;
+import com.jhipster.blog.gateway.responserewriting.SwaggerDocsCacheFilter;
+import com.jhipster.blog.gateway.retry.RetryBudgetRetryFactory;
+import com.jhipster.blog.gateway.retry.RetryBudgets;
+import com.jhipster.blog.gateway.routes.RouteSnapshots;
+import com.jhipster.blog.gateway.streaming.BufferPool;
+import com.jhipster.blog.gateway.streaming.DirectBufferPool;
+import com.jhipster.blog.gateway.streaming.ResponsePassthroughFilter;
+import com.jhipster.blog.gateway.streaming.StreamingUploadFilter;
+import com.jhipster.blog.gateway.streaming.StreamingUploadRibbonCommandFactory;
+import com.jhipster.blog.gateway.timeout.AdaptiveTimeoutFilter;
+import com.jhipster.blog.gateway.timeout.AdaptiveTimeouts;
+import com.jhipster.blog.gateway.zone.ZoneAffinity;
+import com.jhipster.blog.gateway.zone.ZoneAffinityFilter;
+import com.jhipster.blog.gateway.zone.ZoneAffinityRibbonConfiguration;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.undertow.UndertowOptions;
+
+import javax.cache.CacheManager;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.embedded.undertow.UndertowServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.netflix.ribbon.RibbonClients;
+import org.springframework.cloud.netflix.ribbon.SpringClientFactory;
+import org.springframework.cloud.netflix.ribbon.support.RibbonRequestCustomizer;
+import org.springframework.cloud.netflix.zuul.filters.ProxyRequestHelper;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
 import org.springframework.cloud.netflix.zuul.filters.RouteLocator;
+import org.springframework.cloud.netflix.zuul.filters.route.FallbackProvider;
+import org.springframework.cloud.netflix.zuul.filters.route.HttpClientRibbonCommandFactory;
+import org.springframework.cloud.netflix.zuul.filters.route.RibbonCommandFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.security.web.access.WebInvocationPrivilegeEvaluator;
+import org.springframework.web.servlet.DispatcherServlet;
 
 @Configuration
 public class GatewayConfiguration {
@@ -15,8 +96,41 @@ public class GatewayConfiguration {
     public static class SwaggerBasePathRewritingConfiguration {
 
         @Bean
-        public SwaggerBasePathRewritingFilter swaggerBasePathRewritingFilter() {
-            return new SwaggerBasePathRewritingFilter();
+        public SwaggerBasePathRewritingFilter swaggerBasePathRewritingFilter(
+            ObjectProvider<SwaggerDocsCache> swaggerDocsCache, ObjectProvider<DeflaterPool> deflaterPool) {
+            return new SwaggerBasePathRewritingFilter(swaggerDocsCache.getIfAvailable(), deflaterPool.getIfAvailable());
+        }
+    }
+
+    /**
+     * Configures the cache serving the micro-services Swagger docs without proxying them on every load.
+     */
+    @Configuration
+    @ConditionalOnProperty(value = "application.gateway.swagger-docs-cache.enabled", matchIfMissing = true)
+    public static class SwaggerDocsCacheConfiguration {
+
+        @Bean
+        public SwaggerDocsCache swaggerDocsCache(RouteLocator routeLocator, DiscoveryClient discoveryClient,
+                                                 ApplicationProperties applicationProperties) {
+            return new SwaggerDocsCache(routeLocator, discoveryClient, applicationProperties);
+        }
+
+        @Bean
+        public SwaggerDocsCacheFilter swaggerDocsCacheFilter(SwaggerDocsCache swaggerDocsCache) {
+            return new SwaggerDocsCacheFilter(swaggerDocsCache);
+        }
+    }
+
+    /**
+     * Configures the snapshot of the routes served by the {@link com.jhipster.blog.web.rest.GatewayResource}.
+     */
+    @Configuration
+    public static class RouteSnapshotsConfiguration {
+
+        @Bean
+        public RouteSnapshots routeSnapshots(RouteLocator routeLocator, DiscoveryClient discoveryClient,
+                                             @Qualifier("taskExecutor") Executor taskExecutor) {
+            return new RouteSnapshots(routeLocator, discoveryClient, taskExecutor);
         }
     }
 
@@ -24,9 +138,480 @@ public class GatewayConfiguration {
     public static class AccessControlFilterConfiguration {
 
         @Bean
-        public AccessControlFilter accessControlFilter(RouteLocator routeLocator, JHipsterProperties jHipsterProperties) {
-            return new AccessControlFilter(routeLocator, jHipsterProperties);
+        public AccessControlFilter accessControlFilter(RouteLocator routeLocator, JHipsterProperties jHipsterProperties,
+                                                       MeterRegistry meterRegistry) {
+            return new AccessControlFilter(routeLocator, jHipsterProperties, meterRegistry);
         }
     }
 
+    /**
+     * Configures the Zuul filter that limits the number of API calls per route, user and client IP address.
+     */
+    @Configuration
+    @ConditionalOnProperty("application.gateway.rate-limiting.enabled")
+    public static class RateLimitingConfiguration {
+
+        @Bean
+        public RateLimitingFilter rateLimitingFilter(ApplicationProperties applicationProperties,
+                                                     CacheManager cacheManager, MeterRegistry meterRegistry) {
+            return new RateLimitingFilter(applicationProperties, cacheManager, meterRegistry);
+        }
+    }
+
+    /**
+     * Configures the shared cache of the responses of the routes listed in
+     * {@code application.gateway.response-cache.routes}.
+     */
+    @Configuration
+    @ConditionalOnProperty("application.gateway.response-cache.enabled")
+    public static class ResponseCacheConfiguration {
+
+        @Bean
+        public ResponseCache responseCache(ApplicationProperties applicationProperties, CacheManager cacheManager,
+                                           MeterRegistry meterRegistry) {
+            return new ResponseCache(applicationProperties, cacheManager, meterRegistry);
+        }
+
+        @Bean
+        public ResponseCacheLookupFilter responseCacheLookupFilter(ResponseCache responseCache) {
+            return new ResponseCacheLookupFilter(responseCache);
+        }
+
+        @Bean
+        public ResponseCacheStoreFilter responseCacheStoreFilter(ResponseCache responseCache) {
+            return new ResponseCacheStoreFilter(responseCache);
+        }
+    }
+
+    /**
+     * Configures the coalescing of concurrent identical requests on the routes listed in
+     * {@code application.gateway.request-coalescing.routes}.
+     */
+    @Configuration
+    @ConditionalOnProperty("application.gateway.request-coalescing.enabled")
+    public static class RequestCoalescingConfiguration {
+
+        @Bean
+        public RequestCoalescer requestCoalescer(ApplicationProperties applicationProperties,
+                                                 MeterRegistry meterRegistry) {
+            return new RequestCoalescer(applicationProperties, meterRegistry);
+        }
+
+        @Bean
+        public RequestCoalescingFilter requestCoalescingFilter(RequestCoalescer requestCoalescer) {
+            return new RequestCoalescingFilter(requestCoalescer);
+        }
+
+        @Bean
+        public CoalescedResponseFilter coalescedResponseFilter(RequestCoalescer requestCoalescer) {
+            return new CoalescedResponseFilter(requestCoalescer);
+        }
+    }
+
+    /**
+     * Configures the filters recording the latency and throughput of each route.
+     */
+    @Configuration
+    @ConditionalOnProperty(value = "application.gateway.route-metrics.enabled", matchIfMissing = true)
+    public static class RouteMetricsConfiguration {
+
+        @Bean
+        public RouteMetrics routeMetrics(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+            return new RouteMetrics(applicationProperties, meterRegistry);
+        }
+
+        @Bean
+        public RequestTimingFilter requestTimingFilter() {
+            return new RequestTimingFilter();
+        }
+
+        @Bean
+        public UpstreamStartFilter upstreamStartFilter() {
+            return new UpstreamStartFilter();
+        }
+
+        @Bean
+        public UpstreamEndFilter upstreamEndFilter() {
+            return new UpstreamEndFilter();
+        }
+
+        @Bean
+        public RouteMetricsFilter routeMetricsFilter(RouteMetrics routeMetrics) {
+            return new RouteMetricsFilter(routeMetrics);
+        }
+
+        @Bean
+        public RouteMetricsErrorFilter routeMetricsErrorFilter() {
+            return new RouteMetricsErrorFilter();
+        }
+    }
+
+    /**
+     * Configures the load balancing rule, server list filter and connection pool of the Ribbon clients, and the filter
+     * observing the latency of the instances.
+     */
+    @Configuration
+    @RibbonClients(defaultConfiguration = {LatencyAwareRibbonConfiguration.class,
+        ZoneAffinityRibbonConfiguration.class, OutlierEjectionRibbonConfiguration.class,
+        ConnectionPoolRibbonConfiguration.class})
+    public static class LoadBalancingConfiguration {
+
+        @Bean
+        public InstanceLatencyStats instanceLatencyStats(ApplicationProperties applicationProperties) {
+            return new InstanceLatencyStats(applicationProperties);
+        }
+
+        @Bean
+        public InstanceLatencyFilter instanceLatencyFilter(InstanceLatencyStats instanceLatencyStats) {
+            return new InstanceLatencyFilter(instanceLatencyStats);
+        }
+    }
+
+    /**
+     * Configures the adaptive concurrency limit of the routes.
+     */
+    @Configuration
+    @ConditionalOnProperty("application.gateway.concurrency-limit.enabled")
+    public static class ConcurrencyLimitConfiguration {
+
+        @Bean
+        public AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter(ApplicationProperties applicationProperties,
+                                                                     MeterRegistry meterRegistry) {
+            return new AdaptiveConcurrencyLimiter(applicationProperties, meterRegistry);
+        }
+
+        @Bean
+        public ConcurrencyLimitFilter concurrencyLimitFilter(AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter) {
+            return new ConcurrencyLimitFilter(adaptiveConcurrencyLimiter);
+        }
+
+        @Bean
+        public ConcurrencyReleaseFilter concurrencyReleaseFilter() {
+            return new ConcurrencyReleaseFilter();
+        }
+    }
+
+    /**
+     * Configures the hedged requests, replacing the default Ribbon routing filter.
+     */
+    @Configuration
+    @ConditionalOnProperty("application.gateway.hedging.enabled")
+    public static class HedgingConfiguration {
+
+        @Bean(destroyMethod = "shutdown")
+        public RequestHedger requestHedger(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+            return new RequestHedger(applicationProperties, meterRegistry);
+        }
+
+        @Bean
+        public HedgingRoutingFilter hedgingRoutingFilter(ProxyRequestHelper helper,
+                                                         RibbonCommandFactory<?> ribbonCommandFactory,
+                                                         ObjectProvider<RibbonRequestCustomizer> requestCustomizers,
+                                                         SpringClientFactory clientFactory,
+                                                         ZuulProperties zuulProperties,
+                                                         ObjectProvider<FallbackProvider> fallbackProviders,
+                                                         RequestHedger requestHedger) {
+            return new HedgingRoutingFilter(helper, ribbonCommandFactory,
+                requestCustomizers.orderedStream().collect(Collectors.toList()), clientFactory, zuulProperties,
+                fallbackProviders.stream().collect(Collectors.toList()), requestHedger);
+        }
+    }
+
+    /**
+     * Configures the retry budgets of the retryable Ribbon clients.
+     */
+    @Configuration
+    @ConditionalOnProperty(value = "application.gateway.retry-budget.enabled", matchIfMissing = true)
+    public static class RetryBudgetConfiguration {
+
+        @Bean
+        public RetryBudgets retryBudgets(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+            return new RetryBudgets(applicationProperties, meterRegistry);
+        }
+
+        @Bean
+        public RetryBudgetRetryFactory retryBudgetRetryFactory(SpringClientFactory clientFactory,
+                                                               ApplicationProperties applicationProperties,
+                                                               RetryBudgets retryBudgets) {
+            return new RetryBudgetRetryFactory(clientFactory, applicationProperties, retryBudgets);
+        }
+    }
+
+    /**
+     * Configures the passive outlier detection of the service instances.
+     */
+    @Configuration
+    @ConditionalOnProperty("application.gateway.outlier-detection.enabled")
+    public static class OutlierDetectionConfiguration {
+
+        @Bean
+        public OutlierDetector outlierDetector(ApplicationProperties applicationProperties,
+                                               InstanceLatencyStats instanceLatencyStats,
+                                               SpringClientFactory clientFactory, TaskScheduler taskScheduler,
+                                               MeterRegistry meterRegistry) {
+            return new OutlierDetector(applicationProperties, instanceLatencyStats, clientFactory, taskScheduler,
+                meterRegistry);
+        }
+
+        @Bean
+        public OutlierDetectionFilter outlierDetectionFilter(OutlierDetector outlierDetector) {
+            return new OutlierDetectionFilter(outlierDetector);
+        }
+    }
+
+    /**
+     * Configures the timeouts of the services adapted to their upstream latency.
+     */
+    @Configuration
+    @ConditionalOnProperty("application.gateway.adaptive-timeouts.enabled")
+    public static class AdaptiveTimeoutsConfiguration {
+
+        @Bean
+        public AdaptiveTimeouts adaptiveTimeouts(ApplicationProperties applicationProperties,
+                                                 SpringClientFactory clientFactory, MeterRegistry meterRegistry) {
+            // The upstream latency is observed by the UpstreamStartFilter and UpstreamEndFilter of the route metrics
+            if (!applicationProperties.getGateway().getRouteMetrics().isEnabled()) {
+                throw new IllegalStateException("Adaptive timeouts: application.gateway.route-metrics must be enabled");
+            }
+            return new AdaptiveTimeouts(applicationProperties, clientFactory, meterRegistry);
+        }
+
+        @Bean
+        public AdaptiveTimeoutFilter adaptiveTimeoutFilter(AdaptiveTimeouts adaptiveTimeouts) {
+            return new AdaptiveTimeoutFilter(adaptiveTimeouts);
+        }
+    }
+
+    /**
+     * Configures the shedding of the lowest priority requests when the gateway is overloaded.
+     */
+    @Configuration
+    @ConditionalOnProperty("application.gateway.load-shedding.enabled")
+    public static class LoadSheddingConfiguration {
+
+        @Bean
+        public LoadShedder loadShedder(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+            return new LoadShedder(LoadSheddingFilter.classNames(applicationProperties), applicationProperties,
+                meterRegistry);
+        }
+
+        @Bean
+        public FilterRegistrationBean<LoadSheddingFilter> loadSheddingFilter(
+            ApplicationProperties applicationProperties, RouteLocator routeLocator, LoadShedder loadShedder) {
+            FilterRegistrationBean<LoadSheddingFilter> registration =
+                new FilterRegistrationBean<>(new LoadSheddingFilter(applicationProperties, routeLocator, loadShedder));
+            // Right after the Spring Security filter chain, which authenticates the JWT
+            registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+            return registration;
+        }
+
+        /**
+         * Records the start time of the requests, from which their queueing delay is measured.
+         */
+        @Configuration
+        @ConditionalOnClass(name = "io.undertow.Undertow")
+        public static class UndertowRequestStartTimeConfiguration {
+
+            @Bean
+            public WebServerFactoryCustomizer<UndertowServletWebServerFactory> requestStartTimeCustomizer() {
+                return factory -> factory.addBuilderCustomizers(builder ->
+                    builder.setServerOption(UndertowOptions.RECORD_REQUEST_START_TIME, true));
+            }
+        }
+    }
+
+    /**
+     * Configures the fair sharing of the upstream slots of the routes between their callers.
+     */
+    @Configuration
+    @ConditionalOnProperty("application.gateway.fair-queuing.enabled")
+    public static class FairQueuingConfiguration {
+
+        @Bean
+        public FairQueuingScheduler fairQueuingScheduler(ApplicationProperties applicationProperties,
+                                                         MeterRegistry meterRegistry) {
+            return new FairQueuingScheduler(applicationProperties, meterRegistry);
+        }
+
+        @Bean
+        public FairQueuingFilter fairQueuingFilter(ApplicationProperties applicationProperties,
+                                                   FairQueuingScheduler fairQueuingScheduler) {
+            return new FairQueuingFilter(applicationProperties, fairQueuingScheduler);
+        }
+
+        @Bean
+        public FairQueuingReleaseFilter fairQueuingReleaseFilter() {
+            return new FairQueuingReleaseFilter();
+        }
+    }
+
+    /**
+     * Configures the streaming of the request bodies of the upload routes.
+     */
+    @Configuration
+    @ConditionalOnProperty("application.gateway.streaming-upload.enabled")
+    public static class StreamingUploadConfiguration {
+
+        @Bean
+        public BufferPool uploadBufferPool(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+            ApplicationProperties.Gateway.StreamingUpload streamingUploadProperties =
+                applicationProperties.getGateway().getStreamingUpload();
+            return new BufferPool("upload", streamingUploadProperties.getBufferSizeInBytes(),
+                streamingUploadProperties.getMaxPooledBuffers(), meterRegistry);
+        }
+
+        /**
+         * Replaces the Ribbon command factory of Spring Cloud, which it delegates to, so the Apache HTTP client must
+         * be used.
+         */
+        @Bean
+        public StreamingUploadRibbonCommandFactory ribbonCommandFactory(
+            ApplicationProperties applicationProperties, SpringClientFactory clientFactory,
+            ZuulProperties zuulProperties, ObjectProvider<FallbackProvider> fallbackProviders,
+            @Qualifier("uploadBufferPool") BufferPool bufferPool) {
+            HttpClientRibbonCommandFactory delegate = new HttpClientRibbonCommandFactory(clientFactory, zuulProperties,
+                fallbackProviders.orderedStream().collect(Collectors.toSet()));
+            return new StreamingUploadRibbonCommandFactory(applicationProperties, delegate, bufferPool);
+        }
+
+        @Bean
+        public StreamingUploadFilter streamingUploadFilter(ApplicationProperties applicationProperties) {
+            return new StreamingUploadFilter(applicationProperties);
+        }
+    }
+
+    /**
+     * Configures the pass-through of the large and binary responses.
+     */
+    @Configuration
+    @ConditionalOnProperty("application.gateway.response-passthrough.enabled")
+    public static class ResponsePassthroughConfiguration {
+
+        @Bean
+        public DirectBufferPool responseBufferPool(ApplicationProperties applicationProperties,
+                                                   MeterRegistry meterRegistry) {
+            ApplicationProperties.Gateway.ResponsePassthrough responsePassthroughProperties =
+                applicationProperties.getGateway().getResponsePassthrough();
+            return new DirectBufferPool("response", responsePassthroughProperties.getBufferSizeInBytes(),
+                responsePassthroughProperties.getMaxPooledBuffers(), meterRegistry);
+        }
+
+        @Bean
+        public ResponsePassthroughFilter responsePassthroughFilter(ApplicationProperties applicationProperties,
+                                                                   ZuulProperties zuulProperties,
+                                                                   DirectBufferPool responseBufferPool,
+                                                                   MeterRegistry meterRegistry) {
+            return new ResponsePassthroughFilter(applicationProperties, zuulProperties, responseBufferPool,
+                meterRegistry);
+        }
+    }
+
+    /**
+     * Configures the compression of the proxied responses.
+     */
+    @Configuration
+    @ConditionalOnProperty("application.gateway.response-compression.enabled")
+    public static class ResponseCompressionConfiguration {
+
+        @Bean
+        public DeflaterPool deflaterPool(ApplicationProperties applicationProperties) {
+            return new DeflaterPool(applicationProperties.getGateway().getResponseCompression().getLevel());
+        }
+
+        @Bean
+        public ResponseCompressionFilter responseCompressionFilter(ApplicationProperties applicationProperties,
+                                                                   ZuulProperties zuulProperties,
+                                                                   DeflaterPool deflaterPool,
+                                                                   MeterRegistry meterRegistry) {
+            return new ResponseCompressionFilter(applicationProperties, zuulProperties, deflaterPool, meterRegistry);
+        }
+    }
+
+    /**
+     * Configures the sticky routing of the requests, whose instances are chosen by the Ribbon rule of the services.
+     */
+    @Configuration
+    @ConditionalOnProperty("application.gateway.sticky-routing.enabled")
+    public static class StickyRoutingConfiguration {
+
+        @Bean
+        public StickyRoutingFilter stickyRoutingFilter(ApplicationProperties applicationProperties) {
+            return new StickyRoutingFilter(applicationProperties);
+        }
+    }
+
+    /**
+     * Configures the zone affinity of the services, with spillover to the other zones.
+     */
+    @Configuration
+    @ConditionalOnProperty("application.gateway.zone-affinity.enabled")
+    public static class ZoneAffinityConfiguration {
+
+        @Bean
+        public ZoneAffinity zoneAffinity(ApplicationProperties applicationProperties,
+                                         InstanceLatencyStats instanceLatencyStats,
+                                         SpringClientFactory clientFactory, MeterRegistry meterRegistry,
+                                         Environment environment) {
+            // The zones of the server lists are chosen by the ZoneAffinity: the ZoneAwareLoadBalancer must not pick
+            // a zone again from its own statistics
+            if (environment.getProperty("ZoneAwareNIWSDiscoveryLoadBalancer.enabled", Boolean.class, true)) {
+                throw new IllegalStateException(
+                    "Zone affinity: ZoneAwareNIWSDiscoveryLoadBalancer.enabled must be set to false");
+            }
+            return new ZoneAffinity(applicationProperties, instanceLatencyStats, clientFactory, meterRegistry);
+        }
+
+        @Bean
+        public ZoneAffinityFilter zoneAffinityFilter(ZoneAffinity zoneAffinity) {
+            return new ZoneAffinityFilter(zoneAffinity);
+        }
+    }
+
+    /**
+     * Configures the isolated connection pools of the routes.
+     */
+    @Configuration
+    @ConditionalOnProperty("application.gateway.connection-pools.enabled")
+    public static class ConnectionPoolsConfiguration {
+
+        @Bean
+        public ConnectionPools connectionPools(ApplicationProperties applicationProperties, RouteLocator routeLocator,
+                                               SpringClientFactory clientFactory, MeterRegistry meterRegistry,
+                                               @Qualifier("taskExecutor") Executor taskExecutor) {
+            return new ConnectionPools(applicationProperties, routeLocator, clientFactory, meterRegistry,
+                taskExecutor);
+        }
+    }
+
+    /**
+     * Configures the batches of API calls, whose executor also runs the legs of the aggregation routes.
+     */
+    @Configuration
+    @ConditionalOnExpression("${application.gateway.batch.enabled:false} or "
+        + "${application.gateway.aggregation.enabled:false}")
+    public static class BatchConfiguration {
+
+        @Bean(destroyMethod = "shutdown")
+        public BatchExecutor batchExecutor(ApplicationProperties applicationProperties,
+                                           DispatcherServlet dispatcherServlet,
+                                           WebInvocationPrivilegeEvaluator privilegeEvaluator,
+                                           RouteLocator routeLocator, MeterRegistry meterRegistry) {
+            return new BatchExecutor(applicationProperties, dispatcherServlet, privilegeEvaluator, routeLocator,
+                meterRegistry);
+        }
+    }
+
+    /**
+     * Configures the aggregation routes.
+     */
+    @Configuration
+    @ConditionalOnProperty("application.gateway.aggregation.enabled")
+    public static class AggregationConfiguration {
+
+        @Bean
+        public Aggregator aggregator(ApplicationProperties applicationProperties, BatchExecutor batchExecutor,
+                                     ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+            return new Aggregator(applicationProperties, batchExecutor, objectMapper, meterRegistry);
+        }
+    }
 }
@@ -0,0 +1,48 @@
+package com.jhipster.blog.gateway;
+
+import com.netflix.zuul.context.RequestContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+
+/**
+ * Reads the response body of a route in memory, up to a maximum size, for the filters keeping a copy of it.
+ */
+public final class BoundedBodyReader {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private BoundedBodyReader() {
+    }
+
+    /**
+     * Read the response body, up to the maximum size.
+     *
+     * @return the body, or {@code null} if it is too large. The response stream is then replaced by a stream sending
+     * the bytes already read, followed by the rest of the body.
+     * @throws IOException if the body cannot be read, the response stream being replaced in the same way.
+     */
+    public static byte[] read(RequestContext ctx, InputStream in, int maxSize) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(BUFFER_SIZE);
+        byte[] chunk = new byte[BUFFER_SIZE];
+        try {
+            int read;
+            while ((read = in.read(chunk)) != -1) {
+                buffer.write(chunk, 0, read);
+                if (buffer.size() > maxSize) {
+                    ctx.setResponseDataStream(new SequenceInputStream(
+                        new ByteArrayInputStream(buffer.toByteArray()), in));
+                    return null;
+                }
+            }
+            in.close();
+            return buffer.toByteArray();
+        } catch (IOException e) {
+            ctx.setResponseDataStream(new SequenceInputStream(new ByteArrayInputStream(buffer.toByteArray()), in));
+            throw e;
+        }
+    }
+}
@@ -1,14 +1,22 @@
 package com.jhipster.blog.gateway.accesscontrol;
 
 import io.github.jhipster.config.JHipsterProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.cloud.client.discovery.event.HeartbeatMonitor;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.cloud.netflix.zuul.RoutesRefreshedEvent;
 import org.springframework.cloud.netflix.zuul.filters.Route;
 import org.springframework.cloud.netflix.zuul.filters.RouteLocator;
+import org.springframework.context.event.EventListener;
 import org.springframework.http.HttpStatus;
 
 import com.netflix.zuul.ZuulFilter;
@@ -16,18 +24,42 @@ import com.netflix.zuul.context.RequestContext;
 
 /**
  * Zuul filter for restricting access to backend micro-services endpoints.
+ * <p>
+ * Routes and their authorized endpoints are compiled into prefix tries, so that the allow/deny decision is made in
+ * one pass over the request URI. Each decision is counted in the {@code gateway.access.decisions} metric.
  */
 public class AccessControlFilter extends ZuulFilter {
 
+    public static final String DECISIONS_METRIC = "gateway.access.decisions";
+
+    private static final String UNKNOWN_ROUTE = "unknown";
+
+    private static final String ALL_ENDPOINTS = "*";
+
+    private static final String NO_ENDPOINT = "none";
+
     private final Logger log = LoggerFactory.getLogger(AccessControlFilter.class);
 
     private final RouteLocator routeLocator;
 
     private final JHipsterProperties jHipsterProperties;
 
-    public AccessControlFilter(RouteLocator routeLocator, JHipsterProperties jHipsterProperties) {
+    private final MeterRegistry meterRegistry;
+
+    private final HeartbeatMonitor heartbeatMonitor = new HeartbeatMonitor();
+
+    private final AtomicLong routesGeneration = new AtomicLong();
+
+    private final Counter unknownRouteDenied;
+
+    private volatile CompiledRoutes compiledRoutes;
+
+    public AccessControlFilter(RouteLocator routeLocator, JHipsterProperties jHipsterProperties,
+                               MeterRegistry meterRegistry) {
         this.routeLocator = routeLocator;
         this.jHipsterProperties = jHipsterProperties;
+        this.meterRegistry = meterRegistry;
+        this.unknownRouteDenied = decisionCounter(UNKNOWN_ROUTE, NO_ENDPOINT, false);
     }
 
     @Override
@@ -49,43 +81,36 @@ public class AccessControlFilter extends ZuulFilter {
         String contextPath = RequestContext.getCurrentContext().getRequest().getContextPath();
 
         // If the request Uri does not start with the path of the authorized endpoints, we block the request
-        for (Route route : routeLocator.getRoutes()) {
-            String serviceUrl = contextPath + route.getFullPath();
-            String serviceName = route.getId();
-
-            // If this route correspond to the current request URI
-            // We do a substring to remove the "**" at the end of the route URL
-            if (requestUri.startsWith(serviceUrl.substring(0, serviceUrl.length() - 2))) {
-                return !isAuthorizedRequest(serviceUrl, serviceName, requestUri);
-            }
+        RoutePolicy route = null;
+        if (requestUri.startsWith(contextPath)) {
+            route = getCompiledRoutes().trie.longestPrefixOf(requestUri, contextPath.length());
         }
-        return true;
+        if (route == null) {
+            unknownRouteDenied.increment();
+            return true;
+        }
+        return !isAuthorizedRequest(route, requestUri, contextPath.length());
     }
 
-    private boolean isAuthorizedRequest(String serviceUrl, String serviceName, String requestUri) {
-        Map<String, List<String>> authorizedMicroservicesEndpoints = jHipsterProperties.getGateway()
-            .getAuthorizedMicroservicesEndpoints();
-
+    private boolean isAuthorizedRequest(RoutePolicy route, String requestUri, int contextPathLength) {
         // If the authorized endpoints list was left empty for this route, all access are allowed
-        if (authorizedMicroservicesEndpoints.get(serviceName) == null) {
+        if (route.endpoints == null) {
             log.debug("Access Control: allowing access for {}, as no access control policy has been set up for " +
-                "service: {}", requestUri, serviceName);
+                "service: {}", requestUri, route.serviceName);
+            route.allowed.increment();
             return true;
-        } else {
-            List<String> authorizedEndpoints = authorizedMicroservicesEndpoints.get(serviceName);
-
-            // Go over the authorized endpoints to control that the request URI matches it
-            for (String endpoint : authorizedEndpoints) {
-                // We do a substring to remove the "**/" at the end of the route URL
-                String gatewayEndpoint = serviceUrl.substring(0, serviceUrl.length() - 3) + endpoint;
-                if (requestUri.startsWith(gatewayEndpoint)) {
-                    log.debug("Access Control: allowing access for {}, as it matches the following authorized " +
-                        "microservice endpoint: {}", requestUri, gatewayEndpoint);
-                    return true;
-                }
-            }
         }
-        return false;
+        // Control that the request URI, after the route base path, matches one of the authorized endpoints
+        AuthorizedEndpoint endpoint = route.endpoints.longestPrefixOf(requestUri,
+            contextPathLength + route.basePath.length());
+        if (endpoint == null) {
+            route.denied.increment();
+            return false;
+        }
+        log.debug("Access Control: allowing access for {}, as it matches the following authorized " +
+            "microservice endpoint: {}{}", requestUri, route.basePath, endpoint.endpoint);
+        endpoint.allowed.increment();
+        return true;
     }
 
     @Override
@@ -96,4 +121,133 @@ public class AccessControlFilter extends ZuulFilter {
         log.debug("Access Control: filtered unauthorized access on endpoint {}", ctx.getRequest().getRequestURI());
         return null;
     }
+
+    /**
+     * Invalidate the compiled routes when Zuul routes are refreshed.
+     */
+    @EventListener(RoutesRefreshedEvent.class)
+    public void onRoutesRefreshed() {
+        routesGeneration.incrementAndGet();
+    }
+
+    /**
+     * Invalidate the compiled policies when the configuration is refreshed, as the authorized microservices
+     * endpoints may have changed.
+     */
+    @EventListener(EnvironmentChangeEvent.class)
+    public void onEnvironmentChange() {
+        routesGeneration.incrementAndGet();
+    }
+
+    /**
+     * Invalidate the compiled routes when the discovery client notices a registry change, as Zuul refreshes its
+     * discovered routes on those heartbeats without publishing a {@link RoutesRefreshedEvent}.
+     */
+    @EventListener
+    public void onHeartbeat(HeartbeatEvent event) {
+        if (heartbeatMonitor.update(event.getValue())) {
+            routesGeneration.incrementAndGet();
+        }
+    }
+
+    /**
+     * Get the routes compiled into a prefix trie, compiling them again if they were invalidated.
+     * <p>
+     * Compilation is done lazily so that it reads the routes and the policies after they have been refreshed,
+     * whatever the order in which the event listeners are called.
+     */
+    private CompiledRoutes getCompiledRoutes() {
+        CompiledRoutes routes = this.compiledRoutes;
+        long generation = routesGeneration.get();
+        if (routes == null || routes.generation != generation) {
+            routes = new CompiledRoutes(generation, compile(routeLocator.getRoutes(),
+                jHipsterProperties.getGateway().getAuthorizedMicroservicesEndpoints()));
+            this.compiledRoutes = routes;
+            log.debug("Access Control: compiled {} routes", routes.trie.size());
+        }
+        return routes;
+    }
+
+    private PrefixTrie<RoutePolicy> compile(List<Route> routes, Map<String, List<String>> authorizedEndpoints) {
+        PrefixTrie.Builder<RoutePolicy> builder = PrefixTrie.builder();
+        for (Route route : routes) {
+            String fullPath = route.getFullPath();
+            // We remove the "**" at the end of the route URL
+            if (fullPath.endsWith("**")) {
+                fullPath = fullPath.substring(0, fullPath.length() - 2);
+            }
+            builder.put(fullPath, compile(route.getId(), fullPath, authorizedEndpoints.get(route.getId())));
+        }
+        return builder.build();
+    }
+
+    private RoutePolicy compile(String serviceName, String routePrefix, List<String> endpoints) {
+        // The authorized endpoints start with a "/", so they are appended to the route prefix without its own "/"
+        String basePath = routePrefix.endsWith("/") ? routePrefix.substring(0, routePrefix.length() - 1) : routePrefix;
+        if (endpoints == null) {
+            return new RoutePolicy(serviceName, basePath, null,
+                decisionCounter(serviceName, ALL_ENDPOINTS, true), null);
+        }
+        PrefixTrie.Builder<AuthorizedEndpoint> builder = PrefixTrie.builder();
+        for (String endpoint : endpoints) {
+            builder.put(endpoint, new AuthorizedEndpoint(endpoint, decisionCounter(serviceName, endpoint, true)));
+        }
+        return new RoutePolicy(serviceName, basePath, builder.build(), null,
+            decisionCounter(serviceName, NO_ENDPOINT, false));
+    }
+
+    private Counter decisionCounter(String serviceName, String endpoint, boolean allowed) {
+        return Counter.builder(DECISIONS_METRIC)
+            .description("Access control decisions made on proxied requests")
+            .tag("route", serviceName)
+            .tag("endpoint", endpoint)
+            .tag("decision", allowed ? "allowed" : "denied")
+            .register(meterRegistry);
+    }
+
+    private static final class CompiledRoutes {
+
+        private final long generation;
+
+        private final PrefixTrie<RoutePolicy> trie;
+
+        private CompiledRoutes(long generation, PrefixTrie<RoutePolicy> trie) {
+            this.generation = generation;
+            this.trie = trie;
+        }
+    }
+
+    private static final class RoutePolicy {
+
+        private final String serviceName;
+
+        private final String basePath;
+
+        private final PrefixTrie<AuthorizedEndpoint> endpoints;
+
+        private final Counter allowed;
+
+        private final Counter denied;
+
+        private RoutePolicy(String serviceName, String basePath, PrefixTrie<AuthorizedEndpoint> endpoints,
+                            Counter allowed, Counter denied) {
+            this.serviceName = serviceName;
+            this.basePath = basePath;
+            this.endpoints = endpoints;
+            this.allowed = allowed;
+            this.denied = denied;
+        }
+    }
+
+    private static final class AuthorizedEndpoint {
+
+        private final String endpoint;
+
+        private final Counter allowed;
+
+        private AuthorizedEndpoint(String endpoint, Counter allowed) {
+            this.endpoint = endpoint;
+            this.allowed = allowed;
+        }
+    }
 }
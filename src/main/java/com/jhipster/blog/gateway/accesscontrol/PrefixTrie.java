@@ -0,0 +1,180 @@
+package com.jhipster.blog.gateway.accesscontrol;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable radix tree mapping path prefixes to values.
+ * <p>
+ * Lookups walk the compressed edges directly over the request URI, so they do not allocate: this is what lets
+ * the Zuul filters resolve a route on every proxied request without concatenating or copying path strings.
+ *
+ * @param <V> the type of the values associated with the prefixes.
+ */
+public final class PrefixTrie<V> {
+
+    private static final PrefixTrie<?> EMPTY = new PrefixTrie<>(new Node<>(new char[0], null, new Node[0]), 0);
+
+    private final Node<V> root;
+
+    private final int size;
+
+    private PrefixTrie(Node<V> root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <V> PrefixTrie<V> empty() {
+        return (PrefixTrie<V>) EMPTY;
+    }
+
+    public static <V> Builder<V> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Get the value of the longest prefix of {@code path} (read from index {@code from}) held in this trie.
+     *
+     * @param path the path to match.
+     * @param from the index in {@code path} where the match starts.
+     * @return the value of the longest matching prefix, or {@code null} if no prefix matches.
+     */
+    public V longestPrefixOf(String path, int from) {
+        Node<V> node = root;
+        V match = node.value;
+        int index = from;
+        int length = path.length();
+        while (index < length) {
+            Node<V> child = node.child(path.charAt(index));
+            if (child == null || !child.labelMatches(path, index)) {
+                break;
+            }
+            index += child.label.length;
+            node = child;
+            if (node.value != null) {
+                match = node.value;
+            }
+        }
+        return match;
+    }
+
+    /**
+     * Check if any prefix held in this trie matches {@code path} (read from index {@code from}).
+     *
+     * @param path the path to match.
+     * @param from the index in {@code path} where the match starts.
+     * @return true if at least one prefix matches.
+     */
+    public boolean matches(String path, int from) {
+        return longestPrefixOf(path, from) != null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private static final class Node<V> {
+
+        private final char[] label;
+
+        private final V value;
+
+        private final char[] firstChars;
+
+        private final Node<V>[] children;
+
+        private Node(char[] label, V value, Node<V>[] children) {
+            this.label = label;
+            this.value = value;
+            this.children = children;
+            this.firstChars = new char[children.length];
+            for (int i = 0; i < children.length; i++) {
+                firstChars[i] = children[i].label[0];
+            }
+        }
+
+        private Node<V> child(char c) {
+            int index = Arrays.binarySearch(firstChars, c);
+            return index < 0 ? null : children[index];
+        }
+
+        private boolean labelMatches(String path, int from) {
+            if (path.length() - from < label.length) {
+                return false;
+            }
+            for (int i = 1; i < label.length; i++) {
+                if (path.charAt(from + i) != label[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Builder collecting prefixes before they are compiled into an immutable {@link PrefixTrie}.
+     * <p>
+     * When the same prefix is added twice, the first value wins.
+     *
+     * @param <V> the type of the values associated with the prefixes.
+     */
+    public static final class Builder<V> {
+
+        private final MutableNode<V> root = new MutableNode<>();
+
+        private int size;
+
+        private Builder() {
+        }
+
+        public Builder<V> put(String prefix, V value) {
+            if (value == null) {
+                throw new IllegalArgumentException("Prefix values cannot be null");
+            }
+            MutableNode<V> node = root;
+            for (int i = 0; i < prefix.length(); i++) {
+                node = node.children.computeIfAbsent(prefix.charAt(i), c -> new MutableNode<>());
+            }
+            if (node.value == null) {
+                node.value = value;
+                size++;
+            }
+            return this;
+        }
+
+        public PrefixTrie<V> build() {
+            return new PrefixTrie<>(compress(new StringBuilder(), root), size);
+        }
+
+        @SuppressWarnings("unchecked")
+        private Node<V> compress(StringBuilder label, MutableNode<V> node) {
+            // Collapse chains of single-child nodes without value into one edge
+            while (node.value == null && node.children.size() == 1 && label.length() > 0) {
+                Map.Entry<Character, MutableNode<V>> only = node.children.firstEntry();
+                label.append(only.getKey().charValue());
+                node = only.getValue();
+            }
+            Node<V>[] children = new Node[node.children.size()];
+            int i = 0;
+            for (Map.Entry<Character, MutableNode<V>> entry : node.children.entrySet()) {
+                children[i++] = compress(new StringBuilder().append(entry.getKey().charValue()), entry.getValue());
+            }
+            char[] chars = new char[label.length()];
+            label.getChars(0, label.length(), chars, 0);
+            return new Node<>(chars, node.value, children);
+        }
+    }
+
+    private static final class MutableNode<V> {
+
+        private final TreeMap<Character, MutableNode<V>> children = new TreeMap<>();
+
+        private V value;
+    }
+}
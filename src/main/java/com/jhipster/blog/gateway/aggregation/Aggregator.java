@@ -0,0 +1,242 @@
+package com.jhipster.blog.gateway.aggregation;
+
+import com.jhipster.blog.config.ApplicationProperties;
+import com.jhipster.blog.gateway.batch.BatchExecutor;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.NullNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriUtils;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Serves the aggregation routes: composite endpoints made of the JSON responses of several API calls.
+ * <p>
+ * The legs of a route are called in parallel by the {@link BatchExecutor}, with the authentication of the request,
+ * each with its own timeout from the start of the request. The {@code {name}} placeholders of their query strings
+ * are replaced by the query parameters of the request, encoded; they are not allowed in the paths themselves, where
+ * an encoded {@code /} or {@code %} would be rejected. Once the required legs have answered, the response is
+ * streamed as a JSON object with the response of each leg under its name, each leg being written and flushed in turn
+ * once available.
+ * An optional leg which fails or times out is set to {@code null} and its status is listed under {@value #ERRORS};
+ * a required one fails the whole request instead. Legs are counted by outcome by the {@value #LEGS_METRIC} metric.
+ */
+public class Aggregator {
+
+    public static final String LEGS_METRIC = "gateway.aggregation.legs";
+
+    public static final String ERRORS = "_errors";
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{([^}/?&=]+)}");
+
+    private final Logger log = LoggerFactory.getLogger(Aggregator.class);
+
+    private final ApplicationProperties.Gateway.Aggregation aggregationProperties;
+
+    private final BatchExecutor batchExecutor;
+
+    private final ObjectMapper objectMapper;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public Aggregator(ApplicationProperties applicationProperties, BatchExecutor batchExecutor,
+                      ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.aggregationProperties = applicationProperties.getGateway().getAggregation();
+        aggregationProperties.getRoutes().forEach((routeId, route) -> route.getLegs().forEach((name, leg) -> {
+            String path = leg.getPath() == null ? "" : leg.getPath();
+            int query = path.indexOf('?');
+            if (PLACEHOLDER.matcher(query < 0 ? path : path.substring(0, query)).find()) {
+                throw new IllegalStateException("Aggregation: leg " + name + " of route " + routeId +
+                    " has placeholders outside of its query string");
+            }
+        }));
+        this.batchExecutor = batchExecutor;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Call the legs of an aggregation route and write their responses.
+     *
+     * @param routeId the id of the route.
+     * @param request the request.
+     * @param response the response, where the aggregated document is streamed.
+     * @throws ResponseStatusException with a 404 status if the route does not exist, or with the status of the
+     * first required leg which failed, 504 if it timed out.
+     * @throws IOException if the response cannot be written.
+     */
+    public void aggregate(String routeId, HttpServletRequest request, HttpServletResponse response)
+        throws IOException {
+        ApplicationProperties.Gateway.Aggregation.Route route = aggregationProperties.getRoutes().get(routeId);
+        if (route == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No aggregation route " + routeId);
+        }
+        long start = System.nanoTime();
+        Map<String, Leg> legs = new LinkedHashMap<>();
+        route.getLegs().forEach((name, leg) -> legs.put(name, new Leg(leg, start,
+            batchExecutor.submit(request, new BatchExecutor.Item("GET", resolve(leg.getPath(), request),
+                Collections.emptyMap(), null)))));
+
+        // The status of the response depends on the required legs only
+        for (Map.Entry<String, Leg> leg : legs.entrySet()) {
+            if (!leg.getValue().properties.isOptional()) {
+                complete(routeId, leg.getKey(), leg.getValue());
+                if (leg.getValue().status != HttpServletResponse.SC_OK) {
+                    legs.values().forEach(other -> other.result.cancel(true));
+                    throw new ResponseStatusException(failureStatus(leg.getValue().status),
+                        "Aggregation leg " + leg.getKey() + " failed");
+                }
+            }
+        }
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        Map<String, Integer> errors = new LinkedHashMap<>();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.writeStartObject();
+            for (Map.Entry<String, Leg> leg : legs.entrySet()) {
+                complete(routeId, leg.getKey(), leg.getValue());
+                generator.writeFieldName(leg.getKey());
+                if (leg.getValue().body == null) {
+                    generator.writeNull();
+                    errors.put(leg.getKey(), leg.getValue().status);
+                } else {
+                    generator.writeTree(leg.getValue().body);
+                }
+                generator.flush();
+            }
+            if (!errors.isEmpty()) {
+                generator.writeObjectFieldStart(ERRORS);
+                for (Map.Entry<String, Integer> error : errors.entrySet()) {
+                    generator.writeObjectFieldStart(error.getKey());
+                    generator.writeNumberField("status", error.getValue());
+                    generator.writeEndObject();
+                }
+                generator.writeEndObject();
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Wait for the response of a leg until its deadline, and read it.
+     */
+    private void complete(String routeId, String name, Leg leg) {
+        if (leg.status != 0) {
+            return;
+        }
+        String outcome;
+        try {
+            BatchExecutor.Result result = leg.result.get(Math.max(0, leg.deadline - System.nanoTime()),
+                TimeUnit.NANOSECONDS);
+            if (result.getStatus() / 100 == 2) {
+                leg.body = result.getBody().length == 0 ? NullNode.getInstance()
+                    : objectMapper.readTree(result.getBody());
+                leg.status = HttpServletResponse.SC_OK;
+                outcome = "success";
+            } else {
+                leg.status = result.getStatus();
+                outcome = "error";
+            }
+        } catch (TimeoutException e) {
+            leg.result.cancel(true);
+            leg.status = HttpServletResponse.SC_GATEWAY_TIMEOUT;
+            outcome = "timeout";
+        } catch (ExecutionException | IOException e) {
+            log.warn("Aggregation: leg {} of {} failed: {}", name, routeId, e.toString());
+            leg.status = HttpServletResponse.SC_BAD_GATEWAY;
+            outcome = "error";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            leg.result.cancel(true);
+            leg.status = HttpServletResponse.SC_SERVICE_UNAVAILABLE;
+            outcome = "error";
+        }
+        counters.computeIfAbsent(routeId + "/" + name + "/" + outcome, key -> Counter.builder(LEGS_METRIC)
+            .description("Legs of the gateway aggregation routes, per outcome")
+            .tag("route", routeId)
+            .tag("leg", name)
+            .tag("outcome", outcome)
+            .register(meterRegistry))
+            .increment();
+    }
+
+    /**
+     * The status of a request whose required leg failed: the client errors of the leg are its own, and the other
+     * failures are gateway errors.
+     */
+    private static HttpStatus failureStatus(int legStatus) {
+        HttpStatus status = HttpStatus.resolve(legStatus);
+        if (status != null && (status.is4xxClientError() || status == HttpStatus.GATEWAY_TIMEOUT
+            || status == HttpStatus.SERVICE_UNAVAILABLE)) {
+            return status;
+        }
+        return HttpStatus.BAD_GATEWAY;
+    }
+
+    private static String resolve(String path, HttpServletRequest request) {
+        int query = path == null ? -1 : path.indexOf('?');
+        if (query < 0) {
+            return path;
+        }
+        Matcher matcher = PLACEHOLDER.matcher(path);
+        matcher.region(query, path.length());
+        StringBuffer resolved = new StringBuffer();
+        while (matcher.find()) {
+            String value = request.getParameter(matcher.group(1));
+            matcher.appendReplacement(resolved,
+                Matcher.quoteReplacement(value == null ? "" : UriUtils.encode(value, StandardCharsets.UTF_8)));
+        }
+        matcher.appendTail(resolved);
+        return resolved.toString();
+    }
+
+    /**
+     * A leg being called.
+     */
+    private static final class Leg {
+
+        private final ApplicationProperties.Gateway.Aggregation.Leg properties;
+
+        private final long deadline;
+
+        private final Future<BatchExecutor.Result> result;
+
+        private int status;
+
+        private JsonNode body;
+
+        private Leg(ApplicationProperties.Gateway.Aggregation.Leg properties, long start,
+                    Future<BatchExecutor.Result> result) {
+            this.properties = properties;
+            this.deadline = start + TimeUnit.MILLISECONDS.toNanos(properties.getTimeoutInMilliseconds());
+            this.result = result;
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package com.jhipster.blog.gateway.batch;
+
+import com.jhipster.blog.config.ApplicationProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.netflix.zuul.filters.RouteLocator;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.authentication.AuthenticationTrustResolver;
+import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.access.WebInvocationPrivilegeEvaluator;
+
+import javax.servlet.Servlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs the sub-requests of a batch in parallel, within the gateway. The legs of the aggregation routes are run the
+ * same way.
+ * <p>
+ * Each sub-request is dispatched to the {@code DispatcherServlet} on a thread of the batch pool, with the
+ * authentication of the batch request: its JWT is validated once, by the security filters of the batch request.
+ * The servlet filters do not run again, so the security rules of the sub-request URL are checked here; a sub-request
+ * to a route then goes through the Zuul filters like any proxied request, with its access control, rate limits and
+ * concurrency limits. Only paths under {@code /api/} and paths of the routes can be called, except batches and
+ * aggregations. Responses are buffered, and the sub-requests not answered within the timeout of the batch get a 504
+ * status. Sub-requests of the batches are counted by status by the {@value #ITEMS_METRIC} metric.
+ */
+public class BatchExecutor {
+
+    public static final String ITEMS_METRIC = "gateway.batch.items";
+
+    public static final String BATCH_PATH = "/api/batch";
+
+    public static final String AGGREGATION_PATH = "/api/aggregate/";
+
+    /**
+     * Headers of the batch request which do not apply to its sub-requests: the body of each sub-request is its own,
+     * and their responses are not compressed as they are sent back inside the batch response.
+     */
+    private static final List<String> EXCLUDED_HEADERS = Collections.unmodifiableList(Arrays.asList(
+        "content-type", "content-length", "transfer-encoding", "content-encoding", "accept-encoding", "expect",
+        "connection", "upgrade"));
+
+    /**
+     * Headers of the batch request that a sub-request cannot replace: access is checked with the credentials of the
+     * batch request, so they are the ones the services must receive.
+     */
+    private static final List<String> PROTECTED_HEADERS = Collections.unmodifiableList(Arrays.asList(
+        "authorization", "cookie"));
+
+    private final Logger log = LoggerFactory.getLogger(BatchExecutor.class);
+
+    private final ApplicationProperties.Gateway.Batch batchProperties;
+
+    private final Servlet dispatcherServlet;
+
+    private final WebInvocationPrivilegeEvaluator privilegeEvaluator;
+
+    private final RouteLocator routeLocator;
+
+    private final MeterRegistry meterRegistry;
+
+    private final AuthenticationTrustResolver trustResolver = new AuthenticationTrustResolverImpl();
+
+    private final ThreadPoolExecutor executor;
+
+    private final ConcurrentMap<Integer, Counter> counters = new ConcurrentHashMap<>();
+
+    public BatchExecutor(ApplicationProperties applicationProperties, Servlet dispatcherServlet,
+                         WebInvocationPrivilegeEvaluator privilegeEvaluator, RouteLocator routeLocator,
+                         MeterRegistry meterRegistry) {
+        this.batchProperties = applicationProperties.getGateway().getBatch();
+        this.dispatcherServlet = dispatcherServlet;
+        this.privilegeEvaluator = privilegeEvaluator;
+        this.routeLocator = routeLocator;
+        this.meterRegistry = meterRegistry;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("gateway-batch-");
+        threadFactory.setDaemon(true);
+        // The sub-requests wait for a thread rather than run on the thread of the batch request, whose response
+        // must not be written by a sub-request
+        this.executor = new ThreadPoolExecutor(batchProperties.getMaxThreads(), batchProperties.getMaxThreads(), 60,
+            TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Run the sub-requests of a batch.
+     *
+     * @param request the batch request.
+     * @param items the sub-requests.
+     * @return the result of each sub-request, in the same order.
+     */
+    public List<Result> execute(HttpServletRequest request, List<Item> items) {
+        List<Future<Result>> futures = new ArrayList<>(items.size());
+        for (Item item : items) {
+            futures.add(submit(request, item));
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchProperties.getTimeoutInMilliseconds());
+        List<Result> results = new ArrayList<>(items.size());
+        for (int i = 0; i < futures.size(); i++) {
+            Future<Result> future = futures.get(i);
+            Result result;
+            try {
+                result = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                result = new Result(HttpServletResponse.SC_GATEWAY_TIMEOUT);
+            } catch (ExecutionException e) {
+                log.warn("Batch: {} {} failed: {}", items.get(i).getMethod(), items.get(i).getPath(),
+                    e.getCause().toString());
+                result = new Result(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                result = new Result(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            }
+            count(result.getStatus());
+            results.add(result);
+        }
+        return results;
+    }
+
+    /**
+     * Start a sub-request, with the authentication of the current request.
+     *
+     * @param request the request starting the sub-request.
+     * @param item the sub-request.
+     * @return its result, with a 400 status if its path cannot be called, a 401 or 403 status if it is not allowed,
+     * and a 503 status if the executor is shut down.
+     */
+    public Future<Result> submit(HttpServletRequest request, Item item) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        Result denied = check(request, item, authentication);
+        if (denied != null) {
+            return CompletableFuture.completedFuture(denied);
+        }
+        // Built on this thread, as the request may be recycled before the sub-request runs
+        BatchRequest subRequest = new BatchRequest(request, item.getMethod().toUpperCase(Locale.ROOT), item.getPath(),
+            EXCLUDED_HEADERS, PROTECTED_HEADERS, item.getHeaders(), item.getBody());
+        try {
+            return executor.submit(() -> dispatch(subRequest, authentication));
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(new Result(HttpServletResponse.SC_SERVICE_UNAVAILABLE));
+        }
+    }
+
+    /**
+     * Stop the threads running the sub-requests.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Result check(HttpServletRequest request, Item item, Authentication authentication) {
+        String path = item.getPath();
+        int query = path == null ? -1 : path.indexOf('?');
+        String pathOnly = query < 0 ? path : path.substring(0, query);
+        if (item.getMethod() == null || !isCallable(pathOnly)) {
+            return new Result(HttpServletResponse.SC_BAD_REQUEST);
+        }
+        if (!privilegeEvaluator.isAllowed(request.getContextPath(), pathOnly, item.getMethod().toUpperCase(Locale.ROOT),
+            authentication)) {
+            return new Result(authentication == null || trustResolver.isAnonymous(authentication)
+                ? HttpServletResponse.SC_UNAUTHORIZED : HttpServletResponse.SC_FORBIDDEN);
+        }
+        return null;
+    }
+
+    private boolean isCallable(String path) {
+        if (path == null || !path.startsWith("/") || !isNormalized(path) || path.startsWith(BATCH_PATH)
+            || path.startsWith(AGGREGATION_PATH)) {
+            return false;
+        }
+        return path.startsWith("/api/") || routeLocator.getMatchingRoute(path) != null;
+    }
+
+    /**
+     * Whether a path is free of the segments and encoded characters that the HTTP firewall rejects, as it is not
+     * applied to the sub-requests.
+     */
+    private static boolean isNormalized(String path) {
+        String lowerCase = path.toLowerCase(Locale.ROOT);
+        return !lowerCase.contains("//") && !lowerCase.contains("/./") && !lowerCase.contains("/../")
+            && !lowerCase.endsWith("/.") && !lowerCase.endsWith("/..") && !lowerCase.contains(";")
+            && !lowerCase.contains("\\") && !lowerCase.contains("%2e") && !lowerCase.contains("%2f")
+            && !lowerCase.contains("%5c") && !lowerCase.contains("%25");
+    }
+
+    private Result dispatch(BatchRequest subRequest, Authentication authentication) throws Exception {
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(authentication);
+        SecurityContextHolder.setContext(context);
+        try {
+            BatchResponse subResponse = new BatchResponse();
+            dispatcherServlet.service(subRequest, subResponse);
+            return new Result(subResponse.getStatus(), subResponse.getHeaderValues(), subResponse.getContentType(),
+                subResponse.getContent());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private void count(int status) {
+        counters.computeIfAbsent(status, key -> Counter.builder(ITEMS_METRIC)
+            .description("Sub-requests of the gateway batches, per status")
+            .tag("status", String.valueOf(status))
+            .register(meterRegistry))
+            .increment();
+    }
+
+    /**
+     * A sub-request of a batch.
+     */
+    public static final class Item {
+
+        private final String method;
+
+        private final String path;
+
+        private final Map<String, String> headers;
+
+        private final byte[] body;
+
+        /**
+         * @param method the HTTP method.
+         * @param path the path, from the root of the gateway, with its query string.
+         * @param headers headers added to the ones of the batch request, which cannot replace its credentials.
+         * @param body the body, or {@code null} if there is none.
+         */
+        public Item(String method, String path, Map<String, String> headers, byte[] body) {
+            this.method = method;
+            this.path = path;
+            this.headers = headers == null ? Collections.emptyMap() : headers;
+            this.body = body;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public Map<String, String> getHeaders() {
+            return headers;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+    }
+
+    /**
+     * The response of a sub-request.
+     */
+    public static final class Result {
+
+        private final int status;
+
+        private final Map<String, String> headers;
+
+        private final String contentType;
+
+        private final byte[] body;
+
+        private Result(int status) {
+            this(status, Collections.emptyMap(), null, new byte[0]);
+        }
+
+        /**
+         * @param status the status.
+         * @param headers the headers, but the content type.
+         * @param contentType the content type, or {@code null} if there is none.
+         * @param body the body, empty if there is none.
+         */
+        public Result(int status, Map<String, String> headers, String contentType, byte[] body) {
+            this.status = status;
+            this.headers = headers;
+            this.contentType = contentType;
+            this.body = body;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public Map<String, String> getHeaders() {
+            return headers;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.jhipster.blog.gateway.budget;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket bounding extra requests, such as hedges or retries, to a fraction of the regular requests.
+ * <p>
+ * Each regular request deposits a fraction of a token, and each extra request takes a whole token, so that extra
+ * requests never exceed this fraction of the traffic, with a small burst allowance.
+ */
+public class TokenBudget {
+
+    /**
+     * Number of units in a token, so that fractions of tokens are counted exactly.
+     */
+    private static final long TOKEN = 1000;
+
+    private final long deposit;
+
+    private final long maxBalance;
+
+    private final AtomicLong balance = new AtomicLong();
+
+    /**
+     * @param ratio the fraction of the regular requests allowed as extra requests.
+     * @param maxTokens the maximum number of extra requests that can be saved up.
+     */
+    public TokenBudget(double ratio, long maxTokens) {
+        this.deposit = Math.max(0, Math.round(ratio * TOKEN));
+        this.maxBalance = Math.max(1, maxTokens) * TOKEN;
+    }
+
+    /**
+     * Deposit the share of a regular request.
+     */
+    public void deposit() {
+        long current;
+        do {
+            current = balance.get();
+            if (current >= maxBalance) {
+                return;
+            }
+        } while (!balance.compareAndSet(current, Math.min(maxBalance, current + deposit)));
+    }
+
+    /**
+     * Take a token for an extra request.
+     *
+     * @return whether the budget allowed the extra request.
+     */
+    public boolean tryWithdraw() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < TOKEN) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - TOKEN));
+        return true;
+    }
+
+    /**
+     * Get the number of extra requests currently allowed.
+     *
+     * @return the number of whole tokens in the bucket.
+     */
+    public long getTokens() {
+        return balance.get() / TOKEN;
+    }
+}
@@ -0,0 +1,86 @@
+package com.jhipster.blog.gateway.coalescing;
+
+import com.jhipster.blog.gateway.BoundedBodyReader;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Zuul filter sharing the response of a request led by the {@link RequestCoalescingFilter} with the requests waiting
+ * for it.
+ * <p>
+ * The body is buffered, up to the maximum body size: larger responses, and failed calls, are not shared.
+ */
+public class CoalescedResponseFilter extends ZuulFilter {
+
+    private final Logger log = LoggerFactory.getLogger(CoalescedResponseFilter.class);
+
+    private final RequestCoalescer requestCoalescer;
+
+    public CoalescedResponseFilter(RequestCoalescer requestCoalescer) {
+        this.requestCoalescer = requestCoalescer;
+    }
+
+    @Override
+    public String filterType() {
+        return FilterConstants.POST_TYPE;
+    }
+
+    @Override
+    public int filterOrder() {
+        return FilterConstants.SEND_RESPONSE_FILTER_ORDER - 50;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        return RequestContext.getCurrentContext().get(RequestCoalescingFilter.FLIGHT_KEY) != null;
+    }
+
+    @Override
+    public Object run() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        RequestCoalescer.Flight flight = (RequestCoalescer.Flight) ctx.get(RequestCoalescingFilter.FLIGHT_KEY);
+        RequestCoalescer.SharedResponse response = null;
+        try {
+            if (ctx.getThrowable() == null && ctx.getResponseBody() == null) {
+                InputStream in = ctx.getResponseDataStream();
+                byte[] body = in == null ? new byte[0] : readBody(ctx, in);
+                if (body != null) {
+                    response = new RequestCoalescer.SharedResponse(ctx.getResponseStatusCode(),
+                        ctx.getOriginResponseHeaders(), body, ctx.getResponseGZipped());
+                    ctx.setResponseDataStream(new ByteArrayInputStream(body));
+                }
+            }
+        } finally {
+            // Waiting requests are released even if the response cannot be shared
+            requestCoalescer.land(flight, response);
+        }
+        return null;
+    }
+
+    /**
+     * Read the response body, up to the maximum body size.
+     *
+     * @return the body, or {@code null} if it cannot be shared.
+     */
+    private byte[] readBody(RequestContext ctx, InputStream in) {
+        int maxBodySize = requestCoalescer.getMaxBodySize();
+        Long contentLength = ctx.getOriginContentLength();
+        if (contentLength != null && contentLength > maxBodySize) {
+            return null;
+        }
+        try {
+            return BoundedBodyReader.read(ctx, in, maxBodySize);
+        } catch (IOException e) {
+            log.warn("Request coalescing: could not read the response body: {}", e.getMessage());
+            return null;
+        }
+    }
+}
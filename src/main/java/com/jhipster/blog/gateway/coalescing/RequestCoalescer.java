@@ -0,0 +1,263 @@
+package com.jhipster.blog.gateway.coalescing;
+
+import com.jhipster.blog.config.ApplicationProperties;
+import com.jhipster.blog.security.SecurityUtils;
+
+import com.netflix.util.Pair;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registry of the requests in flight on the routes opted in with
+ * {@code application.gateway.request-coalescing.routes}.
+ * <p>
+ * The first request for a key becomes the leader of a {@link Flight} and is proxied to the service, the concurrent
+ * requests for the same key wait for the response of the leader instead of calling the service again.
+ */
+public class RequestCoalescer {
+
+    public static final String REQUESTS_METRIC = "gateway.coalescing.requests";
+
+    public static final String LEADER = "leader";
+
+    public static final String COLLAPSED = "collapsed";
+
+    public static final String UNSHARED = "unshared";
+
+    private static final Set<String> UNSHARED_HEADERS = new HashSet<>(Arrays.asList(
+        "connection", "keep-alive", "transfer-encoding", "content-length", "content-encoding", "set-cookie",
+        "proxy-authenticate", "trailer", "upgrade"));
+
+    private final ApplicationProperties.Gateway.RequestCoalescing requestCoalescingProperties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<String, Flight> flights = new ConcurrentHashMap<>();
+
+    public RequestCoalescer(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this.requestCoalescingProperties = applicationProperties.getGateway().getRequestCoalescing();
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @return {@code true} if the requests of the route can be coalesced.
+     */
+    public boolean isCoalesced(String routeId) {
+        return routeId != null && requestCoalescingProperties.getRoutes().contains(routeId);
+    }
+
+    /**
+     * Build the key of a request: requests with the same key get the same response from the service.
+     * <p>
+     * Besides the method, URI and key headers, the key holds the authorization scope of the request, so that users
+     * only share responses with requests made with the same identity and authorities.
+     */
+    public String key(String routeId, HttpServletRequest request) {
+        StringBuilder key = new StringBuilder(routeId).append(' ').append(request.getMethod()).append(' ')
+            .append(request.getRequestURI());
+        if (request.getQueryString() != null) {
+            key.append('?').append(request.getQueryString());
+        }
+        for (String header : requestCoalescingProperties.getKeyHeaders()) {
+            key.append('\n').append(header).append(':');
+            Enumeration<String> values = request.getHeaders(header);
+            if (values != null) {
+                key.append(String.join(",", Collections.list(values)));
+            }
+        }
+        key.append('\n').append(authorizationScope(request));
+        return key.toString();
+    }
+
+    /**
+     * Join the flight of {@code key}, or start a new flight if there is none.
+     *
+     * @return the flight, whose leader is the current request if {@link Flight#isLeader()} is {@code true}.
+     */
+    public Flight join(String key) {
+        while (true) {
+            Flight flight = new Flight(key, System.nanoTime());
+            Flight inFlight = flights.putIfAbsent(key, flight);
+            if (inFlight == null) {
+                return flight;
+            }
+            // A leader that did not land within the maximum wait time is replaced, so that its key is not stuck
+            if (System.nanoTime() - inFlight.startTime <= maxWaitNanos()) {
+                return inFlight.follower();
+            }
+            if (flights.replace(key, inFlight, flight)) {
+                inFlight.land(null);
+                return flight;
+            }
+        }
+    }
+
+    /**
+     * Complete the flight led by the current request.
+     *
+     * @param flight the flight, as returned by {@link #join(String)}.
+     * @param response the response to share with the waiting requests, or {@code null} if they must be proxied on
+     * their own.
+     */
+    public void land(Flight flight, SharedResponse response) {
+        flights.remove(flight.key, flight);
+        flight.land(response);
+    }
+
+    /**
+     * Wait for the response of the leader of a flight, for at most the maximum wait time.
+     *
+     * @return the shared response, or {@code null} if it is not available.
+     */
+    public SharedResponse await(Flight flight) throws InterruptedException {
+        long remaining = maxWaitNanos() - (System.nanoTime() - flight.startTime);
+        if (remaining <= 0 || !flight.landing.landed.await(remaining, TimeUnit.NANOSECONDS)) {
+            return null;
+        }
+        return flight.landing.response;
+    }
+
+    public int getMaxBodySize() {
+        return requestCoalescingProperties.getMaxBodySizeInBytes();
+    }
+
+    /**
+     * Count a request by its role in the coalescing: {@link #LEADER}, {@link #COLLAPSED} into the call of a leader,
+     * or {@link #UNSHARED} if it was proxied on its own after waiting for a leader.
+     */
+    public void count(String routeId, String result) {
+        Counter.builder(REQUESTS_METRIC)
+            .description("Requests to coalesced gateway routes, by coalescing result")
+            .tag("route", routeId)
+            .tag("result", result)
+            .register(meterRegistry)
+            .increment();
+    }
+
+    private long maxWaitNanos() {
+        return TimeUnit.MILLISECONDS.toNanos(requestCoalescingProperties.getMaxWaitInMilliseconds());
+    }
+
+    private static String authorizationScope(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (SecurityUtils.isAuthenticated() && authentication.getName() != null) {
+            SortedSet<String> authorities = new TreeSet<>();
+            for (GrantedAuthority authority : authentication.getAuthorities()) {
+                authorities.add(authority.getAuthority());
+            }
+            return authentication.getName() + ";" + String.join(",", authorities);
+        }
+        // Credentials the gateway does not understand are only shared with the very same credentials
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        return authorization == null ? "" : authorization;
+    }
+
+    /**
+     * @return the headers of an origin response that can be sent to the waiting requests.
+     */
+    static List<Pair<String, String>> sharedHeaders(List<Pair<String, String>> originHeaders) {
+        List<Pair<String, String>> headers = new ArrayList<>(originHeaders.size());
+        for (Pair<String, String> header : originHeaders) {
+            if (!UNSHARED_HEADERS.contains(header.first().toLowerCase(Locale.ROOT))) {
+                headers.add(header);
+            }
+        }
+        return headers;
+    }
+
+    /**
+     * A request proxied to a service, possibly awaited by other requests.
+     */
+    public static final class Flight {
+
+        private final String key;
+
+        private final long startTime;
+
+        private final boolean leader;
+
+        private final Landing landing;
+
+        private Flight(String key, long startTime) {
+            this(key, startTime, true, new Landing());
+        }
+
+        private Flight(String key, long startTime, boolean leader, Landing landing) {
+            this.key = key;
+            this.startTime = startTime;
+            this.leader = leader;
+            this.landing = landing;
+        }
+
+        public boolean isLeader() {
+            return leader;
+        }
+
+        private Flight follower() {
+            return new Flight(key, startTime, false, landing);
+        }
+
+        private void land(SharedResponse response) {
+            landing.response = response;
+            landing.landed.countDown();
+        }
+    }
+
+    /**
+     * The outcome of a flight, shared by its leader and followers.
+     */
+    private static final class Landing {
+
+        private final CountDownLatch landed = new CountDownLatch(1);
+
+        private volatile SharedResponse response;
+    }
+
+    /**
+     * A response buffered by the leader of a flight.
+     */
+    public static final class SharedResponse {
+
+        private final int status;
+
+        private final List<Pair<String, String>> headers;
+
+        private final byte[] body;
+
+        private final boolean gzipped;
+
+        public SharedResponse(int status, List<Pair<String, String>> headers, byte[] body, boolean gzipped) {
+            this.status = status;
+            this.headers = Collections.unmodifiableList(sharedHeaders(headers));
+            this.body = body;
+            this.gzipped = gzipped;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public List<Pair<String, String>> getHeaders() {
+            return headers;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public boolean isGzipped() {
+            return gzipped;
+        }
+    }
+}
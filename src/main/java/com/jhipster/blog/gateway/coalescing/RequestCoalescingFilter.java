@@ -0,0 +1,87 @@
+package com.jhipster.blog.gateway.coalescing;
+
+import com.netflix.util.Pair;
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+
+import java.io.ByteArrayInputStream;
+
+/**
+ * Zuul filter coalescing the concurrent identical GET requests of the routes opted in with
+ * {@code application.gateway.request-coalescing.routes}.
+ * <p>
+ * The first request is proxied, and the {@link CoalescedResponseFilter} shares its buffered response with the
+ * requests that arrived while it was in flight. Waiting is bounded: a request whose leader does not answer in time, or
+ * whose response cannot be shared, is proxied on its own.
+ */
+public class RequestCoalescingFilter extends ZuulFilter {
+
+    /**
+     * Request context key holding the {@link RequestCoalescer.Flight} led by the request.
+     */
+    public static final String FLIGHT_KEY = "requestCoalescingFlight";
+
+    private final Logger log = LoggerFactory.getLogger(RequestCoalescingFilter.class);
+
+    private final RequestCoalescer requestCoalescer;
+
+    public RequestCoalescingFilter(RequestCoalescer requestCoalescer) {
+        this.requestCoalescer = requestCoalescer;
+    }
+
+    @Override
+    public String filterType() {
+        return FilterConstants.PRE_TYPE;
+    }
+
+    @Override
+    public int filterOrder() {
+        // After the response cache, so that only cache misses are coalesced
+        return 30;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        return ctx.sendZuulResponse() && "GET".equals(ctx.getRequest().getMethod()) &&
+            requestCoalescer.isCoalesced((String) ctx.get(FilterConstants.PROXY_KEY));
+    }
+
+    @Override
+    public Object run() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        String routeId = (String) ctx.get(FilterConstants.PROXY_KEY);
+        RequestCoalescer.Flight flight = requestCoalescer.join(requestCoalescer.key(routeId, ctx.getRequest()));
+        if (flight.isLeader()) {
+            requestCoalescer.count(routeId, RequestCoalescer.LEADER);
+            ctx.set(FLIGHT_KEY, flight);
+            return null;
+        }
+
+        RequestCoalescer.SharedResponse response;
+        try {
+            response = requestCoalescer.await(flight);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response = null;
+        }
+        if (response == null) {
+            log.debug("Request coalescing: no shared response for {}, proxying it", ctx.getRequest().getRequestURI());
+            requestCoalescer.count(routeId, RequestCoalescer.UNSHARED);
+            return null;
+        }
+        requestCoalescer.count(routeId, RequestCoalescer.COLLAPSED);
+        ctx.setSendZuulResponse(false);
+        ctx.setResponseStatusCode(response.getStatus());
+        for (Pair<String, String> header : response.getHeaders()) {
+            ctx.addZuulResponseHeader(header.first(), header.second());
+        }
+        ctx.setResponseGZipped(response.isGzipped());
+        ctx.setResponseDataStream(new ByteArrayInputStream(response.getBody()));
+        ctx.setOriginContentLength(response.isGzipped() ? null : Long.valueOf(response.getBody().length));
+        return null;
+    }
+}
@@ -0,0 +1,40 @@
+package com.jhipster.blog.gateway.compression;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Pool of {@link Deflater}s, one per thread, reset between streams.
+ * <p>
+ * {@link java.util.zip.GZIPOutputStream} creates a new deflater for every stream, whose native state is only freed
+ * when it is ended or garbage collected. Zuul handles a request on a single thread from start to end, so a deflater
+ * per thread is enough and never contended.
+ */
+public class DeflaterPool {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final ThreadLocal<Deflater> deflaters;
+
+    public DeflaterPool(int level) {
+        this.deflaters = ThreadLocal.withInitial(() -> new Deflater(level, true));
+    }
+
+    /**
+     * Create a gzip stream using the deflater of the current thread.
+     * <p>
+     * The stream must be finished before the thread compresses anything else, and {@link DeflaterOutputStream#close()}
+     * closes {@code out} without ending the deflater.
+     *
+     * @param out the stream where the compressed data is written.
+     * @return the gzip stream.
+     * @throws IOException if the gzip header cannot be written.
+     */
+    public DeflaterOutputStream gzip(OutputStream out) throws IOException {
+        Deflater deflater = deflaters.get();
+        deflater.reset();
+        return new PooledGzipOutputStream(out, deflater, BUFFER_SIZE);
+    }
+}
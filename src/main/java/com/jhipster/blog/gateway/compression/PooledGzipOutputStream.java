@@ -0,0 +1,46 @@
+package com.jhipster.blog.gateway.compression;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Gzip stream compressing with a given raw {@link Deflater}, which it does not end, unlike
+ * {@link java.util.zip.GZIPOutputStream}.
+ */
+class PooledGzipOutputStream extends DeflaterOutputStream {
+
+    private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+
+    private final CRC32 crc = new CRC32();
+
+    PooledGzipOutputStream(OutputStream out, Deflater deflater, int bufferSize) throws IOException {
+        super(out, deflater, bufferSize);
+        out.write(HEADER);
+    }
+
+    @Override
+    public synchronized void write(byte[] buffer, int offset, int length) throws IOException {
+        super.write(buffer, offset, length);
+        crc.update(buffer, offset, length);
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (!def.finished()) {
+            super.finish();
+            writeInt((int) crc.getValue());
+            // The size modulo 2^32, as in the gzip format
+            writeInt((int) def.getBytesRead());
+        }
+    }
+
+    private void writeInt(int value) throws IOException {
+        out.write(value & 0xff);
+        out.write((value >> 8) & 0xff);
+        out.write((value >> 16) & 0xff);
+        out.write((value >> 24) & 0xff);
+    }
+}
@@ -0,0 +1,207 @@
+package com.jhipster.blog.gateway.compression;
+
+import com.jhipster.blog.config.ApplicationProperties;
+
+import com.netflix.util.Pair;
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.constants.ZuulHeaders;
+import com.netflix.zuul.context.RequestContext;
+import com.netflix.zuul.util.HTTPRequestUtils;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+import org.springframework.http.HttpHeaders;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.Closeable;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Zuul filter gzipping the compressible responses of the services, in place of the {@code SendResponseFilter}.
+ * <p>
+ * Responses already encoded by the service are left to the {@code SendResponseFilter} or the
+ * {@link com.jhipster.blog.gateway.streaming.ResponsePassthroughFilter}, which pass gzip through to the clients
+ * accepting it. The CPU time spent compressing and the compression ratio are published per route as the
+ * {@value #CPU_METRIC} and {@value #RATIO_METRIC} metrics.
+ */
+public class ResponseCompressionFilter extends ZuulFilter {
+
+    public static final String CPU_METRIC = "gateway.compression.cpu";
+
+    public static final String RATIO_METRIC = "gateway.compression.ratio";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Logger log = LoggerFactory.getLogger(ResponseCompressionFilter.class);
+
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+    private final ApplicationProperties.Gateway.ResponseCompression responseCompressionProperties;
+
+    private final ZuulProperties zuulProperties;
+
+    private final DeflaterPool deflaterPool;
+
+    private final MeterRegistry meterRegistry;
+
+    public ResponseCompressionFilter(ApplicationProperties applicationProperties, ZuulProperties zuulProperties,
+                                     DeflaterPool deflaterPool, MeterRegistry meterRegistry) {
+        this.responseCompressionProperties = applicationProperties.getGateway().getResponseCompression();
+        this.zuulProperties = zuulProperties;
+        this.deflaterPool = deflaterPool;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public String filterType() {
+        return FilterConstants.POST_TYPE;
+    }
+
+    @Override
+    public int filterOrder() {
+        // Before the ResponsePassthroughFilter, so that large compressible responses are compressed
+        return FilterConstants.SEND_RESPONSE_FILTER_ORDER - 2;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        if (ctx.getThrowable() != null || ctx.getResponseDataStream() == null || ctx.getResponseBody() != null ||
+            zuulProperties.isIncludeDebugHeader() || ctx.getResponseGZipped() || !isGzipRequested(ctx) ||
+            "HEAD".equals(ctx.getRequest().getMethod())) {
+            return false;
+        }
+        Long contentLength = ctx.getOriginContentLength();
+        if (contentLength != null && contentLength < responseCompressionProperties.getMinResponseSizeInBytes()) {
+            return false;
+        }
+        String contentType = null;
+        for (Pair<String, String> header : ctx.getZuulResponseHeaders()) {
+            if (ZuulHeaders.CONTENT_ENCODING.equalsIgnoreCase(header.first())) {
+                return false;
+            }
+            if (HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(header.first())) {
+                contentType = header.second();
+            }
+        }
+        return isCompressible(contentType);
+    }
+
+    @Override
+    public Object run() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        HttpServletResponse response = ctx.getResponse();
+        for (Pair<String, String> header : ctx.getZuulResponseHeaders()) {
+            // The length changes with the compression
+            if (!ZuulHeaders.CONTENT_LENGTH.equalsIgnoreCase(header.first())) {
+                response.addHeader(header.first(), header.second());
+            }
+        }
+        response.setHeader(ZuulHeaders.CONTENT_ENCODING, "gzip");
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        InputStream body = ctx.getResponseDataStream();
+        // Leave nothing for the SendResponseFilter to send
+        ctx.getZuulResponseHeaders().clear();
+        ctx.setResponseDataStream(null);
+
+        String routeId = (String) ctx.get(FilterConstants.PROXY_KEY);
+        long cpuStart = threadMXBean.getCurrentThreadCpuTime();
+        try (InputStream in = body) {
+            OutputStream outputStream = response.getOutputStream();
+            CountingOutputStream compressed = new CountingOutputStream(outputStream);
+            DeflaterOutputStream gzip = deflaterPool.gzip(compressed);
+            long original = 0;
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                gzip.write(buffer, 0, read);
+                original += read;
+            }
+            gzip.finish();
+            outputStream.flush();
+            record(routeId == null ? "none" : routeId, original, compressed.count,
+                cpuStart < 0 ? -1 : threadMXBean.getCurrentThreadCpuTime() - cpuStart);
+        } catch (IOException e) {
+            log.warn("Error while sending response to client: {}", e.getMessage());
+        } finally {
+            closeQuietly(ctx.get("zuulResponse"));
+        }
+        return null;
+    }
+
+    private boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        int parameters = contentType.indexOf(';');
+        String mimeType = (parameters < 0 ? contentType : contentType.substring(0, parameters)).trim();
+        return responseCompressionProperties.getMimeTypes().stream().anyMatch(mimeType::equalsIgnoreCase);
+    }
+
+    private boolean isGzipRequested(RequestContext ctx) {
+        String acceptEncoding = ctx.getRequest().getHeader(ZuulHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && HTTPRequestUtils.getInstance().isGzipped(acceptEncoding);
+    }
+
+    private void record(String routeId, long original, long compressed, long cpuNanos) {
+        if (cpuNanos >= 0) {
+            Timer.builder(CPU_METRIC)
+                .description("CPU time spent compressing the responses of each route")
+                .tag("route", routeId)
+                .register(meterRegistry)
+                .record(cpuNanos, TimeUnit.NANOSECONDS);
+        }
+        if (original > 0) {
+            DistributionSummary.builder(RATIO_METRIC)
+                .description("Compressed size of the responses of each route, relative to their original size")
+                .tag("route", routeId)
+                .register(meterRegistry)
+                .record(compressed / (double) original);
+        }
+    }
+
+    private void closeQuietly(Object resource) {
+        if (resource instanceof Closeable) {
+            try {
+                ((Closeable) resource).close();
+            } catch (IOException e) {
+                log.debug("Error while closing the response of the service: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Stream counting the compressed bytes written to the client.
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) throws IOException {
+            out.write(buffer, offset, length);
+            count += length;
+        }
+    }
+}
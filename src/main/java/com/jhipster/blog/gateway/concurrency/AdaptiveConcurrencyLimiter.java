@@ -0,0 +1,195 @@
+package com.jhipster.blog.gateway.concurrency;
+
+import com.jhipster.blog.config.ApplicationProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit of each route, adapted to the round-trip time of its service.
+ * <p>
+ * The limit follows a gradient: it grows while the round-trip time stays close to its long-term average, and shrinks
+ * in proportion when requests start queuing in the service. Failed requests lower the limit as well. The current
+ * limit of each route is published as the {@value #LIMIT_METRIC} gauge.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    public static final String LIMIT_METRIC = "gateway.concurrency.limit";
+
+    public static final String IN_FLIGHT_METRIC = "gateway.concurrency.in.flight";
+
+    public static final String REJECTED_METRIC = "gateway.concurrency.rejected";
+
+    /**
+     * Number of samples over which the long-term round-trip time is averaged.
+     */
+    private static final int LONG_WINDOW = 600;
+
+    /**
+     * Factor applied to the limit when a request fails.
+     */
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final ApplicationProperties.Gateway.ConcurrencyLimit concurrencyLimitProperties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<String, RouteLimit> routeLimits = new ConcurrentHashMap<>();
+
+    public AdaptiveConcurrencyLimiter(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this.concurrencyLimitProperties = applicationProperties.getGateway().getConcurrencyLimit();
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Try to take a permit to proxy a request on a route.
+     *
+     * @param routeId the id of the route.
+     * @return the permit, to be released once the service has answered, or {@code null} if the limit of the route is
+     * reached.
+     */
+    public Permit tryAcquire(String routeId) {
+        RouteLimit routeLimit = routeLimits.computeIfAbsent(routeId, RouteLimit::new);
+        if (!routeLimit.tryAcquire()) {
+            routeLimit.rejected.increment();
+            return null;
+        }
+        return new Permit(routeLimit, System.nanoTime());
+    }
+
+    /**
+     * Get the current concurrency limit of a route.
+     *
+     * @param routeId the id of the route.
+     * @return the limit, or the initial limit if the route was not used yet.
+     */
+    public int getLimit(String routeId) {
+        RouteLimit routeLimit = routeLimits.get(routeId);
+        return routeLimit == null ? limitsOf(routeId).getInitialLimit() : routeLimit.getLimit();
+    }
+
+    private ApplicationProperties.Gateway.ConcurrencyLimit.Limits limitsOf(String routeId) {
+        return concurrencyLimitProperties.getRoutes().getOrDefault(routeId, concurrencyLimitProperties.getRoute());
+    }
+
+    /**
+     * A request counted in the concurrency of a route.
+     */
+    public static final class Permit {
+
+        private final RouteLimit routeLimit;
+
+        private final long startNanos;
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(RouteLimit routeLimit, long startNanos) {
+            this.routeLimit = routeLimit;
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * Release the permit, updating the limit of the route. Only the first call has an effect.
+         *
+         * @param failed whether the service failed to answer, or answered with a server error.
+         */
+        public void release(boolean failed) {
+            release(System.nanoTime() - startNanos, failed);
+        }
+
+        void release(long rttNanos, boolean failed) {
+            if (released.compareAndSet(false, true)) {
+                routeLimit.release(rttNanos, failed);
+            }
+        }
+
+        /**
+         * Release the permit of a request that was not proxied, without updating the limit of the route.
+         */
+        public void cancel() {
+            if (released.compareAndSet(false, true)) {
+                routeLimit.inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * The limit and in-flight requests of a route.
+     */
+    final class RouteLimit {
+
+        private final ApplicationProperties.Gateway.ConcurrencyLimit.Limits limits;
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private final Counter rejected;
+
+        private volatile double limit;
+
+        private double longRttNanos;
+
+        private long samples;
+
+        private RouteLimit(String routeId) {
+            this.limits = limitsOf(routeId);
+            this.limit = limits.getInitialLimit();
+            Gauge.builder(LIMIT_METRIC, this, RouteLimit::getLimit)
+                .description("Current concurrency limit, per gateway route")
+                .tag("route", routeId)
+                .register(meterRegistry);
+            Gauge.builder(IN_FLIGHT_METRIC, inFlight, AtomicInteger::get)
+                .description("Requests being proxied, per gateway route")
+                .tag("route", routeId)
+                .register(meterRegistry);
+            this.rejected = Counter.builder(REJECTED_METRIC)
+                .description("Requests rejected by the gateway concurrency limit, per route")
+                .tag("route", routeId)
+                .register(meterRegistry);
+        }
+
+        int getLimit() {
+            return (int) limit;
+        }
+
+        private boolean tryAcquire() {
+            int current;
+            do {
+                current = inFlight.get();
+                if (current >= getLimit()) {
+                    return false;
+                }
+            } while (!inFlight.compareAndSet(current, current + 1));
+            return true;
+        }
+
+        private synchronized void release(long rttNanos, boolean failed) {
+            int queued = inFlight.getAndDecrement();
+            double newLimit;
+            if (failed) {
+                newLimit = limit * BACKOFF_RATIO;
+            } else {
+                long rtt = Math.max(1, rttNanos);
+                samples++;
+                longRttNanos += (rtt - longRttNanos) / Math.min(samples, LONG_WINDOW);
+                if (longRttNanos / rtt > 2) {
+                    // Let the long-term average follow a lasting drop of the round-trip time
+                    longRttNanos *= 0.95;
+                }
+                if (queued < limit / 2) {
+                    // The limit is not what bounds the traffic, so the round-trip time says nothing about it
+                    return;
+                }
+                double gradient = Math.max(0.5, Math.min(1.0, limits.getRttTolerance() * longRttNanos / rtt));
+                newLimit = limit * (1 - limits.getSmoothing()) +
+                    (limit * gradient + Math.sqrt(limit)) * limits.getSmoothing();
+            }
+            limit = Math.max(limits.getMinLimit(), Math.min(limits.getMaxLimit(), newLimit));
+        }
+    }
+}
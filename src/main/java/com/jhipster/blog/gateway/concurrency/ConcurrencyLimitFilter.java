@@ -0,0 +1,64 @@
+package com.jhipster.blog.gateway.concurrency;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Zuul filter rejecting the requests of a route at once with a 503 when its concurrency limit is reached.
+ * <p>
+ * Runs after the response cache and request coalescing filters, so that requests answered by the gateway do not count
+ * in the concurrency of the route. The permit is released by the {@link ConcurrencyReleaseFilter}.
+ */
+public class ConcurrencyLimitFilter extends ZuulFilter {
+
+    /**
+     * Request context key holding the {@link AdaptiveConcurrencyLimiter.Permit} of the request.
+     */
+    public static final String PERMIT_KEY = "concurrencyLimitPermit";
+
+    private final Logger log = LoggerFactory.getLogger(ConcurrencyLimitFilter.class);
+
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimiter concurrencyLimiter) {
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+    @Override
+    public String filterType() {
+        return FilterConstants.PRE_TYPE;
+    }
+
+    @Override
+    public int filterOrder() {
+        return 40;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        return ctx.sendZuulResponse() && ctx.get(FilterConstants.PROXY_KEY) != null;
+    }
+
+    @Override
+    public Object run() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        String routeId = (String) ctx.get(FilterConstants.PROXY_KEY);
+        AdaptiveConcurrencyLimiter.Permit permit = concurrencyLimiter.tryAcquire(routeId);
+        if (permit != null) {
+            ctx.set(PERMIT_KEY, permit);
+            return null;
+        }
+        log.debug("Concurrency limit of route {} reached for request {}", routeId, ctx.getRequest().getRequestURI());
+        ctx.setResponseStatusCode(HttpStatus.SERVICE_UNAVAILABLE.value());
+        if (ctx.getResponseBody() == null) {
+            ctx.setResponseBody("Service overloaded");
+        }
+        ctx.setSendZuulResponse(false);
+        return null;
+    }
+}
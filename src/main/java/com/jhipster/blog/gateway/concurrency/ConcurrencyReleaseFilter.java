@@ -0,0 +1,43 @@
+package com.jhipster.blog.gateway.concurrency;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+
+/**
+ * Zuul filter releasing the permit taken by the {@link ConcurrencyLimitFilter} once the service has answered.
+ * <p>
+ * Post filters also run when routing failed, so the permit is always released. Exceptions and server errors lower
+ * the limit of the route, and requests that were not proxied leave it unchanged.
+ */
+public class ConcurrencyReleaseFilter extends ZuulFilter {
+
+    @Override
+    public String filterType() {
+        return FilterConstants.POST_TYPE;
+    }
+
+    @Override
+    public int filterOrder() {
+        // Before reading the response body, so that the round-trip time stops at the response of the service
+        return Integer.MIN_VALUE + 2;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        return RequestContext.getCurrentContext().get(ConcurrencyLimitFilter.PERMIT_KEY) != null;
+    }
+
+    @Override
+    public Object run() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        AdaptiveConcurrencyLimiter.Permit permit =
+            (AdaptiveConcurrencyLimiter.Permit) ctx.get(ConcurrencyLimitFilter.PERMIT_KEY);
+        if (ctx.getThrowable() == null && !ctx.sendZuulResponse()) {
+            permit.cancel();
+        } else {
+            permit.release(ctx.getThrowable() != null || ctx.getResponseStatusCode() >= 500);
+        }
+        return null;
+    }
+}
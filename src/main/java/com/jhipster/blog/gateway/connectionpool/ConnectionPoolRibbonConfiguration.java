@@ -0,0 +1,28 @@
+package com.jhipster.blog.gateway.connectionpool;
+
+import com.netflix.client.config.IClientConfig;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.netflix.ribbon.RibbonClientName;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Default configuration of the Ribbon clients, giving each of them the isolated connection pool of its route.
+ * <p>
+ * Like the other Ribbon default configurations, this class is not a {@code @Configuration}. When the connection pools
+ * are disabled, Spring Cloud creates the pools of the Ribbon clients from their {@code MaxTotalConnections} and
+ * {@code MaxConnectionsPerHost} properties.
+ */
+public class ConnectionPoolRibbonConfiguration {
+
+    @RibbonClientName
+    private String name = "client";
+
+    @Bean
+    @ConditionalOnProperty("application.gateway.connection-pools.enabled")
+    public HttpClientConnectionManager httpClientConnectionManager(IClientConfig config,
+                                                                   ConnectionPools connectionPools) {
+        // Route ids are the service ids
+        return connectionPools.create(name, config);
+    }
+}
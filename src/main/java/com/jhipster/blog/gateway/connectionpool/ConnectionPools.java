@@ -0,0 +1,170 @@
+package com.jhipster.blog.gateway.connectionpool;
+
+import com.jhipster.blog.config.ApplicationProperties;
+
+import com.netflix.client.config.CommonClientConfigKey;
+import com.netflix.client.config.IClientConfig;
+import com.netflix.loadbalancer.ILoadBalancer;
+import com.netflix.loadbalancer.Server;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.netflix.ribbon.SpringClientFactory;
+import org.springframework.cloud.netflix.zuul.RoutesRefreshedEvent;
+import org.springframework.cloud.netflix.zuul.filters.Route;
+import org.springframework.cloud.netflix.zuul.filters.RouteLocator;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+
+/**
+ * The isolated connection pools of the service routes, one for the Ribbon client of each route.
+ * <p>
+ * The pools are created in the Ribbon client contexts by the {@link ConnectionPoolRibbonConfiguration}, with the sizes
+ * of their route, and registered here to publish their leased, pending, available and max connections as the
+ * {@value #POOL_METRIC} gauges. When a route appears in the refreshed routes, its Ribbon client is created and its
+ * pool is warmed up in the background with connections to each instance. Idle connections are closed and validated
+ * by a scheduled task, so that leasing a connection never has to check it.
+ */
+public class ConnectionPools {
+
+    public static final String POOL_METRIC = "gateway.connection.pool";
+
+    private final Logger log = LoggerFactory.getLogger(ConnectionPools.class);
+
+    private final ApplicationProperties.Gateway.ConnectionPools connectionPoolsProperties;
+
+    private final RouteLocator routeLocator;
+
+    private final SpringClientFactory clientFactory;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Executor executor;
+
+    private final ConcurrentMap<String, RouteConnectionManager> pools = new ConcurrentHashMap<>();
+
+    private final Set<String> warmedUpRoutes = ConcurrentHashMap.newKeySet();
+
+    public ConnectionPools(ApplicationProperties applicationProperties, RouteLocator routeLocator,
+                           SpringClientFactory clientFactory, MeterRegistry meterRegistry, Executor executor) {
+        this.connectionPoolsProperties = applicationProperties.getGateway().getConnectionPools();
+        this.routeLocator = routeLocator;
+        this.clientFactory = clientFactory;
+        this.meterRegistry = meterRegistry;
+        this.executor = executor;
+    }
+
+    /**
+     * Create the connection pool of the Ribbon client of a route.
+     *
+     * @param routeId the id of the route, which is also the name of its Ribbon client.
+     * @param config the configuration of the Ribbon client.
+     * @return the pool, sized for the route.
+     */
+    public RouteConnectionManager create(String routeId, IClientConfig config) {
+        ApplicationProperties.Gateway.ConnectionPools.Pool pool =
+            connectionPoolsProperties.getRoutes().getOrDefault(routeId, connectionPoolsProperties.getRoute());
+        RouteConnectionManager connectionManager = new RouteConnectionManager(routeId,
+            config.get(CommonClientConfigKey.IsSecure, false), pool.getMaxConnections(),
+            pool.getMaxConnectionsPerInstance());
+        register(connectionManager);
+        return connectionManager;
+    }
+
+    void register(RouteConnectionManager connectionManager) {
+        String routeId = connectionManager.getRouteId();
+        pools.put(routeId, connectionManager);
+        gauge(routeId, "leased", "Connections of each gateway route in use", PoolStats::getLeased);
+        gauge(routeId, "pending", "Requests of each gateway route waiting for a connection", PoolStats::getPending);
+        gauge(routeId, "available", "Idle connections of each gateway route", PoolStats::getAvailable);
+        gauge(routeId, "max", "Maximum connections of each gateway route", PoolStats::getMax);
+    }
+
+    private void gauge(String routeId, String name, String description, ToDoubleFunction<PoolStats> value) {
+        Gauge.builder(POOL_METRIC + "." + name, pools, routePools -> {
+            RouteConnectionManager connectionManager = routePools.get(routeId);
+            return connectionManager == null ? 0 : value.applyAsDouble(connectionManager.getTotalStats());
+        })
+            .description(description)
+            .tag("route", routeId)
+            .register(meterRegistry);
+    }
+
+    @EventListener(RoutesRefreshedEvent.class)
+    public void onRoutesRefreshed() {
+        // The location of a service route is the name of its Ribbon client, not a URL
+        Set<String> serviceIds = routeLocator.getRoutes().stream()
+            .map(Route::getLocation)
+            .filter(location -> location != null && !location.contains(":"))
+            .collect(Collectors.toSet());
+        // A route removed then added again is warmed up again
+        warmedUpRoutes.retainAll(serviceIds);
+        for (String serviceId : serviceIds) {
+            if (warmedUpRoutes.add(serviceId)) {
+                executor.execute(() -> warmUp(serviceId));
+            }
+        }
+    }
+
+    /**
+     * Warm up the pool of a route with connections to each instance of its service.
+     *
+     * @param routeId the id of the route, which is also its service id.
+     */
+    void warmUp(String routeId) {
+        // Getting the connection manager creates the Ribbon client of the route if needed
+        HttpClientConnectionManager connectionManager =
+            clientFactory.getInstance(routeId, HttpClientConnectionManager.class);
+        ILoadBalancer loadBalancer = clientFactory.getLoadBalancer(routeId);
+        if (!(connectionManager instanceof RouteConnectionManager) || loadBalancer == null) {
+            return;
+        }
+        ApplicationProperties.Gateway.ConnectionPools.Pool pool =
+            connectionPoolsProperties.getRoutes().getOrDefault(routeId, connectionPoolsProperties.getRoute());
+        IClientConfig config = clientFactory.getClientConfig(routeId);
+        int connectTimeout = config == null ? 1000 : config.get(CommonClientConfigKey.ConnectTimeout, 1000);
+        List<Server> servers = loadBalancer.getReachableServers();
+        if (servers.isEmpty()) {
+            // Warmed up on the next refresh of the routes, when the instances may be known
+            warmedUpRoutes.remove(routeId);
+            return;
+        }
+        int opened = 0;
+        for (Server server : servers) {
+            try {
+                opened += ((RouteConnectionManager) connectionManager).warmUp(server.getHost(), server.getPort(),
+                    pool.getWarmUpConnectionsPerInstance(), connectTimeout);
+            } catch (IOException e) {
+                log.debug("Connection pools: cannot warm up instance {} of route {}: {}", server.getHostPort(),
+                    routeId, e.getMessage());
+            }
+        }
+        log.debug("Connection pools: opened {} connections to warm up route {}", opened, routeId);
+    }
+
+    /**
+     * Close the connections idle for longer than the idle timeout, and the connections closed by the servers.
+     */
+    @Scheduled(fixedDelayString = "${application.gateway.connection-pools.validation-interval-in-milliseconds:2000}")
+    public void validateIdleConnections() {
+        pools.values().forEach(connectionManager -> {
+            connectionManager.closeExpiredConnections();
+            connectionManager.closeIdleConnections(connectionPoolsProperties.getIdleTimeoutInMilliseconds(),
+                TimeUnit.MILLISECONDS);
+            connectionManager.validateIdleConnections(connectionPoolsProperties.getValidationIntervalInMilliseconds());
+        });
+    }
+}
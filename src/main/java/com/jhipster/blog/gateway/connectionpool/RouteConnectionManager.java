@@ -0,0 +1,138 @@
+package com.jhipster.blog.gateway.connectionpool;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpHost;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ManagedHttpClientConnection;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolEntry;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connection pool of the Ribbon client of a route, whose idle connections are validated in the background.
+ * <p>
+ * Apache HttpClient checks that a pooled connection was not closed by the server when it is leased, which costs a
+ * blocking read on the request path. This pool leaves that check to {@link #validateIdleConnections(long)}, run
+ * periodically by the {@link ConnectionPools} without holding the pool lock, and can be warmed up with connections
+ * opened ahead of the requests.
+ */
+public class RouteConnectionManager extends PoolingHttpClientConnectionManager {
+
+    /**
+     * State of the available connections being validated.
+     */
+    private static final Object VALIDATING = new Object();
+
+    private final String routeId;
+
+    private final String scheme;
+
+    public RouteConnectionManager(String routeId, boolean secure, int maxConnections, int maxConnectionsPerInstance) {
+        super(RegistryBuilder.<ConnectionSocketFactory>create()
+            .register("http", PlainConnectionSocketFactory.getSocketFactory())
+            .register("https", SSLConnectionSocketFactory.getSocketFactory())
+            .build());
+        this.routeId = routeId;
+        this.scheme = secure ? "https" : "http";
+        setMaxTotal(maxConnections);
+        setDefaultMaxPerRoute(maxConnectionsPerInstance);
+        // Validated by validateIdleConnections instead
+        setValidateAfterInactivity(-1);
+    }
+
+    public String getRouteId() {
+        return routeId;
+    }
+
+    /**
+     * Close the available connections which have been idle for some time and were closed by the server.
+     * <p>
+     * The pool lock is only held to pick the connections to check, which are marked with a state so that they are not
+     * leased meanwhile: requests for a connection without state skip them. The blocking read checking each connection
+     * is done without the lock, then the connection is closed or made available again.
+     *
+     * @param idleMillis the idle time after which the connections are checked.
+     */
+    public void validateIdleConnections(long idleMillis) {
+        long deadline = System.currentTimeMillis() - idleMillis;
+        List<PoolEntry<HttpRoute, ManagedHttpClientConnection>> candidates = new ArrayList<>();
+        enumAvailable(entry -> {
+            if (entry.getUpdated() <= deadline && entry.getState() == null) {
+                entry.setState(VALIDATING);
+                candidates.add(entry);
+            }
+        });
+        boolean closed = false;
+        for (PoolEntry<HttpRoute, ManagedHttpClientConnection> entry : candidates) {
+            if (entry.getConnection().isStale()) {
+                entry.close();
+                closed = true;
+            }
+            entry.setState(null);
+        }
+        if (closed) {
+            // Enumerating the available connections removes the closed ones from the pool
+            enumAvailable(entry -> { });
+        }
+    }
+
+    /**
+     * Open connections to an instance until the pool has a given number of them available, within the free room of
+     * the pool.
+     *
+     * @param host the host of the instance.
+     * @param port the port of the instance.
+     * @param connections the number of available connections wanted.
+     * @param connectTimeoutMillis the connect timeout.
+     * @return the number of connections opened.
+     * @throws IOException if a connection cannot be opened.
+     */
+    public int warmUp(String host, int port, int connections, int connectTimeoutMillis) throws IOException {
+        HttpRoute route = new HttpRoute(new HttpHost(host, port, scheme));
+        PoolStats stats = getStats(route);
+        int wanted = Math.min(connections, getMaxPerRoute(route) - stats.getLeased());
+        if (wanted <= stats.getAvailable()) {
+            return 0;
+        }
+        List<HttpClientConnection> leased = new ArrayList<>(wanted);
+        HttpContext context = new BasicHttpContext();
+        int opened = 0;
+        try {
+            // Leasing them all at once opens new connections instead of taking back the ones just released
+            for (int i = 0; i < wanted; i++) {
+                HttpClientConnection connection = requestConnection(route, null)
+                    .get(connectTimeoutMillis, TimeUnit.MILLISECONDS);
+                leased.add(connection);
+                if (!connection.isOpen()) {
+                    connect(connection, route, connectTimeoutMillis, context);
+                    routeComplete(connection, route, context);
+                    // Binds the streams of the socket, which validateIdleConnections needs before the first request
+                    connection.isResponseAvailable(1);
+                    opened++;
+                }
+            }
+        } catch (ConnectionPoolTimeoutException | ExecutionException e) {
+            throw new IOException("No connection available to warm up " + route, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (HttpClientConnection connection : leased) {
+                releaseConnection(connection, null, -1, TimeUnit.MILLISECONDS);
+            }
+        }
+        return opened;
+    }
+}
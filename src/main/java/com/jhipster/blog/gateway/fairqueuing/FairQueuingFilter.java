@@ -0,0 +1,125 @@
+package com.jhipster.blog.gateway.fairqueuing;
+
+import com.jhipster.blog.config.ApplicationProperties;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.StringUtils;
+
+/**
+ * Zuul filter taking an upstream slot of the route from the {@link FairQueuingScheduler}, waiting for a fair turn
+ * when the route is busy, and rejecting the request with a 503 when it cannot get one.
+ * <p>
+ * Requests are queued for the login of their user, else for their API key, else for their client IP address. The API
+ * key is only read from the request attribute set by the security filter which verified it: a key asserted by the
+ * client would let it get a new queue, and so a new share of the slots, on each request, or the weight of another
+ * class. Runs before the {@link com.jhipster.blog.gateway.concurrency.ConcurrencyLimitFilter}, so that the time
+ * spent waiting does not count in the round-trip time of the route. The slot is released by the
+ * {@link FairQueuingReleaseFilter}.
+ */
+public class FairQueuingFilter extends ZuulFilter {
+
+    /**
+     * Request context key holding the {@link FairQueuingScheduler.Slot} of the request.
+     */
+    public static final String SLOT_KEY = "fairQueuingSlot";
+
+    private final Logger log = LoggerFactory.getLogger(FairQueuingFilter.class);
+
+    private final ApplicationProperties.Gateway.FairQueuing fairQueuingProperties;
+
+    private final FairQueuingScheduler scheduler;
+
+    public FairQueuingFilter(ApplicationProperties applicationProperties, FairQueuingScheduler scheduler) {
+        this.fairQueuingProperties = applicationProperties.getGateway().getFairQueuing();
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public String filterType() {
+        return FilterConstants.PRE_TYPE;
+    }
+
+    @Override
+    public int filterOrder() {
+        return 35;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        return ctx.sendZuulResponse() && ctx.get(FilterConstants.PROXY_KEY) != null;
+    }
+
+    @Override
+    public Object run() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        String routeId = (String) ctx.get(FilterConstants.PROXY_KEY);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        Object verifiedApiKey = ctx.getRequest().getAttribute(fairQueuingProperties.getApiKeyAttribute());
+        String apiKey = verifiedApiKey instanceof String ? (String) verifiedApiKey : null;
+        String principal;
+        if (isAuthenticated(authentication)) {
+            principal = "user:" + authentication.getName();
+        } else if (StringUtils.hasText(apiKey)) {
+            principal = "key:" + apiKey;
+        } else {
+            principal = "ip:" + ctx.getRequest().getRemoteAddr();
+        }
+        FairQueuingScheduler.Slot slot;
+        try {
+            slot = scheduler.acquire(routeId, principal, weightClass(apiKey, authentication));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            slot = null;
+        }
+        if (slot != null) {
+            ctx.set(SLOT_KEY, slot);
+            return null;
+        }
+        log.debug("Fair queuing: no upstream slot of route {} for request {}", routeId,
+            ctx.getRequest().getRequestURI());
+        ctx.setResponseStatusCode(HttpStatus.SERVICE_UNAVAILABLE.value());
+        if (ctx.getResponseBody() == null) {
+            ctx.setResponseBody("Service overloaded");
+        }
+        ctx.setSendZuulResponse(false);
+        return null;
+    }
+
+    /**
+     * Get the name of the first class listing the login or one of the authorities of the user, or else the verified
+     * API key.
+     */
+    String weightClass(String apiKey, Authentication authentication) {
+        boolean authenticated = isAuthenticated(authentication);
+        for (ApplicationProperties.Gateway.FairQueuing.WeightClass weightClass : fairQueuingProperties.getClasses()) {
+            if (authenticated) {
+                if (weightClass.getPrincipals().contains(authentication.getName())) {
+                    return weightClass.getName();
+                }
+                for (GrantedAuthority authority : authentication.getAuthorities()) {
+                    if (weightClass.getAuthorities().contains(authority.getAuthority())) {
+                        return weightClass.getName();
+                    }
+                }
+            } else if (StringUtils.hasText(apiKey) && weightClass.getPrincipals().contains(apiKey)) {
+                return weightClass.getName();
+            }
+        }
+        return fairQueuingProperties.getDefaultClass();
+    }
+
+    private static boolean isAuthenticated(Authentication authentication) {
+        return authentication != null && authentication.isAuthenticated()
+            && !(authentication instanceof AnonymousAuthenticationToken);
+    }
+}
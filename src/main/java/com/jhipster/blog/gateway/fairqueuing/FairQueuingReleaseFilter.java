@@ -0,0 +1,36 @@
+package com.jhipster.blog.gateway.fairqueuing;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+
+/**
+ * Zuul filter releasing the upstream slot taken by the {@link FairQueuingFilter} once the service has answered.
+ * <p>
+ * Post filters also run when routing failed or when a later pre filter rejected the request, so the slot is always
+ * released.
+ */
+public class FairQueuingReleaseFilter extends ZuulFilter {
+
+    @Override
+    public String filterType() {
+        return FilterConstants.POST_TYPE;
+    }
+
+    @Override
+    public int filterOrder() {
+        // Before reading the response body, like the ConcurrencyReleaseFilter
+        return Integer.MIN_VALUE + 5;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        return RequestContext.getCurrentContext().get(FairQueuingFilter.SLOT_KEY) != null;
+    }
+
+    @Override
+    public Object run() {
+        ((FairQueuingScheduler.Slot) RequestContext.getCurrentContext().get(FairQueuingFilter.SLOT_KEY)).release();
+        return null;
+    }
+}
@@ -0,0 +1,292 @@
+package com.jhipster.blog.gateway.fairqueuing;
+
+import com.jhipster.blog.config.ApplicationProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Scheduler sharing the upstream concurrency slots of each route fairly between the principals calling it.
+ * <p>
+ * While a route has free slots, requests get one at once. Beyond that, each request waits in the virtual queue of its
+ * principal, and freed slots are handed to the queues with deficit round-robin: every queue gets, in turn, a quantum
+ * of its class weight in requests, so that a principal flooding a route only delays its own requests. Requests are
+ * rejected when the queue of their principal is full or when they waited too long.
+ */
+public class FairQueuingScheduler {
+
+    public static final String QUEUE_DEPTH_METRIC = "gateway.fairqueuing.queue.depth";
+
+    public static final String WAIT_METRIC = "gateway.fairqueuing.wait";
+
+    public static final String REJECTED_METRIC = "gateway.fairqueuing.rejected";
+
+    public static final String QUEUE_FULL = "queue-full";
+
+    public static final String TIMEOUT = "timeout";
+
+    private final ApplicationProperties.Gateway.FairQueuing fairQueuingProperties;
+
+    private final Map<String, Double> weights;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<String, RouteScheduler> routeSchedulers = new ConcurrentHashMap<>();
+
+    public FairQueuingScheduler(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this.fairQueuingProperties = applicationProperties.getGateway().getFairQueuing();
+        for (ApplicationProperties.Gateway.FairQueuing.WeightClass weightClass : fairQueuingProperties.getClasses()) {
+            // A queue whose quantum never adds up to a request would be served forever
+            if (!(weightClass.getWeight() > 0)) {
+                throw new IllegalStateException("Fair queuing: weight of class " + weightClass.getName() +
+                    " must be positive, not " + weightClass.getWeight());
+            }
+        }
+        this.weights = fairQueuingProperties.getClasses().stream().collect(Collectors.toMap(
+            ApplicationProperties.Gateway.FairQueuing.WeightClass::getName,
+            ApplicationProperties.Gateway.FairQueuing.WeightClass::getWeight));
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Take an upstream slot of a route, waiting for a fair turn if all are in use.
+     *
+     * @param routeId the id of the route.
+     * @param principal the API key, login or IP address the request is queued for.
+     * @param weightClass the name of the class of the principal.
+     * @return the slot, to be released once the service has answered, or null if the request was rejected.
+     * @throws InterruptedException if the thread was interrupted while waiting.
+     */
+    public Slot acquire(String routeId, String principal, String weightClass) throws InterruptedException {
+        return routeSchedulers.computeIfAbsent(routeId, RouteScheduler::new).acquire(principal, weightClass);
+    }
+
+    /**
+     * An upstream slot of a route.
+     */
+    public static final class Slot {
+
+        private final RouteScheduler routeScheduler;
+
+        private final AtomicInteger released = new AtomicInteger();
+
+        private Slot(RouteScheduler routeScheduler) {
+            this.routeScheduler = routeScheduler;
+        }
+
+        /**
+         * Release the slot, handing it to the next queued request if any. Further calls do nothing.
+         */
+        public void release() {
+            if (released.compareAndSet(0, 1)) {
+                routeScheduler.release();
+            }
+        }
+    }
+
+    /**
+     * The slots and virtual queues of a route, guarded by its monitor.
+     */
+    private final class RouteScheduler {
+
+        private final String routeId;
+
+        private final Map<String, PrincipalQueue> queues = new HashMap<>();
+
+        private final Deque<PrincipalQueue> activeQueues = new ArrayDeque<>();
+
+        private final Map<String, ClassMeters> classMeters = new ConcurrentHashMap<>();
+
+        private int availableSlots;
+
+        private RouteScheduler(String routeId) {
+            this.routeId = routeId;
+            this.availableSlots = fairQueuingProperties.getRoutes()
+                .getOrDefault(routeId, fairQueuingProperties.getMaxConcurrency());
+        }
+
+        private Slot acquire(String principal, String weightClass) throws InterruptedException {
+            ClassMeters meters = classMeters.computeIfAbsent(weightClass, ClassMeters::new);
+            Waiter waiter;
+            synchronized (this) {
+                if (availableSlots > 0 && activeQueues.isEmpty()) {
+                    availableSlots--;
+                    return new Slot(this);
+                }
+                PrincipalQueue queue = queues.get(principal);
+                if (queue == null) {
+                    queue = new PrincipalQueue(principal, weights.getOrDefault(weightClass, 1d));
+                    queues.put(principal, queue);
+                    activeQueues.addLast(queue);
+                } else if (queue.waiters.size() >= fairQueuingProperties.getMaxQueuedPerPrincipal()) {
+                    meters.rejected(QUEUE_FULL).increment();
+                    return null;
+                }
+                waiter = new Waiter(queue, meters);
+                queue.waiters.addLast(waiter);
+                meters.queued.incrementAndGet();
+            }
+
+            long start = System.nanoTime();
+            boolean granted;
+            try {
+                // The slot may be granted between the timeout and the cancellation
+                granted = waiter.granted.await(fairQueuingProperties.getMaxWaitInMilliseconds(),
+                    TimeUnit.MILLISECONDS) || !cancel(waiter);
+            } catch (InterruptedException e) {
+                if (!cancel(waiter)) {
+                    release();
+                }
+                throw e;
+            }
+            meters.wait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (!granted) {
+                meters.rejected(TIMEOUT).increment();
+                return null;
+            }
+            return new Slot(this);
+        }
+
+        private synchronized void release() {
+            Waiter next = next();
+            if (next == null) {
+                availableSlots++;
+                return;
+            }
+            next.meters.queued.decrementAndGet();
+            next.granted.countDown();
+        }
+
+        /**
+         * Pick the next queued request with deficit round-robin, removing it from its queue.
+         */
+        private Waiter next() {
+            while (true) {
+                PrincipalQueue queue = activeQueues.peekFirst();
+                if (queue == null) {
+                    return null;
+                }
+                if (!queue.inTurn) {
+                    queue.deficit += queue.weight;
+                    queue.inTurn = true;
+                }
+                if (queue.deficit >= 1) {
+                    queue.deficit--;
+                    Waiter waiter = queue.waiters.pollFirst();
+                    if (queue.waiters.isEmpty()) {
+                        activeQueues.pollFirst();
+                        queues.remove(queue.principal);
+                    }
+                    return waiter;
+                }
+                queue.inTurn = false;
+                activeQueues.addLast(activeQueues.pollFirst());
+            }
+        }
+
+        /**
+         * Remove a request from its queue.
+         *
+         * @return true if it was still waiting, false if it was granted a slot.
+         */
+        private synchronized boolean cancel(Waiter waiter) {
+            if (waiter.granted.getCount() == 0) {
+                return false;
+            }
+            PrincipalQueue queue = waiter.queue;
+            queue.waiters.remove(waiter);
+            waiter.meters.queued.decrementAndGet();
+            if (queue.waiters.isEmpty() && queues.remove(queue.principal, queue)) {
+                activeQueues.remove(queue);
+            }
+            return true;
+        }
+
+        /**
+         * The meters of the requests of a weight class on this route.
+         */
+        private final class ClassMeters {
+
+            private final String weightClass;
+
+            private final AtomicInteger queued = new AtomicInteger();
+
+            private final Timer wait;
+
+            private ClassMeters(String weightClass) {
+                this.weightClass = weightClass;
+                Gauge.builder(QUEUE_DEPTH_METRIC, queued, AtomicInteger::get)
+                    .description("Requests waiting for an upstream slot, by route and class")
+                    .tag("route", routeId)
+                    .tag("class", weightClass)
+                    .register(meterRegistry);
+                this.wait = Timer.builder(WAIT_METRIC)
+                    .description("Time the queued requests waited for an upstream slot, by route and class")
+                    .tag("route", routeId)
+                    .tag("class", weightClass)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            }
+
+            private Counter rejected(String reason) {
+                return Counter.builder(REJECTED_METRIC)
+                    .description("Requests rejected by the gateway fair queuing, by route, class and reason")
+                    .tag("route", routeId)
+                    .tag("class", weightClass)
+                    .tag("reason", reason)
+                    .register(meterRegistry);
+            }
+        }
+    }
+
+    /**
+     * The virtual queue of a principal on a route.
+     */
+    private static final class PrincipalQueue {
+
+        private final String principal;
+
+        private final double weight;
+
+        private final Deque<Waiter> waiters = new ArrayDeque<>();
+
+        private double deficit;
+
+        private boolean inTurn;
+
+        private PrincipalQueue(String principal, double weight) {
+            this.principal = principal;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * A request waiting for an upstream slot.
+     */
+    private static final class Waiter {
+
+        private final PrincipalQueue queue;
+
+        private final RouteScheduler.ClassMeters meters;
+
+        private final CountDownLatch granted = new CountDownLatch(1);
+
+        private Waiter(PrincipalQueue queue, RouteScheduler.ClassMeters meters) {
+            this.queue = queue;
+            this.meters = meters;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.jhipster.blog.gateway.hedging;
+
+import com.jhipster.blog.gateway.loadbalancer.ExclusionAwareRule;
+
+import com.netflix.client.config.IClientConfig;
+import com.netflix.hystrix.exception.HystrixRuntimeException;
+import com.netflix.loadbalancer.BaseLoadBalancer;
+import com.netflix.loadbalancer.ILoadBalancer;
+import com.netflix.loadbalancer.IRule;
+import com.netflix.loadbalancer.Server;
+import com.netflix.loadbalancer.ServerStats;
+import com.netflix.zuul.context.RequestContext;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.springframework.cloud.netflix.ribbon.RibbonHttpResponse;
+import org.springframework.cloud.netflix.ribbon.SpringClientFactory;
+import org.springframework.cloud.netflix.ribbon.apache.RibbonApacheHttpRequest;
+import org.springframework.cloud.netflix.ribbon.apache.RibbonApacheHttpResponse;
+import org.springframework.cloud.netflix.ribbon.apache.RibbonLoadBalancingHttpClient;
+import org.springframework.cloud.netflix.ribbon.support.RibbonCommandContext;
+import org.springframework.cloud.netflix.ribbon.support.RibbonRequestCustomizer;
+import org.springframework.cloud.netflix.zuul.filters.ProxyRequestHelper;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+import org.springframework.cloud.netflix.zuul.filters.route.FallbackProvider;
+import org.springframework.cloud.netflix.zuul.filters.route.HttpClientRibbonCommand;
+import org.springframework.cloud.netflix.zuul.filters.route.RibbonCommandFactory;
+import org.springframework.cloud.netflix.zuul.filters.route.RibbonRoutingFilter;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Ribbon routing filter hedging the GET requests of the routes opted in with
+ * {@code application.gateway.hedging.routes}.
+ * <p>
+ * It replaces the default {@link RibbonRoutingFilter}: other requests are forwarded through the usual Ribbon
+ * commands. A hedged request runs in a Hystrix command of its own, with the command key, timeout, circuit breaker and
+ * {@link FallbackProvider} of the route, in which the {@link RequestHedger} sends it to instances chosen by the load
+ * balancer rule of the service, the hedge request going to another instance than the first one.
+ */
+public class HedgingRoutingFilter extends RibbonRoutingFilter {
+
+    /**
+     * Request context key where the Ribbon commands keep the response of the instance.
+     */
+    private static final String RIBBON_RESPONSE_KEY = "ribbonResponse";
+
+    /**
+     * How many times a rule which cannot leave out an instance is asked for the target of a hedge request.
+     */
+    private static final int MAX_HEDGE_CHOICES = 3;
+
+    private final SpringClientFactory clientFactory;
+
+    private final ZuulProperties zuulProperties;
+
+    private final Map<String, FallbackProvider> fallbackProviders = new HashMap<>();
+
+    private final RequestHedger requestHedger;
+
+    private FallbackProvider defaultFallbackProvider;
+
+    public HedgingRoutingFilter(ProxyRequestHelper helper, RibbonCommandFactory<?> ribbonCommandFactory,
+                                List<RibbonRequestCustomizer> requestCustomizers, SpringClientFactory clientFactory,
+                                ZuulProperties zuulProperties, Collection<FallbackProvider> fallbackProviders,
+                                RequestHedger requestHedger) {
+        super(helper, ribbonCommandFactory, requestCustomizers);
+        this.clientFactory = clientFactory;
+        this.zuulProperties = zuulProperties;
+        // Same lookup as the Ribbon command factories
+        for (FallbackProvider fallbackProvider : fallbackProviders) {
+            String route = fallbackProvider.getRoute();
+            if (route == null || "*".equals(route)) {
+                defaultFallbackProvider = fallbackProvider;
+            } else {
+                this.fallbackProviders.put(route, fallbackProvider);
+            }
+        }
+        this.requestHedger = requestHedger;
+    }
+
+    @Override
+    protected ClientHttpResponse forward(RibbonCommandContext context) throws Exception {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        String routeId = (String) ctx.get(FilterConstants.PROXY_KEY);
+        if (!"GET".equalsIgnoreCase(context.getMethod()) || !requestHedger.isHedged(routeId)) {
+            return super.forward(context);
+        }
+        String serviceId = context.getServiceId();
+        RibbonLoadBalancingHttpClient client = clientFactory.getClient(serviceId, RibbonLoadBalancingHttpClient.class);
+        ILoadBalancer loadBalancer = client == null ? null : client.getLoadBalancer();
+        Server primary = loadBalancer == null ? null : loadBalancer.chooseServer(context.getLoadBalancerKey());
+        if (primary == null) {
+            return super.forward(context);
+        }
+
+        FallbackProvider fallbackProvider = fallbackProviders.getOrDefault(serviceId, defaultFallbackProvider);
+        HedgedRibbonCommand command = new HedgedRibbonCommand(client, context, fallbackProvider,
+            clientFactory.getClientConfig(serviceId), routeId, loadBalancer, primary);
+        try {
+            return command.execute();
+        } catch (HystrixRuntimeException e) {
+            return handleException(new HashMap<>(), e);
+        }
+    }
+
+    private RibbonApacheHttpResponse execute(RibbonLoadBalancingHttpClient client, IClientConfig config,
+                                             AbortableRequest request, Server server) throws Exception {
+        RibbonApacheHttpRequest serverRequest =
+            (RibbonApacheHttpRequest) request.replaceUri(client.reconstructURIWithServer(server, request.getUri()));
+        // Keep the Ribbon statistics of the instance up to date, as the load balancing rules rely on them
+        ServerStats stats = client.getServerStats(server);
+        client.noteOpenConnection(stats);
+        long start = System.currentTimeMillis();
+        try {
+            RibbonApacheHttpResponse response = client.execute(serverRequest, config);
+            client.noteRequestCompletion(stats, response, null, System.currentTimeMillis() - start);
+            return response;
+        } catch (Exception e) {
+            client.noteRequestCompletion(stats, null, e, System.currentTimeMillis() - start);
+            throw e;
+        }
+    }
+
+    /**
+     * Choose the target of the hedge request with the rule of the load balancer, leaving out the first instance.
+     */
+    private Server otherServer(ILoadBalancer loadBalancer, Object key, Server primary) {
+        IRule rule = loadBalancer instanceof BaseLoadBalancer ? ((BaseLoadBalancer) loadBalancer).getRule() : null;
+        if (rule instanceof ExclusionAwareRule) {
+            return ((ExclusionAwareRule) rule).choose(key, primary);
+        }
+        // Other rules, such as round robin, give another instance on the next calls unless there is none
+        for (int i = 0; i < MAX_HEDGE_CHOICES; i++) {
+            Server server = loadBalancer.chooseServer(key);
+            if (server != null && !server.equals(primary)) {
+                return server;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Ribbon command of a hedged request: the Hystrix command of the route, whose call is made by the
+     * {@link RequestHedger} instead of being sent once through the load balancer.
+     */
+    private final class HedgedRibbonCommand extends HttpClientRibbonCommand {
+
+        private final RibbonLoadBalancingHttpClient hedgedClient;
+
+        private final RibbonCommandContext hedgedContext;
+
+        private final IClientConfig hedgedConfig;
+
+        private final String routeId;
+
+        private final ILoadBalancer loadBalancer;
+
+        private final Server primary;
+
+        private HedgedRibbonCommand(RibbonLoadBalancingHttpClient client, RibbonCommandContext context,
+                                    FallbackProvider fallbackProvider, IClientConfig config, String routeId,
+                                    ILoadBalancer loadBalancer, Server primary) {
+            super(context.getServiceId(), client, context, zuulProperties, fallbackProvider, config);
+            this.hedgedClient = client;
+            this.hedgedContext = context;
+            this.hedgedConfig = config;
+            this.routeId = routeId;
+            this.loadBalancer = loadBalancer;
+            this.primary = primary;
+        }
+
+        @Override
+        protected ClientHttpResponse run() throws Exception {
+            RibbonApacheHttpResponse response = requestHedger.call(routeId, primary,
+                () -> otherServer(loadBalancer, hedgedContext.getLoadBalancerKey(), primary),
+                (server, sent) -> execute(hedgedClient, hedgedConfig, new AbortableRequest(hedgedContext, sent),
+                    server));
+            RequestContext.getCurrentContext().set(RIBBON_RESPONSE_KEY, response);
+            if (isResponseTimedOut()) {
+                // The fallback answered the request in the meantime
+                response.close();
+            }
+            return new RibbonHttpResponse(response);
+        }
+    }
+
+    /**
+     * A Ribbon request handing the Apache request built from it to the {@link RequestHedger}, so that it can be
+     * aborted if the response of the other instance is used.
+     */
+    private static final class AbortableRequest extends RibbonApacheHttpRequest {
+
+        private final Consumer<HttpRequestBase> sent;
+
+        private AbortableRequest(RibbonCommandContext context, Consumer<HttpRequestBase> sent) {
+            super(context);
+            this.sent = sent;
+        }
+
+        @Override
+        public HttpUriRequest toRequest(RequestConfig requestConfig) {
+            HttpUriRequest request = super.toRequest(requestConfig);
+            if (request instanceof HttpRequestBase) {
+                sent.accept((HttpRequestBase) request);
+            }
+            return request;
+        }
+
+        @Override
+        public RibbonApacheHttpRequest withNewUri(URI uri) {
+            // Used by the client to switch to HTTPS
+            return new AbortableRequest(newContext(uri), sent);
+        }
+    }
+}
@@ -0,0 +1,359 @@
+package com.jhipster.blog.gateway.hedging;
+
+import com.jhipster.blog.config.ApplicationProperties;
+import com.jhipster.blog.gateway.budget.TokenBudget;
+
+import com.netflix.loadbalancer.Server;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Sends hedge requests to a second instance when the first one is slow to answer.
+ * <p>
+ * The hedge is sent once the first request has been running for the configured percentile of the recent upstream
+ * latency of the route, and only if the global {@link TokenBudget} allows it. The first response is used, and the
+ * request still waiting for the other one is aborted, which closes its connection and frees the thread sending it.
+ */
+public class RequestHedger {
+
+    public static final String REQUESTS_METRIC = "gateway.hedging.requests";
+
+    public static final String UPSTREAM_METRIC = "gateway.hedging.upstream";
+
+    public static final String SENT = "sent";
+
+    public static final String WON = "won";
+
+    public static final String DENIED = "denied";
+
+    /**
+     * How long a computed hedge delay is used before reading the latency histogram again.
+     */
+    private static final long DELAY_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Maximum number of hedge requests that can be saved up.
+     */
+    private static final long MAX_SAVED_HEDGES = 10;
+
+    private final Logger log = LoggerFactory.getLogger(RequestHedger.class);
+
+    private final ApplicationProperties.Gateway.Hedging hedgingProperties;
+
+    private final Set<String> routes;
+
+    private final MeterRegistry meterRegistry;
+
+    private final TokenBudget budget;
+
+    private final ThreadPoolExecutor executor;
+
+    private final ConcurrentMap<String, RouteHedging> routeHedgings = new ConcurrentHashMap<>();
+
+    public RequestHedger(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this.hedgingProperties = applicationProperties.getGateway().getHedging();
+        this.routes = new HashSet<>(hedgingProperties.getRoutes());
+        this.meterRegistry = meterRegistry;
+        this.budget = new TokenBudget(hedgingProperties.getBudgetPercent() / 100, MAX_SAVED_HEDGES);
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("gateway-hedging-");
+        threadFactory.setDaemon(true);
+        this.executor = new ThreadPoolExecutor(0, hedgingProperties.getMaxThreads(), 60, TimeUnit.SECONDS,
+            new SynchronousQueue<>(), threadFactory);
+    }
+
+    /**
+     * Whether the requests of a route may be hedged.
+     *
+     * @param routeId the id of the route.
+     * @return true if the route is listed in {@code application.gateway.hedging.routes}.
+     */
+    public boolean isHedged(String routeId) {
+        return routeId != null && routes.contains(routeId);
+    }
+
+    /**
+     * Call a first instance, then a second one if the first is too slow to answer.
+     *
+     * @param routeId the id of the route.
+     * @param primary the first instance to call.
+     * @param backup supplies the instance of the hedge request, or {@code null} if there is none.
+     * @param call the call to an instance.
+     * @param <T> the type of the responses.
+     * @return the first response received.
+     * @throws Exception the exception of the call, if both calls failed.
+     */
+    public <T extends Closeable> T call(String routeId, Server primary, Supplier<Server> backup, ServerCall<T> call)
+        throws Exception {
+        RouteHedging route = routeHedgings.computeIfAbsent(routeId, RouteHedging::new);
+        budget.deposit();
+        ExecutorCompletionService<T> completions = new ExecutorCompletionService<>(executor);
+        Attempt<T> first = new Attempt<>(route, call, primary);
+        try {
+            first.future = completions.submit(first);
+        } catch (RejectedExecutionException e) {
+            log.debug("Hedging: no thread available, calling {} directly", primary);
+            return first.call();
+        }
+
+        Attempt<T> second = null;
+        try {
+            Future<T> done = completions.poll(route.delayNanos(), TimeUnit.NANOSECONDS);
+            if (done == null) {
+                second = hedge(route, backup, call, completions);
+                done = completions.take();
+            }
+            Attempt<T> winner = done == first.future ? first : second;
+            Attempt<T> loser = winner == first ? second : first;
+            try {
+                T response = done.get();
+                if (loser != null) {
+                    loser.abandon();
+                }
+                if (winner == second) {
+                    route.won.increment();
+                }
+                return response;
+            } catch (ExecutionException e) {
+                if (loser == null) {
+                    throw unwrap(e);
+                }
+                log.debug("Hedging: call to {} failed, waiting for {}", winner.server, loser.server);
+                T response = getOrThrow(loser.future);
+                if (loser == second) {
+                    route.won.increment();
+                }
+                return response;
+            }
+        } catch (InterruptedException e) {
+            first.abandon();
+            if (second != null) {
+                second.abandon();
+            }
+            throw e;
+        }
+    }
+
+    private <T extends Closeable> Attempt<T> hedge(RouteHedging route, Supplier<Server> backup, ServerCall<T> call,
+                                                   ExecutorCompletionService<T> completions) {
+        Server server = backup.get();
+        if (server == null) {
+            return null;
+        }
+        if (!budget.tryWithdraw()) {
+            route.denied.increment();
+            return null;
+        }
+        Attempt<T> attempt = new Attempt<>(route, call, server);
+        try {
+            attempt.future = completions.submit(attempt);
+        } catch (RejectedExecutionException e) {
+            log.debug("Hedging: no thread available for a hedge request to {}", server);
+            return null;
+        }
+        route.sent.increment();
+        return attempt;
+    }
+
+    /**
+     * Get the current delay before hedging the requests of a route.
+     *
+     * @param routeId the id of the route.
+     * @return the delay, in nanoseconds.
+     */
+    public long getDelayNanos(String routeId) {
+        return routeHedgings.computeIfAbsent(routeId, RouteHedging::new).delayNanos();
+    }
+
+    /**
+     * Stop the threads sending the requests.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static <T> T getOrThrow(Future<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    private static Exception unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return cause instanceof Exception ? (Exception) cause : e;
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // The response is discarded anyway
+        }
+    }
+
+    /**
+     * A call to a service instance.
+     *
+     * @param <T> the type of the response.
+     */
+    @FunctionalInterface
+    public interface ServerCall<T> {
+
+        /**
+         * @param server the instance to call.
+         * @param sent receives the request sent to the instance, before it is executed, so that it can be aborted.
+         * @return the response of the instance.
+         * @throws Exception if the call failed or was aborted.
+         */
+        T call(Server server, Consumer<HttpRequestBase> sent) throws Exception;
+    }
+
+    /**
+     * A call to an instance, whose request is aborted when it is abandoned, and whose response is closed if it
+     * arrives after that.
+     */
+    private static final class Attempt<T extends Closeable> implements Callable<T> {
+
+        private final RouteHedging route;
+
+        private final ServerCall<T> call;
+
+        private final Server server;
+
+        private Future<T> future;
+
+        private HttpRequestBase request;
+
+        private T response;
+
+        private boolean abandoned;
+
+        private Attempt(RouteHedging route, ServerCall<T> call, Server server) {
+            this.route = route;
+            this.call = call;
+            this.server = server;
+        }
+
+        @Override
+        public T call() throws Exception {
+            long start = System.nanoTime();
+            T result = call.call(server, this::sent);
+            route.upstream.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            synchronized (this) {
+                if (abandoned) {
+                    closeQuietly(result);
+                } else {
+                    response = result;
+                }
+            }
+            return result;
+        }
+
+        private void sent(HttpRequestBase sentRequest) {
+            synchronized (this) {
+                if (abandoned) {
+                    sentRequest.abort();
+                } else {
+                    request = sentRequest;
+                }
+            }
+        }
+
+        private void abandon() {
+            synchronized (this) {
+                abandoned = true;
+                if (response != null) {
+                    closeQuietly(response);
+                } else if (request != null) {
+                    // Without this the call would go on until the instance answers or the read timeout expires
+                    request.abort();
+                }
+            }
+            if (future != null) {
+                future.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * The latency histogram, hedge delay and counters of a route.
+     */
+    private final class RouteHedging {
+
+        private final Timer upstream;
+
+        private final Counter sent;
+
+        private final Counter won;
+
+        private final Counter denied;
+
+        private volatile long delayNanos;
+
+        private volatile long delayComputedAt;
+
+        private RouteHedging(String routeId) {
+            upstream = Timer.builder(UPSTREAM_METRIC)
+                .description("Upstream latency of the hedged routes, from which the hedge delay is taken")
+                .tag("route", routeId)
+                .publishPercentiles(hedgingProperties.getPercentile())
+                .distributionStatisticExpiry(Duration.ofMinutes(1))
+                .distributionStatisticBufferLength(3)
+                .register(meterRegistry);
+            sent = counter(routeId, SENT);
+            won = counter(routeId, WON);
+            denied = counter(routeId, DENIED);
+            delayNanos = TimeUnit.MILLISECONDS.toNanos(hedgingProperties.getMaxDelayInMilliseconds());
+            delayComputedAt = System.nanoTime();
+        }
+
+        private long delayNanos() {
+            long now = System.nanoTime();
+            if (now - delayComputedAt > DELAY_REFRESH_NANOS) {
+                delayComputedAt = now;
+                long minDelay = TimeUnit.MILLISECONDS.toNanos(hedgingProperties.getMinDelayInMilliseconds());
+                long maxDelay = TimeUnit.MILLISECONDS.toNanos(hedgingProperties.getMaxDelayInMilliseconds());
+                ValueAtPercentile[] percentiles = upstream.takeSnapshot().percentileValues();
+                long delay = percentiles.length == 0 ? 0 : (long) percentiles[0].value(TimeUnit.NANOSECONDS);
+                delayNanos = delay <= 0 ? maxDelay : Math.max(minDelay, Math.min(maxDelay, delay));
+            }
+            return delayNanos;
+        }
+
+        private Counter counter(String routeId, String result) {
+            return Counter.builder(REQUESTS_METRIC)
+                .description("Hedge requests sent, won, or denied by the hedge budget, per gateway route")
+                .tag("route", routeId)
+                .tag("result", result)
+                .register(meterRegistry);
+        }
+    }
+}
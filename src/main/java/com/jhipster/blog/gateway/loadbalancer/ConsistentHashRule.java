@@ -0,0 +1,138 @@
+package com.jhipster.blog.gateway.loadbalancer;
+
+import com.netflix.client.config.IClientConfig;
+import com.netflix.loadbalancer.AbstractLoadBalancer;
+import com.netflix.loadbalancer.AbstractLoadBalancerRule;
+import com.netflix.loadbalancer.ILoadBalancer;
+import com.netflix.loadbalancer.IRule;
+import com.netflix.loadbalancer.LoadBalancerStats;
+import com.netflix.loadbalancer.Server;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ribbon rule choosing the instance of a request by consistent hashing of its load balancer key, with bounded loads.
+ * <p>
+ * Instances are ranked by rendezvous (highest random weight) hashing of the key and their host and port, so that a
+ * change of the instance list only moves the keys of the instances added or removed. The first instance in this
+ * order whose outstanding requests are below {@code loadFactor} times the average, rounded up, is chosen: a hot key
+ * spills over to its next instances instead of overloading one, which is counted by the {@value #SPILLOVER_METRIC}
+ * metric. Instances whose circuit breaker is tripped are skipped when possible, and requests without a key are
+ * handed to the fallback rule. Leaving out the instance of a key picks its next instance in the same order.
+ */
+public class ConsistentHashRule extends AbstractLoadBalancerRule implements ExclusionAwareRule {
+
+    public static final String SPILLOVER_METRIC = "gateway.loadbalancer.sticky.spillover";
+
+    private final IRule fallback;
+
+    private final double loadFactor;
+
+    private final Counter spillover;
+
+    public ConsistentHashRule(IRule fallback, double loadFactor, String serviceId, MeterRegistry meterRegistry) {
+        this.fallback = fallback;
+        this.loadFactor = Math.max(1, loadFactor);
+        this.spillover = Counter.builder(SPILLOVER_METRIC)
+            .description("Sticky requests sent to another instance than theirs because it was overloaded or tripped")
+            .tag("service", serviceId)
+            .register(meterRegistry);
+    }
+
+    @Override
+    public void initWithNiwsConfig(IClientConfig clientConfig) {
+        // Settings are read from the ApplicationProperties
+    }
+
+    @Override
+    public void setLoadBalancer(ILoadBalancer loadBalancer) {
+        super.setLoadBalancer(loadBalancer);
+        fallback.setLoadBalancer(loadBalancer);
+    }
+
+    @Override
+    public Server choose(Object key) {
+        return choose(key, null);
+    }
+
+    @Override
+    public Server choose(Object key, Server excluded) {
+        ILoadBalancer loadBalancer = getLoadBalancer();
+        if (!(key instanceof String) || loadBalancer == null) {
+            if (excluded != null && fallback instanceof ExclusionAwareRule) {
+                return ((ExclusionAwareRule) fallback).choose(key, excluded);
+            }
+            return fallback.choose(key);
+        }
+        List<Server> servers = new ArrayList<>(loadBalancer.getReachableServers());
+        servers.remove(excluded);
+        if (servers.isEmpty()) {
+            return null;
+        }
+        LoadBalancerStats stats = loadBalancer instanceof AbstractLoadBalancer ?
+            ((AbstractLoadBalancer) loadBalancer).getLoadBalancerStats() : null;
+        long keyHash = hash((String) key);
+        long now = System.currentTimeMillis();
+        int totalLoad = 0;
+        int[] loads = new int[servers.size()];
+        long[] weights = new long[servers.size()];
+        boolean[] tripped = new boolean[servers.size()];
+        for (int i = 0; i < servers.size(); i++) {
+            Server server = servers.get(i);
+            if (stats != null) {
+                loads[i] = Math.max(0, stats.getSingleServerStat(server).getActiveRequestsCount());
+                tripped[i] = stats.getSingleServerStat(server).isCircuitBreakerTripped(now);
+            }
+            totalLoad += loads[i];
+            weights[i] = mix(keyHash ^ hash(server.getHostPort()));
+        }
+        // Counting the request being balanced keeps the capacity at one or more
+        long capacity = (long) Math.ceil(loadFactor * (totalLoad + 1) / servers.size());
+
+        int preferred = 0;
+        int chosen = -1;
+        int chosenTripped = -1;
+        for (int i = 0; i < servers.size(); i++) {
+            if (weights[i] > weights[preferred]) {
+                preferred = i;
+            }
+            if (loads[i] >= capacity) {
+                continue;
+            }
+            if (!tripped[i] && (chosen < 0 || weights[i] > weights[chosen])) {
+                chosen = i;
+            } else if (tripped[i] && (chosenTripped < 0 || weights[i] > weights[chosenTripped])) {
+                chosenTripped = i;
+            }
+        }
+        if (chosen < 0) {
+            // Every instance below the capacity has its circuit breaker tripped
+            chosen = chosenTripped;
+        }
+        if (chosen != preferred) {
+            spillover.increment();
+        }
+        return servers.get(chosen);
+    }
+
+    private static long hash(String value) {
+        // 64-bit FNV-1a
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static long mix(long value) {
+        // Finalizer of SplitMix64, spreading the bits of the combined hashes
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+}
@@ -0,0 +1,19 @@
+package com.jhipster.blog.gateway.loadbalancer;
+
+import com.netflix.loadbalancer.IRule;
+import com.netflix.loadbalancer.Server;
+
+/**
+ * Ribbon rule able to choose another instance than a given one, such as the target of a hedge request.
+ */
+public interface ExclusionAwareRule extends IRule {
+
+    /**
+     * Choose an instance the way {@link #choose(Object)} does, leaving out an instance.
+     *
+     * @param key the load balancer key of the request.
+     * @param excluded the instance not to choose, or {@code null}.
+     * @return the instance, or {@code null} if there is no other one.
+     */
+    Server choose(Object key, Server excluded);
+}
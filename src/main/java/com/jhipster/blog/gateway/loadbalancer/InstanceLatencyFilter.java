@@ -0,0 +1,81 @@
+package com.jhipster.blog.gateway.loadbalancer;
+
+import com.jhipster.blog.gateway.metrics.UpstreamEndFilter;
+import com.jhipster.blog.gateway.metrics.UpstreamStartFilter;
+
+import com.netflix.client.IResponse;
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+
+import java.net.URI;
+
+/**
+ * Zuul filter feeding the {@link InstanceLatencyStats} with the upstream time of the requests proxied by Ribbon.
+ * <p>
+ * The instance is the one of the URI requested by Ribbon, and the upstream time is the one measured for the route
+ * metrics.
+ */
+public class InstanceLatencyFilter extends ZuulFilter {
+
+    /**
+     * Request context key where the Ribbon commands keep the response of the instance.
+     */
+    static final String RIBBON_RESPONSE_KEY = "ribbonResponse";
+
+    private final InstanceLatencyStats instanceLatencyStats;
+
+    public InstanceLatencyFilter(InstanceLatencyStats instanceLatencyStats) {
+        this.instanceLatencyStats = instanceLatencyStats;
+    }
+
+    @Override
+    public String filterType() {
+        return FilterConstants.POST_TYPE;
+    }
+
+    @Override
+    public int filterOrder() {
+        // Right after the UpstreamEndFilter
+        return Integer.MIN_VALUE + 1;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        return ctx.get(RIBBON_RESPONSE_KEY) instanceof IResponse && ctx.get(FilterConstants.SERVICE_ID_KEY) != null &&
+            ctx.get(UpstreamStartFilter.UPSTREAM_START_KEY) != null && ctx.get(UpstreamEndFilter.UPSTREAM_END_KEY) != null;
+    }
+
+    @Override
+    public Object run() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        String instance = getInstance(ctx);
+        if (instance == null) {
+            return null;
+        }
+        long latencyNanos = (Long) ctx.get(UpstreamEndFilter.UPSTREAM_END_KEY) -
+            (Long) ctx.get(UpstreamStartFilter.UPSTREAM_START_KEY);
+        instanceLatencyStats.record((String) ctx.get(FilterConstants.SERVICE_ID_KEY), instance, latencyNanos);
+        return null;
+    }
+
+    /**
+     * Get the instance which answered a request proxied by Ribbon.
+     *
+     * @param ctx the context of the request.
+     * @return the host and port of the instance, or {@code null} if the request got no response from Ribbon.
+     */
+    public static String getInstance(RequestContext ctx) {
+        Object response = ctx.get(RIBBON_RESPONSE_KEY);
+        URI uri = response instanceof IResponse ? ((IResponse) response).getRequestedURI() : null;
+        if (uri == null || uri.getHost() == null) {
+            return null;
+        }
+        int port = uri.getPort();
+        if (port < 0) {
+            port = "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+        }
+        return uri.getHost() + ":" + port;
+    }
+}
@@ -0,0 +1,96 @@
+package com.jhipster.blog.gateway.loadbalancer;
+
+import com.jhipster.blog.config.ApplicationProperties;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Latency of the service instances, as observed by the gateway.
+ * <p>
+ * Each instance keeps a peak EWMA of its response time: a slower response is taken into account at once, while faster
+ * responses lower the average over the decay time of the service. The average also decays when an instance is not
+ * used, so that an instance that was slow gets probed again after a while.
+ */
+public class InstanceLatencyStats {
+
+    private final ApplicationProperties.Gateway.LoadBalancing loadBalancingProperties;
+
+    private final LongSupplier nanoClock;
+
+    private final ConcurrentMap<String, PeakEwma> instances = new ConcurrentHashMap<>();
+
+    public InstanceLatencyStats(ApplicationProperties applicationProperties) {
+        this(applicationProperties, System::nanoTime);
+    }
+
+    InstanceLatencyStats(ApplicationProperties applicationProperties, LongSupplier nanoClock) {
+        this.loadBalancingProperties = applicationProperties.getGateway().getLoadBalancing();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Record the response time of an instance.
+     *
+     * @param serviceId the id of the service.
+     * @param hostPort the host and port of the instance.
+     * @param latencyNanos the response time, in nanoseconds.
+     */
+    public void record(String serviceId, String hostPort, long latencyNanos) {
+        instances.computeIfAbsent(serviceId + "/" + hostPort, key -> new PeakEwma(decayTimeNanos(serviceId)))
+            .observe(latencyNanos, nanoClock.getAsLong());
+    }
+
+    /**
+     * Get the average response time of an instance.
+     *
+     * @param serviceId the id of the service.
+     * @param hostPort the host and port of the instance.
+     * @return the average response time in nanoseconds, or -1 if the instance was never observed.
+     */
+    public double getLatency(String serviceId, String hostPort) {
+        PeakEwma ewma = instances.get(serviceId + "/" + hostPort);
+        return ewma == null ? -1 : ewma.get(nanoClock.getAsLong());
+    }
+
+    private long decayTimeNanos(String serviceId) {
+        ApplicationProperties.Gateway.LoadBalancing.LatencyAware settings =
+            loadBalancingProperties.getServices().getOrDefault(serviceId, loadBalancingProperties.getLatencyAware());
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(1, settings.getDecayTimeInMilliseconds()));
+    }
+
+    /**
+     * A time-decayed moving average that jumps to peaks.
+     */
+    private static final class PeakEwma {
+
+        private final double decayTimeNanos;
+
+        private double value;
+
+        private long timestamp;
+
+        private boolean observed;
+
+        private PeakEwma(long decayTimeNanos) {
+            this.decayTimeNanos = decayTimeNanos;
+        }
+
+        private synchronized void observe(long latencyNanos, long now) {
+            if (!observed || latencyNanos > value) {
+                value = latencyNanos;
+                observed = true;
+            } else {
+                double weight = Math.exp(-Math.max(0, now - timestamp) / decayTimeNanos);
+                value = value * weight + latencyNanos * (1 - weight);
+            }
+            timestamp = now;
+        }
+
+        private synchronized double get(long now) {
+            return value * Math.exp(-Math.max(0, now - timestamp) / decayTimeNanos);
+        }
+    }
+}
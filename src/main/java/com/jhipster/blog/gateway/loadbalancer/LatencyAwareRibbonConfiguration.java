@@ -0,0 +1,51 @@
+package com.jhipster.blog.gateway.loadbalancer;
+
+import com.jhipster.blog.config.ApplicationProperties;
+
+import com.netflix.client.config.IClientConfig;
+import com.netflix.loadbalancer.AbstractLoadBalancerRule;
+import com.netflix.loadbalancer.IRule;
+import com.netflix.loadbalancer.ZoneAvoidanceRule;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.netflix.ribbon.PropertiesFactory;
+import org.springframework.cloud.netflix.ribbon.RibbonClientName;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Default configuration of the Ribbon clients, choosing the load balancing rule of each service.
+ * <p>
+ * This class is registered in the Ribbon client contexts with {@code @RibbonClients(defaultConfiguration = ...)}, so
+ * it is not a {@code @Configuration}: it must not be picked by the component scan of the application context.
+ * A rule set with the {@code <service>.ribbon.NFLoadBalancerRuleClassName} property takes precedence, then the
+ * {@link LatencyAwareRule} is used for the services where it is enabled, and Ribbon's default rule otherwise. For the
+ * routes with sticky routing, this rule is the fallback of a {@link ConsistentHashRule}.
+ */
+public class LatencyAwareRibbonConfiguration {
+
+    @RibbonClientName
+    private String name = "client";
+
+    @Bean
+    public IRule ribbonRule(IClientConfig config, PropertiesFactory propertiesFactory,
+                            ApplicationProperties applicationProperties, InstanceLatencyStats instanceLatencyStats,
+                            MeterRegistry meterRegistry) {
+        if (propertiesFactory.isSet(IRule.class, name)) {
+            return propertiesFactory.get(IRule.class, config, name);
+        }
+        ApplicationProperties.Gateway.LoadBalancing loadBalancing = applicationProperties.getGateway().getLoadBalancing();
+        AbstractLoadBalancerRule rule;
+        if (loadBalancing.getServices().getOrDefault(name, loadBalancing.getLatencyAware()).isEnabled()) {
+            rule = new LatencyAwareRule(instanceLatencyStats, name);
+        } else {
+            rule = new ZoneAvoidanceRule();
+        }
+        rule.initWithNiwsConfig(config);
+        ApplicationProperties.Gateway.StickyRouting stickyRouting =
+            applicationProperties.getGateway().getStickyRouting();
+        if (stickyRouting.isEnabled() && stickyRouting.getRoutes().containsKey(name)) {
+            // Route ids are the service ids
+            return new ConsistentHashRule(rule, stickyRouting.getLoadFactor(), name, meterRegistry);
+        }
+        return rule;
+    }
+}
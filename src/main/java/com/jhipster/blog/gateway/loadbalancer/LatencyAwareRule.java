@@ -0,0 +1,114 @@
+package com.jhipster.blog.gateway.loadbalancer;
+
+import com.netflix.client.config.IClientConfig;
+import com.netflix.loadbalancer.AbstractLoadBalancer;
+import com.netflix.loadbalancer.AbstractLoadBalancerRule;
+import com.netflix.loadbalancer.ILoadBalancer;
+import com.netflix.loadbalancer.LoadBalancerStats;
+import com.netflix.loadbalancer.Server;
+import com.netflix.loadbalancer.ServerStats;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Ribbon rule choosing the least loaded of two random instances ("power of two choices").
+ * <p>
+ * The load of an instance is its average latency observed by the gateway, see {@link InstanceLatencyStats}, times
+ * its number of outstanding requests plus one, as counted by Ribbon. Instances never observed get the average latency
+ * of the other instances, and instances whose circuit breaker is tripped are avoided when possible.
+ */
+public class LatencyAwareRule extends AbstractLoadBalancerRule implements ExclusionAwareRule {
+
+    private final InstanceLatencyStats instanceLatencyStats;
+
+    private final String serviceId;
+
+    public LatencyAwareRule(InstanceLatencyStats instanceLatencyStats, String serviceId) {
+        this.instanceLatencyStats = instanceLatencyStats;
+        this.serviceId = serviceId;
+    }
+
+    @Override
+    public void initWithNiwsConfig(IClientConfig clientConfig) {
+        // Settings are read from the ApplicationProperties
+    }
+
+    @Override
+    public Server choose(Object key) {
+        return choose(key, null);
+    }
+
+    @Override
+    public Server choose(Object key, Server excluded) {
+        ILoadBalancer loadBalancer = getLoadBalancer();
+        if (loadBalancer == null) {
+            return null;
+        }
+        LoadBalancerStats stats = loadBalancer instanceof AbstractLoadBalancer ?
+            ((AbstractLoadBalancer) loadBalancer).getLoadBalancerStats() : null;
+        List<Server> reachable = new ArrayList<>(loadBalancer.getReachableServers());
+        reachable.remove(excluded);
+        List<Server> servers = availableServers(reachable, stats);
+        if (servers.isEmpty()) {
+            return null;
+        }
+        if (servers.size() == 1) {
+            return servers.get(0);
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(servers.size());
+        int second = random.nextInt(servers.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        double defaultLatency = averageLatency(servers);
+        Server firstServer = servers.get(first);
+        Server secondServer = servers.get(second);
+        return load(firstServer, stats, defaultLatency) <= load(secondServer, stats, defaultLatency) ?
+            firstServer : secondServer;
+    }
+
+    private List<Server> availableServers(List<Server> servers, LoadBalancerStats stats) {
+        if (stats == null) {
+            return servers;
+        }
+        List<Server> available = new ArrayList<>(servers.size());
+        long now = System.currentTimeMillis();
+        for (Server server : servers) {
+            if (!stats.getSingleServerStat(server).isCircuitBreakerTripped(now)) {
+                available.add(server);
+            }
+        }
+        return available.isEmpty() ? servers : available;
+    }
+
+    private double averageLatency(List<Server> servers) {
+        double total = 0;
+        int observed = 0;
+        for (Server server : servers) {
+            double latency = instanceLatencyStats.getLatency(serviceId, server.getHostPort());
+            if (latency >= 0) {
+                total += latency;
+                observed++;
+            }
+        }
+        return observed == 0 ? 0 : total / observed;
+    }
+
+    private double load(Server server, LoadBalancerStats stats, double defaultLatency) {
+        double latency = instanceLatencyStats.getLatency(serviceId, server.getHostPort());
+        if (latency < 0) {
+            latency = defaultLatency;
+        }
+        int outstanding = 0;
+        if (stats != null) {
+            ServerStats serverStats = stats.getSingleServerStat(server);
+            outstanding = serverStats.getActiveRequestsCount();
+        }
+        // Adding one nanosecond keeps the outstanding requests relevant before any latency is known
+        return (latency + 1) * (outstanding + 1);
+    }
+}
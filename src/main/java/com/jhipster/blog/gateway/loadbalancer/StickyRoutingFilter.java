@@ -0,0 +1,65 @@
+package com.jhipster.blog.gateway.loadbalancer;
+
+import com.jhipster.blog.config.ApplicationProperties;
+import com.jhipster.blog.security.SecurityUtils;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+import org.springframework.util.StringUtils;
+
+/**
+ * Zuul filter setting the Ribbon load balancer key of the requests of the sticky routes, from which their instance is
+ * chosen by the {@link ConsistentHashRule}.
+ * <p>
+ * The key is the subject of the JWT of the user, or the value of the header configured for the route. Requests
+ * without one are left to the usual rule of the service.
+ */
+public class StickyRoutingFilter extends ZuulFilter {
+
+    /**
+     * Key source of a route taking the subject of the JWT, instead of a header name.
+     */
+    public static final String SUBJECT = "subject";
+
+    private final ApplicationProperties.Gateway.StickyRouting stickyRoutingProperties;
+
+    public StickyRoutingFilter(ApplicationProperties applicationProperties) {
+        this.stickyRoutingProperties = applicationProperties.getGateway().getStickyRouting();
+    }
+
+    @Override
+    public String filterType() {
+        return FilterConstants.PRE_TYPE;
+    }
+
+    @Override
+    public int filterOrder() {
+        // After the ConcurrencyLimitFilter, only the requests sent to the route need a key
+        return 45;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        return ctx.sendZuulResponse() && ctx.get(FilterConstants.SERVICE_ID_KEY) != null &&
+            stickyRoutingProperties.getRoutes().containsKey((String) ctx.get(FilterConstants.PROXY_KEY));
+    }
+
+    @Override
+    public Object run() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        String source = stickyRoutingProperties.getRoutes().get((String) ctx.get(FilterConstants.PROXY_KEY));
+        String key;
+        if (!StringUtils.hasText(source) || SUBJECT.equals(source)) {
+            // Anonymous users would all share the same instance
+            key = SecurityUtils.isAuthenticated() ? SecurityUtils.getCurrentUserLogin().orElse(null) : null;
+        } else {
+            key = ctx.getRequest().getHeader(source);
+        }
+        if (StringUtils.hasText(key)) {
+            ctx.set(FilterConstants.LOAD_BALANCER_KEY, key);
+        }
+        return null;
+    }
+}
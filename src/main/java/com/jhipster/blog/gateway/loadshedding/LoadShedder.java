@@ -0,0 +1,129 @@
+package com.jhipster.blog.gateway.loadshedding;
+
+import com.jhipster.blog.config.ApplicationProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Admission controller shedding the lowest priority classes first when the gateway is overloaded.
+ * <p>
+ * As in CoDel, the gateway is considered overloaded when the minimum queueing delay of the requests stays above the
+ * target for a whole interval: a standing queue rather than a burst. Every such interval, one more class is shed,
+ * starting with the lowest, and every interval where the minimum delay is back under the target, the last shed class
+ * is admitted again. The highest class is never shed.
+ */
+public class LoadShedder {
+
+    public static final String REJECTED_METRIC = "gateway.loadshedding.rejected";
+
+    public static final String LEVEL_METRIC = "gateway.loadshedding.level";
+
+    public static final String DELAY_METRIC = "gateway.loadshedding.queueing.delay";
+
+    private final Logger log = LoggerFactory.getLogger(LoadShedder.class);
+
+    private final List<String> classNames;
+
+    private final Counter[] rejected;
+
+    private final long targetDelayNanos;
+
+    private final long intervalNanos;
+
+    private final LongSupplier nanoClock;
+
+    private final AtomicLong intervalEnd;
+
+    private final AtomicLong intervalMinDelay = new AtomicLong(Long.MAX_VALUE);
+
+    private final AtomicInteger shedClasses = new AtomicInteger();
+
+    private volatile long lastMinDelay;
+
+    public LoadShedder(List<String> classNames, ApplicationProperties applicationProperties,
+                       MeterRegistry meterRegistry) {
+        this(classNames, applicationProperties, meterRegistry, System::nanoTime);
+    }
+
+    LoadShedder(List<String> classNames, ApplicationProperties applicationProperties, MeterRegistry meterRegistry,
+                LongSupplier nanoClock) {
+        ApplicationProperties.Gateway.LoadShedding loadSheddingProperties =
+            applicationProperties.getGateway().getLoadShedding();
+        this.classNames = classNames;
+        this.targetDelayNanos = TimeUnit.MILLISECONDS.toNanos(loadSheddingProperties.getTargetDelayInMilliseconds());
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(loadSheddingProperties.getIntervalInMilliseconds());
+        this.nanoClock = nanoClock;
+        this.intervalEnd = new AtomicLong(nanoClock.getAsLong() + intervalNanos);
+        this.rejected = new Counter[classNames.size()];
+        for (int i = 0; i < rejected.length; i++) {
+            rejected[i] = Counter.builder(REJECTED_METRIC)
+                .description("Requests shed by the gateway, by priority class")
+                .tag("class", classNames.get(i))
+                .register(meterRegistry);
+        }
+        Gauge.builder(LEVEL_METRIC, shedClasses, AtomicInteger::get)
+            .description("Number of priority classes currently shed by the gateway")
+            .register(meterRegistry);
+        Gauge.builder(DELAY_METRIC, this, shedder -> shedder.lastMinDelay)
+            .description("Minimum queueing delay of the requests over the last interval")
+            .baseUnit("nanoseconds")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Decide whether a request is admitted.
+     *
+     * @param priority the index of the priority class of the request, 0 being the highest.
+     * @param queueingDelayNanos how long the request waited before being handled, in nanoseconds.
+     * @return true if the request is admitted, false if it must be rejected.
+     */
+    public boolean tryAdmit(int priority, long queueingDelayNanos) {
+        observe(queueingDelayNanos);
+        if (priority > 0 && priority >= classNames.size() - shedClasses.get()) {
+            rejected[priority].increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Get the number of priority classes currently shed.
+     */
+    public int getShedClasses() {
+        return shedClasses.get();
+    }
+
+    private void observe(long queueingDelayNanos) {
+        long now = nanoClock.getAsLong();
+        long end = intervalEnd.get();
+        if (now - end >= 0 && intervalEnd.compareAndSet(end, now + intervalNanos)) {
+            endInterval(intervalMinDelay.getAndSet(Long.MAX_VALUE));
+        }
+        intervalMinDelay.accumulateAndGet(queueingDelayNanos, Math::min);
+    }
+
+    private void endInterval(long minDelay) {
+        // No request during the interval means no queue
+        lastMinDelay = minDelay == Long.MAX_VALUE ? 0 : minDelay;
+        int shed = shedClasses.get();
+        if (lastMinDelay > targetDelayNanos && shed < classNames.size() - 1) {
+            shedClasses.set(shed + 1);
+            log.warn("Load shedding: queueing delay of {} ms above target, shedding the {} requests",
+                TimeUnit.NANOSECONDS.toMillis(lastMinDelay), classNames.get(classNames.size() - shed - 1));
+        } else if (lastMinDelay <= targetDelayNanos && shed > 0) {
+            shedClasses.set(shed - 1);
+            log.info("Load shedding: queueing delay back under target, admitting the {} requests",
+                classNames.get(classNames.size() - shed));
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.jhipster.blog.gateway.loadshedding;
+
+import com.jhipster.blog.config.ApplicationProperties;
+
+import org.springframework.cloud.netflix.zuul.filters.Route;
+import org.springframework.cloud.netflix.zuul.filters.RouteLocator;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Servlet filter assigning a priority class to every request and rejecting it when the {@link LoadShedder} sheds its
+ * class.
+ * <p>
+ * The filter runs right after the Spring Security filter chain, so that the authorities of the user, taken from the
+ * {@code auth} claim of the JWT, are known and local endpoints such as the login are covered as well as the proxied
+ * routes. Rejections only set a {@code 503} status: the request body is not read and no service is called.
+ * <p>
+ * The queueing delay of a request is the time since Undertow parsed it, which needs its
+ * {@code RECORD_REQUEST_START_TIME} option. Without it, or on other containers, requests are never shed.
+ */
+public class LoadSheddingFilter extends OncePerRequestFilter {
+
+    public static final String RETRY_AFTER_HEADER = "Retry-After";
+
+    private static final boolean UNDERTOW_PRESENT = ClassUtils.isPresent(
+        "io.undertow.servlet.handlers.ServletRequestContext", LoadSheddingFilter.class.getClassLoader());
+
+    private final ApplicationProperties.Gateway.LoadShedding loadSheddingProperties;
+
+    private final List<ApplicationProperties.Gateway.LoadShedding.PriorityClass> classes;
+
+    private final List<String> classNames;
+
+    private final int defaultPriority;
+
+    private final boolean routeClasses;
+
+    private final RouteLocator routeLocator;
+
+    private final LoadShedder loadShedder;
+
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    public LoadSheddingFilter(ApplicationProperties applicationProperties, RouteLocator routeLocator,
+                              LoadShedder loadShedder) {
+        this.loadSheddingProperties = applicationProperties.getGateway().getLoadShedding();
+        this.classes = loadSheddingProperties.getClasses();
+        this.classNames = classNames(applicationProperties);
+        this.defaultPriority = classNames.indexOf(loadSheddingProperties.getDefaultClass());
+        if (defaultPriority < 0) {
+            throw new IllegalStateException("Load shedding: unknown default class " +
+                loadSheddingProperties.getDefaultClass());
+        }
+        this.routeClasses = classes.stream().anyMatch(priorityClass -> !priorityClass.getRoutes().isEmpty());
+        this.routeLocator = routeLocator;
+        this.loadShedder = loadShedder;
+    }
+
+    /**
+     * Get the names of the priority classes, from the highest priority to the lowest.
+     */
+    public static List<String> classNames(ApplicationProperties applicationProperties) {
+        return applicationProperties.getGateway().getLoadShedding().getClasses().stream()
+            .map(ApplicationProperties.Gateway.LoadShedding.PriorityClass::getName)
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        if (!loadShedder.tryAdmit(priority(request), queueingDelay())) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(RETRY_AFTER_HEADER, "1");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Get the index of the priority class of a request: the highest class matching it, or the default class, lowered
+     * to the class named by the priority header if any.
+     */
+    int priority(HttpServletRequest request) {
+        String path = urlPathHelper.getPathWithinApplication(request);
+        String routeId = null;
+        if (routeClasses) {
+            Route route = routeLocator.getMatchingRoute(path);
+            routeId = route == null ? null : route.getId();
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        int priority = defaultPriority;
+        for (int i = 0; i < classes.size(); i++) {
+            if (matches(classes.get(i), path, routeId, authentication)) {
+                priority = i;
+                break;
+            }
+        }
+        String requested = request.getHeader(loadSheddingProperties.getPriorityHeader());
+        if (requested != null) {
+            priority = Math.max(priority, classNames.indexOf(requested));
+        }
+        return priority;
+    }
+
+    private boolean matches(ApplicationProperties.Gateway.LoadShedding.PriorityClass priorityClass, String path,
+                            String routeId, Authentication authentication) {
+        if (routeId != null && priorityClass.getRoutes().contains(routeId)) {
+            return true;
+        }
+        for (String pattern : priorityClass.getPaths()) {
+            if (pathMatcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        if (authentication != null && !priorityClass.getAuthorities().isEmpty()) {
+            for (GrantedAuthority authority : authentication.getAuthorities()) {
+                if (priorityClass.getAuthorities().contains(authority.getAuthority())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private long queueingDelay() {
+        return UNDERTOW_PRESENT ? UndertowRequests.queueingDelay() : 0;
+    }
+}
@@ -0,0 +1,29 @@
+package com.jhipster.blog.gateway.loadshedding;
+
+import io.undertow.servlet.handlers.ServletRequestContext;
+
+/**
+ * Reads the start time that Undertow records for each request.
+ * <p>
+ * Undertow is not on the classpath of every build, so this class must only be loaded once its presence is checked.
+ */
+final class UndertowRequests {
+
+    private UndertowRequests() {
+    }
+
+    /**
+     * Get the time since Undertow parsed the current request.
+     *
+     * @return the delay in nanoseconds, or 0 if the request is not served by Undertow or its start time is not
+     * recorded.
+     */
+    static long queueingDelay() {
+        ServletRequestContext context = ServletRequestContext.current();
+        if (context == null) {
+            return 0;
+        }
+        long start = context.getExchange().getRequestStartTime();
+        return start > 0 ? System.nanoTime() - start : 0;
+    }
+}
@@ -0,0 +1,38 @@
+package com.jhipster.blog.gateway.metrics;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+
+/**
+ * Zuul filter recording when the gateway starts handling a request, for the {@link RouteMetricsFilter}.
+ */
+public class RequestTimingFilter extends ZuulFilter {
+
+    /**
+     * Request context key holding the {@link System#nanoTime()} when the gateway started handling the request.
+     */
+    public static final String REQUEST_START_KEY = "routeMetricsRequestStart";
+
+    @Override
+    public String filterType() {
+        return FilterConstants.PRE_TYPE;
+    }
+
+    @Override
+    public int filterOrder() {
+        // Before any other filter
+        return FilterConstants.SERVLET_DETECTION_FILTER_ORDER - 1;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        return true;
+    }
+
+    @Override
+    public Object run() {
+        RequestContext.getCurrentContext().set(REQUEST_START_KEY, System.nanoTime());
+        return null;
+    }
+}
@@ -0,0 +1,135 @@
+package com.jhipster.blog.gateway.metrics;
+
+import com.jhipster.blog.config.ApplicationProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters of the requests proxied by the gateway, per route id.
+ * <p>
+ * Timers keep HdrHistogram-backed percentiles over a short sliding window, so that they reflect the current latency
+ * of the routes. The number of route tags is bounded by {@code application.gateway.route-metrics.max-routes}: further
+ * routes are recorded under the {@value #OTHER_ROUTE} tag.
+ */
+public class RouteMetrics {
+
+    public static final String UPSTREAM_METRIC = "gateway.route.upstream";
+
+    public static final String OVERHEAD_METRIC = "gateway.route.overhead";
+
+    public static final String RESPONSE_SIZE_METRIC = "gateway.route.response.size";
+
+    public static final String RESPONSES_METRIC = "gateway.route.responses";
+
+    public static final String NO_ROUTE = "none";
+
+    public static final String OTHER_ROUTE = "other";
+
+    private static final String[] STATUS_CLASSES = {"1xx", "2xx", "3xx", "4xx", "5xx"};
+
+    private final MeterRegistry meterRegistry;
+
+    private final int maxRoutes;
+
+    private final ConcurrentMap<String, Meters> meters = new ConcurrentHashMap<>();
+
+    public RouteMetrics(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.maxRoutes = applicationProperties.getGateway().getRouteMetrics().getMaxRoutes();
+    }
+
+    /**
+     * Record a request handled by the gateway.
+     *
+     * @param routeId the id of the route, or {@code null} if the request was not routed.
+     * @param upstreamNanos the time spent waiting for the service, or -1 if the request was not proxied.
+     * @param totalNanos the time spent handling the request in the gateway, including {@code upstreamNanos}.
+     * @param responseSize the size of the response body, or -1 if it is unknown.
+     * @param status the status sent to the client, or -1 if the request failed before a status was set.
+     */
+    public void record(String routeId, long upstreamNanos, long totalNanos, long responseSize, int status) {
+        Meters routeMeters = metersFor(routeId == null ? NO_ROUTE : routeId);
+        long overheadNanos = totalNanos;
+        if (upstreamNanos >= 0) {
+            routeMeters.upstream.record(upstreamNanos, TimeUnit.NANOSECONDS);
+            overheadNanos = Math.max(0, totalNanos - upstreamNanos);
+        }
+        routeMeters.overhead.record(overheadNanos, TimeUnit.NANOSECONDS);
+        if (responseSize >= 0) {
+            routeMeters.responseSize.record(responseSize);
+        }
+        routeMeters.responses(status).increment();
+    }
+
+    private Meters metersFor(String route) {
+        Meters routeMeters = meters.get(route);
+        if (routeMeters != null) {
+            return routeMeters;
+        }
+        if (meters.size() >= maxRoutes) {
+            route = OTHER_ROUTE;
+        }
+        return meters.computeIfAbsent(route, Meters::new);
+    }
+
+    /**
+     * The meters of a route, registered once so that recording does not go through the registry.
+     */
+    private final class Meters {
+
+        private final Timer upstream;
+
+        private final Timer overhead;
+
+        private final DistributionSummary responseSize;
+
+        private final Counter[] responses = new Counter[STATUS_CLASSES.length + 1];
+
+        private Meters(String route) {
+            upstream = timer(UPSTREAM_METRIC, "Time spent waiting for the services, per gateway route", route);
+            overhead = timer(OVERHEAD_METRIC, "Time spent in the gateway, excluding the services, per gateway route",
+                route);
+            responseSize = DistributionSummary.builder(RESPONSE_SIZE_METRIC)
+                .description("Size of the response bodies, per gateway route")
+                .baseUnit("bytes")
+                .tag("route", route)
+                .register(meterRegistry);
+            for (int i = 0; i < STATUS_CLASSES.length; i++) {
+                responses[i] = responsesCounter(route, STATUS_CLASSES[i]);
+            }
+            responses[STATUS_CLASSES.length] = responsesCounter(route, "error");
+        }
+
+        private Counter responses(int status) {
+            int statusClass = status / 100;
+            return statusClass >= 1 && statusClass <= STATUS_CLASSES.length ?
+                responses[statusClass - 1] : responses[STATUS_CLASSES.length];
+        }
+
+        private Timer timer(String name, String description, String route) {
+            return Timer.builder(name)
+                .description(description)
+                .tag("route", route)
+                .publishPercentiles(0.5, 0.99)
+                .distributionStatisticExpiry(Duration.ofMinutes(1))
+                .distributionStatisticBufferLength(3)
+                .register(meterRegistry);
+        }
+
+        private Counter responsesCounter(String route, String statusClass) {
+            return Counter.builder(RESPONSES_METRIC)
+                .description("Responses sent by the gateway, per route and status class")
+                .tag("route", route)
+                .tag("status", statusClass)
+                .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.jhipster.blog.gateway.metrics;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import com.netflix.zuul.exception.ZuulException;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Zuul filter keeping the outcome of failed requests for the {@link RouteMetricsFilter}.
+ * <p>
+ * When routing fails, the time until the failure is counted as upstream time, and the request is recorded with the
+ * status of the error response.
+ */
+public class RouteMetricsErrorFilter extends ZuulFilter {
+
+    /**
+     * Request context key holding the status of the error response.
+     */
+    public static final String ERROR_STATUS_KEY = "routeMetricsErrorStatus";
+
+    @Override
+    public String filterType() {
+        return FilterConstants.ERROR_TYPE;
+    }
+
+    @Override
+    public int filterOrder() {
+        // Before the SendErrorFilter
+        return FilterConstants.SEND_ERROR_FILTER_ORDER - 1;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        return ctx.getThrowable() != null && ctx.get(RequestTimingFilter.REQUEST_START_KEY) != null;
+    }
+
+    @Override
+    public Object run() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        if (ctx.get(UpstreamStartFilter.UPSTREAM_START_KEY) != null && ctx.get(UpstreamEndFilter.UPSTREAM_END_KEY) == null) {
+            ctx.set(UpstreamEndFilter.UPSTREAM_END_KEY, System.nanoTime());
+        }
+        int status = HttpStatus.INTERNAL_SERVER_ERROR.value();
+        Throwable throwable = ctx.getThrowable();
+        while (throwable != null) {
+            if (throwable instanceof ZuulException && ((ZuulException) throwable).nStatusCode > 0) {
+                status = ((ZuulException) throwable).nStatusCode;
+                break;
+            }
+            throwable = throwable.getCause();
+        }
+        ctx.set(ERROR_STATUS_KEY, status);
+        return null;
+    }
+}
@@ -0,0 +1,60 @@
+package com.jhipster.blog.gateway.metrics;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import org.apache.commons.io.input.CountingInputStream;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Zuul filter recording the {@link RouteMetrics} of a request, once its response has been sent.
+ */
+public class RouteMetricsFilter extends ZuulFilter {
+
+    private final RouteMetrics routeMetrics;
+
+    public RouteMetricsFilter(RouteMetrics routeMetrics) {
+        this.routeMetrics = routeMetrics;
+    }
+
+    @Override
+    public String filterType() {
+        return FilterConstants.POST_TYPE;
+    }
+
+    @Override
+    public int filterOrder() {
+        // After the SendResponseFilter
+        return FilterConstants.SEND_RESPONSE_FILTER_ORDER + 1;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        return RequestContext.getCurrentContext().get(RequestTimingFilter.REQUEST_START_KEY) != null;
+    }
+
+    @Override
+    public Object run() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        long now = System.nanoTime();
+        long requestStart = (Long) ctx.get(RequestTimingFilter.REQUEST_START_KEY);
+        Long upstreamStart = (Long) ctx.get(UpstreamStartFilter.UPSTREAM_START_KEY);
+        Long upstreamEnd = (Long) ctx.get(UpstreamEndFilter.UPSTREAM_END_KEY);
+        long upstreamNanos = upstreamStart == null || upstreamEnd == null ? -1 : upstreamEnd - upstreamStart;
+
+        long responseSize = -1;
+        CountingInputStream counter = (CountingInputStream) ctx.get(UpstreamEndFilter.RESPONSE_COUNTER_KEY);
+        if (counter != null) {
+            responseSize = counter.getByteCount();
+        } else if (ctx.getResponseBody() != null) {
+            responseSize = ctx.getResponseBody().getBytes(StandardCharsets.UTF_8).length;
+        }
+
+        Integer errorStatus = (Integer) ctx.get(RouteMetricsErrorFilter.ERROR_STATUS_KEY);
+        int status = errorStatus != null ? errorStatus : ctx.getResponseStatusCode();
+        routeMetrics.record((String) ctx.get(FilterConstants.PROXY_KEY), upstreamNanos, now - requestStart,
+            responseSize, status);
+        return null;
+    }
+}
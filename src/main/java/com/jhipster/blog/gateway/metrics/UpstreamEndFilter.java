@@ -0,0 +1,54 @@
+package com.jhipster.blog.gateway.metrics;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import org.apache.commons.io.input.CountingInputStream;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+
+/**
+ * Zuul filter recording when the response of a service is received, for the {@link RouteMetricsFilter}.
+ * <p>
+ * The response body is wrapped in a stream counting its bytes as the following filters read it.
+ */
+public class UpstreamEndFilter extends ZuulFilter {
+
+    /**
+     * Request context key holding the {@link System#nanoTime()} when the response of the service was received.
+     */
+    public static final String UPSTREAM_END_KEY = "routeMetricsUpstreamEnd";
+
+    /**
+     * Request context key holding the {@link CountingInputStream} of the response body.
+     */
+    public static final String RESPONSE_COUNTER_KEY = "routeMetricsResponseCounter";
+
+    @Override
+    public String filterType() {
+        return FilterConstants.POST_TYPE;
+    }
+
+    @Override
+    public int filterOrder() {
+        // Before any other post filter
+        return Integer.MIN_VALUE;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        return RequestContext.getCurrentContext().get(RequestTimingFilter.REQUEST_START_KEY) != null;
+    }
+
+    @Override
+    public Object run() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        if (ctx.get(UpstreamStartFilter.UPSTREAM_START_KEY) != null && ctx.get(UPSTREAM_END_KEY) == null) {
+            ctx.set(UPSTREAM_END_KEY, System.nanoTime());
+        }
+        if (ctx.getResponseDataStream() != null) {
+            CountingInputStream counter = new CountingInputStream(ctx.getResponseDataStream());
+            ctx.set(RESPONSE_COUNTER_KEY, counter);
+            ctx.setResponseDataStream(counter);
+        }
+        return null;
+    }
+}
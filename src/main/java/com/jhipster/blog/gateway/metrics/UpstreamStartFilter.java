@@ -0,0 +1,38 @@
+package com.jhipster.blog.gateway.metrics;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+
+/**
+ * Zuul filter recording when a request is sent to its service, for the {@link RouteMetricsFilter}.
+ */
+public class UpstreamStartFilter extends ZuulFilter {
+
+    /**
+     * Request context key holding the {@link System#nanoTime()} when the request was sent to its service.
+     */
+    public static final String UPSTREAM_START_KEY = "routeMetricsUpstreamStart";
+
+    @Override
+    public String filterType() {
+        return FilterConstants.PRE_TYPE;
+    }
+
+    @Override
+    public int filterOrder() {
+        // After all the other pre filters, right before the routing filters
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        return RequestContext.getCurrentContext().sendZuulResponse();
+    }
+
+    @Override
+    public Object run() {
+        RequestContext.getCurrentContext().set(UPSTREAM_START_KEY, System.nanoTime());
+        return null;
+    }
+}
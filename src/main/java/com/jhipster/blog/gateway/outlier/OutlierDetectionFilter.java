@@ -0,0 +1,50 @@
+package com.jhipster.blog.gateway.outlier;
+
+import com.jhipster.blog.gateway.loadbalancer.InstanceLatencyFilter;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+
+/**
+ * Zuul filter feeding the {@link OutlierDetector} with the responses and failures of the requests proxied by Ribbon.
+ */
+public class OutlierDetectionFilter extends ZuulFilter {
+
+    private final OutlierDetector outlierDetector;
+
+    public OutlierDetectionFilter(OutlierDetector outlierDetector) {
+        this.outlierDetector = outlierDetector;
+    }
+
+    @Override
+    public String filterType() {
+        return FilterConstants.POST_TYPE;
+    }
+
+    @Override
+    public int filterOrder() {
+        // After the InstanceLatencyFilter, so that the latency of the instance includes this response
+        return Integer.MIN_VALUE + 3;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        return ctx.get(FilterConstants.SERVICE_ID_KEY) != null && ctx.getRouteHost() == null;
+    }
+
+    @Override
+    public Object run() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        String serviceId = (String) ctx.get(FilterConstants.SERVICE_ID_KEY);
+        String instance = InstanceLatencyFilter.getInstance(ctx);
+        if (instance != null) {
+            outlierDetector.recordResponse(serviceId, instance,
+                ctx.getThrowable() == null ? ctx.getResponseStatusCode() : 500);
+        } else if (ctx.getThrowable() != null) {
+            outlierDetector.recordFailure(serviceId);
+        }
+        return null;
+    }
+}
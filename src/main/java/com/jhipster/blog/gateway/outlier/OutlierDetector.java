@@ -0,0 +1,325 @@
+package com.jhipster.blog.gateway.outlier;
+
+import com.jhipster.blog.config.ApplicationProperties;
+import com.jhipster.blog.gateway.loadbalancer.InstanceLatencyStats;
+
+import com.netflix.loadbalancer.AbstractLoadBalancer;
+import com.netflix.loadbalancer.DynamicServerListLoadBalancer;
+import com.netflix.loadbalancer.ILoadBalancer;
+import com.netflix.loadbalancer.LoadBalancerStats;
+import com.netflix.loadbalancer.Server;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.netflix.ribbon.SpringClientFactory;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Passive outlier detection of the service instances, from the traffic proxied by the gateway.
+ * <p>
+ * An instance is ejected when it answers with consecutive server errors, when Ribbon counts consecutive connection
+ * failures or timeouts on it, or when its latency is much higher than the one of the other instances of its service.
+ * Ejected instances are removed from the Ribbon server list by the {@link OutlierEjectionServerListFilter}, for an
+ * ejection time doubling at each new ejection, and the server list is refreshed again once they are re-admitted.
+ * No more than {@code max-ejection-percent} of the instances of a service are ejected at once.
+ */
+public class OutlierDetector {
+
+    public static final String EJECTIONS_METRIC = "gateway.outlier.ejections";
+
+    public static final String SERVER_ERRORS = "5xx";
+
+    public static final String FAILURES = "failures";
+
+    public static final String LATENCY = "latency";
+
+    /**
+     * Highest power of two applied to the base ejection time.
+     */
+    private static final int MAX_EJECTION_SHIFT = 20;
+
+    private final Logger log = LoggerFactory.getLogger(OutlierDetector.class);
+
+    private final ApplicationProperties.Gateway.OutlierDetection outlierDetectionProperties;
+
+    private final InstanceLatencyStats instanceLatencyStats;
+
+    private final SpringClientFactory clientFactory;
+
+    private final TaskScheduler taskScheduler;
+
+    private final MeterRegistry meterRegistry;
+
+    private final LongSupplier clock;
+
+    private final ConcurrentMap<String, ConcurrentMap<String, InstanceState>> services = new ConcurrentHashMap<>();
+
+    /**
+     * The last server list of each service before filtering, which still has the ejected instances and the ones of
+     * the other zones.
+     */
+    private final ConcurrentMap<String, List<Server>> serverLists = new ConcurrentHashMap<>();
+
+    public OutlierDetector(ApplicationProperties applicationProperties, InstanceLatencyStats instanceLatencyStats,
+                           SpringClientFactory clientFactory, TaskScheduler taskScheduler,
+                           MeterRegistry meterRegistry) {
+        this(applicationProperties, instanceLatencyStats, clientFactory, taskScheduler, meterRegistry,
+            System::currentTimeMillis);
+    }
+
+    OutlierDetector(ApplicationProperties applicationProperties, InstanceLatencyStats instanceLatencyStats,
+                    SpringClientFactory clientFactory, TaskScheduler taskScheduler, MeterRegistry meterRegistry,
+                    LongSupplier clock) {
+        this.outlierDetectionProperties = applicationProperties.getGateway().getOutlierDetection();
+        this.instanceLatencyStats = instanceLatencyStats;
+        this.clientFactory = clientFactory;
+        this.taskScheduler = taskScheduler;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+    }
+
+    /**
+     * Record a response of an instance.
+     *
+     * @param serviceId the id of the service.
+     * @param hostPort the host and port of the instance.
+     * @param status the status of the response.
+     */
+    public void recordResponse(String serviceId, String hostPort, int status) {
+        InstanceState state = instances(serviceId).computeIfAbsent(hostPort, key -> new InstanceState());
+        if (state.countResponse(status >= 500) >= outlierDetectionProperties.getConsecutive5xx()) {
+            eject(serviceId, hostPort, SERVER_ERRORS);
+        } else if (isLatencyOutlier(serviceId, hostPort)) {
+            eject(serviceId, hostPort, LATENCY);
+        }
+    }
+
+    /**
+     * Record a request which failed without a response, ejecting the instances with consecutive failures.
+     * <p>
+     * The instance is not known in that case, so the consecutive connection failures and timeouts counted by Ribbon
+     * are used.
+     *
+     * @param serviceId the id of the service.
+     */
+    public void recordFailure(String serviceId) {
+        ILoadBalancer loadBalancer = clientFactory.getLoadBalancer(serviceId);
+        if (!(loadBalancer instanceof AbstractLoadBalancer)) {
+            return;
+        }
+        LoadBalancerStats stats = ((AbstractLoadBalancer) loadBalancer).getLoadBalancerStats();
+        for (Server server : loadBalancer.getAllServers()) {
+            if (stats.getSingleServerStat(server).getSuccessiveConnectionFailureCount() >=
+                outlierDetectionProperties.getConsecutiveFailures()) {
+                eject(serviceId, server.getHostPort(), FAILURES);
+            }
+        }
+    }
+
+    /**
+     * Remove the ejected instances from a list of servers, unless all of them are ejected.
+     *
+     * @param serviceId the id of the service.
+     * @param servers the servers of the service.
+     * @return the servers which are not ejected.
+     */
+    public List<Server> filter(String serviceId, List<Server> servers) {
+        serverLists.put(serviceId, new ArrayList<>(servers));
+        Map<String, InstanceState> instances = services.get(serviceId);
+        if (instances == null || servers.isEmpty()) {
+            return servers;
+        }
+        long now = clock.getAsLong();
+        List<Server> admitted = new ArrayList<>(servers.size());
+        for (Server server : servers) {
+            InstanceState state = instances.get(server.getHostPort());
+            if (state == null || !state.isEjected(now)) {
+                admitted.add(server);
+            }
+        }
+        return admitted.isEmpty() ? servers : admitted;
+    }
+
+    /**
+     * Get the instances currently ejected.
+     *
+     * @return the ejected instances, with the reason and end of their ejection.
+     */
+    public List<Ejection> getEjections() {
+        long now = clock.getAsLong();
+        List<Ejection> ejections = new ArrayList<>();
+        services.forEach((serviceId, instances) -> instances.forEach((hostPort, state) -> {
+            Ejection ejection = state.toEjection(serviceId, hostPort, now);
+            if (ejection != null) {
+                ejections.add(ejection);
+            }
+        }));
+        return ejections;
+    }
+
+    private boolean isLatencyOutlier(String serviceId, String hostPort) {
+        double latency = instanceLatencyStats.getLatency(serviceId, hostPort);
+        if (latency < TimeUnit.MILLISECONDS.toNanos(outlierDetectionProperties.getMinOutlierLatencyInMilliseconds())) {
+            return false;
+        }
+        double othersLatency = 0;
+        int others = 0;
+        for (Server server : allServers(serviceId)) {
+            if (!server.getHostPort().equals(hostPort)) {
+                double serverLatency = instanceLatencyStats.getLatency(serviceId, server.getHostPort());
+                if (serverLatency >= 0) {
+                    othersLatency += serverLatency;
+                    others++;
+                }
+            }
+        }
+        return others > 0 && latency > outlierDetectionProperties.getLatencyFactor() * othersLatency / others;
+    }
+
+    private void eject(String serviceId, String hostPort, String reason) {
+        ConcurrentMap<String, InstanceState> instances = instances(serviceId);
+        InstanceState state = instances.computeIfAbsent(hostPort, key -> new InstanceState());
+        long now = clock.getAsLong();
+        int servers = allServers(serviceId).size();
+        long ejectedUntil;
+        synchronized (instances) {
+            long ejected = instances.values().stream().filter(instance -> instance.isEjected(now)).count();
+            if (state.isEjected(now) ||
+                (ejected + 1) * 100 > (long) servers * outlierDetectionProperties.getMaxEjectionPercent()) {
+                return;
+            }
+            ejectedUntil = state.eject(reason, now, outlierDetectionProperties.getBaseEjectionTimeInMilliseconds(),
+                outlierDetectionProperties.getMaxEjectionTimeInMilliseconds());
+        }
+        log.info("Outlier detection: ejecting instance {} of service {} ({}) until {}", hostPort, serviceId, reason,
+            Instant.ofEpochMilli(ejectedUntil));
+        Counter.builder(EJECTIONS_METRIC)
+            .description("Instances ejected by the gateway outlier detection, per service and reason")
+            .tag("service", serviceId)
+            .tag("reason", reason)
+            .register(meterRegistry)
+            .increment();
+        refreshServerList(serviceId);
+        taskScheduler.schedule(() -> refreshServerList(serviceId), Instant.ofEpochMilli(ejectedUntil));
+    }
+
+    private void refreshServerList(String serviceId) {
+        ILoadBalancer loadBalancer = clientFactory.getLoadBalancer(serviceId);
+        if (loadBalancer instanceof DynamicServerListLoadBalancer) {
+            ((DynamicServerListLoadBalancer<?>) loadBalancer).updateListOfServers();
+        }
+    }
+
+    /**
+     * Get all the instances of a service: the server list of its load balancer has been filtered already, so it lacks
+     * the ejected instances, which would make the maximum ejection percent tighter at each ejection.
+     */
+    private List<Server> allServers(String serviceId) {
+        List<Server> servers = serverLists.get(serviceId);
+        if (servers != null) {
+            return servers;
+        }
+        ILoadBalancer loadBalancer = clientFactory.getLoadBalancer(serviceId);
+        return loadBalancer == null ? Collections.emptyList() : loadBalancer.getAllServers();
+    }
+
+    private ConcurrentMap<String, InstanceState> instances(String serviceId) {
+        return services.computeIfAbsent(serviceId, key -> new ConcurrentHashMap<>());
+    }
+
+    /**
+     * An ejected instance.
+     */
+    public static final class Ejection {
+
+        private final String serviceId;
+
+        private final String instance;
+
+        private final String reason;
+
+        private final int ejections;
+
+        private final Instant ejectedUntil;
+
+        private Ejection(String serviceId, String instance, String reason, int ejections, Instant ejectedUntil) {
+            this.serviceId = serviceId;
+            this.instance = instance;
+            this.reason = reason;
+            this.ejections = ejections;
+            this.ejectedUntil = ejectedUntil;
+        }
+
+        public String getServiceId() {
+            return serviceId;
+        }
+
+        public String getInstance() {
+            return instance;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        public int getEjections() {
+            return ejections;
+        }
+
+        public Instant getEjectedUntil() {
+            return ejectedUntil;
+        }
+    }
+
+    /**
+     * The consecutive errors and ejections of an instance.
+     */
+    private static final class InstanceState {
+
+        private int consecutiveErrors;
+
+        private int ejections;
+
+        private long ejectedUntil;
+
+        private String reason;
+
+        private synchronized int countResponse(boolean error) {
+            consecutiveErrors = error ? consecutiveErrors + 1 : 0;
+            return consecutiveErrors;
+        }
+
+        private synchronized boolean isEjected(long now) {
+            return ejectedUntil > now;
+        }
+
+        private synchronized long eject(String reason, long now, long baseEjectionTime, long maxEjectionTime) {
+            if (now - ejectedUntil > maxEjectionTime) {
+                // Healthy for long enough since its last ejection to start over from the base ejection time
+                ejections = 0;
+            }
+            long ejectionTime = Math.min(maxEjectionTime, baseEjectionTime << Math.min(ejections, MAX_EJECTION_SHIFT));
+            ejections++;
+            ejectedUntil = now + ejectionTime;
+            consecutiveErrors = 0;
+            this.reason = reason;
+            return ejectedUntil;
+        }
+
+        private synchronized Ejection toEjection(String serviceId, String hostPort, long now) {
+            return ejectedUntil > now ?
+                new Ejection(serviceId, hostPort, reason, ejections, Instant.ofEpochMilli(ejectedUntil)) : null;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.jhipster.blog.gateway.outlier;
+
+import com.netflix.client.config.IClientConfig;
+import com.netflix.loadbalancer.Server;
+import com.netflix.loadbalancer.ServerListFilter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cloud.netflix.ribbon.PropertiesFactory;
+import org.springframework.cloud.netflix.ribbon.RibbonClientName;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Default configuration of the Ribbon clients, removing the instances ejected by the {@link OutlierDetector} from
+ * their server lists.
+ * <p>
+ * Like the other Ribbon default configurations, this class is not a {@code @Configuration}. A filter set with the
+ * {@code <service>.ribbon.NIWSServerListFilterClassName} property takes precedence. Otherwise the ejected instances
+ * are removed before the remaining ones are handed to the {@code zoneServerListFilter} of the client context.
+ */
+public class OutlierEjectionRibbonConfiguration {
+
+    @RibbonClientName
+    private String name = "client";
+
+    @Bean
+    @Primary
+    public ServerListFilter<Server> ribbonServerListFilter(IClientConfig config, PropertiesFactory propertiesFactory,
+                                                           ObjectProvider<OutlierDetector> outlierDetector,
+                                                           @Qualifier("zoneServerListFilter")
+                                                               ServerListFilter<Server> zoneFilter) {
+        if (propertiesFactory.isSet(ServerListFilter.class, name)) {
+            return propertiesFactory.get(ServerListFilter.class, config, name);
+        }
+        OutlierDetector detector = outlierDetector.getIfAvailable();
+        return detector == null ? zoneFilter : new OutlierEjectionServerListFilter(name, detector, zoneFilter);
+    }
+}
@@ -0,0 +1,32 @@
+package com.jhipster.blog.gateway.outlier;
+
+import com.netflix.loadbalancer.Server;
+import com.netflix.loadbalancer.ServerListFilter;
+
+import java.util.List;
+
+/**
+ * Ribbon server list filter removing the instances ejected by the {@link OutlierDetector}, before handing the
+ * remaining ones to the zone filter of the service.
+ */
+public class OutlierEjectionServerListFilter implements ServerListFilter<Server> {
+
+    private final String serviceId;
+
+    private final OutlierDetector outlierDetector;
+
+    private final ServerListFilter<Server> zoneFilter;
+
+    public OutlierEjectionServerListFilter(String serviceId, OutlierDetector outlierDetector,
+                                           ServerListFilter<Server> zoneFilter) {
+        this.serviceId = serviceId;
+        this.outlierDetector = outlierDetector;
+        this.zoneFilter = zoneFilter;
+    }
+
+    @Override
+    public List<Server> getFilteredListOfServers(List<Server> servers) {
+        // Ejecting first lets the zone filter spill over when the local instances are ejected
+        return zoneFilter.getFilteredListOfServers(outlierDetector.filter(serviceId, servers));
+    }
+}
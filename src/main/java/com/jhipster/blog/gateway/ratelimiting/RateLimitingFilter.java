@@ -0,0 +1,208 @@
+package com.jhipster.blog.gateway.ratelimiting;
+
+import com.jhipster.blog.config.ApplicationProperties;
+import com.jhipster.blog.security.SecurityUtils;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Bucket4j;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.grid.GridBucketState;
+import io.github.bucket4j.grid.ProxyManager;
+import io.github.bucket4j.grid.jcache.JCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+import org.springframework.http.HttpStatus;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Zuul filter for limiting the number of HTTP calls per route, per user and per client IP address.
+ * <p>
+ * Buckets are stored in the {@value #GATEWAY_RATE_LIMITING_CACHE_NAME} JCache cache. To avoid going through the
+ * cache on every request, each bucket lends a small batch of tokens to a local, lock-free counter which serves the
+ * following requests until it is exhausted.
+ */
+public class RateLimitingFilter extends ZuulFilter {
+
+    public static final String GATEWAY_RATE_LIMITING_CACHE_NAME = "gateway-rate-limiting";
+
+    public static final String REJECTED_METRIC = "gateway.ratelimit.rejected";
+
+    public static final String RATE_LIMIT_REMAINING_HEADER = "X-Rate-Limit-Remaining";
+
+    public static final String RETRY_AFTER_HEADER = "Retry-After";
+
+    private static final String ROUTE_DIMENSION = "route";
+
+    private static final String USER_DIMENSION = "user";
+
+    private static final String IP_DIMENSION = "ip";
+
+    private final Logger log = LoggerFactory.getLogger(RateLimitingFilter.class);
+
+    private final ApplicationProperties.Gateway.RateLimiting rateLimitingProperties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ProxyManager<String> buckets;
+
+    private final ConcurrentMap<String, LocalTokens> localTokens = new ConcurrentHashMap<>();
+
+    public RateLimitingFilter(ApplicationProperties applicationProperties, CacheManager cacheManager,
+                              MeterRegistry meterRegistry) {
+        this.rateLimitingProperties = applicationProperties.getGateway().getRateLimiting();
+        this.meterRegistry = meterRegistry;
+        Cache<String, GridBucketState> cache =
+            cacheManager.getCache(GATEWAY_RATE_LIMITING_CACHE_NAME, String.class, GridBucketState.class);
+        this.buckets = Bucket4j.extension(JCache.class).proxyManagerForCache(cache);
+    }
+
+    @Override
+    public String filterType() {
+        return "pre";
+    }
+
+    @Override
+    public int filterOrder() {
+        return 10;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        // The route is only known once the PreDecorationFilter has run, and rejected requests are not counted again
+        return RequestContext.getCurrentContext().sendZuulResponse();
+    }
+
+    @Override
+    public Object run() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        String routeId = (String) ctx.get(FilterConstants.PROXY_KEY);
+        long remaining = Long.MAX_VALUE;
+
+        ApplicationProperties.Limit routeLimit = routeId == null ? null :
+            rateLimitingProperties.getRoutes().getOrDefault(routeId, rateLimitingProperties.getRoute());
+        if (routeLimit != null && routeLimit.isEnabled()) {
+            remaining = tryConsume(ctx, ROUTE_DIMENSION, routeId, routeId, routeLimit, remaining);
+        }
+        Optional<String> login = SecurityUtils.getCurrentUserLogin();
+        if (remaining >= 0 && login.isPresent() && rateLimitingProperties.getUser().isEnabled()) {
+            remaining = tryConsume(ctx, USER_DIMENSION, login.get(), routeId, rateLimitingProperties.getUser(),
+                remaining);
+        }
+        if (remaining >= 0 && rateLimitingProperties.getIp().isEnabled()) {
+            remaining = tryConsume(ctx, IP_DIMENSION, ctx.getRequest().getRemoteAddr(), routeId,
+                rateLimitingProperties.getIp(), remaining);
+        }
+        if (remaining >= 0 && remaining != Long.MAX_VALUE) {
+            ctx.addZuulResponseHeader(RATE_LIMIT_REMAINING_HEADER, String.valueOf(remaining));
+        }
+        return null;
+    }
+
+    /**
+     * Consume a token from the bucket of {@code dimension} and {@code key}.
+     *
+     * @return the lowest number of tokens remaining in this bucket and {@code remaining}, or -1 if the request was
+     * rejected.
+     */
+    private long tryConsume(RequestContext ctx, String dimension, String key, String routeId,
+                            ApplicationProperties.Limit limit, long remaining) {
+        String bucketId = dimension + ":" + key;
+        LocalTokens local = localTokens.get(bucketId);
+        if (local != null && local.tryTake()) {
+            return Math.min(remaining, local.remaining());
+        }
+
+        Bucket bucket = buckets.getProxy(bucketId, () -> bucketConfiguration(limit));
+        ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(1);
+        if (!probe.isConsumed()) {
+            apiLimitExceeded(ctx, dimension, routeId, probe.getNanosToWaitForRefill());
+            return -1;
+        }
+        long remoteRemaining = probe.getRemainingTokens();
+        int batchSize = rateLimitingProperties.getLocalBatchSize();
+        if (batchSize > 1 && remoteRemaining > 0) {
+            long borrowed = bucket.tryConsumeAsMuchAsPossible(Math.min(batchSize - 1, remoteRemaining));
+            localTokensFor(bucketId).lend(borrowed, remoteRemaining - borrowed);
+        }
+        return Math.min(remaining, remoteRemaining);
+    }
+
+    private LocalTokens localTokensFor(String bucketId) {
+        if (localTokens.size() >= rateLimitingProperties.getMaxBuckets()) {
+            // Dropping lent tokens only makes the limit stricter, so a coarse eviction is good enough here
+            log.debug("Rate limiting: too many local buckets, clearing them");
+            localTokens.clear();
+        }
+        return localTokens.computeIfAbsent(bucketId, id -> new LocalTokens());
+    }
+
+    private BucketConfiguration bucketConfiguration(ApplicationProperties.Limit limit) {
+        return Bucket4j.configurationBuilder()
+            .addLimit(Bandwidth.simple(limit.getLimit(), Duration.ofSeconds(limit.getDurationInSeconds())))
+            .build();
+    }
+
+    private void apiLimitExceeded(RequestContext ctx, String dimension, String routeId, long nanosToWaitForRefill) {
+        log.debug("Rate limiting: {} limit exceeded for request {}", dimension, ctx.getRequest().getRequestURI());
+        Counter.builder(REJECTED_METRIC)
+            .description("Requests rejected by the gateway rate limiting")
+            .tag("dimension", dimension)
+            .tag("route", routeId == null ? "none" : routeId)
+            .register(meterRegistry)
+            .increment();
+        long retryAfterSeconds = Math.max(1, (nanosToWaitForRefill + TimeUnit.SECONDS.toNanos(1) - 1) /
+            TimeUnit.SECONDS.toNanos(1));
+        ctx.setResponseStatusCode(HttpStatus.TOO_MANY_REQUESTS.value());
+        ctx.addZuulResponseHeader(RATE_LIMIT_REMAINING_HEADER, "0");
+        ctx.addZuulResponseHeader(RETRY_AFTER_HEADER, String.valueOf(retryAfterSeconds));
+        if (ctx.getResponseBody() == null) {
+            ctx.setResponseBody("API rate limit exceeded");
+        }
+        ctx.setSendZuulResponse(false);
+    }
+
+    /**
+     * Tokens lent by a shared bucket to this gateway instance.
+     */
+    private static final class LocalTokens {
+
+        private final AtomicLong available = new AtomicLong();
+
+        private volatile long remoteRemaining;
+
+        private boolean tryTake() {
+            long current;
+            do {
+                current = available.get();
+                if (current <= 0) {
+                    return false;
+                }
+            } while (!available.compareAndSet(current, current - 1));
+            return true;
+        }
+
+        private void lend(long tokens, long remoteRemaining) {
+            this.remoteRemaining = remoteRemaining;
+            available.addAndGet(tokens);
+        }
+
+        private long remaining() {
+            return available.get() + remoteRemaining;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.jhipster.blog.gateway.responsecache;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The directives of one or more {@code Cache-Control} header values.
+ */
+final class CacheDirectives {
+
+    private final Map<String, String> directives = new HashMap<>();
+
+    private CacheDirectives() {
+    }
+
+    static CacheDirectives parse(Iterable<String> headerValues) {
+        CacheDirectives result = new CacheDirectives();
+        for (String headerValue : headerValues) {
+            if (headerValue == null) {
+                continue;
+            }
+            for (String directive : headerValue.split(",")) {
+                String name = directive;
+                String argument = "";
+                int equals = directive.indexOf('=');
+                if (equals >= 0) {
+                    name = directive.substring(0, equals);
+                    argument = directive.substring(equals + 1).trim();
+                    if (argument.length() > 1 && argument.startsWith("\"") && argument.endsWith("\"")) {
+                        argument = argument.substring(1, argument.length() - 1);
+                    }
+                }
+                name = name.trim().toLowerCase(Locale.ROOT);
+                if (!name.isEmpty()) {
+                    result.directives.putIfAbsent(name, argument);
+                }
+            }
+        }
+        return result;
+    }
+
+    boolean has(String name) {
+        return directives.containsKey(name);
+    }
+
+    /**
+     * @return the delta-seconds argument of the directive, or -1 if it is missing or invalid.
+     */
+    long seconds(String name) {
+        String argument = directives.get(name);
+        if (argument == null || argument.isEmpty()) {
+            return -1;
+        }
+        try {
+            return Math.max(0, Long.parseLong(argument));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
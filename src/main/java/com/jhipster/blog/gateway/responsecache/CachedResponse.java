@@ -0,0 +1,338 @@
+package com.jhipster.blog.gateway.responsecache;
+
+import com.netflix.util.Pair;
+import org.springframework.http.HttpHeaders;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+/**
+ * A proxied response stored in the gateway response cache, following the rules of a shared cache from RFC 7234.
+ * <p>
+ * Instances are immutable, and serializable so that they can be moved to the off-heap tier of the cache.
+ */
+public final class CachedResponse implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Status codes cacheable by default (RFC 7231, section 6.1).
+     */
+    private static final Set<Integer> CACHEABLE_STATUSES =
+        new HashSet<>(Arrays.asList(200, 203, 204, 300, 301, 404, 405, 410, 414, 501));
+
+    /**
+     * Headers that are not stored: they are specific to a connection, to the encoding of the stored body, or are
+     * computed again when the response is served.
+     */
+    private static final Set<String> UNSTORED_HEADERS = new HashSet<>(Arrays.asList(
+        "connection", "keep-alive", "transfer-encoding", "content-length", "content-encoding", "age", "set-cookie",
+        "proxy-authenticate", "trailer", "upgrade"));
+
+    private final int status;
+
+    private final String[] headerNames;
+
+    private final String[] headerValues;
+
+    private final byte[] body;
+
+    private final boolean gzipped;
+
+    private final String[] varyHeaders;
+
+    private final String[] varyValues;
+
+    private final long responseTime;
+
+    private final long initialAgeMillis;
+
+    private final long freshnessLifetimeMillis;
+
+    private final boolean noCache;
+
+    private CachedResponse(int status, List<Pair<String, String>> headers, byte[] body, boolean gzipped,
+                           String[] varyHeaders, String[] varyValues, long responseTime) {
+        this.status = status;
+        List<Pair<String, String>> storedHeaders = new ArrayList<>(headers.size());
+        for (Pair<String, String> header : headers) {
+            if (!UNSTORED_HEADERS.contains(header.first().toLowerCase(Locale.ROOT))) {
+                storedHeaders.add(header);
+            }
+        }
+        this.headerNames = new String[storedHeaders.size()];
+        this.headerValues = new String[storedHeaders.size()];
+        for (int i = 0; i < storedHeaders.size(); i++) {
+            headerNames[i] = storedHeaders.get(i).first();
+            headerValues[i] = storedHeaders.get(i).second();
+        }
+        this.body = body;
+        this.gzipped = gzipped;
+        this.varyHeaders = varyHeaders;
+        this.varyValues = varyValues;
+        this.responseTime = responseTime;
+        this.initialAgeMillis = Math.max(0, parseSeconds(header(headers, "Age"))) * 1000;
+        CacheDirectives directives = CacheDirectives.parse(headers(headers, HttpHeaders.CACHE_CONTROL));
+        this.noCache = directives.has("no-cache");
+        this.freshnessLifetimeMillis = freshnessLifetime(directives, headers, responseTime);
+    }
+
+    /**
+     * Check whether a response can be stored by a shared cache (RFC 7234, section 3).
+     * <p>
+     * Responses setting cookies are never stored, and responses to authorized requests are only stored when the
+     * origin explicitly allows it.
+     *
+     * @param request the request sent by the client.
+     * @param status the status of the response.
+     * @param headers the headers of the response, as sent by the origin.
+     * @return {@code true} if the response can be stored.
+     */
+    public static boolean isStorable(HttpServletRequest request, int status, List<Pair<String, String>> headers) {
+        if (!"GET".equals(request.getMethod()) || !CACHEABLE_STATUSES.contains(status)) {
+            return false;
+        }
+        if (CacheDirectives.parse(Collections.list(request.getHeaders(HttpHeaders.CACHE_CONTROL))).has("no-store")) {
+            return false;
+        }
+        CacheDirectives directives = CacheDirectives.parse(headers(headers, HttpHeaders.CACHE_CONTROL));
+        if (directives.has("no-store") || directives.has("private") || header(headers, "Set-Cookie") != null) {
+            return false;
+        }
+        if (request.getHeader(HttpHeaders.AUTHORIZATION) != null && !directives.has("public") &&
+            !directives.has("s-maxage") && !directives.has("must-revalidate")) {
+            return false;
+        }
+        for (String vary : varyHeaders(headers)) {
+            if ("*".equals(vary)) {
+                return false;
+            }
+        }
+        // Without explicit freshness, the response is only worth storing if it can be revalidated
+        return directives.has("s-maxage") || directives.has("max-age") || header(headers, HttpHeaders.EXPIRES) != null ||
+            header(headers, HttpHeaders.ETAG) != null || header(headers, HttpHeaders.LAST_MODIFIED) != null;
+    }
+
+    /**
+     * Create the cached copy of a response.
+     *
+     * @param request the request sent by the client, used to select the response variant.
+     * @param status the status of the response.
+     * @param headers the headers of the response, as sent by the origin.
+     * @param body the body of the response, as sent by the origin.
+     * @param gzipped whether the body is gzipped.
+     * @param responseTime the time the response was received, in milliseconds.
+     * @return the cached copy of the response.
+     */
+    public static CachedResponse of(HttpServletRequest request, int status, List<Pair<String, String>> headers,
+                                    byte[] body, boolean gzipped, long responseTime) {
+        List<String> vary = varyHeaders(headers);
+        String[] varyHeaders = vary.toArray(new String[0]);
+        String[] varyValues = new String[varyHeaders.length];
+        for (int i = 0; i < varyHeaders.length; i++) {
+            varyValues[i] = requestHeader(request, varyHeaders[i]);
+        }
+        return new CachedResponse(status, headers, body, gzipped, varyHeaders, varyValues, responseTime);
+    }
+
+    /**
+     * Update this response with the headers of a {@code 304 (Not Modified)} response (RFC 7234, section 4.3.4).
+     *
+     * @param notModifiedHeaders the headers of the {@code 304} response.
+     * @param responseTime the time the {@code 304} response was received, in milliseconds.
+     * @return the updated response.
+     */
+    public CachedResponse revalidated(List<Pair<String, String>> notModifiedHeaders, long responseTime) {
+        Set<String> updatedNames = new HashSet<>();
+        for (Pair<String, String> header : notModifiedHeaders) {
+            updatedNames.add(header.first().toLowerCase(Locale.ROOT));
+        }
+        List<Pair<String, String>> headers = new ArrayList<>();
+        for (int i = 0; i < headerNames.length; i++) {
+            if (!updatedNames.contains(headerNames[i].toLowerCase(Locale.ROOT))) {
+                headers.add(new Pair<>(headerNames[i], headerValues[i]));
+            }
+        }
+        headers.addAll(notModifiedHeaders);
+        return new CachedResponse(status, headers, body, gzipped, varyHeaders, varyValues, responseTime);
+    }
+
+    /**
+     * @return {@code true} if this response can be served without revalidation.
+     */
+    public boolean isFresh(long now) {
+        return !noCache && freshnessLifetimeMillis > currentAgeMillis(now);
+    }
+
+    /**
+     * @return the value of the {@code Age} header of this response when it is served.
+     */
+    public long ageInSeconds(long now) {
+        return currentAgeMillis(now) / 1000;
+    }
+
+    /**
+     * Check whether this response was selected by the same request headers as {@code request}, for the headers listed
+     * in its {@code Vary} header.
+     */
+    public boolean matchesVariant(HttpServletRequest request) {
+        for (int i = 0; i < varyHeaders.length; i++) {
+            if (!Objects.equals(varyValues[i], requestHeader(request, varyHeaders[i]))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return {@code true} if {@code ifNoneMatch} matches the entity tag of this response, using the weak comparison.
+     */
+    public boolean matchesIfNoneMatch(String ifNoneMatch) {
+        String etag = getEtag();
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        String opaqueTag = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals(opaqueTag) || candidate.equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean hasValidator() {
+        return getEtag() != null || getLastModified() != null;
+    }
+
+    public String getEtag() {
+        return header(HttpHeaders.ETAG);
+    }
+
+    public String getLastModified() {
+        return header(HttpHeaders.LAST_MODIFIED);
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public List<Pair<String, String>> getHeaders() {
+        List<Pair<String, String>> headers = new ArrayList<>(headerNames.length);
+        for (int i = 0; i < headerNames.length; i++) {
+            headers.add(new Pair<>(headerNames[i], headerValues[i]));
+        }
+        return headers;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public boolean isGzipped() {
+        return gzipped;
+    }
+
+    private String header(String name) {
+        for (int i = 0; i < headerNames.length; i++) {
+            if (headerNames[i].equalsIgnoreCase(name)) {
+                return headerValues[i];
+            }
+        }
+        return null;
+    }
+
+    private long currentAgeMillis(long now) {
+        return initialAgeMillis + Math.max(0, now - responseTime);
+    }
+
+    private static long freshnessLifetime(CacheDirectives directives, List<Pair<String, String>> headers,
+                                          long responseTime) {
+        long seconds = directives.seconds("s-maxage");
+        if (seconds < 0) {
+            seconds = directives.seconds("max-age");
+        }
+        if (seconds >= 0) {
+            return seconds * 1000;
+        }
+        String expires = header(headers, HttpHeaders.EXPIRES);
+        if (expires != null) {
+            long expiresTime = parseDate(expires);
+            long date = parseDate(header(headers, HttpHeaders.DATE));
+            // An invalid Expires date means the response is already expired
+            return expiresTime < 0 ? 0 : Math.max(0, expiresTime - (date < 0 ? responseTime : date));
+        }
+        return 0;
+    }
+
+    private static List<String> varyHeaders(List<Pair<String, String>> headers) {
+        List<String> vary = new ArrayList<>();
+        for (String value : headers(headers, HttpHeaders.VARY)) {
+            for (String name : value.split(",")) {
+                name = name.trim();
+                // The gateway serves both encodings of a gzipped body, so it does not need a variant per encoding
+                if (!name.isEmpty() && !name.equalsIgnoreCase(HttpHeaders.ACCEPT_ENCODING)) {
+                    vary.add(name);
+                }
+            }
+        }
+        return vary;
+    }
+
+    private static String requestHeader(HttpServletRequest request, String name) {
+        Enumeration<String> values = request.getHeaders(name);
+        if (values == null || !values.hasMoreElements()) {
+            return null;
+        }
+        return String.join(",", Collections.list(values));
+    }
+
+    private static String header(List<Pair<String, String>> headers, String name) {
+        for (Pair<String, String> header : headers) {
+            if (header.first().equalsIgnoreCase(name)) {
+                return header.second();
+            }
+        }
+        return null;
+    }
+
+    private static List<String> headers(List<Pair<String, String>> headers, String name) {
+        List<String> values = new ArrayList<>();
+        for (Pair<String, String> header : headers) {
+            if (header.first().equalsIgnoreCase(name)) {
+                values.add(header.second());
+            }
+        }
+        return values;
+    }
+
+    private static long parseSeconds(String value) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static long parseDate(String value) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.jhipster.blog.gateway.responsecache;
+
+import com.jhipster.blog.config.ApplicationProperties;
+
+import com.netflix.util.Pair;
+import com.netflix.zuul.context.RequestContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.servlet.http.HttpServletRequest;
+import java.io.ByteArrayInputStream;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Shared cache of the responses of the routes opted in with {@code application.gateway.response-cache.routes}.
+ * <p>
+ * Responses are stored in the {@value #GATEWAY_RESPONSE_CACHE_NAME} JCache cache, keyed by route and request URI,
+ * and the cache usage of each route is published as Micrometer counters.
+ */
+public class ResponseCache {
+
+    public static final String GATEWAY_RESPONSE_CACHE_NAME = "gateway-response-cache";
+
+    public static final String REQUESTS_METRIC = "gateway.response.cache.requests";
+
+    public static final String BYTES_SAVED_METRIC = "gateway.response.cache.bytes.saved";
+
+    public static final String HIT = "hit";
+
+    public static final String MISS = "miss";
+
+    public static final String REVALIDATED = "revalidated";
+
+    private final ApplicationProperties.Gateway.ResponseCache responseCacheProperties;
+
+    private final Cache<String, CachedResponse> cache;
+
+    private final MeterRegistry meterRegistry;
+
+    public ResponseCache(ApplicationProperties applicationProperties, CacheManager cacheManager,
+                         MeterRegistry meterRegistry) {
+        this.responseCacheProperties = applicationProperties.getGateway().getResponseCache();
+        this.cache = cacheManager.getCache(GATEWAY_RESPONSE_CACHE_NAME, String.class, CachedResponse.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @return {@code true} if the responses of the route are cached.
+     */
+    public boolean isCached(String routeId) {
+        return routeId != null && responseCacheProperties.getRoutes().contains(routeId);
+    }
+
+    /**
+     * @return the key of the responses to {@code request} on the route.
+     */
+    public String key(String routeId, HttpServletRequest request) {
+        String queryString = request.getQueryString();
+        return routeId + " " + request.getRequestURI() + (queryString == null ? "" : "?" + queryString);
+    }
+
+    /**
+     * @return the maximum size of a stored body, in bytes.
+     */
+    public int getMaxEntrySize() {
+        return responseCacheProperties.getMaxEntrySizeInBytes();
+    }
+
+    public CachedResponse get(String key) {
+        return cache.get(key);
+    }
+
+    public void put(String key, CachedResponse response) {
+        cache.put(key, response);
+    }
+
+    public void remove(String key) {
+        cache.remove(key);
+    }
+
+    /**
+     * Send a cached response to the client instead of the response of the origin.
+     * <p>
+     * A {@code 304 (Not Modified)} is sent if the client already has the current version of the response.
+     */
+    public void send(RequestContext ctx, CachedResponse response, long now) {
+        // Headers received from the origin, if any, are replaced by the stored ones
+        List<Pair<String, String>> originHeaders = ctx.getOriginResponseHeaders();
+        if (!originHeaders.isEmpty()) {
+            Set<String> originHeaderNames = new HashSet<>();
+            originHeaders.forEach(header -> originHeaderNames.add(header.first().toLowerCase(Locale.ROOT)));
+            ctx.getZuulResponseHeaders().removeIf(header ->
+                originHeaderNames.contains(header.first().toLowerCase(Locale.ROOT)));
+        }
+        for (Pair<String, String> header : response.getHeaders()) {
+            ctx.addZuulResponseHeader(header.first(), header.second());
+        }
+        ctx.addZuulResponseHeader(HttpHeaders.AGE, String.valueOf(response.ageInSeconds(now)));
+        ctx.setResponseBody(null);
+        if (response.getStatus() == HttpStatus.OK.value() &&
+            response.matchesIfNoneMatch(ctx.getRequest().getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            ctx.setResponseStatusCode(HttpStatus.NOT_MODIFIED.value());
+            ctx.setResponseGZipped(false);
+            ctx.setResponseDataStream(null);
+            ctx.setOriginContentLength((Long) null);
+            return;
+        }
+        ctx.setResponseStatusCode(response.getStatus());
+        ctx.setResponseGZipped(response.isGzipped());
+        ctx.setResponseDataStream(new ByteArrayInputStream(response.getBody()));
+        ctx.setOriginContentLength(response.isGzipped() ? null : Long.valueOf(response.getBody().length));
+    }
+
+    /**
+     * Count a request served from the cache without reaching the origin.
+     */
+    public void hit(String routeId, CachedResponse response) {
+        requests(routeId, HIT).increment();
+        bytesSaved(routeId).increment(response.getBody().length);
+    }
+
+    /**
+     * Count a request served from the cache after the origin confirmed that the response was not modified.
+     */
+    public void revalidated(String routeId, CachedResponse response) {
+        requests(routeId, REVALIDATED).increment();
+        bytesSaved(routeId).increment(response.getBody().length);
+    }
+
+    /**
+     * Count a request whose response was sent by the origin.
+     */
+    public void miss(String routeId) {
+        requests(routeId, MISS).increment();
+    }
+
+    private Counter requests(String routeId, String result) {
+        return Counter.builder(REQUESTS_METRIC)
+            .description("Requests to cached gateway routes, by cache result")
+            .tag("route", routeId)
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    private Counter bytesSaved(String routeId) {
+        return Counter.builder(BYTES_SAVED_METRIC)
+            .description("Response bytes served by the gateway cache instead of the origin")
+            .baseUnit("bytes")
+            .tag("route", routeId)
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,109 @@
+package com.jhipster.blog.gateway.responsecache;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+import org.springframework.http.HttpHeaders;
+import springfox.documentation.swagger2.web.Swagger2Controller;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Collections;
+
+/**
+ * Zuul filter serving the responses of cached routes from the {@link ResponseCache}.
+ * <p>
+ * Fresh responses are sent without proxying the request. Stale responses having a validator are revalidated: the
+ * request is proxied with {@code If-None-Match} and {@code If-Modified-Since} headers, and the
+ * {@link ResponseCacheStoreFilter} sends the stored response if the origin answers {@code 304 (Not Modified)}.
+ */
+public class ResponseCacheLookupFilter extends ZuulFilter {
+
+    /**
+     * Request context key holding the cache key of the request, set when the route is cached.
+     */
+    public static final String CACHE_KEY = "responseCacheKey";
+
+    /**
+     * Request context key holding the stale {@link CachedResponse} being revalidated.
+     */
+    public static final String REVALIDATED_RESPONSE_KEY = "responseCacheRevalidatedResponse";
+
+    private final Logger log = LoggerFactory.getLogger(ResponseCacheLookupFilter.class);
+
+    private final ResponseCache responseCache;
+
+    public ResponseCacheLookupFilter(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    @Override
+    public String filterType() {
+        return FilterConstants.PRE_TYPE;
+    }
+
+    @Override
+    public int filterOrder() {
+        // After the access control and rate limiting filters, so that cached responses are not served more freely
+        return 20;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        // Swagger docs are rewritten by the gateway, and have their own cache
+        return ctx.sendZuulResponse() && responseCache.isCached((String) ctx.get(FilterConstants.PROXY_KEY)) &&
+            !ctx.getRequest().getRequestURI().endsWith(Swagger2Controller.DEFAULT_URL);
+    }
+
+    @Override
+    public Object run() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        HttpServletRequest request = ctx.getRequest();
+        String routeId = (String) ctx.get(FilterConstants.PROXY_KEY);
+        CacheDirectives requestDirectives =
+            CacheDirectives.parse(Collections.list(request.getHeaders(HttpHeaders.CACHE_CONTROL)));
+        if (requestDirectives.has("no-store")) {
+            return null;
+        }
+        String key = responseCache.key(routeId, request);
+        // Unsafe methods invalidate the cached response once they succeed
+        ctx.set(CACHE_KEY, key);
+        if (!"GET".equals(request.getMethod())) {
+            return null;
+        }
+
+        CachedResponse cached = responseCache.get(key);
+        if (cached == null || !cached.matchesVariant(request)) {
+            responseCache.miss(routeId);
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        if (cached.isFresh(now) && !isRevalidationRequested(request, requestDirectives)) {
+            log.debug("Response cache: hit for {}", key);
+            responseCache.hit(routeId, cached);
+            ctx.setSendZuulResponse(false);
+            responseCache.send(ctx, cached, now);
+            return null;
+        }
+        if (!cached.hasValidator()) {
+            responseCache.miss(routeId);
+            return null;
+        }
+        log.debug("Response cache: revalidating {}", key);
+        ctx.set(REVALIDATED_RESPONSE_KEY, cached);
+        if (cached.getEtag() != null) {
+            ctx.addZuulRequestHeader(HttpHeaders.IF_NONE_MATCH, cached.getEtag());
+        }
+        if (cached.getLastModified() != null) {
+            ctx.addZuulRequestHeader(HttpHeaders.IF_MODIFIED_SINCE, cached.getLastModified());
+        }
+        return null;
+    }
+
+    private boolean isRevalidationRequested(HttpServletRequest request, CacheDirectives requestDirectives) {
+        return requestDirectives.has("no-cache") || requestDirectives.seconds("max-age") == 0 ||
+            (requestDirectives.seconds("max-age") < 0 && "no-cache".equalsIgnoreCase(request.getHeader(HttpHeaders.PRAGMA)));
+    }
+}
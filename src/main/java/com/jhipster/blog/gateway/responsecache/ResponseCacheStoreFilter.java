@@ -0,0 +1,112 @@
+package com.jhipster.blog.gateway.responsecache;
+
+import com.jhipster.blog.gateway.BoundedBodyReader;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+import org.springframework.http.HttpStatus;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Zuul filter storing the responses of cached routes in the {@link ResponseCache}.
+ * <p>
+ * It also completes the revalidations started by the {@link ResponseCacheLookupFilter}, and invalidates the cached
+ * response of a URI when an unsafe request on this URI succeeds.
+ */
+public class ResponseCacheStoreFilter extends ZuulFilter {
+
+    private final Logger log = LoggerFactory.getLogger(ResponseCacheStoreFilter.class);
+
+    private final ResponseCache responseCache;
+
+    public ResponseCacheStoreFilter(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    @Override
+    public String filterType() {
+        return FilterConstants.POST_TYPE;
+    }
+
+    @Override
+    public int filterOrder() {
+        return FilterConstants.SEND_RESPONSE_FILTER_ORDER - 100;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        return ctx.sendZuulResponse() && ctx.getThrowable() == null &&
+            ctx.get(ResponseCacheLookupFilter.CACHE_KEY) != null;
+    }
+
+    @Override
+    public Object run() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        HttpServletRequest request = ctx.getRequest();
+        String routeId = (String) ctx.get(FilterConstants.PROXY_KEY);
+        String key = (String) ctx.get(ResponseCacheLookupFilter.CACHE_KEY);
+        int status = ctx.getResponseStatusCode();
+
+        if (!"GET".equals(request.getMethod())) {
+            if (status >= 200 && status < 400) {
+                log.debug("Response cache: invalidating {}", key);
+                responseCache.remove(key);
+            }
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        CachedResponse revalidated = (CachedResponse) ctx.get(ResponseCacheLookupFilter.REVALIDATED_RESPONSE_KEY);
+        if (revalidated != null) {
+            if (status == HttpStatus.NOT_MODIFIED.value()) {
+                log.debug("Response cache: revalidated {}", key);
+                CachedResponse updated = revalidated.revalidated(ctx.getOriginResponseHeaders(), now);
+                responseCache.put(key, updated);
+                responseCache.revalidated(routeId, updated);
+                responseCache.send(ctx, updated, now);
+                return null;
+            }
+            responseCache.miss(routeId);
+        }
+
+        if (ctx.getResponseBody() != null ||
+            !CachedResponse.isStorable(request, status, ctx.getOriginResponseHeaders())) {
+            return null;
+        }
+        Long contentLength = ctx.getOriginContentLength();
+        if (contentLength != null && contentLength > responseCache.getMaxEntrySize()) {
+            return null;
+        }
+        InputStream in = ctx.getResponseDataStream();
+        byte[] body = in == null ? new byte[0] : readBody(ctx, in);
+        if (body != null) {
+            log.debug("Response cache: storing {}", key);
+            responseCache.put(key,
+                CachedResponse.of(request, status, ctx.getOriginResponseHeaders(), body, ctx.getResponseGZipped(), now));
+            ctx.setResponseDataStream(new ByteArrayInputStream(body));
+        }
+        return null;
+    }
+
+    /**
+     * Read the response body, up to the maximum size of a cache entry.
+     *
+     * @return the body, or {@code null} if it cannot be cached.
+     */
+    private byte[] readBody(RequestContext ctx, InputStream in) {
+        try {
+            return BoundedBodyReader.read(ctx, in, responseCache.getMaxEntrySize());
+        } catch (IOException e) {
+            log.warn("Response cache: could not read the response body: {}", e.getMessage());
+            return null;
+        }
+    }
+}
@@ -1,31 +1,70 @@
 package com.jhipster.blog.gateway.responserewriting;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.jhipster.blog.gateway.compression.DeflaterPool;
+import com.netflix.util.Pair;
+import com.netflix.zuul.constants.ZuulHeaders;
 import com.netflix.zuul.context.RequestContext;
-import org.apache.commons.io.IOUtils;
+import com.netflix.zuul.util.HTTPRequestUtils;
+import org.apache.commons.io.output.TeeOutputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
 import org.springframework.cloud.netflix.zuul.filters.post.SendResponseFilter;
 import springfox.documentation.swagger2.web.Swagger2Controller;
 
+import javax.servlet.http.HttpServletResponse;
 import java.io.*;
-import java.nio.charset.StandardCharsets;
-import java.util.LinkedHashMap;
+import java.util.zip.DeflaterOutputStream;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
 /**
  * Zuul filter to rewrite micro-services Swagger URL Base Path.
+ * <p>
+ * The Swagger document is streamed token by token from the micro-service response to the client, only the
+ * {@code basePath} field being replaced: the document is never held in memory as a whole, unless it has to be stored
+ * in the {@link SwaggerDocsCache}.
  */
 public class SwaggerBasePathRewritingFilter extends SendResponseFilter {
 
+    /**
+     * Request context key holding the id of the route whose document must be cached.
+     */
+    public static final String CACHE_DOCUMENT_KEY = "swaggerDocsCacheRouteId";
+
+    private static final String BASE_PATH_FIELD = "basePath";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
     private final Logger log = LoggerFactory.getLogger(SwaggerBasePathRewritingFilter.class);
 
-    private ObjectMapper mapper = new ObjectMapper();
+    private final SwaggerDocsCache swaggerDocsCache;
+
+    private final DeflaterPool deflaterPool;
 
     public SwaggerBasePathRewritingFilter() {
+        this(null);
+    }
+
+    public SwaggerBasePathRewritingFilter(SwaggerDocsCache swaggerDocsCache) {
+        this(swaggerDocsCache, null);
+    }
+
+    /**
+     * @param swaggerDocsCache the cache of the documents, or null if they are not cached.
+     * @param deflaterPool the deflaters used to gzip the documents, or null to create a new one for each document.
+     */
+    public SwaggerBasePathRewritingFilter(SwaggerDocsCache swaggerDocsCache, DeflaterPool deflaterPool) {
         super(new ZuulProperties());
+        this.swaggerDocsCache = swaggerDocsCache;
+        this.deflaterPool = deflaterPool;
     }
 
     @Override
@@ -43,7 +82,10 @@ public class SwaggerBasePathRewritingFilter extends SendResponseFilter {
      */
     @Override
     public boolean shouldFilter() {
-        return RequestContext.getCurrentContext().getRequest().getRequestURI().endsWith(Swagger2Controller.DEFAULT_URL);
+        RequestContext context = RequestContext.getCurrentContext();
+        // Documents served from the SwaggerDocsCache are already rewritten
+        return context.sendZuulResponse() &&
+            context.getRequest().getRequestURI().endsWith(Swagger2Controller.DEFAULT_URL);
     }
 
     @Override
@@ -52,48 +94,108 @@ public class SwaggerBasePathRewritingFilter extends SendResponseFilter {
 
         context.getResponse().setCharacterEncoding("UTF-8");
 
-        String rewrittenResponse = rewriteBasePath(context);
-        if (context.getResponseGZipped()) {
-            try {
-                context.setResponseDataStream(new ByteArrayInputStream(gzipData(rewrittenResponse)));
-            } catch (IOException e) {
-                log.error("Swagger-docs filter error", e);
-            }
-        } else {
-            context.setResponseBody(rewrittenResponse);
-        }
-        return null;
-    }
-
-    @SuppressWarnings("unchecked")
-    private String rewriteBasePath(RequestContext context) {
         InputStream responseDataStream = context.getResponseDataStream();
-        String requestUri = RequestContext.getCurrentContext().getRequest().getRequestURI();
+        if (responseDataStream == null) {
+            return null;
+        }
+        String basePath = context.getRequest().getRequestURI().replace(Swagger2Controller.DEFAULT_URL, "");
+        boolean gzipResponse = context.getResponseGZipped() && isGzipRequested(context);
         try {
             if (context.getResponseGZipped()) {
-                responseDataStream = new GZIPInputStream(context.getResponseDataStream());
+                responseDataStream = new GZIPInputStream(responseDataStream, BUFFER_SIZE);
+            }
+            HttpServletResponse servletResponse = context.getResponse();
+            addResponseHeaders(context, servletResponse, gzipResponse);
+            OutputStream outputStream = servletResponse.getOutputStream();
+            DeflaterOutputStream gzipOutputStream = null;
+            OutputStream documentStream = outputStream;
+            if (gzipResponse) {
+                gzipOutputStream = deflaterPool == null ?
+                    new GZIPOutputStream(outputStream, BUFFER_SIZE) : deflaterPool.gzip(outputStream);
+                documentStream = gzipOutputStream;
+            }
+            String cachedRouteId = swaggerDocsCache == null ? null : (String) context.get(CACHE_DOCUMENT_KEY);
+            ByteArrayOutputStream cachedDocument = null;
+            if (cachedRouteId != null && context.getResponseStatusCode() == HttpServletResponse.SC_OK) {
+                cachedDocument = new ByteArrayOutputStream(BUFFER_SIZE);
+                documentStream = new TeeOutputStream(documentStream, cachedDocument);
             }
-            String response = IOUtils.toString(responseDataStream, StandardCharsets.UTF_8);
-            if (response != null) {
-                LinkedHashMap<String, Object> map = this.mapper.readValue(response, LinkedHashMap.class);
-
-                String basePath = requestUri.replace(Swagger2Controller.DEFAULT_URL, "");
-                map.put("basePath", basePath);
-                log.debug("Swagger-docs: rewritten Base URL with correct micro-service route: {}", basePath);
-                return mapper.writeValueAsString(map);
+            rewriteBasePath(responseDataStream, documentStream, basePath);
+            if (gzipOutputStream != null) {
+                gzipOutputStream.finish();
+            }
+            outputStream.flush();
+            log.debug("Swagger-docs: rewritten Base URL with correct micro-service route: {}", basePath);
+            if (cachedDocument != null) {
+                swaggerDocsCache.put(cachedRouteId, cachedDocument.toByteArray());
             }
         } catch (IOException e) {
             log.error("Swagger-docs filter error", e);
+        } finally {
+            // The response has been written, so the SendResponseFilter must not write it again
+            context.setResponseDataStream(null);
+            context.setResponseBody(null);
+            context.getZuulResponseHeaders().clear();
         }
         return null;
     }
 
-    public static byte[] gzipData(String content) throws IOException {
-        ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        PrintWriter gzip = new PrintWriter(new GZIPOutputStream(bos));
-        gzip.print(content);
-        gzip.flush();
-        gzip.close();
-        return bos.toByteArray();
+    /**
+     * Copy a Swagger document from {@code in} to {@code out}, replacing its {@code basePath}.
+     * <p>
+     * The {@code basePath} field is added at the end of the document if it is missing. The input stream is closed,
+     * the output stream is flushed but left open.
+     *
+     * @param in the Swagger document to rewrite.
+     * @param out the stream where the rewritten document is written.
+     * @param basePath the base path of the micro-service route.
+     * @throws IOException if the document cannot be read or written.
+     */
+    public static void rewriteBasePath(InputStream in, OutputStream out, String basePath) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(in);
+             JsonGenerator generator = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            boolean basePathWritten = false;
+            int depth = 0;
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (depth == 1 && token == JsonToken.FIELD_NAME && BASE_PATH_FIELD.equals(parser.getCurrentName())) {
+                    parser.nextToken();
+                    parser.skipChildren();
+                    generator.writeStringField(BASE_PATH_FIELD, basePath);
+                    basePathWritten = true;
+                    continue;
+                }
+                if (depth == 1 && token == JsonToken.END_OBJECT && !basePathWritten) {
+                    generator.writeStringField(BASE_PATH_FIELD, basePath);
+                    basePathWritten = true;
+                }
+                if (token.isStructStart()) {
+                    depth++;
+                } else if (token.isStructEnd()) {
+                    depth--;
+                }
+                generator.copyCurrentEvent(parser);
+            }
+        }
+    }
+
+    private void addResponseHeaders(RequestContext context, HttpServletResponse servletResponse,
+                                    boolean gzipResponse) {
+        for (Pair<String, String> header : context.getZuulResponseHeaders()) {
+            // The document length changes, and its encoding is decided below
+            if (!ZuulHeaders.CONTENT_ENCODING.equalsIgnoreCase(header.first()) &&
+                !ZuulHeaders.CONTENT_LENGTH.equalsIgnoreCase(header.first())) {
+                servletResponse.addHeader(header.first(), header.second());
+            }
+        }
+        if (gzipResponse) {
+            servletResponse.setHeader(ZuulHeaders.CONTENT_ENCODING, "gzip");
+        }
+    }
+
+    private boolean isGzipRequested(RequestContext context) {
+        String requestEncoding = context.getRequest().getHeader(ZuulHeaders.ACCEPT_ENCODING);
+        return requestEncoding != null && HTTPRequestUtils.getInstance().isGzipped(requestEncoding);
     }
 }
@@ -0,0 +1,208 @@
+package com.jhipster.blog.gateway.responserewriting;
+
+import com.jhipster.blog.config.ApplicationProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.cloud.client.discovery.event.HeartbeatMonitor;
+import org.springframework.cloud.netflix.zuul.RoutesRefreshedEvent;
+import org.springframework.cloud.netflix.zuul.filters.Route;
+import org.springframework.cloud.netflix.zuul.filters.RouteLocator;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import springfox.documentation.swagger2.web.Swagger2Controller;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache of the micro-services Swagger documents, rewritten with their gateway base path.
+ * <p>
+ * Documents are kept both gzipped and identity-encoded, with a strong ETag, for the version of the service
+ * instances registered in Eureka (their {@code version} metadata). When routes are refreshed, documents of services
+ * whose version changed are fetched again in the background, so browsing the docs does not reach the backends.
+ */
+public class SwaggerDocsCache {
+
+    public static final String VERSION_METADATA = "version";
+
+    private final Logger log = LoggerFactory.getLogger(SwaggerDocsCache.class);
+
+    private final RouteLocator routeLocator;
+
+    private final DiscoveryClient discoveryClient;
+
+    private final RestTemplate restTemplate;
+
+    private final HeartbeatMonitor heartbeatMonitor = new HeartbeatMonitor();
+
+    private final ConcurrentMap<String, String> versions = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, SwaggerDoc> docs = new ConcurrentHashMap<>();
+
+    public SwaggerDocsCache(RouteLocator routeLocator, DiscoveryClient discoveryClient,
+                            ApplicationProperties applicationProperties) {
+        this.routeLocator = routeLocator;
+        this.discoveryClient = discoveryClient;
+        ApplicationProperties.Gateway.SwaggerDocsCache properties =
+            applicationProperties.getGateway().getSwaggerDocsCache();
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(properties.getConnectTimeoutInMilliseconds());
+        requestFactory.setReadTimeout(properties.getReadTimeoutInMilliseconds());
+        this.restTemplate = new RestTemplate(requestFactory);
+    }
+
+    /**
+     * Get the cached document of a route.
+     *
+     * @param routeId the id of the route.
+     * @return the document, or {@code null} if it is not cached for the current version of the service.
+     */
+    public SwaggerDoc get(String routeId) {
+        return docs.get(routeId);
+    }
+
+    /**
+     * Cache the document of a route, for the version of the service known at the last refresh.
+     *
+     * @param routeId the id of the route.
+     * @param document the rewritten document, identity-encoded.
+     * @return the cached document.
+     * @throws IOException if the document cannot be compressed.
+     */
+    public SwaggerDoc put(String routeId, byte[] document) throws IOException {
+        SwaggerDoc doc = new SwaggerDoc(versions.get(routeId), document, gzip(document),
+            "\"" + DigestUtils.md5DigestAsHex(document) + "\"");
+        docs.put(routeId, doc);
+        return doc;
+    }
+
+    @Async
+    @EventListener(RoutesRefreshedEvent.class)
+    public void onRoutesRefreshed() {
+        refresh();
+    }
+
+    @Async
+    @EventListener
+    public void onHeartbeat(HeartbeatEvent event) {
+        if (heartbeatMonitor.update(event.getValue())) {
+            refresh();
+        }
+    }
+
+    /**
+     * Compare the versions of the routed services with the cached documents, evicting the documents of removed
+     * routes and fetching again the documents of services deployed with a new version.
+     */
+    public synchronized void refresh() {
+        Set<String> routeIds = new HashSet<>();
+        for (Route route : routeLocator.getRoutes()) {
+            routeIds.add(route.getId());
+            List<ServiceInstance> instances = discoveryClient.getInstances(route.getLocation());
+            String version = version(instances);
+            String previousVersion = versions.put(route.getId(), version);
+            SwaggerDoc doc = docs.get(route.getId());
+            if (instances.isEmpty()) {
+                docs.remove(route.getId());
+            } else if (!version.equals(previousVersion) || (doc != null && !version.equals(doc.getVersion()))) {
+                docs.remove(route.getId());
+                fetch(route, instances);
+            }
+        }
+        versions.keySet().retainAll(routeIds);
+        docs.keySet().retainAll(routeIds);
+    }
+
+    private void fetch(Route route, List<ServiceInstance> instances) {
+        ServiceInstance instance = instances.get(ThreadLocalRandom.current().nextInt(instances.size()));
+        URI uri = URI.create(instance.getUri() + Swagger2Controller.DEFAULT_URL);
+        String basePath = route.getFullPath().replace("/**", "");
+        try {
+            byte[] document = restTemplate.execute(uri, HttpMethod.GET,
+                request -> request.getHeaders().setAccept(Collections.singletonList(MediaType.APPLICATION_JSON)),
+                response -> {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    SwaggerBasePathRewritingFilter.rewriteBasePath(response.getBody(), out, basePath);
+                    return out.toByteArray();
+                });
+            if (document != null) {
+                put(route.getId(), document);
+                log.debug("Swagger-docs: cached document of route {}, version {}", route.getId(),
+                    versions.get(route.getId()));
+            }
+        } catch (RestClientException | IOException e) {
+            log.debug("Swagger-docs: could not fetch document of route {}: {}", route.getId(), e.getMessage());
+        }
+    }
+
+    private static String version(List<ServiceInstance> instances) {
+        SortedSet<String> instanceVersions = new TreeSet<>();
+        for (ServiceInstance instance : instances) {
+            String version = instance.getMetadata().get(VERSION_METADATA);
+            if (version != null) {
+                instanceVersions.add(version);
+            }
+        }
+        return String.join(",", instanceVersions);
+    }
+
+    private static byte[] gzip(byte[] document) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(document.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(document);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * A rewritten Swagger document.
+     */
+    public static final class SwaggerDoc {
+
+        private final String version;
+
+        private final byte[] identity;
+
+        private final byte[] gzipped;
+
+        private final String etag;
+
+        private SwaggerDoc(String version, byte[] identity, byte[] gzipped, String etag) {
+            this.version = version;
+            this.identity = identity;
+            this.gzipped = gzipped;
+            this.etag = etag;
+        }
+
+        public String getVersion() {
+            return version;
+        }
+
+        public byte[] getIdentity() {
+            return identity;
+        }
+
+        public byte[] getGzipped() {
+            return gzipped;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.jhipster.blog.gateway.responserewriting;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.constants.ZuulHeaders;
+import com.netflix.zuul.context.RequestContext;
+import com.netflix.zuul.util.HTTPRequestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import springfox.documentation.swagger2.web.Swagger2Controller;
+
+import java.io.ByteArrayInputStream;
+
+/**
+ * Zuul filter serving micro-services Swagger docs from the {@link SwaggerDocsCache}.
+ * <p>
+ * Cached documents are sent with a strong ETag, and a {@code 304 (Not Modified)} is sent when the client already has
+ * the current document. The request is not proxied to the micro-service in both cases.
+ */
+public class SwaggerDocsCacheFilter extends ZuulFilter {
+
+    private final Logger log = LoggerFactory.getLogger(SwaggerDocsCacheFilter.class);
+
+    private final SwaggerDocsCache swaggerDocsCache;
+
+    public SwaggerDocsCacheFilter(SwaggerDocsCache swaggerDocsCache) {
+        this.swaggerDocsCache = swaggerDocsCache;
+    }
+
+    @Override
+    public String filterType() {
+        return FilterConstants.PRE_TYPE;
+    }
+
+    @Override
+    public int filterOrder() {
+        // The route id is set by the PreDecorationFilter
+        return FilterConstants.PRE_DECORATION_FILTER_ORDER + 1;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        RequestContext context = RequestContext.getCurrentContext();
+        return context.sendZuulResponse() && context.get(FilterConstants.PROXY_KEY) != null &&
+            "GET".equals(context.getRequest().getMethod()) &&
+            context.getRequest().getRequestURI().endsWith(Swagger2Controller.DEFAULT_URL);
+    }
+
+    @Override
+    public Object run() {
+        RequestContext context = RequestContext.getCurrentContext();
+        String routeId = (String) context.get(FilterConstants.PROXY_KEY);
+        SwaggerDocsCache.SwaggerDoc doc = swaggerDocsCache.get(routeId);
+        if (doc == null) {
+            // The SwaggerBasePathRewritingFilter will cache the document returned by the micro-service
+            context.set(SwaggerBasePathRewritingFilter.CACHE_DOCUMENT_KEY, routeId);
+            return null;
+        }
+        context.setSendZuulResponse(false);
+        context.addZuulResponseHeader(HttpHeaders.ETAG, doc.getEtag());
+        context.addZuulResponseHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        if (matchesEtag(context.getRequest().getHeader(HttpHeaders.IF_NONE_MATCH), doc.getEtag())) {
+            log.debug("Swagger-docs: document of route {} not modified", routeId);
+            context.setResponseStatusCode(HttpStatus.NOT_MODIFIED.value());
+            return null;
+        }
+        log.debug("Swagger-docs: serving cached document of route {}", routeId);
+        context.setResponseStatusCode(HttpStatus.OK.value());
+        context.addZuulResponseHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+        String acceptEncoding = context.getRequest().getHeader(ZuulHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding != null && HTTPRequestUtils.getInstance().isGzipped(acceptEncoding)) {
+            context.setResponseGZipped(true);
+            context.setResponseDataStream(new ByteArrayInputStream(doc.getGzipped()));
+        } else {
+            context.setResponseGZipped(false);
+            context.setResponseDataStream(new ByteArrayInputStream(doc.getIdentity()));
+        }
+        return null;
+    }
+
+    private static boolean matchesEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals(etag) || candidate.equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,66 @@
+package com.jhipster.blog.gateway.retry;
+
+import org.springframework.cloud.client.loadbalancer.LoadBalancedRetryContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancedRetryPolicy;
+
+/**
+ * Retry policy only allowing the retries of its delegate while the {@link RetryBudgets} of the route allow them.
+ * <p>
+ * The retry template asks the policy several times per attempt, so a retry is only taken from the budget once.
+ */
+public class BudgetedRetryPolicy implements LoadBalancedRetryPolicy {
+
+    /**
+     * Retry context attribute holding the number of the last retry taken from the budget.
+     */
+    static final String BUDGETED_RETRY_ATTRIBUTE = "retryBudgetRetry";
+
+    private final String routeId;
+
+    private final LoadBalancedRetryPolicy delegate;
+
+    private final RetryBudgets retryBudgets;
+
+    public BudgetedRetryPolicy(String routeId, LoadBalancedRetryPolicy delegate, RetryBudgets retryBudgets) {
+        this.routeId = routeId;
+        this.delegate = delegate;
+        this.retryBudgets = retryBudgets;
+    }
+
+    @Override
+    public boolean canRetrySameServer(LoadBalancedRetryContext context) {
+        return delegate.canRetrySameServer(context) && takeFromBudget(context);
+    }
+
+    @Override
+    public boolean canRetryNextServer(LoadBalancedRetryContext context) {
+        return delegate.canRetryNextServer(context) && takeFromBudget(context);
+    }
+
+    @Override
+    public void close(LoadBalancedRetryContext context) {
+        delegate.close(context);
+    }
+
+    @Override
+    public void registerThrowable(LoadBalancedRetryContext context, Throwable throwable) {
+        delegate.registerThrowable(context, throwable);
+    }
+
+    @Override
+    public boolean retryableStatusCode(int statusCode) {
+        return delegate.retryableStatusCode(statusCode);
+    }
+
+    private boolean takeFromBudget(LoadBalancedRetryContext context) {
+        int retry = context.getRetryCount();
+        if (retry == 0 || Integer.valueOf(retry).equals(context.getAttribute(BUDGETED_RETRY_ATTRIBUTE))) {
+            return true;
+        }
+        if (!retryBudgets.tryRetry(routeId)) {
+            return false;
+        }
+        context.setAttribute(BUDGETED_RETRY_ATTRIBUTE, retry);
+        return true;
+    }
+}
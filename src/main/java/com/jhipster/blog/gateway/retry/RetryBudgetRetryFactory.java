@@ -0,0 +1,65 @@
+package com.jhipster.blog.gateway.retry;
+
+import com.jhipster.blog.config.ApplicationProperties;
+
+import org.springframework.cloud.client.loadbalancer.LoadBalancedRetryPolicy;
+import org.springframework.cloud.client.loadbalancer.ServiceInstanceChooser;
+import org.springframework.cloud.netflix.ribbon.RibbonLoadBalancedRetryFactory;
+import org.springframework.cloud.netflix.ribbon.SpringClientFactory;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.backoff.BackOffPolicy;
+import org.springframework.retry.backoff.ExponentialRandomBackOffPolicy;
+import org.springframework.retry.listener.RetryListenerSupport;
+
+/**
+ * Retry factory of the retryable Ribbon clients used by the Zuul routes, bounding their retries with
+ * {@link RetryBudgets}.
+ * <p>
+ * The retry policies are the Ribbon ones, allowed only within the budget of the route, and the retries are spaced
+ * by an exponential backoff with random jitter, so that the retries of concurrent requests do not hit the services
+ * at the same time.
+ */
+public class RetryBudgetRetryFactory extends RibbonLoadBalancedRetryFactory {
+
+    private final ApplicationProperties.Gateway.RetryBudget retryBudgetProperties;
+
+    private final RetryBudgets retryBudgets;
+
+    public RetryBudgetRetryFactory(SpringClientFactory clientFactory, ApplicationProperties applicationProperties,
+                                   RetryBudgets retryBudgets) {
+        super(clientFactory);
+        this.retryBudgetProperties = applicationProperties.getGateway().getRetryBudget();
+        this.retryBudgets = retryBudgets;
+    }
+
+    @Override
+    public LoadBalancedRetryPolicy createRetryPolicy(String service, ServiceInstanceChooser serviceInstanceChooser) {
+        LoadBalancedRetryPolicy policy = super.createRetryPolicy(service, serviceInstanceChooser);
+        return policy == null ? null : new BudgetedRetryPolicy(service, policy, retryBudgets);
+    }
+
+    @Override
+    public RetryListener[] createRetryListeners(String service) {
+        return new RetryListener[] {new RetryListenerSupport() {
+
+            @Override
+            public <T, E extends Throwable> void close(RetryContext context, RetryCallback<T, E> callback,
+                                                       Throwable throwable) {
+                if (throwable == null) {
+                    retryBudgets.recordSuccess(service);
+                }
+            }
+        }};
+    }
+
+    @Override
+    public BackOffPolicy createBackOffPolicy(String service) {
+        ExponentialRandomBackOffPolicy backOffPolicy = new ExponentialRandomBackOffPolicy();
+        backOffPolicy.setInitialInterval(retryBudgetProperties.getInitialBackoffInMilliseconds());
+        backOffPolicy.setMultiplier(retryBudgetProperties.getBackoffMultiplier());
+        backOffPolicy.setMaxInterval(retryBudgetProperties.getMaxBackoffInMilliseconds());
+        return backOffPolicy;
+    }
+}
@@ -0,0 +1,99 @@
+package com.jhipster.blog.gateway.retry;
+
+import com.jhipster.blog.config.ApplicationProperties;
+import com.jhipster.blog.gateway.budget.TokenBudget;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Retry budget of each route: retries are allowed for a fraction of the successful requests of the route.
+ * <p>
+ * Routes are the Ribbon clients, named after the service ids. Allowed and refused retries are counted in the
+ * {@value #RETRIES_METRIC} counter, and the retries currently allowed in the {@value #TOKENS_METRIC} gauge.
+ */
+public class RetryBudgets {
+
+    public static final String RETRIES_METRIC = "gateway.retry.requests";
+
+    public static final String TOKENS_METRIC = "gateway.retry.budget.tokens";
+
+    public static final String ALLOWED = "allowed";
+
+    public static final String EXHAUSTED = "exhausted";
+
+    private final ApplicationProperties.Gateway.RetryBudget retryBudgetProperties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<String, RouteBudget> routeBudgets = new ConcurrentHashMap<>();
+
+    public RetryBudgets(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this.retryBudgetProperties = applicationProperties.getGateway().getRetryBudget();
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Take a retry from the budget of a route.
+     *
+     * @param routeId the id of the route.
+     * @return whether the retry is allowed.
+     */
+    public boolean tryRetry(String routeId) {
+        RouteBudget routeBudget = routeBudget(routeId);
+        if (routeBudget.budget.tryWithdraw()) {
+            routeBudget.allowed.increment();
+            return true;
+        }
+        routeBudget.exhausted.increment();
+        return false;
+    }
+
+    /**
+     * Record a successful request, adding its share of retries to the budget of the route.
+     *
+     * @param routeId the id of the route.
+     */
+    public void recordSuccess(String routeId) {
+        routeBudget(routeId).budget.deposit();
+    }
+
+    private RouteBudget routeBudget(String routeId) {
+        return routeBudgets.computeIfAbsent(routeId, RouteBudget::new);
+    }
+
+    /**
+     * The token bucket and meters of a route.
+     */
+    private final class RouteBudget {
+
+        private final TokenBudget budget;
+
+        private final Counter allowed;
+
+        private final Counter exhausted;
+
+        private RouteBudget(String routeId) {
+            budget = new TokenBudget(retryBudgetProperties.getBudgetPercent() / 100,
+                retryBudgetProperties.getMaxSavedRetries());
+            Gauge.builder(TOKENS_METRIC, budget, TokenBudget::getTokens)
+                .description("Retries currently allowed by the retry budget, per gateway route")
+                .tag("route", routeId)
+                .register(meterRegistry);
+            allowed = counter(routeId, ALLOWED);
+            exhausted = counter(routeId, EXHAUSTED);
+        }
+
+        private Counter counter(String routeId, String result) {
+            return Counter.builder(RETRIES_METRIC)
+                .description("Retries allowed or refused by the retry budget, per gateway route")
+                .tag("route", routeId)
+                .tag("result", result)
+                .register(meterRegistry);
+        }
+    }
+}
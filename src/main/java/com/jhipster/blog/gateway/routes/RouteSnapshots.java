@@ -0,0 +1,306 @@
+package com.jhipster.blog.gateway.routes;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.cloud.client.discovery.event.HeartbeatMonitor;
+import org.springframework.cloud.netflix.zuul.RoutesRefreshedEvent;
+import org.springframework.cloud.netflix.zuul.filters.Route;
+import org.springframework.cloud.netflix.zuul.filters.RouteLocator;
+import org.springframework.context.event.EventListener;
+
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-memory snapshot of the gateway routes and of their service instances.
+ * <p>
+ * The snapshot is rebuilt in the background when the routes are refreshed or a discovery heartbeat changes. The
+ * instances are read from the local cache of the discovery client, once per service. Each change of the routes gets
+ * a new version, and the last snapshots are kept so that clients can fetch only the changes since the version they
+ * already have.
+ */
+public class RouteSnapshots {
+
+    private static final int HISTORY_SIZE = 32;
+
+    private final Logger log = LoggerFactory.getLogger(RouteSnapshots.class);
+
+    private final RouteLocator routeLocator;
+
+    private final DiscoveryClient discoveryClient;
+
+    private final Executor executor;
+
+    private final HeartbeatMonitor heartbeatMonitor = new HeartbeatMonitor();
+
+    private final AtomicBoolean refreshRequested = new AtomicBoolean();
+
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private final Deque<RouteSnapshot> history = new ArrayDeque<>();
+
+    private volatile RouteSnapshot current;
+
+    public RouteSnapshots(RouteLocator routeLocator, DiscoveryClient discoveryClient, Executor executor) {
+        this.routeLocator = routeLocator;
+        this.discoveryClient = discoveryClient;
+        this.executor = executor;
+    }
+
+    /**
+     * Get the current snapshot. Only the very first call waits for the snapshot to be built.
+     *
+     * @return the current snapshot.
+     */
+    public RouteSnapshot getCurrent() {
+        RouteSnapshot snapshot = current;
+        if (snapshot == null) {
+            refresh();
+            snapshot = current;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Get the changes of the routes since a version.
+     *
+     * @param since the version known by the client.
+     * @return the changes, holding all the routes if the version is not known anymore.
+     */
+    public RouteDelta getChangesSince(long since) {
+        RouteSnapshot snapshot = getCurrent();
+        RouteSnapshot previous = null;
+        synchronized (history) {
+            for (RouteSnapshot candidate : history) {
+                if (candidate.getVersion() == since) {
+                    previous = candidate;
+                    break;
+                }
+            }
+        }
+        if (previous == null) {
+            return new RouteDelta(snapshot.getVersion(), true, new ArrayList<>(snapshot.getRoutes()),
+                Collections.emptyList());
+        }
+        List<RouteSnapshot.Entry> changed = new ArrayList<>();
+        for (RouteSnapshot.Entry entry : snapshot.getRoutes()) {
+            RouteSnapshot.Entry previousEntry = previous.getRoute(entry.getId());
+            if (previousEntry == null || !previousEntry.getFingerprint().equals(entry.getFingerprint())) {
+                changed.add(entry);
+            }
+        }
+        List<String> removed = new ArrayList<>();
+        for (RouteSnapshot.Entry previousEntry : previous.getRoutes()) {
+            if (snapshot.getRoute(previousEntry.getId()) == null) {
+                removed.add(previousEntry.getId());
+            }
+        }
+        return new RouteDelta(snapshot.getVersion(), false, changed, removed);
+    }
+
+    @EventListener(RoutesRefreshedEvent.class)
+    public void onRoutesRefreshed() {
+        requestRefresh();
+    }
+
+    @EventListener
+    public void onHeartbeat(HeartbeatEvent event) {
+        if (heartbeatMonitor.update(event.getValue())) {
+            requestRefresh();
+        }
+    }
+
+    /**
+     * Rebuild the snapshot in the background. Requests made while a rebuild is running are merged into a single
+     * following rebuild.
+     */
+    public void requestRefresh() {
+        refreshRequested.set(true);
+        if (refreshing.compareAndSet(false, true)) {
+            executor.execute(this::refreshWhileRequested);
+        }
+    }
+
+    private void refreshWhileRequested() {
+        try {
+            while (refreshRequested.getAndSet(false)) {
+                refresh();
+            }
+        } finally {
+            refreshing.set(false);
+        }
+        // A refresh requested between the last check and the reset of the flag must not be lost
+        if (refreshRequested.get()) {
+            requestRefresh();
+        }
+    }
+
+    /**
+     * Rebuild the snapshot now.
+     * <p>
+     * The instances are fetched on the calling thread: they come from the local cache of the discovery client, so
+     * handing them to the executor, which runs this method, would only queue the rebuild behind its other tasks.
+     */
+    public synchronized void refresh() {
+        Map<String, List<ServiceInstance>> instancesByService = new HashMap<>();
+        Map<String, RouteSnapshot.Entry> routesById = new LinkedHashMap<>();
+        for (Route route : routeLocator.getRoutes()) {
+            List<ServiceInstance> instances =
+                instancesByService.computeIfAbsent(route.getLocation(), discoveryClient::getInstances);
+            routesById.putIfAbsent(route.getId(), new RouteSnapshot.Entry(route, instances));
+        }
+
+        RouteSnapshot previous = current;
+        if (previous != null && previous.hasSameRoutes(routesById)) {
+            return;
+        }
+        RouteSnapshot snapshot = new RouteSnapshot(previous == null ? 1 : previous.getVersion() + 1, routesById);
+        synchronized (history) {
+            history.addLast(snapshot);
+            while (history.size() > HISTORY_SIZE) {
+                history.removeFirst();
+            }
+        }
+        current = snapshot;
+        log.debug("Gateway routes: snapshot version {} with {} routes", snapshot.getVersion(), routesById.size());
+    }
+
+    /**
+     * The routes of the gateway at a given version.
+     */
+    public static final class RouteSnapshot {
+
+        private final long version;
+
+        private final Map<String, Entry> routes;
+
+        private RouteSnapshot(long version, Map<String, Entry> routes) {
+            this.version = version;
+            this.routes = Collections.unmodifiableMap(routes);
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public Collection<Entry> getRoutes() {
+            return routes.values();
+        }
+
+        public Entry getRoute(String id) {
+            return routes.get(id);
+        }
+
+        private boolean hasSameRoutes(Map<String, Entry> other) {
+            if (routes.size() != other.size()) {
+                return false;
+            }
+            for (Entry entry : other.values()) {
+                Entry existing = routes.get(entry.getId());
+                if (existing == null || !existing.fingerprint.equals(entry.fingerprint)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * A route and its service instances.
+         */
+        public static final class Entry {
+
+            private final String id;
+
+            private final String path;
+
+            private final List<ServiceInstance> instances;
+
+            private final String fingerprint;
+
+            private Entry(Route route, List<ServiceInstance> instances) {
+                this.id = route.getId();
+                this.path = route.getFullPath();
+                this.instances = Collections.unmodifiableList(new ArrayList<>(instances));
+                this.fingerprint = fingerprint(path, instances);
+            }
+
+            public String getId() {
+                return id;
+            }
+
+            public String getPath() {
+                return path;
+            }
+
+            public List<ServiceInstance> getInstances() {
+                return instances;
+            }
+
+            private String getFingerprint() {
+                return fingerprint;
+            }
+
+            private static String fingerprint(String path, List<ServiceInstance> instances) {
+                SortedSet<String> instanceFingerprints = new TreeSet<>();
+                for (ServiceInstance instance : instances) {
+                    instanceFingerprints.add(instance.getInstanceId() + "@" + instance.getUri() + new TreeMap<>(
+                        instance.getMetadata() == null ? Collections.emptyMap() : instance.getMetadata()));
+                }
+                return path + " " + instanceFingerprints;
+            }
+        }
+    }
+
+    /**
+     * The changes of the routes between two versions.
+     */
+    public static final class RouteDelta {
+
+        private final long version;
+
+        private final boolean full;
+
+        private final List<RouteSnapshot.Entry> changed;
+
+        private final List<String> removed;
+
+        private RouteDelta(long version, boolean full, List<RouteSnapshot.Entry> changed, List<String> removed) {
+            this.version = version;
+            this.full = full;
+            this.changed = changed;
+            this.removed = removed;
+        }
+
+        /**
+         * @return the current version, to be sent back by the client on its next call.
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * @return {@code true} if the changed routes are all the routes, the previous version being unknown.
+         */
+        public boolean isFull() {
+            return full;
+        }
+
+        /**
+         * @return the routes added, or whose path or instances changed.
+         */
+        public List<RouteSnapshot.Entry> getChanged() {
+            return changed;
+        }
+
+        /**
+         * @return the ids of the removed routes.
+         */
+        public List<String> getRemoved() {
+            return removed;
+        }
+    }
+}
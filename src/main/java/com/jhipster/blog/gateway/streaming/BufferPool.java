@@ -0,0 +1,52 @@
+package com.jhipster.blog.gateway.streaming;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Pool of fixed-size byte buffers, so that streamed bodies use the same few buffers whatever their size.
+ * <p>
+ * When the pool is empty a new buffer is allocated, and buffers released to a full pool are left to the garbage
+ * collector: the pool bounds the memory it retains, not the number of concurrent streams.
+ */
+public class BufferPool {
+
+    public static final String POOLED_METRIC = "gateway.buffer.pool.pooled";
+
+    private final int bufferSize;
+
+    private final BlockingQueue<byte[]> buffers;
+
+    public BufferPool(String name, int bufferSize, int maxPooledBuffers, MeterRegistry meterRegistry) {
+        this.bufferSize = bufferSize;
+        this.buffers = new ArrayBlockingQueue<>(maxPooledBuffers);
+        Gauge.builder(POOLED_METRIC, buffers, BlockingQueue::size)
+            .description("Free buffers in the pools of the gateway")
+            .tag("pool", name)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Take a buffer from the pool, or allocate one if the pool is empty.
+     */
+    public byte[] acquire() {
+        byte[] buffer = buffers.poll();
+        return buffer == null ? new byte[bufferSize] : buffer;
+    }
+
+    /**
+     * Give a buffer back to the pool.
+     */
+    public void release(byte[] buffer) {
+        if (buffer.length == bufferSize) {
+            buffers.offer(buffer);
+        }
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+}
@@ -0,0 +1,47 @@
+package com.jhipster.blog.gateway.streaming;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Pool of fixed-size direct byte buffers, which the container can write to the socket without copying them first.
+ * <p>
+ * Direct buffers are expensive to allocate and only freed by the garbage collector, so they are worth pooling even
+ * more than heap ones. Like the {@link BufferPool}, the pool allocates a new buffer when it is empty and retains at
+ * most the configured number of buffers.
+ */
+public class DirectBufferPool {
+
+    private final int bufferSize;
+
+    private final BlockingQueue<ByteBuffer> buffers;
+
+    public DirectBufferPool(String name, int bufferSize, int maxPooledBuffers, MeterRegistry meterRegistry) {
+        this.bufferSize = bufferSize;
+        this.buffers = new ArrayBlockingQueue<>(maxPooledBuffers);
+        Gauge.builder(BufferPool.POOLED_METRIC, buffers, BlockingQueue::size)
+            .description("Free buffers in the pools of the gateway")
+            .tag("pool", name)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Take a cleared buffer from the pool, or allocate one if the pool is empty.
+     */
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = buffers.poll();
+        return buffer == null ? ByteBuffer.allocateDirect(bufferSize) : buffer;
+    }
+
+    /**
+     * Give a buffer back to the pool.
+     */
+    public void release(ByteBuffer buffer) {
+        buffer.clear();
+        buffers.offer(buffer);
+    }
+}
@@ -0,0 +1,198 @@
+package com.jhipster.blog.gateway.streaming;
+
+import com.jhipster.blog.config.ApplicationProperties;
+
+import com.netflix.util.Pair;
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.constants.ZuulHeaders;
+import com.netflix.zuul.context.RequestContext;
+import com.netflix.zuul.util.HTTPRequestUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.ClassUtils;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Zuul filter sending large and binary responses to the client through pooled direct buffers, in place of the
+ * {@code SendResponseFilter}.
+ * <p>
+ * The body of the service is read into a direct buffer which, on Undertow, is handed as-is to the servlet output
+ * stream and written to the socket without another copy through the heap. Other containers, or builds without
+ * Undertow, get the buffer through a standard channel. Gzipped responses are passed through when the client accepts
+ * gzip; otherwise they are left to the {@code SendResponseFilter}, which decompresses them. The number of bytes and
+ * the throughput of each copy are published as the {@value #BYTES_METRIC} and {@value #THROUGHPUT_METRIC} metrics.
+ */
+public class ResponsePassthroughFilter extends ZuulFilter {
+
+    public static final String BYTES_METRIC = "gateway.passthrough.bytes";
+
+    public static final String THROUGHPUT_METRIC = "gateway.passthrough.throughput";
+
+    private static final boolean UNDERTOW_PRESENT = ClassUtils.isPresent(
+        "io.undertow.servlet.handlers.ServletRequestContext", ResponsePassthroughFilter.class.getClassLoader());
+
+    private final Logger log = LoggerFactory.getLogger(ResponsePassthroughFilter.class);
+
+    private final ApplicationProperties.Gateway.ResponsePassthrough responsePassthroughProperties;
+
+    private final ZuulProperties zuulProperties;
+
+    private final DirectBufferPool bufferPool;
+
+    private final MeterRegistry meterRegistry;
+
+    public ResponsePassthroughFilter(ApplicationProperties applicationProperties, ZuulProperties zuulProperties,
+                                     DirectBufferPool bufferPool, MeterRegistry meterRegistry) {
+        this.responsePassthroughProperties = applicationProperties.getGateway().getResponsePassthrough();
+        this.zuulProperties = zuulProperties;
+        this.bufferPool = bufferPool;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public String filterType() {
+        return FilterConstants.POST_TYPE;
+    }
+
+    @Override
+    public int filterOrder() {
+        // Right before the SendResponseFilter
+        return FilterConstants.SEND_RESPONSE_FILTER_ORDER - 1;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        if (ctx.getThrowable() != null || ctx.getResponseDataStream() == null || ctx.getResponseBody() != null ||
+            zuulProperties.isIncludeDebugHeader()) {
+            return false;
+        }
+        if (ctx.getResponseGZipped() && !isGzipRequested(ctx)) {
+            return false;
+        }
+        Long contentLength = ctx.getOriginContentLength();
+        return (contentLength != null && contentLength >= responsePassthroughProperties.getMinSizeInBytes()) ||
+            isBinary(ctx);
+    }
+
+    @Override
+    public Object run() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        HttpServletResponse response = ctx.getResponse();
+        for (Pair<String, String> header : ctx.getZuulResponseHeaders()) {
+            response.addHeader(header.first(), header.second());
+        }
+        if (zuulProperties.isSetContentLength() && ctx.getOriginContentLength() != null) {
+            response.setContentLengthLong(ctx.getOriginContentLength());
+        }
+        InputStream body = ctx.getResponseDataStream();
+        // Leave nothing for the SendResponseFilter to send
+        ctx.getZuulResponseHeaders().clear();
+        ctx.setResponseDataStream(null);
+
+        String routeId = (String) ctx.get(FilterConstants.PROXY_KEY);
+        ByteBuffer buffer = bufferPool.acquire();
+        long start = System.nanoTime();
+        try (ReadableByteChannel in = Channels.newChannel(body)) {
+            long bytes = transfer(body, in, outputChannel(response), buffer);
+            record(routeId == null ? "none" : routeId, bytes, System.nanoTime() - start);
+        } catch (IOException e) {
+            log.warn("Error while sending response to client: {}", e.getMessage());
+        } finally {
+            bufferPool.release(buffer);
+            closeQuietly(ctx.get("zuulResponse"));
+        }
+        return null;
+    }
+
+    /**
+     * Copy a body through a buffer, filling the buffer with what the service already sent before each write.
+     *
+     * @return the number of bytes copied.
+     */
+    static long transfer(InputStream body, ReadableByteChannel in, WritableByteChannel out, ByteBuffer buffer)
+        throws IOException {
+        long bytes = 0;
+        boolean end = false;
+        while (!end) {
+            do {
+                int read = in.read(buffer);
+                if (read == -1) {
+                    end = true;
+                    break;
+                }
+                bytes += read;
+            } while (buffer.hasRemaining() && body.available() > 0);
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            buffer.clear();
+        }
+        return bytes;
+    }
+
+    private WritableByteChannel outputChannel(HttpServletResponse response) throws IOException {
+        // Commits the status and headers through the response wrappers, which write headers of their own on commit
+        response.flushBuffer();
+        WritableByteChannel channel = UNDERTOW_PRESENT ? UndertowChannels.current() : null;
+        return channel != null ? channel : Channels.newChannel(response.getOutputStream());
+    }
+
+    private void record(String routeId, long bytes, long nanos) {
+        Counter.builder(BYTES_METRIC)
+            .description("Bytes of the responses passed through by the gateway")
+            .baseUnit("bytes")
+            .tag("route", routeId)
+            .register(meterRegistry)
+            .increment(bytes);
+        if (nanos > 0) {
+            DistributionSummary.builder(THROUGHPUT_METRIC)
+                .description("Copy throughput of the responses passed through by the gateway")
+                .baseUnit("bytes.per.second")
+                .tag("route", routeId)
+                .register(meterRegistry)
+                .record(bytes * (double) TimeUnit.SECONDS.toNanos(1) / nanos);
+        }
+    }
+
+    private boolean isGzipRequested(RequestContext ctx) {
+        String acceptEncoding = ctx.getRequest().getHeader(ZuulHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && HTTPRequestUtils.getInstance().isGzipped(acceptEncoding);
+    }
+
+    private boolean isBinary(RequestContext ctx) {
+        for (Pair<String, String> header : ctx.getZuulResponseHeaders()) {
+            if (HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(header.first()) && header.second() != null) {
+                return responsePassthroughProperties.getContentTypes().stream()
+                    .anyMatch(contentType -> header.second().startsWith(contentType));
+            }
+        }
+        return false;
+    }
+
+    private void closeQuietly(Object resource) {
+        if (resource instanceof Closeable) {
+            try {
+                ((Closeable) resource).close();
+            } catch (IOException e) {
+                log.debug("Error while closing the response of the service: {}", e.getMessage());
+            }
+        }
+    }
+}
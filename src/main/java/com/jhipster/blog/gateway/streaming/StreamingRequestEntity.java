@@ -0,0 +1,83 @@
+package com.jhipster.blog.gateway.streaming;
+
+import org.apache.http.entity.AbstractHttpEntity;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Apache HTTP client entity copying a request body to the service connection through a pooled buffer.
+ * <p>
+ * Each buffer read from the client is written to the service before the next one is read, so a slow service slows
+ * down the upload instead of filling the heap. The body can only be sent once: a retry of the request fails instead
+ * of sending a truncated body.
+ */
+public class StreamingRequestEntity extends AbstractHttpEntity {
+
+    private final InputStream content;
+
+    private final long contentLength;
+
+    private final long maxBodySize;
+
+    private final BufferPool bufferPool;
+
+    private final AtomicBoolean consumed = new AtomicBoolean();
+
+    /**
+     * @param content the request body.
+     * @param contentLength the declared length of the body, or -1 to send it chunked.
+     * @param maxBodySize the maximum number of bytes to stream, larger bodies being cut with an exception.
+     * @param bufferPool the pool of the buffers used to copy the body.
+     */
+    public StreamingRequestEntity(InputStream content, long contentLength, long maxBodySize, BufferPool bufferPool) {
+        this.content = content;
+        this.contentLength = contentLength;
+        this.maxBodySize = maxBodySize;
+        this.bufferPool = bufferPool;
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return false;
+    }
+
+    @Override
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    @Override
+    public InputStream getContent() {
+        throw new UnsupportedOperationException("Streamed request bodies can only be written");
+    }
+
+    @Override
+    public void writeTo(OutputStream outputStream) throws IOException {
+        if (!consumed.compareAndSet(false, true)) {
+            throw new IOException("Streamed request body cannot be sent twice");
+        }
+        byte[] buffer = bufferPool.acquire();
+        long streamedBytes = 0;
+        try {
+            int read;
+            while ((read = content.read(buffer)) != -1) {
+                streamedBytes += read;
+                if (streamedBytes > maxBodySize) {
+                    throw new IOException("Request body larger than " + maxBodySize + " bytes");
+                }
+                outputStream.write(buffer, 0, read);
+            }
+            outputStream.flush();
+        } finally {
+            bufferPool.release(buffer);
+        }
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return !consumed.get();
+    }
+}
@@ -0,0 +1,62 @@
+package com.jhipster.blog.gateway.streaming;
+
+import com.jhipster.blog.config.ApplicationProperties;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Zuul filter rejecting with a 413 the requests of the streaming routes declaring a body larger than the maximum
+ * size, before anything is read or sent to the service.
+ * <p>
+ * Bodies without a declared length are cut by the {@link StreamingRequestEntity} when they grow too large.
+ */
+public class StreamingUploadFilter extends ZuulFilter {
+
+    private final Logger log = LoggerFactory.getLogger(StreamingUploadFilter.class);
+
+    private final ApplicationProperties.Gateway.StreamingUpload streamingUploadProperties;
+
+    public StreamingUploadFilter(ApplicationProperties applicationProperties) {
+        this.streamingUploadProperties = applicationProperties.getGateway().getStreamingUpload();
+    }
+
+    @Override
+    public String filterType() {
+        return FilterConstants.PRE_TYPE;
+    }
+
+    @Override
+    public int filterOrder() {
+        // Right after the PreDecorationFilter, which resolves the route
+        return FilterConstants.PRE_DECORATION_FILTER_ORDER + 1;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        return ctx.sendZuulResponse() &&
+            streamingUploadProperties.getRoutes().contains((String) ctx.get(FilterConstants.PROXY_KEY));
+    }
+
+    @Override
+    public Object run() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        long contentLength = ctx.getRequest().getContentLengthLong();
+        if (contentLength <= streamingUploadProperties.getMaxBodySizeInMegabytes() * 1024 * 1024) {
+            return null;
+        }
+        log.debug("Streaming upload: body of {} bytes too large for request {}", contentLength,
+            ctx.getRequest().getRequestURI());
+        ctx.setResponseStatusCode(HttpStatus.PAYLOAD_TOO_LARGE.value());
+        if (ctx.getResponseBody() == null) {
+            ctx.setResponseBody("Request body too large");
+        }
+        ctx.setSendZuulResponse(false);
+        return null;
+    }
+}
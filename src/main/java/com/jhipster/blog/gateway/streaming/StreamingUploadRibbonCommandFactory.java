@@ -0,0 +1,100 @@
+package com.jhipster.blog.gateway.streaming;
+
+import com.jhipster.blog.config.ApplicationProperties;
+
+import com.netflix.zuul.context.RequestContext;
+import org.apache.http.client.methods.RequestBuilder;
+import org.springframework.cloud.netflix.ribbon.support.RibbonCommandContext;
+import org.springframework.cloud.netflix.ribbon.support.RibbonRequestCustomizer;
+import org.springframework.cloud.netflix.zuul.filters.route.HttpClientRibbonCommand;
+import org.springframework.cloud.netflix.zuul.filters.route.RibbonCommandFactory;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ribbon command factory streaming the request bodies of the configured routes to the services.
+ * <p>
+ * Ribbon copies every request body to a byte array so that it can be replayed on retries. For the streaming routes,
+ * the body is left out of the command context and set on the Apache HTTP client request as a
+ * {@link StreamingRequestEntity} instead, and the request is not retryable. Other requests are handled by the
+ * delegate factory unchanged.
+ */
+public class StreamingUploadRibbonCommandFactory implements RibbonCommandFactory<HttpClientRibbonCommand> {
+
+    private final ApplicationProperties.Gateway.StreamingUpload streamingUploadProperties;
+
+    private final RibbonCommandFactory<HttpClientRibbonCommand> delegate;
+
+    private final BufferPool bufferPool;
+
+    public StreamingUploadRibbonCommandFactory(ApplicationProperties applicationProperties,
+                                               RibbonCommandFactory<HttpClientRibbonCommand> delegate,
+                                               BufferPool bufferPool) {
+        this.streamingUploadProperties = applicationProperties.getGateway().getStreamingUpload();
+        this.delegate = delegate;
+        this.bufferPool = bufferPool;
+    }
+
+    @Override
+    public HttpClientRibbonCommand create(RibbonCommandContext context) {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        String routeId = (String) ctx.get(FilterConstants.PROXY_KEY);
+        if (!streamingUploadProperties.getRoutes().contains(routeId) || !hasBody(ctx.getRequest())) {
+            return delegate.create(context);
+        }
+        long contentLength = context.getContentLength() == null ? -1 : context.getContentLength();
+        StreamingRequestEntity entity = new StreamingRequestEntity(requestBody(ctx), contentLength,
+            streamingUploadProperties.getMaxBodySizeInMegabytes() * 1024 * 1024, bufferPool);
+        List<RibbonRequestCustomizer> requestCustomizers = new ArrayList<>(context.getRequestCustomizers());
+        requestCustomizers.add(new StreamingBodyCustomizer(entity));
+        RibbonCommandContext streamingContext = new RibbonCommandContext(context.getServiceId(), context.getMethod(),
+            context.getUri(), false, context.getHeaders(), context.getParams(), null, requestCustomizers,
+            context.getContentLength(), context.getLoadBalancerKey());
+        return delegate.create(streamingContext);
+    }
+
+    private boolean hasBody(HttpServletRequest request) {
+        return request.getContentLengthLong() > 0 || request.getHeader("Transfer-Encoding") != null;
+    }
+
+    private InputStream requestBody(RequestContext ctx) {
+        // Same precedence as the RibbonRoutingFilter
+        InputStream requestEntity = (InputStream) ctx.get(FilterConstants.REQUEST_ENTITY_KEY);
+        if (requestEntity != null) {
+            return requestEntity;
+        }
+        try {
+            return ctx.getRequest().getInputStream();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Sets the streamed body on the Apache HTTP client request.
+     */
+    private static final class StreamingBodyCustomizer implements RibbonRequestCustomizer<RequestBuilder> {
+
+        private final StreamingRequestEntity entity;
+
+        private StreamingBodyCustomizer(StreamingRequestEntity entity) {
+            this.entity = entity;
+        }
+
+        @Override
+        public boolean accepts(Class builderClass) {
+            return builderClass == RequestBuilder.class;
+        }
+
+        @Override
+        public void customize(RequestBuilder builder) {
+            builder.setEntity(entity);
+        }
+    }
+}
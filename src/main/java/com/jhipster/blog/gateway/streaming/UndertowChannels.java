@@ -0,0 +1,68 @@
+package com.jhipster.blog.gateway.streaming;
+
+import io.undertow.servlet.handlers.ServletRequestContext;
+import io.undertow.servlet.spec.ServletOutputStreamImpl;
+
+import javax.servlet.ServletOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Channels writing to Undertow's servlet output stream, which sends direct buffers without copying them.
+ * <p>
+ * Undertow is not on the classpath of every build, so this class must only be loaded once its presence is checked.
+ */
+final class UndertowChannels {
+
+    private UndertowChannels() {
+    }
+
+    /**
+     * Get a channel writing to the response of the current request.
+     *
+     * @return the channel, or {@code null} if the request is not served by Undertow's servlet container.
+     * @throws IOException if the output stream cannot be opened.
+     */
+    static WritableByteChannel current() throws IOException {
+        ServletRequestContext context = ServletRequestContext.current();
+        if (context != null) {
+            ServletOutputStream outputStream = context.getOriginalResponse().getOutputStream();
+            if (outputStream instanceof ServletOutputStreamImpl) {
+                return new UndertowChannel((ServletOutputStreamImpl) outputStream);
+            }
+        }
+        return null;
+    }
+
+    private static final class UndertowChannel implements WritableByteChannel {
+
+        private final ServletOutputStreamImpl outputStream;
+
+        private boolean open = true;
+
+        private UndertowChannel(ServletOutputStreamImpl outputStream) {
+            this.outputStream = outputStream;
+        }
+
+        @Override
+        public int write(ByteBuffer buffer) throws IOException {
+            int remaining = buffer.remaining();
+            // Blocking writes send the whole buffer
+            outputStream.write(buffer);
+            buffer.position(buffer.limit());
+            return remaining;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() throws IOException {
+            open = false;
+            outputStream.close();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.jhipster.blog.gateway.timeout;
+
+import com.jhipster.blog.gateway.metrics.UpstreamEndFilter;
+import com.jhipster.blog.gateway.metrics.UpstreamStartFilter;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+
+/**
+ * Zuul filter feeding the {@link AdaptiveTimeouts} with the upstream time of the requests proxied by Ribbon.
+ * <p>
+ * Requests which timed out are recorded too, so that the timeout of a service grows when it gets slower.
+ */
+public class AdaptiveTimeoutFilter extends ZuulFilter {
+
+    private final AdaptiveTimeouts adaptiveTimeouts;
+
+    public AdaptiveTimeoutFilter(AdaptiveTimeouts adaptiveTimeouts) {
+        this.adaptiveTimeouts = adaptiveTimeouts;
+    }
+
+    @Override
+    public String filterType() {
+        return FilterConstants.POST_TYPE;
+    }
+
+    @Override
+    public int filterOrder() {
+        // After the OutlierDetectionFilter
+        return Integer.MIN_VALUE + 4;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        return ctx.get(FilterConstants.SERVICE_ID_KEY) != null && ctx.getRouteHost() == null &&
+            ctx.get(UpstreamStartFilter.UPSTREAM_START_KEY) != null &&
+            ctx.get(UpstreamEndFilter.UPSTREAM_END_KEY) != null;
+    }
+
+    @Override
+    public Object run() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        long upstreamNanos = (Long) ctx.get(UpstreamEndFilter.UPSTREAM_END_KEY) -
+            (Long) ctx.get(UpstreamStartFilter.UPSTREAM_START_KEY);
+        adaptiveTimeouts.record((String) ctx.get(FilterConstants.SERVICE_ID_KEY), upstreamNanos);
+        return null;
+    }
+}
@@ -0,0 +1,139 @@
+package com.jhipster.blog.gateway.timeout;
+
+import com.jhipster.blog.config.ApplicationProperties;
+
+import com.netflix.client.config.CommonClientConfigKey;
+import com.netflix.client.config.IClientConfig;
+import com.netflix.config.ConfigurationManager;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.netflix.ribbon.SpringClientFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timeouts of the services, adapted to their recent upstream latency.
+ * <p>
+ * The latency of each service is kept in a HdrHistogram-backed timer over a sliding window. Periodically, the Ribbon
+ * read timeout of the services is set to the configured percentile of their latency times a factor, clamped to the
+ * configured bounds, and their Hystrix command timeout is set to cover the Ribbon timeouts and retries, as Spring
+ * Cloud does for static timeouts. The effective timeout is published as the {@value #TIMEOUT_METRIC} gauge.
+ */
+public class AdaptiveTimeouts {
+
+    public static final String TIMEOUT_METRIC = "gateway.route.timeout";
+
+    public static final String LATENCY_METRIC = "gateway.route.timeout.latency";
+
+    private final Logger log = LoggerFactory.getLogger(AdaptiveTimeouts.class);
+
+    private final ApplicationProperties.Gateway.AdaptiveTimeouts adaptiveTimeoutsProperties;
+
+    private final SpringClientFactory clientFactory;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<String, ServiceTimeout> serviceTimeouts = new ConcurrentHashMap<>();
+
+    public AdaptiveTimeouts(ApplicationProperties applicationProperties, SpringClientFactory clientFactory,
+                            MeterRegistry meterRegistry) {
+        this.adaptiveTimeoutsProperties = applicationProperties.getGateway().getAdaptiveTimeouts();
+        this.clientFactory = clientFactory;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Record the upstream latency of a request.
+     *
+     * @param serviceId the id of the service, which is also its Hystrix command key.
+     * @param latencyNanos the time spent waiting for the service, in nanoseconds.
+     */
+    public void record(String serviceId, long latencyNanos) {
+        serviceTimeouts.computeIfAbsent(serviceId, ServiceTimeout::new).latency
+            .record(latencyNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Get the timeout currently applied to a service.
+     *
+     * @param serviceId the id of the service.
+     * @return the Ribbon read timeout in milliseconds, or -1 if it was not adapted yet.
+     */
+    public long getTimeout(String serviceId) {
+        ServiceTimeout serviceTimeout = serviceTimeouts.get(serviceId);
+        return serviceTimeout == null ? -1 : serviceTimeout.timeoutMillis;
+    }
+
+    /**
+     * Adapt the timeouts of the services to their recent latency.
+     */
+    @Scheduled(fixedDelayString = "${application.gateway.adaptive-timeouts.update-interval-in-milliseconds:10000}")
+    public void update() {
+        serviceTimeouts.forEach((serviceId, serviceTimeout) -> {
+            if (serviceTimeout.latency.count() < adaptiveTimeoutsProperties.getMinSamples()) {
+                return;
+            }
+            ValueAtPercentile[] percentiles = serviceTimeout.latency.takeSnapshot().percentileValues();
+            if (percentiles.length == 0 || percentiles[0].value() <= 0) {
+                return;
+            }
+            long timeout = Math.round(
+                percentiles[0].value(TimeUnit.MILLISECONDS) * adaptiveTimeoutsProperties.getFactor());
+            timeout = Math.max(adaptiveTimeoutsProperties.getMinTimeoutInMilliseconds(),
+                Math.min(adaptiveTimeoutsProperties.getMaxTimeoutInMilliseconds(), timeout));
+            if (timeout != serviceTimeout.timeoutMillis) {
+                apply(serviceId, timeout);
+                serviceTimeout.timeoutMillis = timeout;
+            }
+        });
+    }
+
+    private void apply(String serviceId, long timeout) {
+        IClientConfig config = clientFactory.getClientConfig(serviceId);
+        if (config == null) {
+            return;
+        }
+        config.set(CommonClientConfigKey.ReadTimeout, (int) timeout);
+        int connectTimeout = config.get(CommonClientConfigKey.ConnectTimeout, 1000);
+        int maxAutoRetries = config.get(CommonClientConfigKey.MaxAutoRetries, 0);
+        int maxAutoRetriesNextServer = config.get(CommonClientConfigKey.MaxAutoRetriesNextServer, 1);
+        long hystrixTimeout = (connectTimeout + timeout) * (maxAutoRetries + 1) * (maxAutoRetriesNextServer + 1);
+        ConfigurationManager.getConfigInstance().setProperty(
+            "hystrix.command." + serviceId + ".execution.isolation.thread.timeoutInMilliseconds", hystrixTimeout);
+        log.debug("Adaptive timeouts: read timeout of {} set to {} ms, Hystrix timeout to {} ms", serviceId, timeout,
+            hystrixTimeout);
+    }
+
+    /**
+     * The latency histogram and current timeout of a service.
+     */
+    private final class ServiceTimeout {
+
+        private final Timer latency;
+
+        private volatile long timeoutMillis = -1;
+
+        private ServiceTimeout(String serviceId) {
+            latency = Timer.builder(LATENCY_METRIC)
+                .description("Upstream latency from which the timeout of each gateway route is taken")
+                .tag("route", serviceId)
+                .publishPercentiles(adaptiveTimeoutsProperties.getPercentile())
+                .distributionStatisticExpiry(Duration.ofMinutes(1))
+                .distributionStatisticBufferLength(3)
+                .register(meterRegistry);
+            Gauge.builder(TIMEOUT_METRIC, this, serviceTimeout -> serviceTimeout.timeoutMillis)
+                .description("Read timeout applied to each gateway route, -1 until it is adapted")
+                .baseUnit("milliseconds")
+                .tag("route", serviceId)
+                .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.jhipster.blog.gateway.zone;
+
+import com.jhipster.blog.config.ApplicationProperties;
+import com.jhipster.blog.gateway.loadbalancer.InstanceLatencyStats;
+
+import com.netflix.loadbalancer.DynamicServerListLoadBalancer;
+import com.netflix.loadbalancer.ILoadBalancer;
+import com.netflix.loadbalancer.Server;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.netflix.ribbon.SpringClientFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Zone affinity of the services: their requests stay in the zone of the gateway while it is healthy, and spill over
+ * to the other zones when it is not.
+ * <p>
+ * The error rate of the local instances of each service is counted over each update interval, and their latency is
+ * the average of the latency observed by the gateway, see {@link InstanceLatencyStats}. When one of them goes past its
+ * maximum, the spillover weight of the service is set to the excess ratio (0.5 for an error rate 1.5 times the
+ * maximum), capped to the maximum weight; once the zone is healthy again, the weight is halved at each update. The
+ * server list of the service then gets enough instances of the other zones, spread evenly across them, to make that
+ * share of its instances. Requests are counted per zone by the {@value #REQUESTS_METRIC} metric, and the weight of
+ * each service is published as the {@value #SPILLOVER_METRIC} gauge.
+ */
+public class ZoneAffinity {
+
+    public static final String REQUESTS_METRIC = "gateway.zone.requests";
+
+    public static final String SPILLOVER_METRIC = "gateway.zone.spillover";
+
+    private static final double MIN_WEIGHT = 0.01;
+
+    private final Logger log = LoggerFactory.getLogger(ZoneAffinity.class);
+
+    private final ApplicationProperties.Gateway.ZoneAffinity zoneAffinityProperties;
+
+    private final InstanceLatencyStats instanceLatencyStats;
+
+    private final SpringClientFactory clientFactory;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<String, ServiceZones> services = new ConcurrentHashMap<>();
+
+    public ZoneAffinity(ApplicationProperties applicationProperties, InstanceLatencyStats instanceLatencyStats,
+                        SpringClientFactory clientFactory, MeterRegistry meterRegistry) {
+        this.zoneAffinityProperties = applicationProperties.getGateway().getZoneAffinity();
+        this.instanceLatencyStats = instanceLatencyStats;
+        this.clientFactory = clientFactory;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Get the zone of the gateway.
+     *
+     * @return the zone, or {@code null} if it is not set.
+     */
+    public String getZone() {
+        String zone = zoneAffinityProperties.getZone();
+        return StringUtils.hasText(zone) ? zone : null;
+    }
+
+    /**
+     * Record the outcome of a request.
+     * <p>
+     * Failures without a response are counted against the local zone, which serves most of the traffic: connection
+     * failures and timeouts of the local instances must make the zone spill over.
+     *
+     * @param serviceId the id of the service.
+     * @param hostPort the host and port of the instance which answered, or {@code null} if none did.
+     * @param error whether the request failed or got a 5xx response.
+     */
+    public void record(String serviceId, String hostPort, boolean error) {
+        ServiceZones serviceZones = service(serviceId);
+        String localZone = getZone();
+        String zone = String.valueOf(hostPort == null ? localZone : serviceZones.zones.get(hostPort));
+        String outcome = error ? "error" : "success";
+        serviceZones.counters.computeIfAbsent(zone + "/" + outcome, key -> Counter.builder(REQUESTS_METRIC)
+            .description("Requests sent by the gateway to each zone, per service and outcome")
+            .tag("service", serviceId)
+            .tag("zone", zone)
+            .tag("outcome", outcome)
+            .register(meterRegistry))
+            .increment();
+        if (zone.equalsIgnoreCase(localZone)) {
+            serviceZones.localRequests.increment();
+            if (error) {
+                serviceZones.localErrors.increment();
+            }
+        }
+    }
+
+    /**
+     * Filter the servers of a service according to its spillover weight.
+     *
+     * @param serviceId the id of the service.
+     * @param servers all the servers of the service.
+     * @return the servers of the local zone, with instances of the other zones when the service spills over; all the
+     * servers when the zone of the gateway is not set or when there are servers in a single zone.
+     */
+    public List<Server> filter(String serviceId, List<Server> servers) {
+        ServiceZones serviceZones = service(serviceId);
+        Map<String, String> zones = new HashMap<>();
+        for (Server server : servers) {
+            if (server.getZone() != null) {
+                zones.put(server.getHostPort(), server.getZone());
+            }
+        }
+        serviceZones.zones = zones;
+
+        String localZone = getZone();
+        if (localZone == null) {
+            return servers;
+        }
+        List<Server> local = new ArrayList<>();
+        Map<String, List<Server>> remote = new TreeMap<>();
+        for (Server server : servers) {
+            if (localZone.equalsIgnoreCase(server.getZone())) {
+                local.add(server);
+            } else {
+                remote.computeIfAbsent(String.valueOf(server.getZone()), key -> new ArrayList<>()).add(server);
+            }
+        }
+        double weight = serviceZones.weight;
+        if (local.isEmpty() || remote.isEmpty()) {
+            return servers;
+        }
+        if (weight <= 0) {
+            return local;
+        }
+        if (weight >= 1) {
+            return spillover(remote, servers.size() - local.size());
+        }
+        int count = (int) Math.ceil(weight * local.size() / (1 - weight));
+        List<Server> filtered = new ArrayList<>(local);
+        filtered.addAll(spillover(remote, count));
+        return filtered;
+    }
+
+    /**
+     * Get the spillover weight of a service.
+     *
+     * @param serviceId the id of the service.
+     * @return the share of the instances of the other zones in its server list, between 0 and 1.
+     */
+    public double getSpilloverWeight(String serviceId) {
+        ServiceZones serviceZones = services.get(serviceId);
+        return serviceZones == null ? 0 : serviceZones.weight;
+    }
+
+    /**
+     * Update the spillover weight of the services from the health of their local instances.
+     */
+    @Scheduled(fixedDelayString = "${application.gateway.zone-affinity.update-interval-in-milliseconds:5000}")
+    public void update() {
+        String localZone = getZone();
+        if (localZone == null) {
+            return;
+        }
+        services.forEach((serviceId, serviceZones) -> {
+            long requests = serviceZones.localRequests.sumThenReset();
+            long errors = serviceZones.localErrors.sumThenReset();
+            double excess = 0;
+            if (requests > 0 && requests >= zoneAffinityProperties.getMinRequests()) {
+                excess = (double) errors / requests / zoneAffinityProperties.getMaxErrorRate();
+            }
+            double latency = localLatency(serviceId, serviceZones.zones, localZone);
+            if (latency >= 0) {
+                excess = Math.max(excess, latency / zoneAffinityProperties.getMaxLatencyInMilliseconds());
+            }
+            double target = Math.min(zoneAffinityProperties.getMaxSpilloverWeight(), Math.max(0, excess - 1));
+            double weight = Math.max(target, serviceZones.weight / 2);
+            if (weight < MIN_WEIGHT) {
+                weight = 0;
+            }
+            if (weight != serviceZones.weight) {
+                log.debug("Zone affinity: spillover weight of {} set to {}", serviceId, weight);
+                serviceZones.weight = weight;
+                refreshServerList(serviceId);
+            }
+        });
+    }
+
+    private double localLatency(String serviceId, Map<String, String> zones, String localZone) {
+        double total = 0;
+        int observed = 0;
+        for (Map.Entry<String, String> instance : zones.entrySet()) {
+            if (!localZone.equalsIgnoreCase(instance.getValue())) {
+                continue;
+            }
+            double latency = instanceLatencyStats.getLatency(serviceId, instance.getKey());
+            if (latency >= 0) {
+                total += latency;
+                observed++;
+            }
+        }
+        return observed == 0 ? -1 : total / observed / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private List<Server> spillover(Map<String, List<Server>> remote, int count) {
+        // Taking the servers of each zone in turn, in a stable order so that a larger weight only adds servers
+        List<Iterator<Server>> zones = new ArrayList<>(remote.size());
+        for (List<Server> servers : remote.values()) {
+            servers.sort(Comparator.comparing(Server::getHostPort));
+            zones.add(servers.iterator());
+        }
+        List<Server> spillover = new ArrayList<>(count);
+        while (spillover.size() < count && !zones.isEmpty()) {
+            for (Iterator<Iterator<Server>> zone = zones.iterator(); zone.hasNext() && spillover.size() < count; ) {
+                Iterator<Server> servers = zone.next();
+                if (servers.hasNext()) {
+                    spillover.add(servers.next());
+                } else {
+                    zone.remove();
+                }
+            }
+        }
+        return spillover;
+    }
+
+    private void refreshServerList(String serviceId) {
+        ILoadBalancer loadBalancer = clientFactory.getLoadBalancer(serviceId);
+        if (loadBalancer instanceof DynamicServerListLoadBalancer) {
+            ((DynamicServerListLoadBalancer<?>) loadBalancer).updateListOfServers();
+        }
+    }
+
+    private ServiceZones service(String serviceId) {
+        return services.computeIfAbsent(serviceId, ServiceZones::new);
+    }
+
+    /**
+     * The zones of the instances of a service, and the health of its local instances.
+     */
+    private final class ServiceZones {
+
+        private final LongAdder localRequests = new LongAdder();
+
+        private final LongAdder localErrors = new LongAdder();
+
+        private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+        private volatile Map<String, String> zones = Collections.emptyMap();
+
+        private volatile double weight;
+
+        private ServiceZones(String serviceId) {
+            Gauge.builder(SPILLOVER_METRIC, this, serviceZones -> serviceZones.weight)
+                .description("Share of the instances of other zones in the server list of each service")
+                .tag("service", serviceId)
+                .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.jhipster.blog.gateway.zone;
+
+import com.jhipster.blog.gateway.loadbalancer.InstanceLatencyFilter;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+
+/**
+ * Zuul filter feeding the {@link ZoneAffinity} with the outcome of the requests proxied by Ribbon.
+ */
+public class ZoneAffinityFilter extends ZuulFilter {
+
+    private final ZoneAffinity zoneAffinity;
+
+    public ZoneAffinityFilter(ZoneAffinity zoneAffinity) {
+        this.zoneAffinity = zoneAffinity;
+    }
+
+    @Override
+    public String filterType() {
+        return FilterConstants.POST_TYPE;
+    }
+
+    @Override
+    public int filterOrder() {
+        // After the FairQueuingReleaseFilter
+        return Integer.MIN_VALUE + 6;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        return ctx.get(FilterConstants.SERVICE_ID_KEY) != null && ctx.getRouteHost() == null;
+    }
+
+    @Override
+    public Object run() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        String instance = InstanceLatencyFilter.getInstance(ctx);
+        if (instance == null && ctx.getThrowable() == null) {
+            return null;
+        }
+        zoneAffinity.record((String) ctx.get(FilterConstants.SERVICE_ID_KEY), instance,
+            ctx.getThrowable() != null || ctx.getResponseStatusCode() >= 500);
+        return null;
+    }
+}
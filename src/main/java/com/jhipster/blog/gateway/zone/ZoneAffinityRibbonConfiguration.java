@@ -0,0 +1,39 @@
+package com.jhipster.blog.gateway.zone;
+
+import com.netflix.client.config.IClientConfig;
+import com.netflix.loadbalancer.Server;
+import com.netflix.loadbalancer.ServerListFilter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.netflix.ribbon.RibbonClientName;
+import org.springframework.cloud.netflix.ribbon.ZonePreferenceServerListFilter;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Default configuration of the Ribbon clients, choosing the filter keeping the instances of the zone of the gateway.
+ * <p>
+ * Like the other Ribbon default configurations, this class is not a {@code @Configuration}. The zones are filtered by
+ * the {@link ZoneSpilloverServerListFilter} when zone affinity is enabled, and by Spring Cloud's default filter
+ * otherwise. The server list filter of the client wraps this one, under the {@link #ZONE_SERVER_LIST_FILTER} name.
+ */
+public class ZoneAffinityRibbonConfiguration {
+
+    /**
+     * Name of the zone filter in the Ribbon client contexts.
+     */
+    public static final String ZONE_SERVER_LIST_FILTER = "zoneServerListFilter";
+
+    @RibbonClientName
+    private String name = "client";
+
+    @Bean(ZONE_SERVER_LIST_FILTER)
+    public ServerListFilter<Server> zoneServerListFilter(IClientConfig config,
+                                                         ObjectProvider<ZoneAffinity> zoneAffinity) {
+        ZoneAffinity affinity = zoneAffinity.getIfAvailable();
+        if (affinity != null) {
+            return new ZoneSpilloverServerListFilter(name, affinity);
+        }
+        ZonePreferenceServerListFilter zonePreferenceFilter = new ZonePreferenceServerListFilter();
+        zonePreferenceFilter.initWithNiwsConfig(config);
+        return zonePreferenceFilter;
+    }
+}
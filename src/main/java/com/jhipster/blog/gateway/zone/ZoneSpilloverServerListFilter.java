@@ -0,0 +1,27 @@
+package com.jhipster.blog.gateway.zone;
+
+import com.netflix.loadbalancer.Server;
+import com.netflix.loadbalancer.ServerListFilter;
+
+import java.util.List;
+
+/**
+ * Ribbon server list filter keeping the instances of the zone of the gateway, and those of other zones the service
+ * spills over to, as decided by the {@link ZoneAffinity}.
+ */
+public class ZoneSpilloverServerListFilter implements ServerListFilter<Server> {
+
+    private final String serviceId;
+
+    private final ZoneAffinity zoneAffinity;
+
+    public ZoneSpilloverServerListFilter(String serviceId, ZoneAffinity zoneAffinity) {
+        this.serviceId = serviceId;
+        this.zoneAffinity = zoneAffinity;
+    }
+
+    @Override
+    public List<Server> getFilteredListOfServers(List<Server> servers) {
+        return zoneAffinity.filter(serviceId, servers);
+    }
+}
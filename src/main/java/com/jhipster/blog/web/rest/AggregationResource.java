@@ -0,0 +1,51 @@
+package com.jhipster.blog.web.rest;
+
+import com.jhipster.blog.gateway.aggregation.Aggregator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * REST controller serving the aggregation routes of the Gateway.
+ */
+@RestController
+@RequestMapping("/api")
+public class AggregationResource {
+
+    private final Logger log = LoggerFactory.getLogger(AggregationResource.class);
+
+    private final ObjectProvider<Aggregator> aggregator;
+
+    public AggregationResource(ObjectProvider<Aggregator> aggregator) {
+        this.aggregator = aggregator;
+    }
+
+    /**
+     * {@code GET  /aggregate/:route} : get the aggregated responses of the legs of an aggregation route.
+     *
+     * @param route the id of the aggregation route.
+     * @param request the request, whose query parameters fill the placeholders of the leg paths.
+     * @param response the response, where the JSON object with the response of each leg is streamed with status
+     * {@code 200 (OK)}; status {@code 404 (Not Found)} if the route does not exist or aggregation is disabled, or the
+     * status of the first required leg which failed.
+     * @throws IOException if the response cannot be written.
+     */
+    @GetMapping("/aggregate/{route}")
+    public void aggregate(@PathVariable String route, HttpServletRequest request, HttpServletResponse response)
+        throws IOException {
+        log.debug("REST request to get aggregation route : {}", route);
+        Aggregator routeAggregator = aggregator.getIfAvailable();
+        if (routeAggregator == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Aggregation routes are disabled");
+        }
+        routeAggregator.aggregate(route, request, response);
+    }
+}
@@ -0,0 +1,166 @@
+package com.jhipster.blog.web.rest;
+
+import com.jhipster.blog.config.ApplicationProperties;
+import com.jhipster.blog.gateway.batch.BatchExecutor;
+import com.jhipster.blog.web.rest.errors.BadRequestAlertException;
+import com.jhipster.blog.web.rest.vm.BatchRequestVM;
+import com.jhipster.blog.web.rest.vm.BatchResponseVM;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.TextNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST controller running several API calls in one round trip.
+ */
+@RestController
+@RequestMapping("/api")
+public class BatchResource {
+
+    private final Logger log = LoggerFactory.getLogger(BatchResource.class);
+
+    private static final String ENTITY_NAME = "batch";
+
+    private final ApplicationProperties applicationProperties;
+
+    private final ObjectMapper objectMapper;
+
+    private final ObjectProvider<BatchExecutor> batchExecutor;
+
+    public BatchResource(ApplicationProperties applicationProperties, ObjectMapper objectMapper,
+                         ObjectProvider<BatchExecutor> batchExecutor) {
+        this.applicationProperties = applicationProperties;
+        this.objectMapper = objectMapper;
+        this.batchExecutor = batchExecutor;
+    }
+
+    /**
+     * {@code POST  /batch} : run sub-requests in parallel.
+     * <p>
+     * Each sub-request has a method, a path from the root of the gateway under {@code /api/} or the routes, optional
+     * headers added to the ones of the batch request, whose {@code Authorization} and {@code Cookie} headers cannot
+     * be replaced, and an optional body, sent as JSON unless it is a string and another content type is set. Its
+     * response has its status, headers and body: JSON if it is JSON, a string otherwise.
+     *
+     * @param batch the sub-requests.
+     * @param request the batch request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the response of each sub-request,
+     * in the same order, or with status {@code 404 (Not Found)} if batches are disabled.
+     * @throws BadRequestAlertException {@code 400 (Bad Request)} if there are too many sub-requests.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchResponseVM>> batch(@RequestBody List<BatchRequestVM> batch,
+                                                       HttpServletRequest request) {
+        BatchExecutor executor = batchExecutor.getIfAvailable();
+        // The executor also runs the aggregation routes
+        if (executor == null || !applicationProperties.getGateway().getBatch().isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        log.debug("REST request to run a batch of {} requests", batch.size());
+        if (batch.size() > applicationProperties.getGateway().getBatch().getMaxRequests()) {
+            throw new BadRequestAlertException("Too many requests in the batch", ENTITY_NAME, "toomanyrequests");
+        }
+        List<BatchExecutor.Item> items = new ArrayList<>(batch.size());
+        for (BatchRequestVM subRequest : batch) {
+            items.add(toItem(subRequest));
+        }
+        List<BatchExecutor.Result> results = executor.execute(request, items);
+        List<BatchResponseVM> responses = new ArrayList<>(results.size());
+        for (int i = 0; i < results.size(); i++) {
+            responses.add(toResponse(batch.get(i).getId(), results.get(i)));
+        }
+        return ResponseEntity.ok(responses);
+    }
+
+    private BatchExecutor.Item toItem(BatchRequestVM subRequest) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        if (subRequest.getHeaders() != null) {
+            headers.putAll(subRequest.getHeaders());
+        }
+        String contentType = headers.entrySet().stream()
+            .filter(header -> "Content-Type".equalsIgnoreCase(header.getKey()))
+            .map(Map.Entry::getValue)
+            .findFirst()
+            .orElse(null);
+        JsonNode body = subRequest.getBody();
+        byte[] content = null;
+        if (body != null && !body.isNull()) {
+            if (body.isTextual() && contentType != null && !isJson(contentType)) {
+                content = body.textValue().getBytes(charset(contentType));
+            } else {
+                try {
+                    content = objectMapper.writeValueAsBytes(body);
+                } catch (JsonProcessingException e) {
+                    throw new BadRequestAlertException("Invalid request body", ENTITY_NAME, "invalidbody");
+                }
+                if (contentType == null) {
+                    headers.put("Content-Type", MediaType.APPLICATION_JSON_VALUE);
+                }
+            }
+        }
+        return new BatchExecutor.Item(subRequest.getMethod(), subRequest.getPath(), headers, content);
+    }
+
+    private BatchResponseVM toResponse(String id, BatchExecutor.Result result) {
+        BatchResponseVM response = new BatchResponseVM();
+        response.setId(id);
+        response.setStatus(result.getStatus());
+        Map<String, String> headers = new LinkedHashMap<>(result.getHeaders());
+        if (result.getContentType() != null) {
+            headers.put("Content-Type", result.getContentType());
+        }
+        response.setHeaders(headers);
+        byte[] body = result.getBody();
+        if (body.length > 0) {
+            String contentType = result.getContentType();
+            if (contentType != null && isJson(contentType)) {
+                try {
+                    response.setBody(objectMapper.readTree(body));
+                    return response;
+                } catch (IOException e) {
+                    // Sent back as a string
+                }
+            }
+            response.setBody(TextNode.valueOf(new String(body, charset(contentType))));
+        }
+        return response;
+    }
+
+    private static boolean isJson(String contentType) {
+        try {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            return MediaType.APPLICATION_JSON.isCompatibleWith(mediaType) || mediaType.getSubtype().endsWith("+json");
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    private static Charset charset(String contentType) {
+        if (contentType == null) {
+            return StandardCharsets.UTF_8;
+        }
+        try {
+            Charset charset = MediaType.parseMediaType(contentType).getCharset();
+            return charset == null ? StandardCharsets.UTF_8 : charset;
+        } catch (InvalidMediaTypeException e) {
+            return StandardCharsets.UTF_8;
+        }
+    }
+}
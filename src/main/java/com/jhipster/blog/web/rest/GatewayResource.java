@@ -1,13 +1,30 @@
 package com.jhipster.blog.web.rest;
 
+import com.jhipster.blog.gateway.metrics.RouteMetrics;
+import com.jhipster.blog.gateway.outlier.OutlierDetector;
+import com.jhipster.blog.gateway.responsecache.ResponseCache;
+import com.jhipster.blog.gateway.routes.RouteSnapshots;
+import com.jhipster.blog.web.rest.vm.EjectedInstanceVM;
+import com.jhipster.blog.web.rest.vm.ResponseCacheStatsVM;
+import com.jhipster.blog.web.rest.vm.RouteChangesVM;
+import com.jhipster.blog.web.rest.vm.RouteMetricsVM;
 import com.jhipster.blog.web.rest.vm.RouteVM;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 
-import org.springframework.cloud.client.discovery.DiscoveryClient;
-import org.springframework.cloud.netflix.zuul.filters.Route;
-import org.springframework.cloud.netflix.zuul.filters.RouteLocator;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.http.*;
 import org.springframework.security.access.annotation.Secured;
 import com.jhipster.blog.security.AuthoritiesConstants;
@@ -20,32 +37,181 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/api/gateway")
 public class GatewayResource {
 
-    private final RouteLocator routeLocator;
+    public static final String ROUTES_VERSION_HEADER = "X-Routes-Version";
+
+    private final RouteSnapshots routeSnapshots;
+
+    private final MeterRegistry meterRegistry;
 
-    private final DiscoveryClient discoveryClient;
+    private final ObjectProvider<OutlierDetector> outlierDetector;
 
-    public GatewayResource(RouteLocator routeLocator, DiscoveryClient discoveryClient) {
-        this.routeLocator = routeLocator;
-        this.discoveryClient = discoveryClient;
+    public GatewayResource(RouteSnapshots routeSnapshots, MeterRegistry meterRegistry,
+                           ObjectProvider<OutlierDetector> outlierDetector) {
+        this.routeSnapshots = routeSnapshots;
+        this.meterRegistry = meterRegistry;
+        this.outlierDetector = outlierDetector;
     }
 
     /**
      * {@code GET  /routes} : get the active routes.
+     * <p>
+     * Routes are served from a snapshot refreshed in the background, whose version is sent in the
+     * {@value #ROUTES_VERSION_HEADER} header.
      *
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the list of routes.
      */
     @GetMapping("/routes")
     @Secured(AuthoritiesConstants.ADMIN)
     public ResponseEntity<List<RouteVM>> activeRoutes() {
-        List<Route> routes = routeLocator.getRoutes();
-        List<RouteVM> routeVMs = new ArrayList<>();
+        RouteSnapshots.RouteSnapshot snapshot = routeSnapshots.getCurrent();
+        return ResponseEntity.ok()
+            .header(ROUTES_VERSION_HEADER, String.valueOf(snapshot.getVersion()))
+            .body(toRouteVMs(snapshot.getRoutes()));
+    }
+
+    /**
+     * {@code GET  /routes/changes?since=:version} : get the routes added, changed or removed since a version.
+     *
+     * @param since the version of the routes known by the client.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the changes, holding all the routes
+     * if the version is too old.
+     */
+    @GetMapping("/routes/changes")
+    @Secured(AuthoritiesConstants.ADMIN)
+    public ResponseEntity<RouteChangesVM> routeChanges(@RequestParam(defaultValue = "0") long since) {
+        RouteSnapshots.RouteDelta delta = routeSnapshots.getChangesSince(since);
+        RouteChangesVM changes = new RouteChangesVM();
+        changes.setVersion(delta.getVersion());
+        changes.setFull(delta.isFull());
+        changes.setRoutes(toRouteVMs(delta.getChanged()));
+        changes.setRemovedServiceIds(delta.getRemoved());
+        return ResponseEntity.ok()
+            .header(ROUTES_VERSION_HEADER, String.valueOf(delta.getVersion()))
+            .body(changes);
+    }
+
+    private List<RouteVM> toRouteVMs(Collection<RouteSnapshots.RouteSnapshot.Entry> routes) {
+        List<RouteVM> routeVMs = new ArrayList<>(routes.size());
         routes.forEach(route -> {
             RouteVM routeVM = new RouteVM();
-            routeVM.setPath(route.getFullPath());
+            routeVM.setPath(route.getPath());
             routeVM.setServiceId(route.getId());
-            routeVM.setServiceInstances(discoveryClient.getInstances(route.getLocation()));
+            routeVM.setServiceInstances(route.getInstances());
             routeVMs.add(routeVM);
         });
-        return ResponseEntity.ok(routeVMs);
+        return routeVMs;
+    }
+
+    /**
+     * {@code GET  /routes/metrics} : get the live latency of the routes.
+     * <p>
+     * Percentiles cover the last minute, and are split between the time spent waiting for the services and the time
+     * spent in the gateway.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the latency of each route.
+     */
+    @GetMapping("/routes/metrics")
+    @Secured(AuthoritiesConstants.ADMIN)
+    public ResponseEntity<List<RouteMetricsVM>> routesMetrics() {
+        Map<String, RouteMetricsVM> metrics = new TreeMap<>();
+        recordPercentiles(metrics, RouteMetrics.UPSTREAM_METRIC, (routeMetrics, timer) -> {
+            routeMetrics.setUpstreamP50(percentile(timer, 0.5));
+            routeMetrics.setUpstreamP99(percentile(timer, 0.99));
+        });
+        recordPercentiles(metrics, RouteMetrics.OVERHEAD_METRIC, (routeMetrics, timer) -> {
+            routeMetrics.setOverheadP50(percentile(timer, 0.5));
+            routeMetrics.setOverheadP99(percentile(timer, 0.99));
+        });
+        meterRegistry.find(RouteMetrics.RESPONSES_METRIC).counters().forEach(counter -> {
+            RouteMetricsVM routeMetrics =
+                metrics.computeIfAbsent(counter.getId().getTag("route"), this::newRouteMetrics);
+            long count = (long) counter.count();
+            routeMetrics.getResponsesByStatus().put(counter.getId().getTag("status"), count);
+            routeMetrics.setRequests(routeMetrics.getRequests() + count);
+        });
+        return ResponseEntity.ok(new ArrayList<>(metrics.values()));
+    }
+
+    private void recordPercentiles(Map<String, RouteMetricsVM> metrics, String timerName,
+                                   BiConsumer<RouteMetricsVM, Timer> recorder) {
+        meterRegistry.find(timerName).timers().forEach(timer ->
+            recorder.accept(metrics.computeIfAbsent(timer.getId().getTag("route"), this::newRouteMetrics), timer));
+    }
+
+    private static double percentile(Timer timer, double percentile) {
+        for (ValueAtPercentile value : timer.takeSnapshot().percentileValues()) {
+            if (value.percentile() == percentile) {
+                return value.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return 0;
+    }
+
+    private RouteMetricsVM newRouteMetrics(String serviceId) {
+        RouteMetricsVM routeMetrics = new RouteMetricsVM();
+        routeMetrics.setServiceId(serviceId);
+        return routeMetrics;
+    }
+
+    /**
+     * {@code GET  /response-cache} : get the response cache usage of the cached routes.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the cache usage per route.
+     */
+    @GetMapping("/response-cache")
+    @Secured(AuthoritiesConstants.ADMIN)
+    public ResponseEntity<List<ResponseCacheStatsVM>> responseCacheStats() {
+        Map<String, ResponseCacheStatsVM> stats = new TreeMap<>();
+        meterRegistry.find(ResponseCache.REQUESTS_METRIC).counters().forEach(counter -> {
+            ResponseCacheStatsVM routeStats =
+                stats.computeIfAbsent(counter.getId().getTag("route"), this::newResponseCacheStats);
+            long count = (long) counter.count();
+            String result = counter.getId().getTag("result");
+            if (ResponseCache.HIT.equals(result)) {
+                routeStats.setHits(count);
+            } else if (ResponseCache.REVALIDATED.equals(result)) {
+                routeStats.setRevalidations(count);
+            } else if (ResponseCache.MISS.equals(result)) {
+                routeStats.setMisses(count);
+            }
+        });
+        meterRegistry.find(ResponseCache.BYTES_SAVED_METRIC).counters().forEach(counter ->
+            stats.computeIfAbsent(counter.getId().getTag("route"), this::newResponseCacheStats)
+                .setBytesSaved((long) counter.count()));
+        return ResponseEntity.ok(new ArrayList<>(stats.values()));
+    }
+
+    private ResponseCacheStatsVM newResponseCacheStats(String serviceId) {
+        ResponseCacheStatsVM stats = new ResponseCacheStatsVM();
+        stats.setServiceId(serviceId);
+        return stats;
+    }
+
+    /**
+     * {@code GET  /outliers} : get the service instances ejected by the outlier detection.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the ejected instances, empty if
+     * the outlier detection is disabled.
+     */
+    @GetMapping("/outliers")
+    @Secured(AuthoritiesConstants.ADMIN)
+    public ResponseEntity<List<EjectedInstanceVM>> ejectedInstances() {
+        OutlierDetector detector = outlierDetector.getIfAvailable();
+        if (detector == null) {
+            return ResponseEntity.ok(Collections.emptyList());
+        }
+        List<EjectedInstanceVM> ejectedInstances = new ArrayList<>();
+        detector.getEjections().forEach(ejection -> {
+            EjectedInstanceVM ejectedInstance = new EjectedInstanceVM();
+            ejectedInstance.setServiceId(ejection.getServiceId());
+            ejectedInstance.setInstance(ejection.getInstance());
+            ejectedInstance.setReason(ejection.getReason());
+            ejectedInstance.setEjections(ejection.getEjections());
+            ejectedInstance.setEjectedUntil(ejection.getEjectedUntil());
+            ejectedInstances.add(ejectedInstance);
+        });
+        ejectedInstances.sort(Comparator.comparing(EjectedInstanceVM::getServiceId)
+            .thenComparing(EjectedInstanceVM::getInstance));
+        return ResponseEntity.ok(ejectedInstances);
     }
 }
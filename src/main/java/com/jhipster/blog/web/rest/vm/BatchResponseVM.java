@@ -0,0 +1,51 @@
+package com.jhipster.blog.web.rest.vm;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.Map;
+
+/**
+ * View Model that stores the response of a sub-request of a Gateway batch.
+ */
+public class BatchResponseVM {
+
+    private String id;
+
+    private int status;
+
+    private Map<String, String> headers;
+
+    private JsonNode body;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    public void setHeaders(Map<String, String> headers) {
+        this.headers = headers;
+    }
+
+    public JsonNode getBody() {
+        return body;
+    }
+
+    public void setBody(JsonNode body) {
+        this.body = body;
+    }
+}
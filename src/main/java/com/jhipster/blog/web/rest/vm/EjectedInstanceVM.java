@@ -0,0 +1,59 @@
+package com.jhipster.blog.web.rest.vm;
+
+import java.time.Instant;
+
+/**
+ * View Model that stores a service instance ejected by the Gateway outlier detection.
+ */
+public class EjectedInstanceVM {
+
+    private String serviceId;
+
+    private String instance;
+
+    private String reason;
+
+    private int ejections;
+
+    private Instant ejectedUntil;
+
+    public String getServiceId() {
+        return serviceId;
+    }
+
+    public void setServiceId(String serviceId) {
+        this.serviceId = serviceId;
+    }
+
+    public String getInstance() {
+        return instance;
+    }
+
+    public void setInstance(String instance) {
+        this.instance = instance;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+
+    public int getEjections() {
+        return ejections;
+    }
+
+    public void setEjections(int ejections) {
+        this.ejections = ejections;
+    }
+
+    public Instant getEjectedUntil() {
+        return ejectedUntil;
+    }
+
+    public void setEjectedUntil(Instant ejectedUntil) {
+        this.ejectedUntil = ejectedUntil;
+    }
+}
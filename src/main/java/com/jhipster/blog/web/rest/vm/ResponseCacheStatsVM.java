@@ -0,0 +1,57 @@
+package com.jhipster.blog.web.rest.vm;
+
+/**
+ * View Model that stores the response cache usage of a route managed by the Gateway.
+ */
+public class ResponseCacheStatsVM {
+
+    private String serviceId;
+
+    private long hits;
+
+    private long revalidations;
+
+    private long misses;
+
+    private long bytesSaved;
+
+    public String getServiceId() {
+        return serviceId;
+    }
+
+    public void setServiceId(String serviceId) {
+        this.serviceId = serviceId;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public void setHits(long hits) {
+        this.hits = hits;
+    }
+
+    public long getRevalidations() {
+        return revalidations;
+    }
+
+    public void setRevalidations(long revalidations) {
+        this.revalidations = revalidations;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public void setMisses(long misses) {
+        this.misses = misses;
+    }
+
+    public long getBytesSaved() {
+        return bytesSaved;
+    }
+
+    public void setBytesSaved(long bytesSaved) {
+        this.bytesSaved = bytesSaved;
+    }
+}
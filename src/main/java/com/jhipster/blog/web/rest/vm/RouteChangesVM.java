@@ -0,0 +1,49 @@
+package com.jhipster.blog.web.rest.vm;
+
+import java.util.List;
+
+/**
+ * View Model that stores the changes of the routes managed by the Gateway since a version.
+ */
+public class RouteChangesVM {
+
+    private long version;
+
+    private boolean full;
+
+    private List<RouteVM> routes;
+
+    private List<String> removedServiceIds;
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public boolean isFull() {
+        return full;
+    }
+
+    public void setFull(boolean full) {
+        this.full = full;
+    }
+
+    public List<RouteVM> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(List<RouteVM> routes) {
+        this.routes = routes;
+    }
+
+    public List<String> getRemovedServiceIds() {
+        return removedServiceIds;
+    }
+
+    public void setRemovedServiceIds(List<String> removedServiceIds) {
+        this.removedServiceIds = removedServiceIds;
+    }
+}
@@ -0,0 +1,80 @@
+package com.jhipster.blog.web.rest.vm;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * View Model that stores the live latency of a route managed by the Gateway, in milliseconds.
+ */
+public class RouteMetricsVM {
+
+    private String serviceId;
+
+    private long requests;
+
+    private double upstreamP50;
+
+    private double upstreamP99;
+
+    private double overheadP50;
+
+    private double overheadP99;
+
+    private Map<String, Long> responsesByStatus = new TreeMap<>();
+
+    public String getServiceId() {
+        return serviceId;
+    }
+
+    public void setServiceId(String serviceId) {
+        this.serviceId = serviceId;
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+
+    public void setRequests(long requests) {
+        this.requests = requests;
+    }
+
+    public double getUpstreamP50() {
+        return upstreamP50;
+    }
+
+    public void setUpstreamP50(double upstreamP50) {
+        this.upstreamP50 = upstreamP50;
+    }
+
+    public double getUpstreamP99() {
+        return upstreamP99;
+    }
+
+    public void setUpstreamP99(double upstreamP99) {
+        this.upstreamP99 = upstreamP99;
+    }
+
+    public double getOverheadP50() {
+        return overheadP50;
+    }
+
+    public void setOverheadP50(double overheadP50) {
+        this.overheadP50 = overheadP50;
+    }
+
+    public double getOverheadP99() {
+        return overheadP99;
+    }
+
+    public void setOverheadP99(double overheadP99) {
+        this.overheadP99 = overheadP99;
+    }
+
+    public Map<String, Long> getResponsesByStatus() {
+        return responsesByStatus;
+    }
+
+    public void setResponsesByStatus(Map<String, Long> responsesByStatus) {
+        this.responsesByStatus = responsesByStatus;
+    }
+}
@@ -0,0 +1,49 @@
+package com.jhipster.blog.gateway;
+
+import com.netflix.zuul.context.RequestContext;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Zuul request contexts of the filter tests.
+ * <p>
+ * The context is a thread local: tests using it must call {@link #reset()} after each test.
+ */
+public final class ZuulTestContext {
+
+    private ZuulTestContext() {
+    }
+
+    /**
+     * Start a new request in the Zuul context of the current thread.
+     *
+     * @param routeId the route of the request, or {@code null} if it is not proxied.
+     */
+    public static RequestContext newRequest(String method, String uri, String routeId) {
+        return newRequest(new MockHttpServletRequest(method, uri), routeId);
+    }
+
+    /**
+     * Start a new request in the Zuul context of the current thread.
+     *
+     * @param routeId the route of the request, or {@code null} if it is not proxied.
+     */
+    public static RequestContext newRequest(MockHttpServletRequest request, String routeId) {
+        reset();
+        RequestContext context = RequestContext.getCurrentContext();
+        context.setRequest(request);
+        context.setResponse(new MockHttpServletResponse());
+        if (routeId != null) {
+            context.set(FilterConstants.PROXY_KEY, routeId);
+        }
+        return context;
+    }
+
+    /**
+     * Remove the Zuul context of the current thread.
+     */
+    public static void reset() {
+        RequestContext.getCurrentContext().unset();
+    }
+}
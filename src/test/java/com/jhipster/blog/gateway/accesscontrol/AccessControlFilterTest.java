@@ -0,0 +1,130 @@
+package com.jhipster.blog.gateway.accesscontrol;
+
+import com.jhipster.blog.gateway.ZuulTestContext;
+import com.netflix.zuul.context.RequestContext;
+import io.github.jhipster.config.JHipsterProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.netflix.zuul.filters.Route;
+import org.springframework.cloud.netflix.zuul.filters.RouteLocator;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests {@link AccessControlFilter} class.
+ */
+public class AccessControlFilterTest {
+
+    private RouteLocator routeLocator;
+
+    private JHipsterProperties jHipsterProperties;
+
+    private MeterRegistry meterRegistry;
+
+    private AccessControlFilter filter;
+
+    @BeforeEach
+    public void setup() {
+        routeLocator = mock(RouteLocator.class);
+        when(routeLocator.getRoutes()).thenReturn(Arrays.asList(
+            new Route("service1", "/service1/**", "service1", "/services", null, null),
+            new Route("service10", "/service10/**", "service10", "/services", null, null)));
+        jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getGateway().setAuthorizedMicroservicesEndpoints(
+            Collections.singletonMap("service1", Collections.singletonList("/api")));
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new AccessControlFilter(routeLocator, jHipsterProperties, meterRegistry);
+    }
+
+    @AfterEach
+    public void destroy() {
+        ZuulTestContext.reset();
+    }
+
+    @Test
+    public void shouldNotFilter_on_authorized_endpoint() {
+        setRequest("/services/service1/api/blogs");
+
+        assertThat(filter.shouldFilter()).isFalse();
+    }
+
+    @Test
+    public void shouldFilter_on_unauthorized_endpoint() {
+        setRequest("/services/service1/management/info");
+
+        assertThat(filter.shouldFilter()).isTrue();
+    }
+
+    @Test
+    public void shouldNotFilter_on_route_without_policy() {
+        setRequest("/services/service10/management/info");
+
+        assertThat(filter.shouldFilter()).isFalse();
+    }
+
+    @Test
+    public void shouldFilter_on_unknown_route() {
+        setRequest("/services/unknown/api/blogs");
+
+        assertThat(filter.shouldFilter()).isTrue();
+    }
+
+    @Test
+    public void shouldFilter_on_endpoint_sharing_a_prefix_with_the_route() {
+        setRequest("/services/service1api/blogs");
+
+        assertThat(filter.shouldFilter()).isTrue();
+    }
+
+    @Test
+    public void shouldCountDecisionsPerRouteAndEndpoint() {
+        setRequest("/services/service1/api/blogs");
+        filter.shouldFilter();
+        setRequest("/services/service1/management/info");
+        filter.shouldFilter();
+
+        assertThat(meterRegistry.get(AccessControlFilter.DECISIONS_METRIC)
+            .tag("route", "service1").tag("endpoint", "/api").tag("decision", "allowed").counter().count())
+            .isEqualTo(1);
+        assertThat(meterRegistry.get(AccessControlFilter.DECISIONS_METRIC)
+            .tag("route", "service1").tag("decision", "denied").counter().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    public void shouldCompilePoliciesAgainOnConfigurationChange() {
+        setRequest("/services/service10/management/info");
+        assertThat(filter.shouldFilter()).isFalse();
+
+        jHipsterProperties.getGateway().setAuthorizedMicroservicesEndpoints(
+            Collections.singletonMap("service10", Collections.singletonList("/api")));
+        filter.onEnvironmentChange();
+
+        assertThat(filter.shouldFilter()).isTrue();
+    }
+
+    @Test
+    public void shouldCompileRoutesOnlyOnRefresh() {
+        setRequest("/services/service1/api/blogs");
+        filter.shouldFilter();
+        filter.shouldFilter();
+        verify(routeLocator, times(1)).getRoutes();
+
+        filter.onRoutesRefreshed();
+        filter.shouldFilter();
+        verify(routeLocator, times(2)).getRoutes();
+    }
+
+    private void setRequest(String requestUri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", requestUri);
+        RequestContext.getCurrentContext().setRequest(request);
+    }
+}
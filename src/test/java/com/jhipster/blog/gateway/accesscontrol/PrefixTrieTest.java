@@ -0,0 +1,50 @@
+package com.jhipster.blog.gateway.accesscontrol;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests {@link PrefixTrie} class.
+ */
+public class PrefixTrieTest {
+
+    @Test
+    public void shouldFindLongestPrefix() {
+        PrefixTrie<String> trie = PrefixTrie.<String>builder()
+            .put("/services/blog/", "blog")
+            .put("/services/blog2/", "blog2")
+            .put("/services/", "services")
+            .build();
+
+        assertThat(trie.longestPrefixOf("/services/blog/api/blogs", 0)).isEqualTo("blog");
+        assertThat(trie.longestPrefixOf("/services/blog2/api/blogs", 0)).isEqualTo("blog2");
+        assertThat(trie.longestPrefixOf("/services/blog3/api/blogs", 0)).isEqualTo("services");
+        assertThat(trie.longestPrefixOf("/api/blogs", 0)).isNull();
+    }
+
+    @Test
+    public void shouldMatchFromOffset() {
+        PrefixTrie<String> trie = PrefixTrie.<String>builder().put("/services/blog/", "blog").build();
+
+        assertThat(trie.longestPrefixOf("/context/services/blog/api", "/context".length())).isEqualTo("blog");
+        assertThat(trie.matches("/context/services/blog", "/context".length())).isFalse();
+    }
+
+    @Test
+    public void shouldKeepFirstValueForDuplicatePrefix() {
+        PrefixTrie<String> trie = PrefixTrie.<String>builder()
+            .put("/services/blog/", "first")
+            .put("/services/blog/", "second")
+            .build();
+
+        assertThat(trie.size()).isEqualTo(1);
+        assertThat(trie.longestPrefixOf("/services/blog/api", 0)).isEqualTo("first");
+    }
+
+    @Test
+    public void shouldNotMatchEmptyTrie() {
+        assertThat(PrefixTrie.<String>empty().matches("/services/blog/api", 0)).isFalse();
+        assertThat(PrefixTrie.empty().isEmpty()).isTrue();
+    }
+}
@@ -0,0 +1,142 @@
+package com.jhipster.blog.gateway.aggregation;
+
+import com.jhipster.blog.config.ApplicationProperties;
+import com.jhipster.blog.gateway.batch.BatchExecutor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests {@link Aggregator} class.
+ */
+public class AggregatorTest {
+
+    private ApplicationProperties applicationProperties;
+
+    private ApplicationProperties.Gateway.Aggregation.Route route;
+
+    private BatchExecutor batchExecutor;
+
+    private MeterRegistry meterRegistry;
+
+    private Aggregator aggregator;
+
+    private MockHttpServletRequest request;
+
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    public void setup() {
+        applicationProperties = new ApplicationProperties();
+        route = new ApplicationProperties.Gateway.Aggregation.Route();
+        applicationProperties.getGateway().getAggregation().getRoutes().put("blog-home", route);
+        batchExecutor = mock(BatchExecutor.class);
+        meterRegistry = new SimpleMeterRegistry();
+        aggregator = new Aggregator(applicationProperties, batchExecutor, new ObjectMapper(), meterRegistry);
+        request = new MockHttpServletRequest("GET", "/api/aggregate/blog-home");
+        response = new MockHttpServletResponse();
+    }
+
+    @Test
+    public void shouldMergeTheLegsUnderTheirNames() throws IOException {
+        givenLeg("blogs", "/services/blog/api/blogs?size={size}", false, 200, "[{\"id\":1}]");
+        givenLeg("user", "/api/account", false, 200, "{\"login\":\"user\"}");
+        request.setParameter("size", "a b");
+
+        aggregator.aggregate("blog-home", request, response);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentType()).startsWith("application/json");
+        assertThat(response.getContentAsString()).isEqualTo("{\"blogs\":[{\"id\":1}],\"user\":{\"login\":\"user\"}}");
+        assertThat(meterRegistry.get(Aggregator.LEGS_METRIC).tag("leg", "blogs").tag("outcome", "success").counter()
+            .count()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldAllowPartialResultsWhenAnOptionalLegTimesOut() throws IOException {
+        givenLeg("blogs", "/services/blog/api/blogs", false, 200, "[]");
+        givenLeg("entries", "/services/blog/api/entries", true, new CompletableFuture<>());
+        givenLeg("tags", "/services/blog/api/tags", true, 404, "");
+
+        aggregator.aggregate("blog-home", request, response);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo("{\"blogs\":[],\"entries\":null,\"tags\":null,"
+            + "\"_errors\":{\"entries\":{\"status\":504},\"tags\":{\"status\":404}}}");
+        assertThat(meterRegistry.get(Aggregator.LEGS_METRIC).tag("leg", "entries").tag("outcome", "timeout")
+            .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldFailWhenARequiredLegFails() {
+        givenLeg("blogs", "/services/blog/api/blogs", false, 500, "");
+        givenLeg("entries", "/services/blog/api/entries", true, 200, "[]");
+
+        ResponseStatusException exception = catchThrowableOfType(
+            () -> aggregator.aggregate("blog-home", request, response), ResponseStatusException.class);
+
+        assertThat(exception.getStatus()).isEqualTo(HttpStatus.BAD_GATEWAY);
+        assertThat(response.isCommitted()).isFalse();
+    }
+
+    @Test
+    public void shouldFailWhenARequiredLegIsForbidden() {
+        givenLeg("users", "/api/users", false, 403, "");
+
+        ResponseStatusException exception = catchThrowableOfType(
+            () -> aggregator.aggregate("blog-home", request, response), ResponseStatusException.class);
+
+        assertThat(exception.getStatus()).isEqualTo(HttpStatus.FORBIDDEN);
+    }
+
+    @Test
+    public void shouldNotFindTheUnknownRoutes() {
+        ResponseStatusException exception = catchThrowableOfType(
+            () -> aggregator.aggregate("unknown", request, response), ResponseStatusException.class);
+
+        assertThat(exception.getStatus()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    public void shouldRejectThePlaceholdersOutsideOfTheQueryString() {
+        givenLeg("blog", "/services/blog/api/blogs/{id}", false, 200, "{}");
+
+        assertThatThrownBy(() -> new Aggregator(applicationProperties, batchExecutor, new ObjectMapper(),
+            meterRegistry)).isInstanceOf(IllegalStateException.class);
+    }
+
+    private void givenLeg(String name, String path, boolean optional, int status, String body) {
+        givenLeg(name, path, optional, CompletableFuture.completedFuture(new BatchExecutor.Result(status,
+            Collections.emptyMap(), "application/json", body.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    private void givenLeg(String name, String path, boolean optional, CompletableFuture<BatchExecutor.Result> result) {
+        ApplicationProperties.Gateway.Aggregation.Leg leg = new ApplicationProperties.Gateway.Aggregation.Leg();
+        leg.setPath(path);
+        leg.setOptional(optional);
+        leg.setTimeoutInMilliseconds(50);
+        route.getLegs().put(name, leg);
+        String resolvedPath = path.replace("{size}", "a%20b");
+        when(batchExecutor.submit(any(), argThat(item -> item != null && resolvedPath.equals(item.getPath()))))
+            .thenReturn(result);
+    }
+}
@@ -0,0 +1,240 @@
+package com.jhipster.blog.gateway.batch;
+
+import com.jhipster.blog.config.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.netflix.zuul.filters.Route;
+import org.springframework.cloud.netflix.zuul.filters.RouteLocator;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.access.WebInvocationPrivilegeEvaluator;
+import org.springframework.util.StreamUtils;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests {@link BatchExecutor} class.
+ */
+public class BatchExecutorTest {
+
+    private final CyclicBarrier parallelRequests = new CyclicBarrier(2);
+
+    private final CountDownLatch slowRequests = new CountDownLatch(1);
+
+    private final CountDownLatch slowRequestsDone = new CountDownLatch(1);
+
+    private volatile String slowRemoteAddr;
+
+    private ApplicationProperties applicationProperties;
+
+    private WebInvocationPrivilegeEvaluator privilegeEvaluator;
+
+    private MeterRegistry meterRegistry;
+
+    private BatchExecutor batchExecutor;
+
+    private MockHttpServletRequest request;
+
+    @BeforeEach
+    public void setup() {
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getGateway().getBatch().setTimeoutInMilliseconds(1000);
+        privilegeEvaluator = mock(WebInvocationPrivilegeEvaluator.class);
+        when(privilegeEvaluator.isAllowed(anyString(), anyString(), anyString(), any())).thenReturn(true);
+        when(privilegeEvaluator.isAllowed(anyString(), eq("/api/admin"), anyString(), any())).thenReturn(false);
+        RouteLocator routeLocator = mock(RouteLocator.class);
+        when(routeLocator.getMatchingRoute("/services/blog/api/blogs")).thenReturn(
+            new Route("blog", "/api/blogs", "blog", "/services/blog", false, Collections.emptySet()));
+        meterRegistry = new SimpleMeterRegistry();
+        batchExecutor = new BatchExecutor(applicationProperties, new EchoServlet(), privilegeEvaluator, routeLocator,
+            meterRegistry);
+
+        request = new MockHttpServletRequest("POST", BatchExecutor.BATCH_PATH);
+        request.addHeader("Authorization", "Bearer token");
+        request.addHeader("Accept-Encoding", "gzip");
+        request.setContentType("application/json");
+        Authentication authentication = new UsernamePasswordAuthenticationToken("user", "token",
+            Collections.emptyList());
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+    }
+
+    @AfterEach
+    public void teardown() {
+        slowRequests.countDown();
+        batchExecutor.shutdown();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void shouldRunTheSubRequestsInParallel() {
+        List<BatchExecutor.Result> results = batchExecutor.execute(request, Arrays.asList(
+            new BatchExecutor.Item("get", "/api/parallel?name=a%20b", Collections.emptyMap(), null),
+            new BatchExecutor.Item("POST", "/services/blog/api/blogs", Collections.singletonMap("X-Item", "2"),
+                "{\"name\":\"blog\"}".getBytes(StandardCharsets.UTF_8))));
+
+        assertThat(results).extracting(BatchExecutor.Result::getStatus).containsExactly(200, 201);
+        assertThat(body(results.get(0))).isEqualTo("GET /api/parallel name=a b user=user auth=Bearer token "
+            + "encoding=null item=null body=");
+        assertThat(body(results.get(1))).isEqualTo("POST /services/blog/api/blogs name=null user=user "
+            + "auth=Bearer token encoding=null item=2 body={\"name\":\"blog\"}");
+        assertThat(results.get(1).getHeaders()).containsEntry("Location", "/services/blog/api/blogs/1");
+        assertThat(results.get(1).getContentType()).isEqualTo("text/plain;charset=UTF-8");
+        assertThat(meterRegistry.get(BatchExecutor.ITEMS_METRIC).tag("status", "201").counter().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    public void shouldNotLetASubRequestReplaceTheCredentials() {
+        List<BatchExecutor.Result> results = batchExecutor.execute(request, Collections.singletonList(
+            new BatchExecutor.Item("GET", "/api/account", Collections.singletonMap("authorization", "Bearer other"),
+                null)));
+
+        assertThat(body(results.get(0))).contains(" auth=Bearer token ");
+    }
+
+    @Test
+    public void shouldCheckTheAccessToEachSubRequest() {
+        List<BatchExecutor.Result> results = batchExecutor.execute(request, Collections.singletonList(
+            new BatchExecutor.Item("GET", "/api/admin", Collections.emptyMap(), null)));
+
+        assertThat(results.get(0).getStatus()).isEqualTo(HttpServletResponse.SC_FORBIDDEN);
+    }
+
+    @Test
+    public void shouldCheckTheAccessToThePathWithoutItsQueryString() {
+        List<BatchExecutor.Result> results = batchExecutor.execute(request, Collections.singletonList(
+            new BatchExecutor.Item("GET", "/api/admin?page=1", Collections.emptyMap(), null)));
+
+        assertThat(results.get(0).getStatus()).isEqualTo(HttpServletResponse.SC_FORBIDDEN);
+    }
+
+    @Test
+    public void shouldRejectThePathsOutsideTheApiAndTheRoutes() {
+        List<BatchExecutor.Result> results = batchExecutor.execute(request, Arrays.asList(
+            new BatchExecutor.Item("GET", "/management/env", Collections.emptyMap(), null),
+            new BatchExecutor.Item("GET", "/api/../management/env", Collections.emptyMap(), null),
+            new BatchExecutor.Item("POST", BatchExecutor.BATCH_PATH, Collections.emptyMap(), null),
+            new BatchExecutor.Item("GET", "/services/unknown/api/blogs", Collections.emptyMap(), null),
+            new BatchExecutor.Item(null, "/api/account", Collections.emptyMap(), null)));
+
+        assertThat(results).extracting(BatchExecutor.Result::getStatus).containsOnly(400);
+    }
+
+    @Test
+    public void shouldTimeOutTheSlowSubRequests() {
+        applicationProperties.getGateway().getBatch().setTimeoutInMilliseconds(100);
+
+        List<BatchExecutor.Result> results = batchExecutor.execute(request, Arrays.asList(
+            new BatchExecutor.Item("GET", "/api/slow", Collections.emptyMap(), null),
+            new BatchExecutor.Item("GET", "/api/account", Collections.emptyMap(), null)));
+
+        assertThat(results).extracting(BatchExecutor.Result::getStatus).containsExactly(504, 200);
+    }
+
+    @Test
+    public void shouldNotReadTheBatchRequestOnceItIsAnswered() throws InterruptedException {
+        applicationProperties.getGateway().getBatch().setTimeoutInMilliseconds(100);
+        request.setRemoteAddr("10.0.0.1");
+
+        List<BatchExecutor.Result> results = batchExecutor.execute(request, Collections.singletonList(
+            new BatchExecutor.Item("GET", "/api/remote", Collections.emptyMap(), null)));
+        // As if the container recycled the batch request
+        request.setRemoteAddr("10.0.0.2");
+        slowRequests.countDown();
+
+        assertThat(results.get(0).getStatus()).isEqualTo(HttpServletResponse.SC_GATEWAY_TIMEOUT);
+        assertThat(slowRequestsDone.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(slowRemoteAddr).isEqualTo("10.0.0.1");
+    }
+
+    @Test
+    public void shouldAnswerTheFailedSubRequestsWithAnError() {
+        List<BatchExecutor.Result> results = batchExecutor.execute(request, Collections.singletonList(
+            new BatchExecutor.Item("GET", "/api/failure", Collections.emptyMap(), null)));
+
+        assertThat(results.get(0).getStatus()).isEqualTo(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+    }
+
+    private static String body(BatchExecutor.Result result) {
+        return new String(result.getBody(), StandardCharsets.UTF_8);
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Answers with the sub-request it received.
+     */
+    private class EchoServlet extends HttpServlet {
+
+        @Override
+        protected void service(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+            try {
+                if (request.getRequestURI().equals("/api/parallel")) {
+                    parallelRequests.await(5, TimeUnit.SECONDS);
+                } else if (request.getRequestURI().equals("/services/blog/api/blogs")) {
+                    parallelRequests.await(5, TimeUnit.SECONDS);
+                    response.setStatus(HttpServletResponse.SC_CREATED);
+                    response.setHeader("Location", "/services/blog/api/blogs/1");
+                } else if (request.getRequestURI().equals("/api/slow")) {
+                    slowRequests.await();
+                } else if (request.getRequestURI().equals("/api/remote")) {
+                    // Like a call blocked on a socket, which is not interrupted by the timeout
+                    awaitUninterruptibly(slowRequests);
+                    slowRemoteAddr = request.getRemoteAddr();
+                    slowRequestsDone.countDown();
+                } else if (request.getRequestURI().equals("/api/failure")) {
+                    throw new ServletException("Failure");
+                }
+            } catch (InterruptedException | BrokenBarrierException | TimeoutException e) {
+                throw new ServletException(e);
+            }
+            response.setContentType("text/plain;charset=UTF-8");
+            response.getWriter().print(request.getMethod() + " " + request.getRequestURI()
+                + " name=" + request.getParameter("name")
+                + " user=" + SecurityContextHolder.getContext().getAuthentication().getName()
+                + " auth=" + request.getHeader("Authorization")
+                + " encoding=" + request.getHeader("Accept-Encoding")
+                + " item=" + request.getHeader("X-Item")
+                + " body=" + StreamUtils.copyToString(request.getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
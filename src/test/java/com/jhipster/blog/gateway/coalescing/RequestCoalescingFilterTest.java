@@ -0,0 +1,129 @@
+package com.jhipster.blog.gateway.coalescing;
+
+import com.jhipster.blog.config.ApplicationProperties;
+import com.jhipster.blog.gateway.ZuulTestContext;
+import com.netflix.zuul.context.RequestContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.*;
+
+import static com.jhipster.blog.gateway.ZuulTestContext.newRequest;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests {@link RequestCoalescingFilter} and {@link CoalescedResponseFilter} classes.
+ */
+public class RequestCoalescingFilterTest {
+
+    private static final String BODY = "[{\"id\":1}]";
+
+    private MeterRegistry meterRegistry;
+
+    private RequestCoalescingFilter coalescingFilter;
+
+    private CoalescedResponseFilter responseFilter;
+
+    private ExecutorService executor;
+
+    private volatile Thread followerThread;
+
+    @BeforeEach
+    public void setup() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getGateway().getRequestCoalescing().setRoutes(Collections.singletonList("service1"));
+        applicationProperties.getGateway().getRequestCoalescing().setMaxWaitInMilliseconds(5000);
+        meterRegistry = new SimpleMeterRegistry();
+        RequestCoalescer requestCoalescer = new RequestCoalescer(applicationProperties, meterRegistry);
+        coalescingFilter = new RequestCoalescingFilter(requestCoalescer);
+        responseFilter = new CoalescedResponseFilter(requestCoalescer);
+        executor = Executors.newSingleThreadExecutor(runnable -> followerThread = new Thread(runnable));
+        SecurityContextHolder.getContext().setAuthentication(null);
+    }
+
+    @AfterEach
+    public void destroy() {
+        executor.shutdownNow();
+        ZuulTestContext.reset();
+    }
+
+    @Test
+    public void shouldShareTheResponseOfTheLeader() throws Exception {
+        RequestContext leader = newRequest("GET", "/services/service1/api/blogs", "service1");
+        assertThat(coalescingFilter.shouldFilter()).isTrue();
+        coalescingFilter.run();
+        assertThat(leader.sendZuulResponse()).isTrue();
+
+        Future<String> follower = executor.submit(() -> {
+            RequestContext context = newRequest("GET", "/services/service1/api/blogs", "service1");
+            coalescingFilter.run();
+            assertThat(context.sendZuulResponse()).isFalse();
+            return IOUtils.toString(context.getResponseDataStream(), StandardCharsets.UTF_8);
+        });
+        awaitFollower();
+
+        leader.setResponseStatusCode(200);
+        leader.addOriginResponseHeader("Content-Type", "application/json");
+        leader.setResponseDataStream(new ByteArrayInputStream(BODY.getBytes(StandardCharsets.UTF_8)));
+        assertThat(responseFilter.shouldFilter()).isTrue();
+        responseFilter.run();
+
+        assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo(BODY);
+        assertThat(IOUtils.toString(leader.getResponseDataStream(), StandardCharsets.UTF_8)).isEqualTo(BODY);
+        assertThat(meterRegistry.get(RequestCoalescer.REQUESTS_METRIC).tag("result", RequestCoalescer.COLLAPSED)
+            .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldProxyFollowersOnTheirOwnWhenTheLeaderFails() throws Exception {
+        RequestContext leader = newRequest("GET", "/services/service1/api/blogs", "service1");
+        coalescingFilter.run();
+
+        Future<Boolean> follower = executor.submit(() -> {
+            RequestContext context = newRequest("GET", "/services/service1/api/blogs", "service1");
+            coalescingFilter.run();
+            return context.sendZuulResponse();
+        });
+        awaitFollower();
+
+        leader.setThrowable(new RuntimeException("Connection refused"));
+        responseFilter.run();
+
+        assertThat(follower.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(meterRegistry.get(RequestCoalescer.REQUESTS_METRIC).tag("result", RequestCoalescer.UNSHARED)
+            .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldNotCoalesceDifferentRequests() {
+        newRequest("GET", "/services/service1/api/blogs", "service1");
+        coalescingFilter.run();
+        RequestContext other = newRequest("GET", "/services/service1/api/blogs/1", "service1");
+        coalescingFilter.run();
+
+        assertThat(other.sendZuulResponse()).isTrue();
+        assertThat(meterRegistry.get(RequestCoalescer.REQUESTS_METRIC).tag("result", RequestCoalescer.LEADER)
+            .counter().count()).isEqualTo(2);
+    }
+
+    /**
+     * Wait until the follower waits for the response of the leader.
+     */
+    private void awaitFollower() throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            Thread thread = followerThread;
+            if (thread != null && thread.getState() == Thread.State.TIMED_WAITING) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+    }
+}
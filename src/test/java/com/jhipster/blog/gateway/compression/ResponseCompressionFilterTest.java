@@ -0,0 +1,136 @@
+package com.jhipster.blog.gateway.compression;
+
+import com.jhipster.blog.config.ApplicationProperties;
+import com.netflix.zuul.context.RequestContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests {@link ResponseCompressionFilter} class.
+ */
+public class ResponseCompressionFilterTest {
+
+    private static final String JSON = "[" + String.join(",", Collections.nCopies(200,
+        "{\"id\":1,\"title\":\"A blog post\",\"content\":\"Some content\"}")) + "]";
+
+    private MeterRegistry meterRegistry;
+
+    private ResponseCompressionFilter filter;
+
+    private MockHttpServletRequest request;
+
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new ResponseCompressionFilter(new ApplicationProperties(), new ZuulProperties(), new DeflaterPool(6),
+            meterRegistry);
+        request = new MockHttpServletRequest("GET", "/services/blog/api/posts");
+        request.addHeader("Accept-Encoding", "gzip, deflate");
+        response = new MockHttpServletResponse();
+        prepareContext(JSON.getBytes(StandardCharsets.UTF_8), "application/json;charset=UTF-8");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        RequestContext.getCurrentContext().unset();
+    }
+
+    @Test
+    public void shouldGzipCompressibleResponses() throws IOException {
+        assertThat(filter.shouldFilter()).isTrue();
+
+        filter.run();
+
+        assertThat(response.getHeader("Content-Encoding")).isEqualTo("gzip");
+        assertThat(response.getHeader("Content-Type")).isEqualTo("application/json;charset=UTF-8");
+        assertThat(response.getHeader("Vary")).isEqualTo("Accept-Encoding");
+        assertThat(response.getHeader("Content-Length")).isNull();
+        assertThat(gunzip(response.getContentAsByteArray())).isEqualTo(JSON);
+        assertThat(RequestContext.getCurrentContext().getResponseDataStream()).isNull();
+        assertThat(meterRegistry.get(ResponseCompressionFilter.RATIO_METRIC).tag("route", "blog").summary().mean())
+            .isLessThan(0.1);
+        assertThat(meterRegistry.get(ResponseCompressionFilter.CPU_METRIC).tag("route", "blog").timer().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    public void shouldReuseTheDeflaterOfTheThread() throws IOException {
+        filter.run();
+        RequestContext.getCurrentContext().unset();
+        MockHttpServletResponse firstResponse = response;
+        response = new MockHttpServletResponse();
+        prepareContext("{\"second\":true}".getBytes(StandardCharsets.UTF_8), "application/json");
+
+        filter.run();
+
+        assertThat(gunzip(firstResponse.getContentAsByteArray())).isEqualTo(JSON);
+        assertThat(gunzip(response.getContentAsByteArray())).isEqualTo("{\"second\":true}");
+    }
+
+    @Test
+    public void shouldNotCompressSmallResponses() {
+        RequestContext.getCurrentContext().setOriginContentLength(100L);
+
+        assertThat(filter.shouldFilter()).isFalse();
+    }
+
+    @Test
+    public void shouldNotCompressIncompressibleOrEncodedResponses() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        ctx.getZuulResponseHeaders().clear();
+        ctx.addZuulResponseHeader("Content-Type", "image/png");
+        assertThat(filter.shouldFilter()).isFalse();
+
+        ctx.getZuulResponseHeaders().clear();
+        ctx.addZuulResponseHeader("Content-Type", "application/json");
+        ctx.addZuulResponseHeader("Content-Encoding", "br");
+        assertThat(filter.shouldFilter()).isFalse();
+
+        ctx.getZuulResponseHeaders().clear();
+        ctx.addZuulResponseHeader("Content-Type", "application/json");
+        ctx.setResponseGZipped(true);
+        assertThat(filter.shouldFilter()).isFalse();
+    }
+
+    @Test
+    public void shouldNotCompressForClientsNotAcceptingGzip() {
+        request.removeHeader("Accept-Encoding");
+
+        assertThat(filter.shouldFilter()).isFalse();
+    }
+
+    private void prepareContext(byte[] body, String contentType) {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        ctx.setRequest(request);
+        ctx.setResponse(response);
+        ctx.set(FilterConstants.PROXY_KEY, "blog");
+        ctx.setResponseDataStream(new ByteArrayInputStream(body));
+        ctx.setOriginContentLength((long) body.length);
+        ctx.addZuulResponseHeader("Content-Type", contentType);
+        ctx.addZuulResponseHeader("Content-Length", String.valueOf(body.length));
+    }
+
+    private String gunzip(byte[] compressed) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+        }
+    }
+}
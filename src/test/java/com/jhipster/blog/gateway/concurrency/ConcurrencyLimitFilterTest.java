@@ -0,0 +1,120 @@
+package com.jhipster.blog.gateway.concurrency;
+
+import com.jhipster.blog.config.ApplicationProperties;
+import com.jhipster.blog.gateway.ZuulTestContext;
+import com.netflix.zuul.context.RequestContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.jhipster.blog.gateway.ZuulTestContext.newRequest;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests {@link ConcurrencyLimitFilter} and {@link AdaptiveConcurrencyLimiter} classes.
+ */
+public class ConcurrencyLimitFilterTest {
+
+    private MeterRegistry meterRegistry;
+
+    private ApplicationProperties applicationProperties;
+
+    private AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    private ConcurrencyLimitFilter concurrencyLimitFilter;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        applicationProperties = new ApplicationProperties();
+        ApplicationProperties.Gateway.ConcurrencyLimit.Limits limits =
+            new ApplicationProperties.Gateway.ConcurrencyLimit.Limits();
+        limits.setInitialLimit(2);
+        limits.setMinLimit(1);
+        applicationProperties.getGateway().getConcurrencyLimit().getRoutes().put("service1", limits);
+        concurrencyLimiter = new AdaptiveConcurrencyLimiter(applicationProperties, meterRegistry);
+        concurrencyLimitFilter = new ConcurrencyLimitFilter(concurrencyLimiter);
+    }
+
+    @AfterEach
+    public void destroy() {
+        ZuulTestContext.reset();
+    }
+
+    @Test
+    public void shouldRejectRequestsBeyondTheLimit() {
+        AdaptiveConcurrencyLimiter.Permit first = acquire("service1");
+        AdaptiveConcurrencyLimiter.Permit second = acquire("service1");
+        assertThat(first).isNotNull();
+        assertThat(second).isNotNull();
+
+        RequestContext context = newRequest("GET", "/services/service1/api/entities", "service1");
+        concurrencyLimitFilter.run();
+        assertThat(context.getResponseStatusCode()).isEqualTo(503);
+        assertThat(context.sendZuulResponse()).isFalse();
+        assertThat(meterRegistry.get(AdaptiveConcurrencyLimiter.REJECTED_METRIC).tag("route", "service1").counter()
+            .count()).isEqualTo(1);
+
+        first.cancel();
+        assertThat(acquire("service1")).isNotNull();
+    }
+
+    @Test
+    public void shouldReleaseThePermitAndLowerTheLimitOnErrors() {
+        AdaptiveConcurrencyLimiter.Permit permit = acquire("service1");
+        RequestContext context = RequestContext.getCurrentContext();
+        context.set(ConcurrencyLimitFilter.PERMIT_KEY, permit);
+        context.setResponseStatusCode(502);
+        new ConcurrencyReleaseFilter().run();
+
+        assertThat(concurrencyLimiter.getLimit("service1")).isEqualTo(1);
+        assertThat(meterRegistry.get(AdaptiveConcurrencyLimiter.IN_FLIGHT_METRIC).tag("route", "service1").gauge()
+            .value()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldAdaptTheLimitToTheRoundTripTime() {
+        // Room to grow, the default initial limit being the maximum one
+        applicationProperties.getGateway().getConcurrencyLimit().getRoute().setInitialLimit(20);
+        for (int i = 0; i < 100; i++) {
+            saturate("service2", TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        int limit = concurrencyLimiter.getLimit("service2");
+        assertThat(limit).isGreaterThan(applicationProperties.getGateway().getConcurrencyLimit().getRoute()
+            .getInitialLimit());
+        assertThat(meterRegistry.get(AdaptiveConcurrencyLimiter.LIMIT_METRIC).tag("route", "service2").gauge().value())
+            .isEqualTo(limit);
+
+        for (int i = 0; i < 5; i++) {
+            saturate("service2", TimeUnit.MILLISECONDS.toNanos(100));
+        }
+        assertThat(concurrencyLimiter.getLimit("service2")).isLessThan(limit);
+    }
+
+    /**
+     * Take all the permits of a route, then release them with the given round-trip time.
+     */
+    private void saturate(String routeId, long rttNanos) {
+        List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        AdaptiveConcurrencyLimiter.Permit permit;
+        while ((permit = concurrencyLimiter.tryAcquire(routeId)) != null) {
+            permits.add(permit);
+        }
+        permits.forEach(p -> p.release(rttNanos, false));
+    }
+
+    private AdaptiveConcurrencyLimiter.Permit acquire(String routeId) {
+        RequestContext context = newRequest("GET", "/services/" + routeId + "/api/entities", routeId);
+        concurrencyLimitFilter.run();
+        AdaptiveConcurrencyLimiter.Permit permit =
+            (AdaptiveConcurrencyLimiter.Permit) context.get(ConcurrencyLimitFilter.PERMIT_KEY);
+        ZuulTestContext.reset();
+        return permit;
+    }
+}
@@ -0,0 +1,158 @@
+package com.jhipster.blog.gateway.connectionpool;
+
+import com.jhipster.blog.config.ApplicationProperties;
+import com.netflix.client.config.DefaultClientConfigImpl;
+import com.netflix.loadbalancer.BaseLoadBalancer;
+import com.netflix.loadbalancer.Server;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.netflix.ribbon.SpringClientFactory;
+import org.springframework.cloud.netflix.zuul.filters.Route;
+import org.springframework.cloud.netflix.zuul.filters.RouteLocator;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests {@link ConnectionPools} class.
+ */
+public class ConnectionPoolsTest {
+
+    private final List<Socket> accepted = Collections.synchronizedList(new ArrayList<>());
+
+    private ServerSocket serverSocket;
+
+    private ApplicationProperties applicationProperties;
+
+    private RouteLocator routeLocator;
+
+    private SpringClientFactory clientFactory;
+
+    private MeterRegistry meterRegistry;
+
+    private ConnectionPools connectionPools;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        serverSocket = new ServerSocket(0);
+        Thread acceptor = new Thread(() -> {
+            try {
+                while (true) {
+                    accepted.add(serverSocket.accept());
+                }
+            } catch (IOException e) {
+                // Closed
+            }
+        });
+        acceptor.setDaemon(true);
+        acceptor.start();
+
+        applicationProperties = new ApplicationProperties();
+        ApplicationProperties.Gateway.ConnectionPools.Pool pool =
+            new ApplicationProperties.Gateway.ConnectionPools.Pool();
+        pool.setMaxConnections(20);
+        pool.setMaxConnectionsPerInstance(10);
+        pool.setWarmUpConnectionsPerInstance(3);
+        applicationProperties.getGateway().getConnectionPools().getRoutes().put("service1", pool);
+        routeLocator = mock(RouteLocator.class);
+        clientFactory = mock(SpringClientFactory.class);
+        meterRegistry = new SimpleMeterRegistry();
+        // Warming up synchronously
+        connectionPools = new ConnectionPools(applicationProperties, routeLocator, clientFactory, meterRegistry,
+            Runnable::run);
+    }
+
+    @AfterEach
+    public void teardown() throws IOException {
+        serverSocket.close();
+        for (Socket socket : accepted) {
+            socket.close();
+        }
+    }
+
+    @Test
+    public void shouldSizeThePoolOfEachRoute() {
+        RouteConnectionManager pool = connectionPools.create("service1", new DefaultClientConfigImpl());
+        RouteConnectionManager defaultPool = connectionPools.create("service2", new DefaultClientConfigImpl());
+
+        assertThat(pool.getMaxTotal()).isEqualTo(20);
+        assertThat(pool.getDefaultMaxPerRoute()).isEqualTo(10);
+        assertThat(defaultPool.getMaxTotal()).isEqualTo(200);
+        assertThat(defaultPool.getDefaultMaxPerRoute()).isEqualTo(50);
+        assertThat(meterRegistry.get(ConnectionPools.POOL_METRIC + ".max").tag("route", "service1").gauge().value())
+            .isEqualTo(20);
+    }
+
+    @Test
+    public void shouldWarmUpTheNewRoutes() {
+        RouteConnectionManager pool = givenRoute("service1");
+
+        connectionPools.onRoutesRefreshed();
+
+        assertThat(availableConnections()).isEqualTo(3);
+        waitUntil(() -> accepted.size() == 3);
+
+        // Not warmed up again while the route exists
+        pool.closeIdleConnections(0, TimeUnit.MILLISECONDS);
+        connectionPools.onRoutesRefreshed();
+        assertThat(availableConnections()).isZero();
+    }
+
+    @Test
+    public void shouldCloseTheConnectionsClosedByTheServer() throws IOException {
+        givenRoute("service1");
+        connectionPools.onRoutesRefreshed();
+        applicationProperties.getGateway().getConnectionPools().setValidationIntervalInMilliseconds(0);
+
+        connectionPools.validateIdleConnections();
+        assertThat(availableConnections()).isEqualTo(3);
+
+        waitUntil(() -> accepted.size() == 3);
+        for (Socket socket : accepted) {
+            socket.close();
+        }
+        waitUntil(() -> {
+            connectionPools.validateIdleConnections();
+            return availableConnections() == 0;
+        });
+    }
+
+    private RouteConnectionManager givenRoute(String serviceId) {
+        RouteConnectionManager pool = connectionPools.create(serviceId, new DefaultClientConfigImpl());
+        BaseLoadBalancer loadBalancer = new BaseLoadBalancer();
+        loadBalancer.addServers(Arrays.asList(new Server("localhost", serverSocket.getLocalPort())));
+        when(routeLocator.getRoutes()).thenReturn(Collections.singletonList(
+            new Route(serviceId, "/**", serviceId, "/services/" + serviceId, false, Collections.emptySet())));
+        when(clientFactory.getInstance(serviceId, HttpClientConnectionManager.class)).thenReturn(pool);
+        when(clientFactory.getLoadBalancer(serviceId)).thenReturn(loadBalancer);
+        return pool;
+    }
+
+    private void waitUntil(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("waiting for the condition").isLessThan(deadline);
+            Thread.yield();
+        }
+    }
+
+    private double availableConnections() {
+        return meterRegistry.get(ConnectionPools.POOL_METRIC + ".available").tag("route", "service1").gauge()
+            .value();
+    }
+}
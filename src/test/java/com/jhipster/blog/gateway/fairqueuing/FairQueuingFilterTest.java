@@ -0,0 +1,92 @@
+package com.jhipster.blog.gateway.fairqueuing;
+
+import com.jhipster.blog.config.ApplicationProperties;
+import com.jhipster.blog.gateway.ZuulTestContext;
+import com.netflix.zuul.context.RequestContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests {@link FairQueuingFilter} class.
+ */
+public class FairQueuingFilterTest {
+
+    private static final String API_KEY = "partner-key";
+
+    private ApplicationProperties applicationProperties;
+
+    private FairQueuingScheduler scheduler;
+
+    private FairQueuingFilter fairQueuingFilter;
+
+    private MockHttpServletRequest request;
+
+    @BeforeEach
+    public void setup() {
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getGateway().getFairQueuing().getClasses().add(0,
+            new ApplicationProperties.Gateway.FairQueuing.WeightClass("partner", 8, Collections.emptyList(),
+                Collections.singletonList(API_KEY)));
+        scheduler = mock(FairQueuingScheduler.class);
+        fairQueuingFilter = new FairQueuingFilter(applicationProperties, scheduler);
+
+        request = new MockHttpServletRequest("GET", "/services/blog/api/blogs");
+        request.setRemoteAddr("10.0.0.1");
+        ZuulTestContext.newRequest(request, "blog");
+    }
+
+    @AfterEach
+    public void destroy() {
+        ZuulTestContext.reset();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void shouldIgnoreAnApiKeyAssertedByTheClient() throws InterruptedException {
+        request.addHeader("X-API-Key", API_KEY);
+
+        fairQueuingFilter.run();
+
+        verify(scheduler).acquire("blog", "ip:10.0.0.1", "standard");
+    }
+
+    @Test
+    public void shouldQueueForTheVerifiedApiKey() throws InterruptedException {
+        request.setAttribute(applicationProperties.getGateway().getFairQueuing().getApiKeyAttribute(), API_KEY);
+
+        fairQueuingFilter.run();
+
+        verify(scheduler).acquire("blog", "key:" + API_KEY, "partner");
+    }
+
+    @Test
+    public void shouldQueueForTheUserBeforeTheApiKey() throws InterruptedException {
+        request.setAttribute(applicationProperties.getGateway().getFairQueuing().getApiKeyAttribute(), API_KEY);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("admin", "token",
+            Collections.singletonList(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+
+        fairQueuingFilter.run();
+
+        verify(scheduler).acquire("blog", "user:admin", "admin");
+    }
+
+    @Test
+    public void shouldRejectTheRequestWithoutASlot() {
+        fairQueuingFilter.run();
+
+        RequestContext context = RequestContext.getCurrentContext();
+        assertThat(context.getResponseStatusCode()).isEqualTo(503);
+        assertThat(context.sendZuulResponse()).isFalse();
+    }
+}
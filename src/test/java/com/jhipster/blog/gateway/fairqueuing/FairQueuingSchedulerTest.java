@@ -0,0 +1,154 @@
+package com.jhipster.blog.gateway.fairqueuing;
+
+import com.jhipster.blog.config.ApplicationProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests {@link FairQueuingScheduler} class.
+ */
+public class FairQueuingSchedulerTest {
+
+    private static final String ROUTE = "blog";
+
+    private final BlockingQueue<Grant> grants = new LinkedBlockingQueue<>();
+
+    private ApplicationProperties applicationProperties;
+
+    private MeterRegistry meterRegistry;
+
+    private FairQueuingScheduler scheduler;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setup() {
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getGateway().getFairQueuing().setMaxConcurrency(1);
+        applicationProperties.getGateway().getFairQueuing().setMaxWaitInMilliseconds(10_000);
+        meterRegistry = new SimpleMeterRegistry();
+        scheduler = new FairQueuingScheduler(applicationProperties, meterRegistry);
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldServePrincipalsInTurn() throws Exception {
+        FairQueuingScheduler.Slot slot = scheduler.acquire(ROUTE, "heavy", "standard");
+        queue("heavy", "standard", 4, 4);
+        queue("light", "standard", 2, 6);
+
+        assertThat(releaseAll(slot, 6)).containsExactly("heavy", "light", "heavy", "light", "heavy", "heavy");
+    }
+
+    @Test
+    public void shouldServePrincipalsByWeight() throws Exception {
+        FairQueuingScheduler.Slot slot = scheduler.acquire(ROUTE, "user", "standard");
+        queue("user", "standard", 4, 4);
+        queue("admin", "admin", 4, 4);
+
+        assertThat(releaseAll(slot, 8))
+            .containsExactly("user", "admin", "admin", "admin", "admin", "user", "user", "user");
+    }
+
+    @Test
+    public void shouldRejectWhenThePrincipalQueueIsFull() throws Exception {
+        applicationProperties.getGateway().getFairQueuing().setMaxQueuedPerPrincipal(2);
+        scheduler.acquire(ROUTE, "heavy", "standard");
+        queue("heavy", "standard", 2, 2);
+
+        assertThat(scheduler.acquire(ROUTE, "heavy", "standard")).isNull();
+        assertThat(meterRegistry.get(FairQueuingScheduler.REJECTED_METRIC)
+            .tag("reason", FairQueuingScheduler.QUEUE_FULL).counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldRejectAfterTheMaximumWait() throws Exception {
+        applicationProperties.getGateway().getFairQueuing().setMaxWaitInMilliseconds(10);
+        FairQueuingScheduler.Slot slot = scheduler.acquire(ROUTE, "heavy", "standard");
+
+        assertThat(scheduler.acquire(ROUTE, "light", "standard")).isNull();
+        assertThat(queueDepth("standard")).isZero();
+        assertThat(meterRegistry.get(FairQueuingScheduler.WAIT_METRIC).tag("class", "standard").timer().count())
+            .isEqualTo(1);
+
+        slot.release();
+        slot.release();
+        assertThat(scheduler.acquire(ROUTE, "light", "standard")).isNotNull();
+        assertThat(scheduler.acquire(ROUTE, "light", "standard")).isNull();
+    }
+
+    @Test
+    public void shouldRejectTheClassesWithoutAPositiveWeight() {
+        applicationProperties.getGateway().getFairQueuing().getClasses().get(1).setWeight(0);
+
+        assertThatThrownBy(() -> new FairQueuingScheduler(applicationProperties, meterRegistry))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("standard");
+    }
+
+    /**
+     * Queue {@code count} requests of a principal, waiting until the class has {@code expectedDepth} queued requests.
+     */
+    private void queue(String principal, String weightClass, int count, int expectedDepth) throws Exception {
+        for (int i = 0; i < count; i++) {
+            executor.submit(() -> {
+                FairQueuingScheduler.Slot slot = scheduler.acquire(ROUTE, principal, weightClass);
+                grants.add(new Grant(principal, slot));
+                return null;
+            });
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (queueDepth(weightClass) < expectedDepth && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(queueDepth(weightClass)).isEqualTo(expectedDepth);
+    }
+
+    private List<String> releaseAll(FairQueuingScheduler.Slot slot, int count) throws Exception {
+        List<String> order = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            slot.release();
+            Grant grant = grants.poll(5, TimeUnit.SECONDS);
+            order.add(grant.principal);
+            slot = grant.slot;
+        }
+        return order;
+    }
+
+    private double queueDepth(String weightClass) {
+        Gauge gauge = meterRegistry.find(FairQueuingScheduler.QUEUE_DEPTH_METRIC).tag("class", weightClass).gauge();
+        return gauge == null ? 0 : gauge.value();
+    }
+
+    private static final class Grant {
+
+        private final String principal;
+
+        private final FairQueuingScheduler.Slot slot;
+
+        private Grant(String principal, FairQueuingScheduler.Slot slot) {
+            this.principal = principal;
+            this.slot = slot;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.jhipster.blog.gateway.hedging;
+
+import com.jhipster.blog.config.ApplicationProperties;
+import com.netflix.loadbalancer.Server;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.http.client.methods.HttpGet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.Closeable;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests {@link RequestHedger} class.
+ */
+public class RequestHedgerTest {
+
+    private static final Server SLOW = new Server("slow", 8080);
+
+    private static final Server FAST = new Server("fast", 8080);
+
+    private MeterRegistry meterRegistry;
+
+    private ApplicationProperties applicationProperties;
+
+    private RequestHedger requestHedger;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        applicationProperties = new ApplicationProperties();
+        ApplicationProperties.Gateway.Hedging hedging = applicationProperties.getGateway().getHedging();
+        hedging.setRoutes(Collections.singletonList("service1"));
+        hedging.setMaxDelayInMilliseconds(50);
+    }
+
+    @AfterEach
+    public void destroy() {
+        requestHedger.shutdown();
+    }
+
+    @Test
+    public void shouldUseTheHedgeRequestWhenTheFirstOneIsSlow() throws Exception {
+        applicationProperties.getGateway().getHedging().setBudgetPercent(100);
+        requestHedger = new RequestHedger(applicationProperties, meterRegistry);
+        FakeResponse slowResponse = new FakeResponse(SLOW);
+        HttpGet slowRequest = new HttpGet("http://slow:8080/api/test");
+
+        long start = System.nanoTime();
+        FakeResponse response = requestHedger.call("service1", SLOW, () -> FAST, (server, sent) -> {
+            if (server == SLOW) {
+                sent.accept(slowRequest);
+                return sleepThen(500, slowResponse);
+            }
+            return new FakeResponse(FAST);
+        });
+
+        assertThat(response.server).isEqualTo(FAST);
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.MILLISECONDS.toNanos(400));
+        assertThat(slowRequest.isAborted()).isTrue();
+        assertThat(slowResponse.closed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(count(RequestHedger.SENT)).isEqualTo(1);
+        assertThat(count(RequestHedger.WON)).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldNotHedgeBeyondTheBudget() throws Exception {
+        requestHedger = new RequestHedger(applicationProperties, meterRegistry);
+
+        FakeResponse response = requestHedger.call("service1", SLOW, () -> FAST,
+            (server, sent) -> server == SLOW ? sleepThen(100, new FakeResponse(SLOW)) : new FakeResponse(FAST));
+
+        assertThat(response.server).isEqualTo(SLOW);
+        assertThat(count(RequestHedger.SENT)).isEqualTo(0);
+        assertThat(count(RequestHedger.DENIED)).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldOnlyHedgeTheListedRoutes() {
+        requestHedger = new RequestHedger(applicationProperties, meterRegistry);
+
+        assertThat(requestHedger.isHedged("service1")).isTrue();
+        assertThat(requestHedger.isHedged("service2")).isFalse();
+        assertThat(requestHedger.getDelayNanos("service1")).isEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    private double count(String result) {
+        return meterRegistry.get(RequestHedger.REQUESTS_METRIC).tag("route", "service1").tag("result", result)
+            .counter().count();
+    }
+
+    private static FakeResponse sleepThen(long millis, FakeResponse response) throws InterruptedException {
+        Thread.sleep(millis);
+        return response;
+    }
+
+    private static final class FakeResponse implements Closeable {
+
+        private final Server server;
+
+        private final CountDownLatch closed = new CountDownLatch(1);
+
+        private FakeResponse(Server server) {
+            this.server = server;
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+    }
+}
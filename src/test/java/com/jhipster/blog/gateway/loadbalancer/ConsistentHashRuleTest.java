@@ -0,0 +1,150 @@
+package com.jhipster.blog.gateway.loadbalancer;
+
+import com.netflix.loadbalancer.BaseLoadBalancer;
+import com.netflix.loadbalancer.IRule;
+import com.netflix.loadbalancer.Server;
+import com.netflix.loadbalancer.ServerStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests {@link ConsistentHashRule} class.
+ */
+public class ConsistentHashRuleTest {
+
+    private static final int KEYS = 1000;
+
+    private final List<Server> servers = new ArrayList<>(Arrays.asList(new Server("host1", 8081),
+        new Server("host2", 8081), new Server("host3", 8081), new Server("host4", 8081)));
+
+    private BaseLoadBalancer loadBalancer;
+
+    private IRule fallback;
+
+    private MeterRegistry meterRegistry;
+
+    private ConsistentHashRule rule;
+
+    @BeforeEach
+    public void setup() {
+        fallback = mock(IRule.class);
+        meterRegistry = new SimpleMeterRegistry();
+        rule = new ConsistentHashRule(fallback, 1.25, "service1", meterRegistry);
+        loadBalancer = new BaseLoadBalancer();
+        loadBalancer.addServers(servers);
+        loadBalancer.setRule(rule);
+    }
+
+    @Test
+    public void shouldSendTheSameKeyToTheSameInstance() {
+        Server server = rule.choose("user1");
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(rule.choose("user1")).isEqualTo(server);
+        }
+    }
+
+    @Test
+    public void shouldSpreadTheKeysOverTheInstances() {
+        Map<Server, Integer> counts = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            counts.merge(rule.choose("user" + i), 1, Integer::sum);
+        }
+
+        assertThat(counts).hasSize(servers.size());
+        assertThat(counts.values()).allSatisfy(count -> assertThat(count).isBetween(KEYS / 8, KEYS / 2));
+    }
+
+    @Test
+    public void shouldOnlyMoveTheKeysOfTheRemovedInstance() {
+        Map<String, Server> before = chooseAll();
+        Server removed = servers.get(1);
+        loadBalancer.setServersList(Arrays.asList(servers.get(0), servers.get(2), servers.get(3)));
+
+        Map<String, Server> after = chooseAll();
+
+        before.forEach((key, server) -> {
+            if (!server.equals(removed)) {
+                assertThat(after.get(key)).as(key).isEqualTo(server);
+            }
+        });
+    }
+
+    @Test
+    public void shouldOnlyMoveKeysToTheAddedInstance() {
+        Map<String, Server> before = chooseAll();
+        Server added = new Server("host5", 8081);
+        List<Server> newServers = new ArrayList<>(servers);
+        newServers.add(added);
+        loadBalancer.setServersList(newServers);
+
+        Map<String, Server> after = chooseAll();
+
+        long moved = before.keySet().stream().filter(key -> !after.get(key).equals(before.get(key))).count();
+        before.forEach((key, server) -> assertThat(after.get(key)).as(key).isIn(server, added));
+        assertThat(moved).isBetween((long) KEYS / 10, (long) KEYS / 3);
+    }
+
+    @Test
+    public void shouldSpillOverWhenTheInstanceIsOverloaded() {
+        Server server = rule.choose("user1");
+        ServerStats stats = loadBalancer.getLoadBalancerStats().getSingleServerStat(server);
+        for (int i = 0; i < 4; i++) {
+            stats.incrementActiveRequestsCount();
+        }
+
+        // 4 outstanding requests on 4 instances give a capacity of ceil(1.25 * 5 / 4) = 2
+        Server spillover = rule.choose("user1");
+
+        assertThat(spillover).isNotEqualTo(server);
+        assertThat(rule.choose("user1")).isEqualTo(spillover);
+        assertThat(meterRegistry.get(ConsistentHashRule.SPILLOVER_METRIC).counter().count()).isEqualTo(2);
+
+        for (int i = 0; i < 4; i++) {
+            stats.decrementActiveRequestsCount();
+        }
+        assertThat(rule.choose("user1")).isEqualTo(server);
+    }
+
+    @Test
+    public void shouldChooseTheNextInstanceOfTheKeyWhenItsOwnIsExcluded() {
+        Server server = rule.choose("user1");
+        List<Server> others = new ArrayList<>(servers);
+        others.remove(server);
+
+        Server other = rule.choose("user1", server);
+        loadBalancer.setServersList(others);
+
+        assertThat(other).isNotEqualTo(server);
+        assertThat(rule.choose("user1")).isEqualTo(other);
+    }
+
+    @Test
+    public void shouldUseTheFallbackRuleWithoutKey() {
+        when(fallback.choose(null)).thenReturn(servers.get(2));
+
+        assertThat(rule.choose(null)).isEqualTo(servers.get(2));
+        verify(fallback).setLoadBalancer(loadBalancer);
+    }
+
+    private Map<String, Server> chooseAll() {
+        Map<String, Server> choices = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            choices.put("user" + i, rule.choose("user" + i));
+        }
+        return choices;
+    }
+}
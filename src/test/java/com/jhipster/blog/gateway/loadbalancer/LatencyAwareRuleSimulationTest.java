@@ -0,0 +1,110 @@
+package com.jhipster.blog.gateway.loadbalancer;
+
+import com.jhipster.blog.config.ApplicationProperties;
+
+import com.netflix.loadbalancer.AbstractLoadBalancerRule;
+import com.netflix.loadbalancer.BaseLoadBalancer;
+import com.netflix.loadbalancer.RoundRobinRule;
+import com.netflix.loadbalancer.Server;
+import com.netflix.loadbalancer.ServerStats;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Simulates the traffic of a service with a slow instance, comparing the {@link LatencyAwareRule} to Ribbon's round
+ * robin rule.
+ */
+public class LatencyAwareRuleSimulationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(LatencyAwareRuleSimulationTest.class);
+
+    private static final String SERVICE_ID = "service";
+
+    private static final int REQUESTS = 20_000;
+
+    private static final long INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final long FAST_LATENCY_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private static final long SLOW_LATENCY_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+
+    private long now;
+
+    @Test
+    public void shouldLowerTheTailLatencyWithASlowInstance() {
+        long roundRobinP99 = simulate(stats -> new RoundRobinRule());
+        long latencyAwareP99 = simulate(stats -> new LatencyAwareRule(stats, SERVICE_ID));
+
+        log.info("Simulated p99 latency: round robin {} ms, latency aware {} ms",
+            TimeUnit.NANOSECONDS.toMillis(roundRobinP99), TimeUnit.NANOSECONDS.toMillis(latencyAwareP99));
+        assertThat(latencyAwareP99).isLessThan(roundRobinP99 / 2);
+    }
+
+    private long simulate(Function<InstanceLatencyStats, AbstractLoadBalancerRule> ruleFactory) {
+        now = 0;
+        Random random = new Random(42);
+        InstanceLatencyStats instanceLatencyStats = new InstanceLatencyStats(new ApplicationProperties(), () -> now);
+        Server slow = new Server("slow", 8080);
+        List<Server> servers = Arrays.asList(new Server("fast1", 8080), new Server("fast2", 8080),
+            new Server("fast3", 8080), new Server("fast4", 8080), slow);
+        BaseLoadBalancer loadBalancer = new BaseLoadBalancer();
+        loadBalancer.addServers(servers);
+        loadBalancer.setRule(ruleFactory.apply(instanceLatencyStats));
+
+        PriorityQueue<Completion> completions = new PriorityQueue<>();
+        List<Long> latencies = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            long arrival = i * INTERVAL_NANOS;
+            while (!completions.isEmpty() && completions.peek().time <= arrival) {
+                Completion completion = completions.poll();
+                now = completion.time;
+                completion.stats.decrementActiveRequestsCount();
+                instanceLatencyStats.record(SERVICE_ID, completion.server.getHostPort(), completion.latency);
+            }
+            now = arrival;
+            Server server = loadBalancer.chooseServer(null);
+            long latency = (server == slow ? SLOW_LATENCY_NANOS : FAST_LATENCY_NANOS) +
+                (long) (random.nextDouble() * FAST_LATENCY_NANOS / 5);
+            ServerStats stats = loadBalancer.getLoadBalancerStats().getSingleServerStat(server);
+            stats.incrementActiveRequestsCount();
+            completions.add(new Completion(now + latency, server, stats, latency));
+            latencies.add(latency);
+        }
+        latencies.sort(null);
+        return latencies.get((int) (REQUESTS * 0.99));
+    }
+
+    private static final class Completion implements Comparable<Completion> {
+
+        private final long time;
+
+        private final Server server;
+
+        private final ServerStats stats;
+
+        private final long latency;
+
+        private Completion(long time, Server server, ServerStats stats, long latency) {
+            this.time = time;
+            this.server = server;
+            this.stats = stats;
+            this.latency = latency;
+        }
+
+        @Override
+        public int compareTo(Completion other) {
+            return Long.compare(time, other.time);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.jhipster.blog.gateway.loadshedding;
+
+import com.jhipster.blog.config.ApplicationProperties;
+import com.jhipster.blog.security.AuthoritiesConstants;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.netflix.zuul.filters.Route;
+import org.springframework.cloud.netflix.zuul.filters.RouteLocator;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests {@link LoadSheddingFilter} and {@link LoadShedder} classes.
+ */
+public class LoadSheddingFilterTest {
+
+    private static final int CRITICAL = 0;
+
+    private static final int DEFAULT = 1;
+
+    private static final int BACKGROUND = 2;
+
+    private long now = 1_000_000_000L;
+
+    private MeterRegistry meterRegistry;
+
+    private LoadShedder loadShedder;
+
+    private LoadSheddingFilter filter;
+
+    @BeforeEach
+    public void setup() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getGateway().getLoadShedding().getClasses().get(BACKGROUND)
+            .setRoutes(Collections.singletonList("reports"));
+        RouteLocator routeLocator = mock(RouteLocator.class);
+        when(routeLocator.getMatchingRoute("/services/reports/api/exports"))
+            .thenReturn(new Route("reports", "/api/exports", "reports", "/services/reports", null, null));
+        meterRegistry = new SimpleMeterRegistry();
+        loadShedder = new LoadShedder(LoadSheddingFilter.classNames(applicationProperties), applicationProperties,
+            meterRegistry, () -> now);
+        filter = new LoadSheddingFilter(applicationProperties, routeLocator, loadShedder);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void shouldAssignPriorityClasses() {
+        assertThat(filter.priority(request("/api/authenticate"))).isEqualTo(CRITICAL);
+        assertThat(filter.priority(request("/services/blog/api/posts"))).isEqualTo(DEFAULT);
+        assertThat(filter.priority(request("/services/reports/api/exports"))).isEqualTo(BACKGROUND);
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("admin", null,
+            Collections.singletonList(new SimpleGrantedAuthority(AuthoritiesConstants.ADMIN))));
+        assertThat(filter.priority(request("/services/blog/api/posts"))).isEqualTo(CRITICAL);
+    }
+
+    @Test
+    public void shouldOnlyLowerPriorityWithHeader() {
+        MockHttpServletRequest background = request("/services/blog/api/posts");
+        background.addHeader("X-Request-Priority", "background");
+        assertThat(filter.priority(background)).isEqualTo(BACKGROUND);
+
+        MockHttpServletRequest critical = request("/services/blog/api/posts");
+        critical.addHeader("X-Request-Priority", "critical");
+        assertThat(filter.priority(critical)).isEqualTo(DEFAULT);
+    }
+
+    @Test
+    public void shouldShedLowestClassesFirstOnStandingQueue() throws Exception {
+        overloadFor(1);
+        assertThat(loadShedder.getShedClasses()).isEqualTo(1);
+
+        MockHttpServletResponse response = doFilter("/services/reports/api/exports");
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader(LoadSheddingFilter.RETRY_AFTER_HEADER)).isEqualTo("1");
+        assertThat(doFilter("/services/blog/api/posts").getStatus()).isEqualTo(200);
+
+        overloadFor(5);
+        assertThat(loadShedder.getShedClasses()).isEqualTo(2);
+        assertThat(doFilter("/services/blog/api/posts").getStatus()).isEqualTo(503);
+        assertThat(doFilter("/api/authenticate").getStatus()).isEqualTo(200);
+        assertThat(meterRegistry.get(LoadShedder.REJECTED_METRIC).tag("class", "background").counter().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    public void shouldNotShedOnShortBursts() {
+        loadShedder.tryAdmit(DEFAULT, TimeUnit.MILLISECONDS.toNanos(50));
+        loadShedder.tryAdmit(DEFAULT, 0);
+        now += TimeUnit.MILLISECONDS.toNanos(101);
+        loadShedder.tryAdmit(DEFAULT, TimeUnit.MILLISECONDS.toNanos(50));
+
+        assertThat(loadShedder.getShedClasses()).isZero();
+    }
+
+    @Test
+    public void shouldAdmitClassesAgainWhenQueueDrains() {
+        overloadFor(2);
+        assertThat(loadShedder.getShedClasses()).isEqualTo(2);
+
+        now += TimeUnit.MILLISECONDS.toNanos(101);
+        loadShedder.tryAdmit(CRITICAL, 0);
+        now += TimeUnit.MILLISECONDS.toNanos(101);
+        loadShedder.tryAdmit(CRITICAL, 0);
+
+        assertThat(loadShedder.getShedClasses()).isEqualTo(1);
+    }
+
+    private void overloadFor(int intervals) {
+        for (int i = 0; i < intervals; i++) {
+            loadShedder.tryAdmit(CRITICAL, TimeUnit.MILLISECONDS.toNanos(20));
+            now += TimeUnit.MILLISECONDS.toNanos(101);
+        }
+        loadShedder.tryAdmit(CRITICAL, TimeUnit.MILLISECONDS.toNanos(20));
+    }
+
+    private MockHttpServletResponse doFilter(String path) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(path), response, new MockFilterChain());
+        return response;
+    }
+
+    private MockHttpServletRequest request(String path) {
+        return new MockHttpServletRequest("GET", path);
+    }
+}
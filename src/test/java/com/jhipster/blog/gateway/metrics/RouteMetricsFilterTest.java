@@ -0,0 +1,94 @@
+package com.jhipster.blog.gateway.metrics;
+
+import com.jhipster.blog.config.ApplicationProperties;
+import com.jhipster.blog.gateway.ZuulTestContext;
+import com.netflix.zuul.context.RequestContext;
+import com.netflix.zuul.exception.ZuulException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static com.jhipster.blog.gateway.ZuulTestContext.newRequest;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests {@link RouteMetricsFilter} and the filters timing the requests.
+ */
+public class RouteMetricsFilterTest {
+
+    private MeterRegistry meterRegistry;
+
+    private ApplicationProperties applicationProperties;
+
+    private RouteMetricsFilter routeMetricsFilter;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        applicationProperties = new ApplicationProperties();
+        routeMetricsFilter = new RouteMetricsFilter(new RouteMetrics(applicationProperties, meterRegistry));
+    }
+
+    @AfterEach
+    public void destroy() {
+        ZuulTestContext.reset();
+    }
+
+    @Test
+    public void shouldRecordProxiedRequests() throws Exception {
+        RequestContext context = newRequest("GET", "/services/service1/api/blogs", "service1");
+        new RequestTimingFilter().run();
+        new UpstreamStartFilter().run();
+        context.setResponseStatusCode(200);
+        context.setResponseDataStream(new ByteArrayInputStream("[{\"id\":1}]".getBytes(StandardCharsets.UTF_8)));
+        new UpstreamEndFilter().run();
+        IOUtils.toByteArray(context.getResponseDataStream());
+        routeMetricsFilter.run();
+
+        assertThat(meterRegistry.get(RouteMetrics.UPSTREAM_METRIC).tag("route", "service1").timer().count())
+            .isEqualTo(1);
+        assertThat(meterRegistry.get(RouteMetrics.OVERHEAD_METRIC).tag("route", "service1").timer().count())
+            .isEqualTo(1);
+        assertThat(meterRegistry.get(RouteMetrics.RESPONSE_SIZE_METRIC).tag("route", "service1").summary()
+            .totalAmount()).isEqualTo(10);
+        assertThat(meterRegistry.get(RouteMetrics.RESPONSES_METRIC).tag("route", "service1").tag("status", "2xx")
+            .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldRecordFailedRequests() {
+        RequestContext context = newRequest("GET", "/services/service1/api/blogs", "service1");
+        new RequestTimingFilter().run();
+        new UpstreamStartFilter().run();
+        context.setThrowable(new ZuulException(new RuntimeException("timeout"), 504, "timeout"));
+        new RouteMetricsErrorFilter().run();
+        new UpstreamEndFilter().run();
+        routeMetricsFilter.run();
+
+        assertThat(meterRegistry.get(RouteMetrics.UPSTREAM_METRIC).tag("route", "service1").timer().count())
+            .isEqualTo(1);
+        assertThat(meterRegistry.get(RouteMetrics.RESPONSES_METRIC).tag("route", "service1").tag("status", "5xx")
+            .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldBoundTheNumberOfRouteTags() {
+        applicationProperties.getGateway().getRouteMetrics().setMaxRoutes(1);
+        routeMetricsFilter = new RouteMetricsFilter(new RouteMetrics(applicationProperties, meterRegistry));
+        for (String routeId : new String[]{"service1", "service2", "service3"}) {
+            newRequest("GET", "/services/" + routeId + "/api/blogs", routeId);
+            new RequestTimingFilter().run();
+            routeMetricsFilter.run();
+        }
+
+        assertThat(meterRegistry.find(RouteMetrics.OVERHEAD_METRIC).timers()).hasSize(2);
+        assertThat(meterRegistry.get(RouteMetrics.OVERHEAD_METRIC).tag("route", RouteMetrics.OTHER_ROUTE).timer()
+            .count()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,144 @@
+package com.jhipster.blog.gateway.outlier;
+
+import com.jhipster.blog.config.ApplicationProperties;
+import com.jhipster.blog.gateway.loadbalancer.InstanceLatencyStats;
+import com.netflix.loadbalancer.BaseLoadBalancer;
+import com.netflix.loadbalancer.Server;
+import com.netflix.loadbalancer.ServerStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.netflix.ribbon.SpringClientFactory;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests {@link OutlierDetector} class.
+ */
+public class OutlierDetectorTest {
+
+    private static final Server SERVER1 = new Server("host1", 8081);
+
+    private static final Server SERVER2 = new Server("host2", 8081);
+
+    private static final Server SERVER3 = new Server("host3", 8081);
+
+    private static final List<Server> SERVERS = Arrays.asList(SERVER1, SERVER2, SERVER3);
+
+    private long now = 1_000_000;
+
+    private BaseLoadBalancer loadBalancer;
+
+    private TaskScheduler taskScheduler;
+
+    private InstanceLatencyStats instanceLatencyStats;
+
+    private MeterRegistry meterRegistry;
+
+    private OutlierDetector outlierDetector;
+
+    @BeforeEach
+    public void setup() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getGateway().getOutlierDetection().setConsecutive5xx(3);
+        loadBalancer = new BaseLoadBalancer();
+        loadBalancer.addServers(SERVERS);
+        SpringClientFactory clientFactory = mock(SpringClientFactory.class);
+        when(clientFactory.getLoadBalancer("service1")).thenReturn(loadBalancer);
+        taskScheduler = mock(TaskScheduler.class);
+        instanceLatencyStats = new InstanceLatencyStats(applicationProperties);
+        meterRegistry = new SimpleMeterRegistry();
+        outlierDetector = new OutlierDetector(applicationProperties, instanceLatencyStats, clientFactory, taskScheduler,
+            meterRegistry, () -> now);
+    }
+
+    @Test
+    public void shouldEjectOnConsecutiveServerErrorsWithExponentialReadmission() {
+        outlierDetector.recordResponse("service1", SERVER1.getHostPort(), 500);
+        outlierDetector.recordResponse("service1", SERVER1.getHostPort(), 503);
+        outlierDetector.recordResponse("service1", SERVER1.getHostPort(), 200);
+        assertThat(outlierDetector.getEjections()).isEmpty();
+
+        respondWithErrors(SERVER1, 3);
+        assertThat(outlierDetector.getEjections()).extracting(OutlierDetector.Ejection::getReason)
+            .containsExactly(OutlierDetector.SERVER_ERRORS);
+        assertThat(outlierDetector.filter("service1", SERVERS)).containsExactly(SERVER2, SERVER3);
+        verify(taskScheduler).schedule(any(Runnable.class), eq(Instant.ofEpochMilli(now + 30_000)));
+        assertThat(meterRegistry.get(OutlierDetector.EJECTIONS_METRIC).tag("service", "service1")
+            .tag("reason", OutlierDetector.SERVER_ERRORS).counter().count()).isEqualTo(1);
+
+        now += 30_001;
+        assertThat(outlierDetector.filter("service1", SERVERS)).containsExactly(SERVER1, SERVER2, SERVER3);
+
+        respondWithErrors(SERVER1, 3);
+        OutlierDetector.Ejection ejection = outlierDetector.getEjections().get(0);
+        assertThat(ejection.getEjections()).isEqualTo(2);
+        assertThat(ejection.getEjectedUntil()).isEqualTo(Instant.ofEpochMilli(now + 60_000));
+    }
+
+    @Test
+    public void shouldNotEjectMoreThanTheMaximumPercentOfInstances() {
+        respondWithErrors(SERVER1, 3);
+        respondWithErrors(SERVER2, 3);
+
+        assertThat(outlierDetector.getEjections()).extracting(OutlierDetector.Ejection::getInstance)
+            .containsExactly(SERVER1.getHostPort());
+    }
+
+    @Test
+    public void shouldCountTheEjectedInstancesInTheMaximumPercent() {
+        Server server4 = new Server("host4", 8081);
+        List<Server> servers = Arrays.asList(SERVER1, SERVER2, SERVER3, server4);
+        // The load balancer only has the filtered servers, as with a server list filter
+        loadBalancer.setServersList(outlierDetector.filter("service1", servers));
+        respondWithErrors(SERVER1, 3);
+        loadBalancer.setServersList(outlierDetector.filter("service1", servers));
+
+        respondWithErrors(SERVER2, 3);
+
+        assertThat(outlierDetector.getEjections()).extracting(OutlierDetector.Ejection::getInstance)
+            .containsExactlyInAnyOrder(SERVER1.getHostPort(), SERVER2.getHostPort());
+    }
+
+    @Test
+    public void shouldEjectLatencyOutliers() {
+        instanceLatencyStats.record("service1", SERVER1.getHostPort(), TimeUnit.MILLISECONDS.toNanos(20));
+        instanceLatencyStats.record("service1", SERVER2.getHostPort(), TimeUnit.MILLISECONDS.toNanos(30));
+        instanceLatencyStats.record("service1", SERVER3.getHostPort(), TimeUnit.MILLISECONDS.toNanos(800));
+
+        outlierDetector.recordResponse("service1", SERVER1.getHostPort(), 200);
+        assertThat(outlierDetector.getEjections()).isEmpty();
+        outlierDetector.recordResponse("service1", SERVER3.getHostPort(), 200);
+        assertThat(outlierDetector.getEjections()).extracting(OutlierDetector.Ejection::getReason)
+            .containsExactly(OutlierDetector.LATENCY);
+    }
+
+    @Test
+    public void shouldEjectInstancesWithConsecutiveConnectionFailures() {
+        ServerStats stats = loadBalancer.getLoadBalancerStats().getSingleServerStat(SERVER2);
+        for (int i = 0; i < 5; i++) {
+            stats.incrementSuccessiveConnectionFailureCount();
+        }
+
+        outlierDetector.recordFailure("service1");
+
+        assertThat(outlierDetector.getEjections()).extracting(OutlierDetector.Ejection::getInstance)
+            .containsExactly(SERVER2.getHostPort());
+    }
+
+    private void respondWithErrors(Server server, int times) {
+        for (int i = 0; i < times; i++) {
+            outlierDetector.recordResponse("service1", server.getHostPort(), 502);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.jhipster.blog.gateway.ratelimiting;
+
+import com.jhipster.blog.config.ApplicationProperties;
+import com.jhipster.blog.gateway.ZuulTestContext;
+import com.netflix.zuul.context.RequestContext;
+import io.github.bucket4j.grid.GridBucketState;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.configuration.MutableConfiguration;
+
+import static com.jhipster.blog.gateway.ZuulTestContext.newRequest;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests {@link RateLimitingFilter} class.
+ */
+public class RateLimitingFilterTest {
+
+    private CacheManager cacheManager;
+
+    private MeterRegistry meterRegistry;
+
+    private RateLimitingFilter filter;
+
+    @BeforeEach
+    public void setup() {
+        cacheManager = Caching.getCachingProvider().getCacheManager();
+        cacheManager.createCache(RateLimitingFilter.GATEWAY_RATE_LIMITING_CACHE_NAME,
+            new MutableConfiguration<String, GridBucketState>().setTypes(String.class, GridBucketState.class));
+
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getGateway().getRateLimiting().getIp().setLimit(2);
+        applicationProperties.getGateway().getRateLimiting().getIp().setDurationInSeconds(3600);
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new RateLimitingFilter(applicationProperties, cacheManager, meterRegistry);
+        SecurityContextHolder.getContext().setAuthentication(null);
+    }
+
+    @AfterEach
+    public void destroy() {
+        cacheManager.destroyCache(RateLimitingFilter.GATEWAY_RATE_LIMITING_CACHE_NAME);
+        ZuulTestContext.reset();
+    }
+
+    @Test
+    public void shouldAllowRequestsUnderTheLimit() {
+        RequestContext context = newRequest("GET", "/services/service1/api/blogs", null);
+        filter.run();
+
+        assertThat(context.sendZuulResponse()).isTrue();
+        assertThat(context.getZuulResponseHeaders())
+            .anyMatch(header -> header.first().equals(RateLimitingFilter.RATE_LIMIT_REMAINING_HEADER) &&
+                header.second().equals("1"));
+    }
+
+    @Test
+    public void shouldRejectRequestsOverTheLimit() {
+        newRequest("GET", "/services/service1/api/blogs", null);
+        filter.run();
+        newRequest("GET", "/services/service1/api/blogs", null);
+        filter.run();
+        RequestContext context = newRequest("GET", "/services/service1/api/blogs", null);
+        filter.run();
+
+        assertThat(context.sendZuulResponse()).isFalse();
+        assertThat(context.getResponseStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(context.getZuulResponseHeaders())
+            .anyMatch(header -> header.first().equals(RateLimitingFilter.RETRY_AFTER_HEADER));
+        assertThat(meterRegistry.get(RateLimitingFilter.REJECTED_METRIC).tag("dimension", "ip").counter().count())
+            .isEqualTo(1);
+    }
+}
@@ -0,0 +1,137 @@
+package com.jhipster.blog.gateway.responsecache;
+
+import com.jhipster.blog.config.ApplicationProperties;
+import com.jhipster.blog.gateway.ZuulTestContext;
+import com.netflix.zuul.context.RequestContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.configuration.MutableConfiguration;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import static com.jhipster.blog.gateway.ZuulTestContext.newRequest;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests {@link ResponseCacheLookupFilter} and {@link ResponseCacheStoreFilter} classes.
+ */
+public class ResponseCacheFilterTest {
+
+    private static final String URI = "/services/service1/api/blogs";
+
+    private static final String BODY = "[{\"id\":1}]";
+
+    private CacheManager cacheManager;
+
+    private MeterRegistry meterRegistry;
+
+    private ResponseCacheLookupFilter lookupFilter;
+
+    private ResponseCacheStoreFilter storeFilter;
+
+    @BeforeEach
+    public void setup() {
+        cacheManager = Caching.getCachingProvider().getCacheManager();
+        cacheManager.createCache(ResponseCache.GATEWAY_RESPONSE_CACHE_NAME,
+            new MutableConfiguration<String, CachedResponse>().setTypes(String.class, CachedResponse.class));
+
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getGateway().getResponseCache().setRoutes(Collections.singletonList("service1"));
+        meterRegistry = new SimpleMeterRegistry();
+        ResponseCache responseCache = new ResponseCache(applicationProperties, cacheManager, meterRegistry);
+        lookupFilter = new ResponseCacheLookupFilter(responseCache);
+        storeFilter = new ResponseCacheStoreFilter(responseCache);
+    }
+
+    @AfterEach
+    public void destroy() {
+        cacheManager.destroyCache(ResponseCache.GATEWAY_RESPONSE_CACHE_NAME);
+        ZuulTestContext.reset();
+    }
+
+    @Test
+    public void shouldServeFreshResponsesFromTheCache() throws Exception {
+        proxy(newRequest("GET", URI, "service1"), 200, "max-age=60", null);
+
+        RequestContext context = newRequest("GET", URI, "service1");
+        assertThat(lookupFilter.shouldFilter()).isTrue();
+        lookupFilter.run();
+
+        assertThat(context.sendZuulResponse()).isFalse();
+        assertThat(context.getResponseStatusCode()).isEqualTo(200);
+        assertThat(IOUtils.toString(context.getResponseDataStream(), StandardCharsets.UTF_8)).isEqualTo(BODY);
+        assertThat(meterRegistry.get(ResponseCache.REQUESTS_METRIC).tag("result", ResponseCache.HIT).counter().count())
+            .isEqualTo(1);
+        assertThat(meterRegistry.get(ResponseCache.BYTES_SAVED_METRIC).counter().count()).isEqualTo(BODY.length());
+    }
+
+    @Test
+    public void shouldNotStorePrivateResponses() throws Exception {
+        proxy(newRequest("GET", URI, "service1"), 200, "private, max-age=60", null);
+
+        RequestContext context = newRequest("GET", URI, "service1");
+        lookupFilter.run();
+
+        assertThat(context.sendZuulResponse()).isTrue();
+        assertThat(meterRegistry.get(ResponseCache.REQUESTS_METRIC).tag("result", ResponseCache.MISS).counter().count())
+            .isEqualTo(2);
+    }
+
+    @Test
+    public void shouldRevalidateStaleResponses() throws Exception {
+        proxy(newRequest("GET", URI, "service1"), 200, "no-cache", "\"v1\"");
+
+        RequestContext context = newRequest("GET", URI, "service1");
+        lookupFilter.run();
+        assertThat(context.sendZuulResponse()).isTrue();
+        assertThat(context.getZuulRequestHeaders()).containsEntry("if-none-match", "\"v1\"");
+
+        context.setResponseStatusCode(304);
+        context.addOriginResponseHeader("ETag", "\"v1\"");
+        context.addZuulResponseHeader("ETag", "\"v1\"");
+        storeFilter.run();
+
+        assertThat(context.getResponseStatusCode()).isEqualTo(200);
+        assertThat(IOUtils.toString(context.getResponseDataStream(), StandardCharsets.UTF_8)).isEqualTo(BODY);
+        assertThat(meterRegistry.get(ResponseCache.REQUESTS_METRIC).tag("result", ResponseCache.REVALIDATED)
+            .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldInvalidateOnSuccessfulUnsafeRequests() throws Exception {
+        proxy(newRequest("GET", URI, "service1"), 200, "max-age=60", null);
+        proxy(newRequest("DELETE", URI, "service1"), 204, null, null);
+
+        RequestContext context = newRequest("GET", URI, "service1");
+        lookupFilter.run();
+
+        assertThat(context.sendZuulResponse()).isTrue();
+    }
+
+    /**
+     * Run the filters around a simulated call to the origin.
+     */
+    private void proxy(RequestContext context, int status, String cacheControl, String etag) throws Exception {
+        lookupFilter.run();
+        context.setResponseStatusCode(status);
+        if (cacheControl != null) {
+            context.addOriginResponseHeader("Cache-Control", cacheControl);
+            context.addZuulResponseHeader("Cache-Control", cacheControl);
+        }
+        if (etag != null) {
+            context.addOriginResponseHeader("ETag", etag);
+            context.addZuulResponseHeader("ETag", etag);
+        }
+        context.setResponseDataStream(new ByteArrayInputStream(BODY.getBytes(StandardCharsets.UTF_8)));
+        storeFilter.run();
+        assertThat(IOUtils.toString(context.getResponseDataStream(), StandardCharsets.UTF_8)).isEqualTo(BODY);
+    }
+}
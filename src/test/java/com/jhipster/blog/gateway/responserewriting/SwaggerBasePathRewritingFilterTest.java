@@ -1,17 +1,21 @@
 package com.jhipster.blog.gateway.responserewriting;
 
+import com.jhipster.blog.gateway.ZuulTestContext;
 import com.netflix.zuul.context.RequestContext;
 import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
-import static com.jhipster.blog.gateway.responserewriting.SwaggerBasePathRewritingFilter.gzipData;
 import static org.junit.jupiter.api.Assertions.*;
 import static springfox.documentation.swagger2.web.Swagger2Controller.DEFAULT_URL;
 
@@ -22,6 +26,11 @@ public class SwaggerBasePathRewritingFilterTest {
 
     private SwaggerBasePathRewritingFilter filter = new SwaggerBasePathRewritingFilter();
 
+    @AfterEach
+    public void destroy() {
+        ZuulTestContext.reset();
+    }
+
     @Test
     public void shouldFilter_on_default_swagger_url() {
 
@@ -69,7 +78,8 @@ public class SwaggerBasePathRewritingFilterTest {
         filter.run();
 
         assertEquals("UTF-8", response.getCharacterEncoding());
-        assertEquals("{\"basePath\":\"/service1\"}", context.getResponseBody());
+        assertEquals("{\"basePath\":\"/service1\"}", response.getContentAsString());
+        assertNull(context.getResponseDataStream());
     }
 
     @Test
@@ -87,9 +97,56 @@ public class SwaggerBasePathRewritingFilterTest {
         filter.run();
 
         assertEquals("UTF-8", response.getCharacterEncoding());
+        assertNull(response.getHeader("Content-Encoding"));
+        assertEquals("{\"basePath\":\"/service1\"}", response.getContentAsString());
+    }
 
-        InputStream responseDataStream = new GZIPInputStream(context.getResponseDataStream());
+    @Test
+    public void run_on_valid_response_gzip_requested() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/service1" + DEFAULT_URL);
+        request.addHeader("Accept-Encoding", "gzip, deflate");
+        RequestContext context = RequestContext.getCurrentContext();
+        context.setRequest(request);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        context.setResponseGZipped(true);
+        context.setResponse(response);
+
+        context.setResponseDataStream(new ByteArrayInputStream(gzipData("{\"basePath\":\"/\"}")));
+
+        filter.run();
+
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        InputStream responseDataStream = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()));
         String responseBody = IOUtils.toString(responseDataStream, StandardCharsets.UTF_8);
         assertEquals("{\"basePath\":\"/service1\"}", responseBody);
     }
+
+    @Test
+    public void run_only_rewrites_top_level_base_path() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/service1" + DEFAULT_URL);
+        RequestContext context = RequestContext.getCurrentContext();
+        context.setRequest(request);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        context.setResponseGZipped(false);
+        context.setResponse(response);
+
+        InputStream in = IOUtils.toInputStream("{\"swagger\":\"2.0\",\"info\":{\"basePath\":\"/\"}," +
+            "\"tags\":[1,2.5,true,null]}", StandardCharsets.UTF_8);
+        context.setResponseDataStream(in);
+
+        filter.run();
+
+        assertEquals("{\"swagger\":\"2.0\",\"info\":{\"basePath\":\"/\"},\"tags\":[1,2.5,true,null]," +
+            "\"basePath\":\"/service1\"}", response.getContentAsString());
+    }
+
+    private static byte[] gzipData(String content) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bos)) {
+            gzip.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return bos.toByteArray();
+    }
 }
@@ -0,0 +1,80 @@
+package com.jhipster.blog.gateway.responserewriting;
+
+import com.jhipster.blog.config.ApplicationProperties;
+import com.jhipster.blog.gateway.ZuulTestContext;
+import com.netflix.zuul.context.RequestContext;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.netflix.zuul.filters.RouteLocator;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.nio.charset.StandardCharsets;
+
+import static com.jhipster.blog.gateway.ZuulTestContext.newRequest;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static springfox.documentation.swagger2.web.Swagger2Controller.DEFAULT_URL;
+
+/**
+ * Tests {@link SwaggerDocsCacheFilter} class.
+ */
+public class SwaggerDocsCacheFilterTest {
+
+    private SwaggerDocsCache swaggerDocsCache;
+
+    private SwaggerDocsCacheFilter filter;
+
+    @BeforeEach
+    public void setup() {
+        swaggerDocsCache = new SwaggerDocsCache(mock(RouteLocator.class), mock(DiscoveryClient.class),
+            new ApplicationProperties());
+        filter = new SwaggerDocsCacheFilter(swaggerDocsCache);
+    }
+
+    @AfterEach
+    public void destroy() {
+        ZuulTestContext.reset();
+    }
+
+    @Test
+    public void run_on_cache_miss_proxies_the_request() {
+        RequestContext context = newRequest("GET", "/services/service1" + DEFAULT_URL, "service1");
+
+        filter.run();
+
+        assertTrue(context.sendZuulResponse());
+        assertEquals("service1", context.get(SwaggerBasePathRewritingFilter.CACHE_DOCUMENT_KEY));
+    }
+
+    @Test
+    public void run_on_cache_hit_serves_the_document() throws Exception {
+        swaggerDocsCache.put("service1", "{\"basePath\":\"/service1\"}".getBytes(StandardCharsets.UTF_8));
+        RequestContext context = newRequest("GET", "/services/service1" + DEFAULT_URL, "service1");
+
+        filter.run();
+
+        assertFalse(context.sendZuulResponse());
+        assertEquals(200, context.getResponseStatusCode());
+        assertEquals("{\"basePath\":\"/service1\"}",
+            IOUtils.toString(context.getResponseDataStream(), StandardCharsets.UTF_8));
+        assertTrue(context.getZuulResponseHeaders().stream()
+            .anyMatch(header -> header.first().equals("ETag")));
+    }
+
+    @Test
+    public void run_on_matching_etag_sends_not_modified() throws Exception {
+        SwaggerDocsCache.SwaggerDoc doc =
+            swaggerDocsCache.put("service1", "{\"basePath\":\"/service1\"}".getBytes(StandardCharsets.UTF_8));
+        RequestContext context = newRequest("GET", "/services/service1" + DEFAULT_URL, "service1");
+        ((MockHttpServletRequest) context.getRequest()).addHeader("If-None-Match", doc.getEtag());
+
+        filter.run();
+
+        assertFalse(context.sendZuulResponse());
+        assertEquals(304, context.getResponseStatusCode());
+        assertNull(context.getResponseDataStream());
+    }
+}
@@ -0,0 +1,72 @@
+package com.jhipster.blog.gateway.retry;
+
+import com.jhipster.blog.config.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.loadbalancer.LoadBalancedRetryContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancedRetryPolicy;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests {@link BudgetedRetryPolicy} and {@link RetryBudgets} classes.
+ */
+public class BudgetedRetryPolicyTest {
+
+    private MeterRegistry meterRegistry;
+
+    private RetryBudgets retryBudgets;
+
+    private BudgetedRetryPolicy retryPolicy;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getGateway().getRetryBudget().setBudgetPercent(50);
+        retryBudgets = new RetryBudgets(applicationProperties, meterRegistry);
+        LoadBalancedRetryPolicy delegate = mock(LoadBalancedRetryPolicy.class);
+        when(delegate.canRetryNextServer(any())).thenReturn(true);
+        retryPolicy = new BudgetedRetryPolicy("service1", delegate, retryBudgets);
+    }
+
+    @Test
+    public void shouldAllowRetriesWithinTheBudget() {
+        retryBudgets.recordSuccess("service1");
+        retryBudgets.recordSuccess("service1");
+
+        LoadBalancedRetryContext context = new LoadBalancedRetryContext(null, null);
+        assertThat(retryPolicy.canRetryNextServer(context)).isTrue();
+        context.registerThrowable(new IOException("connection refused"));
+        assertThat(retryPolicy.canRetryNextServer(context)).isTrue();
+        // Asked again for the same retry, which must not be taken twice from the budget
+        assertThat(retryPolicy.canRetryNextServer(context)).isTrue();
+        context.registerThrowable(new IOException("connection refused"));
+        assertThat(retryPolicy.canRetryNextServer(context)).isFalse();
+
+        assertThat(count(RetryBudgets.ALLOWED)).isEqualTo(1);
+        assertThat(count(RetryBudgets.EXHAUSTED)).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldRefuseRetriesWithoutSuccessfulRequests() {
+        LoadBalancedRetryContext context = new LoadBalancedRetryContext(null, null);
+        context.registerThrowable(new IOException("connection refused"));
+
+        assertThat(retryPolicy.canRetryNextServer(context)).isFalse();
+        assertThat(meterRegistry.get(RetryBudgets.TOKENS_METRIC).tag("route", "service1").gauge().value())
+            .isEqualTo(0);
+    }
+
+    private double count(String result) {
+        return meterRegistry.get(RetryBudgets.RETRIES_METRIC).tag("route", "service1").tag("result", result)
+            .counter().count();
+    }
+}
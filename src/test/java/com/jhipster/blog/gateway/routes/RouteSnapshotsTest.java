@@ -0,0 +1,94 @@
+package com.jhipster.blog.gateway.routes;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.netflix.zuul.filters.Route;
+import org.springframework.cloud.netflix.zuul.filters.RouteLocator;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests {@link RouteSnapshots} class.
+ */
+public class RouteSnapshotsTest {
+
+    private static final Route SERVICE1 = new Route("service1", "/**", "service1", "/services/service1", null, null);
+
+    private static final Route SERVICE2 = new Route("service2", "/**", "service2", "/services/service2", null, null);
+
+    private RouteLocator routeLocator;
+
+    private DiscoveryClient discoveryClient;
+
+    private RouteSnapshots routeSnapshots;
+
+    @BeforeEach
+    public void setup() {
+        routeLocator = mock(RouteLocator.class);
+        discoveryClient = mock(DiscoveryClient.class);
+        when(discoveryClient.getInstances("service1"))
+            .thenReturn(Collections.singletonList(instance("service1", 8081)));
+        when(discoveryClient.getInstances("service2"))
+            .thenReturn(Collections.singletonList(instance("service2", 8082)));
+        routeSnapshots = new RouteSnapshots(routeLocator, discoveryClient, Runnable::run);
+    }
+
+    @Test
+    public void shouldServeTheSnapshotFromMemory() {
+        when(routeLocator.getRoutes()).thenReturn(Arrays.asList(SERVICE1, SERVICE2));
+
+        RouteSnapshots.RouteSnapshot snapshot = routeSnapshots.getCurrent();
+        routeSnapshots.getCurrent();
+
+        assertThat(snapshot.getVersion()).isEqualTo(1);
+        assertThat(snapshot.getRoutes()).extracting(RouteSnapshots.RouteSnapshot.Entry::getId)
+            .containsExactly("service1", "service2");
+        verify(discoveryClient, times(1)).getInstances("service1");
+    }
+
+    @Test
+    public void shouldOnlyChangeVersionWhenRoutesChange() {
+        when(routeLocator.getRoutes()).thenReturn(Arrays.asList(SERVICE1, SERVICE2));
+        routeSnapshots.requestRefresh();
+        routeSnapshots.requestRefresh();
+
+        assertThat(routeSnapshots.getCurrent().getVersion()).isEqualTo(1);
+
+        when(discoveryClient.getInstances("service2")).thenReturn(Arrays.asList(instance("service2", 8082),
+            instance("service2", 8083)));
+        routeSnapshots.requestRefresh();
+
+        assertThat(routeSnapshots.getCurrent().getVersion()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldSendTheChangesSinceAVersion() {
+        when(routeLocator.getRoutes()).thenReturn(Arrays.asList(SERVICE1, SERVICE2));
+        routeSnapshots.refresh();
+        when(routeLocator.getRoutes()).thenReturn(Collections.singletonList(SERVICE2));
+        when(discoveryClient.getInstances("service2"))
+            .thenReturn(Collections.singletonList(instance("service2", 8083)));
+        routeSnapshots.refresh();
+
+        RouteSnapshots.RouteDelta delta = routeSnapshots.getChangesSince(1);
+        assertThat(delta.getVersion()).isEqualTo(2);
+        assertThat(delta.isFull()).isFalse();
+        assertThat(delta.getChanged()).extracting(RouteSnapshots.RouteSnapshot.Entry::getId)
+            .containsExactly("service2");
+        assertThat(delta.getRemoved()).containsExactly("service1");
+
+        assertThat(routeSnapshots.getChangesSince(2).getChanged()).isEmpty();
+        assertThat(routeSnapshots.getChangesSince(42).isFull()).isTrue();
+    }
+
+    private static ServiceInstance instance(String serviceId, int port) {
+        return new DefaultServiceInstance(serviceId + ":" + port, serviceId, "localhost", port, false);
+    }
+}
@@ -0,0 +1,153 @@
+package com.jhipster.blog.gateway.streaming;
+
+import com.jhipster.blog.config.ApplicationProperties;
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+import org.springframework.cloud.netflix.zuul.filters.post.SendResponseFilter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark of the {@link ResponsePassthroughFilter} against the {@link SendResponseFilter}, proxying a large payload
+ * from a local stub service to a client discarding it.
+ * <p>
+ * Not run with the unit tests: run it with {@code ./mvnw test -Dtest=ResponsePassthroughBenchmark}, setting the
+ * payload size with {@code -Dbenchmark.payload-megabytes} (512 by default). Outside of Undertow, the pass-through
+ * writes through a standard channel, so this measures the read side and buffer handling rather than the socket write.
+ */
+public class ResponsePassthroughBenchmark {
+
+    private static final int ITERATIONS = 5;
+
+    private final long payloadSize = Long.getLong("benchmark.payload-megabytes", 512) * 1024 * 1024;
+
+    private HttpServer stubService;
+
+    private CloseableHttpClient httpClient;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        byte[] chunk = new byte[64 * 1024];
+        stubService = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stubService.createContext("/payload", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "application/octet-stream");
+            exchange.sendResponseHeaders(200, payloadSize);
+            try (OutputStream body = exchange.getResponseBody()) {
+                for (long sent = 0; sent < payloadSize; sent += chunk.length) {
+                    body.write(chunk, 0, (int) Math.min(chunk.length, payloadSize - sent));
+                }
+            }
+        });
+        stubService.start();
+        httpClient = HttpClients.createDefault();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        httpClient.close();
+        stubService.stop(0);
+        RequestContext.getCurrentContext().unset();
+    }
+
+    @Test
+    public void compareResponseCopies() throws Exception {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        ZuulProperties zuulProperties = new ZuulProperties();
+        ResponsePassthroughFilter passthroughFilter = new ResponsePassthroughFilter(applicationProperties,
+            zuulProperties, new DirectBufferPool("benchmark", 64 * 1024, 4, new SimpleMeterRegistry()),
+            new SimpleMeterRegistry());
+        SendResponseFilter sendResponseFilter = new SendResponseFilter(zuulProperties);
+
+        // Warm up both copies once before measuring
+        proxy(sendResponseFilter);
+        proxy(passthroughFilter);
+        for (int i = 0; i < ITERATIONS; i++) {
+            report("SendResponseFilter", proxy(sendResponseFilter));
+            report("ResponsePassthroughFilter", proxy(passthroughFilter));
+        }
+    }
+
+    private long proxy(ZuulFilter filter) throws Exception {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        ctx.unset();
+        ctx = RequestContext.getCurrentContext();
+        DiscardingResponse response = new DiscardingResponse();
+        ctx.setRequest(new MockHttpServletRequest("GET", "/services/stub/payload"));
+        ctx.setResponse(response);
+        HttpGet get = new HttpGet("http://localhost:" + stubService.getAddress().getPort() + "/payload");
+        try (CloseableHttpResponse serviceResponse = httpClient.execute(get)) {
+            ctx.setResponseDataStream(serviceResponse.getEntity().getContent());
+            ctx.setOriginContentLength(serviceResponse.getEntity().getContentLength());
+            ctx.addZuulResponseHeader("Content-Type", "application/octet-stream");
+            long start = System.nanoTime();
+            filter.run();
+            long elapsed = System.nanoTime() - start;
+            assertThat(response.written).isEqualTo(payloadSize);
+            return elapsed;
+        }
+    }
+
+    private void report(String filter, long nanos) {
+        double seconds = nanos / (double) TimeUnit.SECONDS.toNanos(1);
+        System.out.printf("%-26s %5d MB in %6.3f s: %8.1f MB/s%n", filter, payloadSize / (1024 * 1024), seconds,
+            payloadSize / (1024 * 1024) / seconds);
+    }
+
+    /**
+     * A response counting and discarding the bytes written to it.
+     */
+    private static final class DiscardingResponse extends HttpServletResponseWrapper {
+
+        private long written;
+
+        private final ServletOutputStream outputStream = new ServletOutputStream() {
+
+            @Override
+            public void write(int b) {
+                written++;
+            }
+
+            @Override
+            public void write(byte[] buffer, int offset, int length) {
+                written += length;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+        };
+
+        private DiscardingResponse() {
+            super(new MockHttpServletResponse());
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return outputStream;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.jhipster.blog.gateway.streaming;
+
+import com.jhipster.blog.config.ApplicationProperties;
+import com.netflix.zuul.context.RequestContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests {@link ResponsePassthroughFilter} class.
+ */
+public class ResponsePassthroughFilterTest {
+
+    private MeterRegistry meterRegistry;
+
+    private ResponsePassthroughFilter filter;
+
+    private MockHttpServletRequest request;
+
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    public void setup() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getGateway().getResponsePassthrough().setMinSizeInBytes(1000);
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new ResponsePassthroughFilter(applicationProperties, new ZuulProperties(),
+            new DirectBufferPool("test", 256, 4, meterRegistry), meterRegistry);
+
+        request = new MockHttpServletRequest("GET", "/services/files/api/files/1");
+        response = new MockHttpServletResponse();
+        RequestContext ctx = RequestContext.getCurrentContext();
+        ctx.setRequest(request);
+        ctx.setResponse(response);
+        ctx.set(FilterConstants.PROXY_KEY, "files");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        RequestContext.getCurrentContext().unset();
+    }
+
+    @Test
+    public void shouldPassLargeResponsesThrough() {
+        byte[] body = body(5000);
+        RequestContext ctx = RequestContext.getCurrentContext();
+        ctx.setResponseDataStream(new ByteArrayInputStream(body));
+        ctx.setOriginContentLength((long) body.length);
+        ctx.addZuulResponseHeader("Content-Type", "text/csv");
+        assertThat(filter.shouldFilter()).isTrue();
+
+        filter.run();
+
+        assertThat(response.getContentAsByteArray()).isEqualTo(body);
+        assertThat(response.getHeader("Content-Type")).isEqualTo("text/csv");
+        assertThat(ctx.getResponseDataStream()).isNull();
+        assertThat(ctx.getZuulResponseHeaders()).isEmpty();
+        assertThat(meterRegistry.get(ResponsePassthroughFilter.BYTES_METRIC).tag("route", "files").counter().count())
+            .isEqualTo(body.length);
+        assertThat(meterRegistry.get(ResponsePassthroughFilter.THROUGHPUT_METRIC).summary().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldPassBinaryResponsesThroughWhateverTheirSize() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        ctx.setResponseDataStream(new ByteArrayInputStream(body(10)));
+        ctx.addZuulResponseHeader("Content-Type", "image/png");
+
+        assertThat(filter.shouldFilter()).isTrue();
+    }
+
+    @Test
+    public void shouldLeaveSmallTextResponsesToTheSendResponseFilter() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        ctx.setResponseDataStream(new ByteArrayInputStream(body(10)));
+        ctx.setOriginContentLength(10L);
+        ctx.addZuulResponseHeader("Content-Type", "application/json");
+
+        assertThat(filter.shouldFilter()).isFalse();
+    }
+
+    @Test
+    public void shouldOnlyPassGzippedResponsesToClientsAcceptingGzip() {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        ctx.setResponseDataStream(new ByteArrayInputStream(body(5000)));
+        ctx.setOriginContentLength(5000L);
+        ctx.setResponseGZipped(true);
+        assertThat(filter.shouldFilter()).isFalse();
+
+        request.addHeader("Accept-Encoding", "gzip, deflate");
+        assertThat(filter.shouldFilter()).isTrue();
+    }
+
+    private byte[] body(int length) {
+        byte[] body = new byte[length];
+        Arrays.fill(body, (byte) 'x');
+        return body;
+    }
+}
@@ -0,0 +1,122 @@
+package com.jhipster.blog.gateway.streaming;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests {@link StreamingRequestEntity} class.
+ */
+public class StreamingRequestEntityTest {
+
+    private BufferPool bufferPool;
+
+    @BeforeEach
+    public void setup() {
+        bufferPool = new BufferPool("test", 1024, 4, new SimpleMeterRegistry());
+    }
+
+    @Test
+    public void shouldStreamTheBodyThroughAPooledBuffer() throws IOException {
+        byte[] body = new byte[10_000];
+        Arrays.fill(body, (byte) 'x');
+        StreamingRequestEntity entity = new StreamingRequestEntity(new GeneratedInputStream(body.length),
+            body.length, Long.MAX_VALUE, bufferPool);
+        RecordingOutputStream output = new RecordingOutputStream();
+
+        entity.writeTo(output);
+
+        assertThat(output.toByteArray()).isEqualTo(body);
+        assertThat(output.largestWrite).isEqualTo(1024);
+        assertThat(entity.isRepeatable()).isFalse();
+        assertThat(entity.getContentLength()).isEqualTo(body.length);
+        // The buffer is given back to the pool once the body is sent
+        assertThat(bufferPool.acquire()).isSameAs(output.writtenBuffer);
+    }
+
+    @Test
+    public void shouldReuseBuffersAcrossBodies() throws IOException {
+        new StreamingRequestEntity(new GeneratedInputStream(10), 10, Long.MAX_VALUE, bufferPool)
+            .writeTo(new ByteArrayOutputStream());
+        byte[] buffer = bufferPool.acquire();
+        bufferPool.release(buffer);
+
+        new StreamingRequestEntity(new GeneratedInputStream(10), 10, Long.MAX_VALUE, bufferPool)
+            .writeTo(new ByteArrayOutputStream());
+
+        assertThat(bufferPool.acquire()).isSameAs(buffer);
+    }
+
+    @Test
+    public void shouldCutBodiesLargerThanTheMaximumSize() {
+        StreamingRequestEntity entity = new StreamingRequestEntity(new GeneratedInputStream(5000), -1, 2048,
+            bufferPool);
+        RecordingOutputStream output = new RecordingOutputStream();
+
+        assertThatThrownBy(() -> entity.writeTo(output)).isInstanceOf(IOException.class);
+        assertThat(output.size()).isEqualTo(2048);
+    }
+
+    @Test
+    public void shouldNotSendTheBodyTwice() throws IOException {
+        StreamingRequestEntity entity = new StreamingRequestEntity(new GeneratedInputStream(10), 10, Long.MAX_VALUE,
+            bufferPool);
+        entity.writeTo(new ByteArrayOutputStream());
+
+        assertThatThrownBy(() -> entity.writeTo(new ByteArrayOutputStream())).isInstanceOf(IOException.class);
+    }
+
+    /**
+     * A body of {@code x} bytes, generated as it is read.
+     */
+    private static final class GeneratedInputStream extends InputStream {
+
+        private long remaining;
+
+        private GeneratedInputStream(long length) {
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() {
+            if (remaining == 0) {
+                return -1;
+            }
+            remaining--;
+            return 'x';
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (remaining == 0) {
+                return -1;
+            }
+            int read = (int) Math.min(length, remaining);
+            Arrays.fill(buffer, offset, offset + read, (byte) 'x');
+            remaining -= read;
+            return read;
+        }
+    }
+
+    private static final class RecordingOutputStream extends ByteArrayOutputStream {
+
+        private int largestWrite;
+
+        private byte[] writtenBuffer;
+
+        @Override
+        public synchronized void write(byte[] buffer, int offset, int length) {
+            largestWrite = Math.max(largestWrite, length);
+            writtenBuffer = buffer;
+            super.write(buffer, offset, length);
+        }
+    }
+}
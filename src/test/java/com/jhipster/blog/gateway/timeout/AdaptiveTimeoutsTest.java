@@ -0,0 +1,88 @@
+package com.jhipster.blog.gateway.timeout;
+
+import com.jhipster.blog.config.ApplicationProperties;
+import com.netflix.client.config.CommonClientConfigKey;
+import com.netflix.client.config.DefaultClientConfigImpl;
+import com.netflix.config.ConfigurationManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.netflix.ribbon.SpringClientFactory;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests {@link AdaptiveTimeouts} class.
+ */
+public class AdaptiveTimeoutsTest {
+
+    private static final String SERVICE = "adaptive-timeouts-test";
+
+    private ApplicationProperties applicationProperties;
+
+    private DefaultClientConfigImpl clientConfig;
+
+    private MeterRegistry meterRegistry;
+
+    private AdaptiveTimeouts adaptiveTimeouts;
+
+    @BeforeEach
+    public void setup() {
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getGateway().getAdaptiveTimeouts().setMinTimeoutInMilliseconds(10);
+        clientConfig = new DefaultClientConfigImpl();
+        clientConfig.loadDefaultValues();
+        SpringClientFactory clientFactory = mock(SpringClientFactory.class);
+        when(clientFactory.getClientConfig(SERVICE)).thenReturn(clientConfig);
+        meterRegistry = new SimpleMeterRegistry();
+        adaptiveTimeouts = new AdaptiveTimeouts(applicationProperties, clientFactory, meterRegistry);
+    }
+
+    @Test
+    public void shouldSetTimeoutsFromThePercentileOfTheLatency() {
+        record(1000, 50);
+
+        adaptiveTimeouts.update();
+
+        long timeout = adaptiveTimeouts.getTimeout(SERVICE);
+        assertThat(timeout).isCloseTo(100, within(10L));
+        assertThat(clientConfig.get(CommonClientConfigKey.ReadTimeout)).isEqualTo((int) timeout);
+        assertThat(ConfigurationManager.getConfigInstance()
+            .getLong("hystrix.command." + SERVICE + ".execution.isolation.thread.timeoutInMilliseconds"))
+            .isGreaterThan(timeout);
+        assertThat(meterRegistry.get(AdaptiveTimeouts.TIMEOUT_METRIC).tag("route", SERVICE).gauge().value())
+            .isEqualTo(timeout);
+    }
+
+    @Test
+    public void shouldClampTimeouts() {
+        applicationProperties.getGateway().getAdaptiveTimeouts().setMaxTimeoutInMilliseconds(60);
+        record(1000, 50);
+
+        adaptiveTimeouts.update();
+
+        assertThat(adaptiveTimeouts.getTimeout(SERVICE)).isEqualTo(60);
+    }
+
+    @Test
+    public void shouldWaitForEnoughSamples() {
+        record(10, 50);
+
+        adaptiveTimeouts.update();
+
+        assertThat(adaptiveTimeouts.getTimeout(SERVICE)).isEqualTo(-1);
+        assertThat(clientConfig.get(CommonClientConfigKey.ReadTimeout)).isNotEqualTo(100);
+    }
+
+    private void record(int count, long latencyMillis) {
+        for (int i = 0; i < count; i++) {
+            adaptiveTimeouts.record(SERVICE, TimeUnit.MILLISECONDS.toNanos(latencyMillis));
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.jhipster.blog.gateway.zone;
+
+import com.jhipster.blog.config.ApplicationProperties;
+import com.jhipster.blog.gateway.loadbalancer.InstanceLatencyStats;
+import com.netflix.loadbalancer.Server;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.netflix.ribbon.SpringClientFactory;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests {@link ZoneAffinity} class.
+ */
+public class ZoneAffinityTest {
+
+    private static final Server LOCAL1 = server("local1", "zone-a");
+
+    private static final Server LOCAL2 = server("local2", "zone-a");
+
+    private static final Server REMOTE1 = server("remote1", "zone-b");
+
+    private static final Server REMOTE2 = server("remote2", "zone-b");
+
+    private static final Server REMOTE3 = server("remote3", "zone-c");
+
+    private static final List<Server> SERVERS = Arrays.asList(LOCAL1, REMOTE1, LOCAL2, REMOTE2, REMOTE3);
+
+    private ApplicationProperties applicationProperties;
+
+    private InstanceLatencyStats instanceLatencyStats;
+
+    private MeterRegistry meterRegistry;
+
+    private ZoneAffinity zoneAffinity;
+
+    @BeforeEach
+    public void setup() {
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getGateway().getZoneAffinity().setZone("zone-a");
+        instanceLatencyStats = new InstanceLatencyStats(applicationProperties);
+        meterRegistry = new SimpleMeterRegistry();
+        zoneAffinity = new ZoneAffinity(applicationProperties, instanceLatencyStats, mock(SpringClientFactory.class),
+            meterRegistry);
+    }
+
+    @Test
+    public void shouldKeepTheLocalZoneWhileItIsHealthy() {
+        assertThat(zoneAffinity.filter("service1", SERVERS)).containsExactly(LOCAL1, LOCAL2);
+
+        respond(LOCAL1, 99, false);
+        respond(LOCAL1, 1, true);
+        zoneAffinity.update();
+
+        assertThat(zoneAffinity.getSpilloverWeight("service1")).isZero();
+        assertThat(zoneAffinity.filter("service1", SERVERS)).containsExactly(LOCAL1, LOCAL2);
+    }
+
+    @Test
+    public void shouldSpillOverWhenTheLocalErrorRateIsTooHigh() {
+        zoneAffinity.filter("service1", SERVERS);
+        // An error rate of 7.5%, 1.5 times the maximum
+        respond(LOCAL1, 37, false);
+        respond(LOCAL1, 3, true);
+        zoneAffinity.update();
+
+        assertThat(zoneAffinity.getSpilloverWeight("service1")).isCloseTo(0.5, within(0.01));
+        assertThat(zoneAffinity.filter("service1", SERVERS)).containsExactly(LOCAL1, LOCAL2, REMOTE1, REMOTE3);
+
+        // Healthy again: the weight is halved at each update
+        respond(LOCAL1, 40, false);
+        zoneAffinity.update();
+        assertThat(zoneAffinity.getSpilloverWeight("service1")).isCloseTo(0.25, within(0.01));
+        assertThat(zoneAffinity.filter("service1", SERVERS)).containsExactly(LOCAL1, LOCAL2, REMOTE1);
+    }
+
+    @Test
+    public void shouldNotSpillOverWithTooFewRequests() {
+        zoneAffinity.filter("service1", SERVERS);
+        respond(LOCAL1, 10, true);
+        zoneAffinity.update();
+
+        assertThat(zoneAffinity.getSpilloverWeight("service1")).isZero();
+    }
+
+    @Test
+    public void shouldSpillOverEverythingWhenTheLocalZoneIsFailing() {
+        zoneAffinity.filter("service1", SERVERS);
+        for (int i = 0; i < 30; i++) {
+            zoneAffinity.record("service1", null, true);
+        }
+        zoneAffinity.update();
+
+        assertThat(zoneAffinity.getSpilloverWeight("service1")).isEqualTo(1);
+        assertThat(zoneAffinity.filter("service1", SERVERS)).containsExactlyInAnyOrder(REMOTE1, REMOTE2, REMOTE3);
+    }
+
+    @Test
+    public void shouldSpillOverWhenTheLocalLatencyIsTooHigh() {
+        zoneAffinity.filter("service1", SERVERS);
+        instanceLatencyStats.record("service1", LOCAL1.getHostPort(), TimeUnit.MILLISECONDS.toNanos(1000));
+        instanceLatencyStats.record("service1", LOCAL2.getHostPort(), TimeUnit.MILLISECONDS.toNanos(600));
+        instanceLatencyStats.record("service1", REMOTE1.getHostPort(), TimeUnit.MILLISECONDS.toNanos(20_000));
+        zoneAffinity.update();
+
+        // An average latency of 800 ms against a maximum of 500 ms
+        assertThat(zoneAffinity.getSpilloverWeight("service1")).isCloseTo(0.6, within(0.01));
+    }
+
+    @Test
+    public void shouldKeepAllServersWithoutLocalZone() {
+        applicationProperties.getGateway().getZoneAffinity().setZone("");
+        assertThat(zoneAffinity.filter("service1", SERVERS)).isEqualTo(SERVERS);
+
+        applicationProperties.getGateway().getZoneAffinity().setZone("zone-d");
+        assertThat(zoneAffinity.filter("service1", SERVERS)).isEqualTo(SERVERS);
+    }
+
+    @Test
+    public void shouldCountTheRequestsOfEachZone() {
+        zoneAffinity.filter("service1", SERVERS);
+        respond(LOCAL1, 3, false);
+        respond(REMOTE3, 2, true);
+
+        assertThat(meterRegistry.get(ZoneAffinity.REQUESTS_METRIC).tag("zone", "zone-a").tag("outcome", "success")
+            .counter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get(ZoneAffinity.REQUESTS_METRIC).tag("zone", "zone-c").tag("outcome", "error")
+            .counter().count()).isEqualTo(2);
+    }
+
+    private void respond(Server server, int times, boolean error) {
+        for (int i = 0; i < times; i++) {
+            zoneAffinity.record("service1", server.getHostPort(), error);
+        }
+    }
+
+    private static Server server(String host, String zone) {
+        Server server = new Server(host, 8081);
+        server.setZone(zone);
+        return server;
+    }
+}